@@ -1,72 +1,52 @@
 package com.secrethitler.ai;
 
-import static org.junit.Assert.fail;
+import static org.junit.Assert.assertEquals;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.io.PipedInputStream;
-import java.io.PipedOutputStream;
-import java.util.logging.Handler;
-import java.util.logging.Level;
-import java.util.logging.Logger;
-import java.util.logging.SimpleFormatter;
-import java.util.logging.StreamHandler;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Properties;
 
+import org.junit.After;
+import org.junit.Before;
 import org.junit.Test;
 
-import com.secrethitler.ai.websockets.GameSetupWebsocketClientEndpoint;
+import com.secrethitler.ai.mockserver.MockGameServer;
 
 public class SecretHitlerAiIntTest {
-	private static final Logger LOGGER = Logger.getLogger(SecretHitlerAiIntTest.class.getName());
-	private static final int TIMEOUT_SECONDS = 120;
-	
-	@Test
+	private static final String TEST_PROPERTIES_FILE_NAME = "test-mockserver.properties";
+	private static final String URL_PROPERTY = "secrethitler.url";
+	private static final long TIMEOUT_MILLIS = 120000;
+	private static final int ROUNDS = 3;
+
+	private MockGameServer server;
+
+	@Before
+	public void setUp() throws IOException {
+		Properties prop = new Properties();
+		prop.load(Thread.currentThread().getContextClassLoader().getResourceAsStream(TEST_PROPERTIES_FILE_NAME));
+		server = MockGameServer.builder()
+				.withProperties(prop)
+				.build()
+				.start();
+		System.setProperty(URL_PROPERTY, server.getBaseUrlString());
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		System.clearProperty(URL_PROPERTY);
+		server.close();
+	}
+
+	@Test(timeout = TIMEOUT_MILLIS)
 	public void testMain() throws Exception {
-		final String[] args = {"newGame", "1", "2", "1", "2", "1"};
-		PipedOutputStream userWriter = new PipedOutputStream();
-		PipedInputStream userIn = new PipedInputStream(userWriter);
-		System.setIn(userIn);
-		PipedInputStream gameSetupReader = new PipedInputStream();
-		PipedOutputStream systemOut = new PipedOutputStream(gameSetupReader);
-		Handler handler = new StreamHandler(systemOut, new SimpleFormatter());
-		handler.setLevel(Level.ALL);
-		Logger logger = Logger.getLogger(GameSetupWebsocketClientEndpoint.class.getName());
-		logger.setLevel(Level.ALL);
-		logger.setUseParentHandlers(false);
-		logger.addHandler(handler);
-		
-		Thread t = new Thread(() -> {
-			try {
-				SecretHitlerAi.main(args);
-			} catch (Exception e) {
-				throw new IllegalStateException(e);
-			}
-		});
-		t.start();
-		try (BufferedReader systemReader = new BufferedReader(new InputStreamReader(gameSetupReader))) {
-			boolean gameStarted = false;
-			while (!gameStarted) {
-				final String out = systemReader.readLine();
-				LOGGER.info(out);
-				if ("INFO: Robot 5 joined the game session".equals(out)) {
-					Thread.sleep(500);
-					userWriter.write("\r\n".getBytes());
-					gameStarted = true;
-				}
-			}
-		}
-		
-		int secondsPassed = 0;
-		while (!SecretHitlerAi.isGameOver() && secondsPassed < TIMEOUT_SECONDS) {
-			Thread.sleep(1000);
-			secondsPassed++;
-		}
-		
-		SecretHitlerAi.stopGame();
-		t.join();
-		
-		if (secondsPassed >= TIMEOUT_SECONDS) {
-			fail(String.format("Game timed out after %d seconds", secondsPassed));
-		}
+		SecretHitlerAi ai = SecretHitlerAi.builder()
+				.withPropertiesFileName(TEST_PROPERTIES_FILE_NAME)
+				.withAiDifficulties(Arrays.asList(1, 2, 1, 2, 1))
+				.withHostPolicy(HostPolicy.builder().withMode(HostPolicy.Mode.AUTO).withRounds(ROUNDS).build())
+				.build();
+
+		ai.awaitStopped();
+
+		assertEquals(ROUNDS, server.getGamesFinished());
 	}
 }
@@ -0,0 +1,70 @@
+package com.secrethitler.ai;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.secrethitler.ai.dtos.GameplayAction;
+import com.secrethitler.ai.dtos.ParticipantGameNotification;
+import com.secrethitler.ai.enums.Action;
+import com.secrethitler.ai.enums.GamePhase;
+import com.secrethitler.ai.processors.GameDataFixtures;
+
+/**
+ * Compares the shared readers and compact action writer of {@link SecretHitlerAi} with the plain
+ * ObjectMapper and pretty printing writer they replaced, on a recorded gameplay notification.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonBindingBenchmark {
+	private static final ObjectMapper PLAIN_MAPPER = new ObjectMapper();
+	private static final ObjectWriter PRETTY_WRITER = PLAIN_MAPPER.writer().withDefaultPrettyPrinter();
+
+	@Param({"5", "10"})
+	private int players;
+
+	private String notification;
+	private final GameplayAction action = new GameplayAction(Action.CHOOSE_RUNNING_MATE, new String[] {"3"});
+
+	@Setup
+	public void setUp() throws IOException {
+		notification = SecretHitlerAi.getObjectWriter().writeValueAsString(GameDataFixtures.forPhase(players, GamePhase.ELECTION).getTarget());
+	}
+
+	@Benchmark
+	public ParticipantGameNotification readWithPlainMapper() throws IOException {
+		return PLAIN_MAPPER.readValue(notification, ParticipantGameNotification.class);
+	}
+
+	@Benchmark
+	public ParticipantGameNotification readWithNotificationReader() throws IOException {
+		return SecretHitlerAi.getNotificationReader().readValue(notification);
+	}
+
+	@Benchmark
+	public String writeWithPrettyWriter() throws IOException {
+		return PRETTY_WRITER.writeValueAsString(action);
+	}
+
+	@Benchmark
+	public String writeWithGameplayActionWriter() throws IOException {
+		return SecretHitlerAi.getGameplayActionWriter().writeValueAsString(action);
+	}
+}
@@ -0,0 +1,88 @@
+package com.secrethitler.ai.processors;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.logging.Logger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.collect.ImmutableMap;
+import com.secrethitler.ai.dtos.ParticipantGameNotification;
+import com.secrethitler.ai.enums.Action;
+
+/**
+ * Measures each deducer of {@link AbstractDeductionGameplayProcessor} in isolation on a
+ * recorded notification announcing the action it reacts to. Like
+ * {@link GameplayProcessorBenchmark}, the processor is rebuilt from the recorded game
+ * history before every iteration.
+ * <p>
+ * CHOOSE_NEXT_PRESIDENTIAL_CANDIDATE only occurs with 7 or more players, so the default
+ * table sizes start at 7, the smallest table at which every deducer has something to react to.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DeducerBenchmark {
+	private static final Logger PROCESSORS_LOGGER = Logger.getLogger(GameplayProcessor.class.getPackage().getName());
+	private static final Map<Action, BiConsumer<AbstractDeductionGameplayProcessor, ParticipantGameNotification>> ACTION_TO_DEDUCER_MAP = ImmutableMap.<Action, BiConsumer<AbstractDeductionGameplayProcessor, ParticipantGameNotification>>builder()
+			.put(Action.SHUSH, AbstractDeductionGameplayProcessor::governmentElectedDeducer)
+			.put(Action.DENIED, AbstractDeductionGameplayProcessor::governmentDeniedDeducer)
+			.put(Action.ANARCHY, AbstractDeductionGameplayProcessor::anarchyDeducer)
+			.put(Action.FASCIST_POLICY, AbstractDeductionGameplayProcessor::fascistPolicyDeducer)
+			.put(Action.LIBERAL_POLICY, AbstractDeductionGameplayProcessor::liberalPolicyDeducer)
+			.put(Action.KILL_PLAYER, AbstractDeductionGameplayProcessor::playerKilledDeducer)
+			.put(Action.CHOOSE_NEXT_PRESIDENTIAL_CANDIDATE, AbstractDeductionGameplayProcessor::specialElectionChosenDeducer)
+			.put(Action.CHANCELLOR_VETO, AbstractDeductionGameplayProcessor::chancellorVetoDeducer)
+			.put(Action.PRESIDENT_VETO_YES, AbstractDeductionGameplayProcessor::presidentVetoDeducer)
+			.build();
+
+	@Param({"2", "3", "4", "5"})
+	private int level;
+
+	@Param({"7", "10"})
+	private int players;
+
+	@Param({"SHUSH", "DENIED", "ANARCHY", "FASCIST_POLICY", "LIBERAL_POLICY", "KILL_PLAYER",
+			"CHOOSE_NEXT_PRESIDENTIAL_CANDIDATE", "CHANCELLOR_VETO", "PRESIDENT_VETO_YES"})
+	private Action action;
+
+	private GameDataFixtures.Fixture fixture;
+	private BiConsumer<AbstractDeductionGameplayProcessor, ParticipantGameNotification> deducer;
+	private AbstractDeductionGameplayProcessor processor;
+	private ParticipantGameNotification notification;
+
+	@Setup(Level.Trial)
+	public void setUpTrial() {
+		PROCESSORS_LOGGER.setLevel(java.util.logging.Level.OFF);
+		fixture = GameDataFixtures.forAction(players, action);
+		deducer = ACTION_TO_DEDUCER_MAP.get(action);
+	}
+
+	@Setup(Level.Iteration)
+	public void setUpIteration() throws ReflectiveOperationException {
+		processor = (AbstractDeductionGameplayProcessor) new GameplayProcessorFactoryImpl().getGameplayProcessor(level, fixture.getUsername());
+		fixture.getHistory().forEach(processor::getActionToTake);
+		notification = fixture.getTarget();
+	}
+
+	@Benchmark
+	public AbstractDeductionGameplayProcessor deduce() {
+		deducer.accept(processor, notification);
+		return processor;
+	}
+}
@@ -0,0 +1,154 @@
+package com.secrethitler.ai.processors;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.function.BiPredicate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.secrethitler.ai.SecretHitlerAi;
+import com.secrethitler.ai.dtos.GameData;
+import com.secrethitler.ai.dtos.GameplayAction;
+import com.secrethitler.ai.dtos.ParticipantGameNotification;
+import com.secrethitler.ai.dtos.PlayerData;
+import com.secrethitler.ai.enums.Action;
+import com.secrethitler.ai.enums.GamePhase;
+import com.secrethitler.ai.simulation.LocalGameEngine;
+
+/**
+ * Records notification streams from seeded {@link LocalGameEngine} games so benchmarks run
+ * against realistic {@link GameData}. A fixture holds every notification one player received
+ * up to, and including, the first one matching the requested criteria.
+ */
+public class GameDataFixtures {
+	private static final int MAX_SEEDS = 1000;
+	private static final int RECORDING_LEVEL = 3;
+
+	public static class Fixture {
+		private final String username;
+		private final List<String> history;
+		private final String target;
+
+		private Fixture(final String username, final List<String> history, final String target) {
+			this.username = username;
+			this.history = history;
+			this.target = target;
+		}
+
+		public String getUsername() {
+			return username;
+		}
+
+		/**
+		 * @return fresh copies of the notifications received before the target notification
+		 */
+		public List<ParticipantGameNotification> getHistory() {
+			List<ParticipantGameNotification> notifications = new ArrayList<>(history.size());
+			for (String json : history) {
+				notifications.add(read(json));
+			}
+			return notifications;
+		}
+
+		/**
+		 * @return a fresh copy of the target notification
+		 */
+		public ParticipantGameNotification getTarget() {
+			return read(target);
+		}
+	}
+
+	private static class RecordingGameplayProcessor implements GameplayProcessor {
+		private final GameplayProcessor delegate;
+		private final List<String> notifications = new ArrayList<>();
+
+		private RecordingGameplayProcessor(final GameplayProcessor delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public Optional<GameplayAction> getActionToTake(final ParticipantGameNotification notification) {
+			notifications.add(write(notification));
+			return delegate.getActionToTake(notification);
+		}
+	}
+
+	/**
+	 * Finds a notification in which the recipient has to act during the given phase.
+	 */
+	public static Fixture forPhase(final int players, final GamePhase phase) {
+		return find(players, (notification, myPlayer) -> phase == notification.getGameData().getPhase() && isActor(notification.getGameData(), myPlayer));
+	}
+
+	/**
+	 * Finds a notification announcing the given action, as seen by a player who did not take it.
+	 */
+	public static Fixture forAction(final int players, final Action action) {
+		return find(players, (notification, myPlayer) -> action == notification.getAction().getAction() &&
+				(notification.getAction().getArgs().length == 0 || !myPlayer.getUsername().equals(notification.getAction().getArgs()[0])));
+	}
+
+	private static boolean isActor(final GameData gameData, final PlayerData myPlayer) {
+		switch (gameData.getPhase()) {
+			case ELECTION:
+				return myPlayer.isAlive() && !myPlayer.isVoteReady();
+			case CHANCELLOR_CHOICE:
+				return myPlayer.isChancellor();
+			case GAME_OVER:
+				return true;
+			default:
+				return myPlayer.isPresident();
+		}
+	}
+
+	private static Fixture find(final int players, final BiPredicate<ParticipantGameNotification, PlayerData> criteria) {
+		GameplayProcessorFactory factory = new GameplayProcessorFactoryImpl();
+		for (int seed = 0; seed < MAX_SEEDS; seed++) {
+			List<RecordingGameplayProcessor> recorders = new ArrayList<>(players);
+			LocalGameEngine.Builder builder = LocalGameEngine.builder()
+					.withRandom(new Random(seed));
+			try {
+				for (int seat = 1; seat <= players; seat++) {
+					final String username = String.format("Robot %d", seat);
+					RecordingGameplayProcessor recorder = new RecordingGameplayProcessor(factory.getGameplayProcessor(RECORDING_LEVEL, username));
+					recorders.add(recorder);
+					builder.withPlayer(username, recorder);
+				}
+				builder.build().play();
+			} catch (Exception e) {
+				continue;
+			}
+			for (RecordingGameplayProcessor recorder : recorders) {
+				for (int i = 0; i < recorder.notifications.size(); i++) {
+					ParticipantGameNotification notification = read(recorder.notifications.get(i));
+					PlayerData myPlayer = notification.getGameData().getMyPlayer();
+					if (criteria.test(notification, myPlayer)) {
+						return new Fixture(myPlayer.getUsername(), new ArrayList<>(recorder.notifications.subList(0, i)), recorder.notifications.get(i));
+					}
+				}
+			}
+		}
+		throw new IllegalStateException(String.format("No fixture found for a %d player game", players));
+	}
+
+	private static String write(final ParticipantGameNotification notification) {
+		try {
+			return SecretHitlerAi.getObjectMapper().writeValueAsString(notification);
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static ParticipantGameNotification read(final String json) {
+		try {
+			return SecretHitlerAi.getObjectMapper().readValue(json, ParticipantGameNotification.class);
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private GameDataFixtures() {
+		super();
+	}
+}
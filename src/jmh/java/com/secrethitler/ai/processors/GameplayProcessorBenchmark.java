@@ -0,0 +1,79 @@
+package com.secrethitler.ai.processors;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.secrethitler.ai.dtos.GameplayAction;
+import com.secrethitler.ai.dtos.ParticipantGameNotification;
+import com.secrethitler.ai.enums.GamePhase;
+import com.secrethitler.ai.enums.Policy;
+
+/**
+ * Measures {@link GameplayProcessor#getActionToTake(ParticipantGameNotification)} for every
+ * processor level on a notification in which the player has to act during the given phase.
+ * The processor is rebuilt from the recorded game history before every iteration, so its
+ * deductions only accumulate for the length of one iteration.
+ * <p>
+ * The phases here occur at every table size. EXAMINE only occurs with 5 or 6 players and
+ * INVESTIGATE and SPECIAL_ELECTION only with 7 or more, so those are measured by
+ * {@link PresidentialPowerBenchmark} at the table sizes they occur at.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameplayProcessorBenchmark {
+	private static final Logger PROCESSORS_LOGGER = Logger.getLogger(GameplayProcessor.class.getPackage().getName());
+
+	@Param({"1", "2", "3", "4", "5"})
+	private int level;
+
+	@Param({"5", "6", "7", "8", "9", "10"})
+	private int players;
+
+	@Param({"PICKING_RUNNING_MATE", "ELECTION", "PRESIDENT_CHOICE", "CHANCELLOR_CHOICE", "KILL", "VETO"})
+	private GamePhase phase;
+
+	private GameDataFixtures.Fixture fixture;
+	private GameplayProcessor processor;
+	private ParticipantGameNotification notification;
+	private List<Policy> policiesToView;
+
+	@Setup(Level.Trial)
+	public void setUpTrial() {
+		PROCESSORS_LOGGER.setLevel(java.util.logging.Level.OFF);
+		fixture = GameDataFixtures.forPhase(players, phase);
+	}
+
+	@Setup(Level.Iteration)
+	public void setUpIteration() throws ReflectiveOperationException {
+		processor = new GameplayProcessorFactoryImpl().getGameplayProcessor(level, fixture.getUsername());
+		fixture.getHistory().forEach(processor::getActionToTake);
+		notification = fixture.getTarget();
+		policiesToView = new ArrayList<>(notification.getGameData().getPoliciesToView());
+	}
+
+	@Benchmark
+	public Optional<GameplayAction> getActionToTake() {
+		notification.getGameData().setPoliciesToView(new ArrayList<>(policiesToView));
+		return processor.getActionToTake(notification);
+	}
+}
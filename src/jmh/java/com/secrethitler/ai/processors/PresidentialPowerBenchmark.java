@@ -0,0 +1,76 @@
+package com.secrethitler.ai.processors;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.secrethitler.ai.dtos.GameplayAction;
+import com.secrethitler.ai.dtos.ParticipantGameNotification;
+import com.secrethitler.ai.enums.GamePhase;
+import com.secrethitler.ai.enums.Policy;
+
+/**
+ * Measures {@link GameplayProcessor#getActionToTake(ParticipantGameNotification)} for the
+ * presidential powers that only occur at some table sizes, the way
+ * {@link GameplayProcessorBenchmark} does for the phases of every table. Each power is paired
+ * with the table sizes it occurs at, as {@code PHASE:players}, so no result is labelled with a
+ * table size it was not measured at.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PresidentialPowerBenchmark {
+	private static final Logger PROCESSORS_LOGGER = Logger.getLogger(GameplayProcessor.class.getPackage().getName());
+
+	@Param({"1", "2", "3", "4", "5"})
+	private int level;
+
+	@Param({"EXAMINE:5", "EXAMINE:6",
+			"INVESTIGATE:7", "INVESTIGATE:8", "INVESTIGATE:9", "INVESTIGATE:10",
+			"SPECIAL_ELECTION:7", "SPECIAL_ELECTION:8", "SPECIAL_ELECTION:9", "SPECIAL_ELECTION:10"})
+	private String power;
+
+	private GameDataFixtures.Fixture fixture;
+	private GameplayProcessor processor;
+	private ParticipantGameNotification notification;
+	private List<Policy> policiesToView;
+
+	@Setup(Level.Trial)
+	public void setUpTrial() {
+		PROCESSORS_LOGGER.setLevel(java.util.logging.Level.OFF);
+		final String[] phaseAndPlayers = power.split(":");
+		fixture = GameDataFixtures.forPhase(Integer.parseInt(phaseAndPlayers[1]), GamePhase.valueOf(phaseAndPlayers[0]));
+	}
+
+	@Setup(Level.Iteration)
+	public void setUpIteration() throws ReflectiveOperationException {
+		processor = new GameplayProcessorFactoryImpl().getGameplayProcessor(level, fixture.getUsername());
+		fixture.getHistory().forEach(processor::getActionToTake);
+		notification = fixture.getTarget();
+		policiesToView = new ArrayList<>(notification.getGameData().getPoliciesToView());
+	}
+
+	@Benchmark
+	public Optional<GameplayAction> getActionToTake() {
+		notification.getGameData().setPoliciesToView(new ArrayList<>(policiesToView));
+		return processor.getActionToTake(notification);
+	}
+}
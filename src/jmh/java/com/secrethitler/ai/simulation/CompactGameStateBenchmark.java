@@ -0,0 +1,58 @@
+package com.secrethitler.ai.simulation;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures a random playout of a {@link CompactGameState} from the deal to the end of the
+ * game, copying the dealt state into a reused instance the way a search restores its root.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompactGameStateBenchmark {
+	@Param({"5", "7", "10"})
+	private int players;
+
+	private final Random random = new Random(1);
+	private final int[] moves = new int[CompactGameState.MAX_MOVES];
+	private CompactGameState root;
+	private CompactGameState state;
+
+	@Setup
+	public void setUp() {
+		final int fascists = LocalGame.getNumberOfFascistsFromNumberOfPlayers(players);
+		root = new CompactGameState(players, (1 << fascists) - 1, 0, random);
+		state = root.copy();
+	}
+
+	@Benchmark
+	public int randomPlayout() {
+		state.copyFrom(root);
+		while (!state.isOver()) {
+			for (int seat = 0; seat < players; seat++) {
+				final int count = state.getLegalMoves(seat, moves);
+				if (count > 0) {
+					state.apply(seat, moves[random.nextInt(count)]);
+					break;
+				}
+			}
+		}
+		return state.getDepth();
+	}
+}
@@ -0,0 +1,189 @@
+package com.secrethitler.ai;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+import com.secrethitler.ai.dtos.FleetGameSpec;
+import com.secrethitler.ai.enums.GameState;
+import com.secrethitler.ai.utils.AccessTokenCache;
+import com.secrethitler.ai.utils.UrlWrapper;
+import com.secrethitler.ai.websockets.GameSetupWebsocketClientEndpoint;
+
+/**
+ * Runs many tables of robots from one process. Every {@link FleetGameSpec} describes a game
+ * to join, or {@link SecretHitlerAi#NEW_GAME_COMMAND} to create, the level of each seat and
+ * how many such tables to launch. Each table is its own {@link SecretHitlerAi} with its own
+ * lifecycle, seated with robots numbered after those of the previous tables. All tables
+ * share one {@link AccessTokenCache}.
+ */
+public class Fleet {
+	private static final Logger LOGGER = Logger.getLogger(Fleet.class.getName());
+	protected static final int DEFAULT_LAUNCH_PARALLELISM = 8;
+	
+	public static class Builder {
+		private List<FleetGameSpec> gameSpecs = new ArrayList<>();
+		private String propertiesFileName = SecretHitlerAi.PROPERTIES_FILE_NAME;
+		private Function<String, UrlWrapper> getUrlFunction = SecretHitlerAi.GET_URL_FUNCTION;
+		private Function<GameSetupWebsocketClientEndpoint.Builder, GameSetupWebsocketClientEndpoint> gameSetupClientBuildFunction = SecretHitlerAi.GAME_SETUP_CLIENT_BUILD_FUNCTION;
+		private int launchParallelism = DEFAULT_LAUNCH_PARALLELISM;
+		private AccessTokenCache accessTokenCache;
+		
+		protected Builder() {
+			super();
+		}
+		
+		public Builder withGameSpecs(final List<FleetGameSpec> gameSpecs) {
+			this.gameSpecs = new ArrayList<>(gameSpecs);
+			return this;
+		}
+		
+		public Builder withPropertiesFileName(final String propertiesFileName) {
+			this.propertiesFileName = propertiesFileName;
+			return this;
+		}
+		
+		public Builder withGetUrlFunction(final Function<String, UrlWrapper> getUrlFunction) {
+			this.getUrlFunction = getUrlFunction;
+			return this;
+		}
+		
+		public Builder withGameSetupClientBuildFunction(final Function<GameSetupWebsocketClientEndpoint.Builder, GameSetupWebsocketClientEndpoint> gameSetupClientBuildFunction) {
+			this.gameSetupClientBuildFunction = gameSetupClientBuildFunction;
+			return this;
+		}
+		
+		public Builder withLaunchParallelism(final int launchParallelism) {
+			this.launchParallelism = launchParallelism;
+			return this;
+		}
+		
+		public Builder withAccessTokenCache(final AccessTokenCache accessTokenCache) {
+			this.accessTokenCache = accessTokenCache;
+			return this;
+		}
+		
+		public Fleet build() {
+			return new Fleet(this);
+		}
+	}
+	
+	public static Builder builder() {
+		return new Builder();
+	}
+	
+	private final List<FleetGameSpec> gameSpecs;
+	private final String propertiesFileName;
+	private final Function<String, UrlWrapper> getUrlFunction;
+	private final Function<GameSetupWebsocketClientEndpoint.Builder, GameSetupWebsocketClientEndpoint> gameSetupClientBuildFunction;
+	private final int launchParallelism;
+	private final AccessTokenCache accessTokenCache;
+	private final List<SecretHitlerAi> tables = new CopyOnWriteArrayList<>();
+	private final AtomicInteger failedTables = new AtomicInteger();
+	private volatile boolean shutdown = false;
+	
+	private Fleet(final Builder builder) {
+		for (FleetGameSpec gameSpec : builder.gameSpecs) {
+			if (gameSpec.getGameId() == null || gameSpec.getLevels() == null || gameSpec.getLevels().isEmpty()) {
+				throw new IllegalArgumentException("Every fleet game needs a game id and at least one seat level");
+			}
+		}
+		this.gameSpecs = builder.gameSpecs;
+		this.propertiesFileName = builder.propertiesFileName;
+		this.getUrlFunction = builder.getUrlFunction;
+		this.gameSetupClientBuildFunction = builder.gameSetupClientBuildFunction;
+		this.launchParallelism = builder.launchParallelism;
+		this.accessTokenCache = builder.accessTokenCache != null ? builder.accessTokenCache : AccessTokenCache.builder().build();
+	}
+	
+	/**
+	 * Launches every table of the fleet and blocks until they have all logged in and connected.
+	 * A table that fails to launch is logged and counted, and does not stop the others.
+	 */
+	public void start() throws InterruptedException {
+		List<Callable<Void>> launches = new ArrayList<>();
+		int firstRobot = 1;
+		for (FleetGameSpec gameSpec : gameSpecs) {
+			for (int copy = 0; copy < gameSpec.getCount(); copy++) {
+				final int tableFirstRobot = firstRobot;
+				launches.add(() -> {
+					launchTable(gameSpec, tableFirstRobot);
+					return null;
+				});
+				firstRobot += gameSpec.getLevels().size();
+			}
+		}
+		LOGGER.info(() -> String.format("Launching %d tables", launches.size()));
+		ExecutorService launcher = Executors.newFixedThreadPool(launchParallelism);
+		try {
+			launcher.invokeAll(launches);
+		} finally {
+			launcher.shutdown();
+		}
+	}
+	
+	private void launchTable(final FleetGameSpec gameSpec, final int firstRobot) {
+		if (shutdown) {
+			return;
+		}
+		try {
+			SecretHitlerAi table = SecretHitlerAi.builder()
+					.withPropertiesFileName(propertiesFileName)
+					.withGetUrlFunction(getUrlFunction)
+					.withGameSetupClientBuildFunction(gameSetupClientBuildFunction)
+					.withGameId(gameSpec.getGameId())
+					.withAiDifficulties(gameSpec.getLevels())
+					.withFirstRobot(firstRobot)
+					.withAccessTokenCache(accessTokenCache)
+					.build();
+			tables.add(table);
+			if (shutdown) {
+				table.stopGame();
+			}
+		} catch (Exception e) {
+			LOGGER.log(Level.SEVERE, String.format("Failed to launch the table starting with Robot %d", firstRobot), e);
+			failedTables.incrementAndGet();
+		}
+	}
+	
+	public List<SecretHitlerAi> getTables() {
+		return tables;
+	}
+	
+	public int getFailedTables() {
+		return failedTables.get();
+	}
+	
+	public Map<GameState, Long> getTableStates() {
+		return tables.stream()
+				.collect(Collectors.groupingBy(SecretHitlerAi::getState, Collectors.counting()));
+	}
+	
+	/**
+	 * Stops every table of the fleet, closing all of their websockets.
+	 */
+	public void shutdown() {
+		shutdown = true;
+		LOGGER.info(() -> String.format("Shutting down the fleet with tables in states %s", getTableStates()));
+		tables.forEach(SecretHitlerAi::stopGame);
+		accessTokenCache.close();
+	}
+	
+	/**
+	 * Blocks until every launched table has stopped.
+	 */
+	public void awaitStopped() throws InterruptedException {
+		for (SecretHitlerAi table : tables) {
+			table.awaitStopped();
+		}
+	}
+}
@@ -0,0 +1,153 @@
+package com.secrethitler.ai;
+
+import java.util.Locale;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.secrethitler.ai.dtos.GameRequest;
+
+/**
+ * Decides when the host robot of a table starts a game. In {@link Mode#PROMPT} mode the host
+ * waits for enter to be pressed, as an interactive session expects. In {@link Mode#AUTO} mode
+ * it starts as soon as the game is ready and enough participants have joined, and chains a new
+ * game after every game over until the configured number of rounds has been played, so
+ * unattended tables run without any thread waiting on the console.
+ * <p>
+ * A policy counts the rounds of one table, so every table needs its own.
+ */
+public class HostPolicy {
+	private static final Logger LOGGER = Logger.getLogger(HostPolicy.class.getName());
+	protected static final String MODE = "secrethitler.ai.host.mode";
+	protected static final String MIN_PARTICIPANTS = "secrethitler.ai.host.minparticipants";
+	protected static final String ROUNDS = "secrethitler.ai.host.rounds";
+	private static final ExecutorService CONSOLE = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
+			.setNameFormat("host-console-%d")
+			.setDaemon(true)
+			.build());
+
+	public enum Mode {
+		PROMPT,
+		AUTO
+	}
+
+	public static class Builder {
+		private Mode mode = Mode.PROMPT;
+		private int minParticipants = 0;
+		private int rounds = 0;
+
+		protected Builder() {
+			super();
+		}
+
+		public Builder withMode(final Mode mode) {
+			this.mode = mode;
+			return this;
+		}
+
+		/**
+		 * @param minParticipants how many participants an automatic host waits for, or 0 for every robot of the table
+		 */
+		public Builder withMinParticipants(final int minParticipants) {
+			this.minParticipants = minParticipants;
+			return this;
+		}
+
+		/**
+		 * @param rounds how many games an automatic host plays before stopping the table, or 0 to keep playing
+		 */
+		public Builder withRounds(final int rounds) {
+			this.rounds = rounds;
+			return this;
+		}
+
+		public HostPolicy build() {
+			return new HostPolicy(this);
+		}
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	public static HostPolicy fromProperties(final Properties prop) {
+		final String mode = prop.getProperty(MODE);
+		return builder()
+				.withMode(mode == null || mode.isEmpty() ? Mode.PROMPT : Mode.valueOf(mode.toUpperCase(Locale.ROOT)))
+				.withMinParticipants(getIntProperty(prop, MIN_PARTICIPANTS))
+				.withRounds(getIntProperty(prop, ROUNDS))
+				.build();
+	}
+
+	private static int getIntProperty(final Properties prop, final String key) {
+		final String value = prop.getProperty(key);
+		return value == null || value.isEmpty() ? 0 : Integer.parseInt(value);
+	}
+
+	private final Mode mode;
+	private final int minParticipants;
+	private final int rounds;
+	private final AtomicInteger roundsPlayed = new AtomicInteger();
+
+	private HostPolicy(final Builder builder) {
+		if (builder.mode == null || builder.minParticipants < 0 || builder.rounds < 0) {
+			throw new IllegalArgumentException("A host policy needs a mode and can not wait for a negative number of participants or rounds");
+		}
+		this.mode = builder.mode;
+		this.minParticipants = builder.minParticipants;
+		this.rounds = builder.rounds;
+	}
+
+	public Mode getMode() {
+		return mode;
+	}
+
+	public boolean isAuto() {
+		return Mode.AUTO == mode;
+	}
+
+	public int getRoundsPlayed() {
+		return roundsPlayed.get();
+	}
+
+	/**
+	 * @param tableSize the number of robots at the table, waited for when no minimum number of participants is set
+	 * @return whether an automatic host should start the game it is setting up
+	 */
+	public boolean shouldStart(final GameRequest gameRequest, final int tableSize) {
+		final int threshold = minParticipants > 0 ? minParticipants : tableSize;
+		return isAuto() && gameRequest.isReadyToStart() && gameRequest.getParticipants() != null
+				&& gameRequest.getParticipants().size() >= threshold;
+	}
+
+	/**
+	 * Counts a finished game.
+	 *
+	 * @return whether an automatic host should start another game after it
+	 */
+	public boolean finishRound() {
+		final int played = roundsPlayed.incrementAndGet();
+		return isAuto() && (rounds == 0 || played < rounds);
+	}
+
+	/**
+	 * Runs the action once enter has been pressed. Prompts are answered one at a time by a single
+	 * console thread, however many hosts are waiting.
+	 */
+	public void prompt(final String message, final Runnable action) {
+		CONSOLE.execute(() -> {
+			LOGGER.info(message);
+			SecretHitlerAi.getScanner().nextLine();
+			action.run();
+		});
+	}
+
+	@Override
+	public String toString() {
+		return isAuto() ? String.format("%s host waiting for %s participants for %s rounds", mode, minParticipants > 0 ? minParticipants : "all",
+				rounds > 0 ? rounds : "unlimited") : String.format("%s host", mode);
+	}
+}
@@ -0,0 +1,224 @@
+package com.secrethitler.ai;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.secrethitler.ai.metrics.BotMetrics;
+import com.secrethitler.ai.utils.AccessTokenCache;
+import com.secrethitler.ai.utils.UrlWrapper;
+import com.secrethitler.ai.websockets.GameSetupWebsocketClientEndpoint;
+
+/**
+ * Drives a server with robots to measure how it holds up. New games are created one table at a
+ * time, spread evenly over the ramp, until the target number of tables is reached, and are then
+ * kept running for the duration. Every table hosts its own games with an automatic
+ * {@link HostPolicy}, so nobody has to press enter. The latencies the robots measured are
+ * reported once every table has been stopped.
+ */
+public class LoadGenerator {
+	private static final Logger LOGGER = Logger.getLogger(LoadGenerator.class.getName());
+	private static final long LAUNCH_POLL_MILLIS = 100;
+
+	public static class Builder {
+		private int tables = 1;
+		private List<Integer> levels = new ArrayList<>();
+		private long rampMillis = 0;
+		private long durationMillis = 0;
+		private String propertiesFileName = SecretHitlerAi.PROPERTIES_FILE_NAME;
+		private Function<String, UrlWrapper> getUrlFunction = SecretHitlerAi.GET_URL_FUNCTION;
+		private Function<GameSetupWebsocketClientEndpoint.Builder, GameSetupWebsocketClientEndpoint> gameSetupClientBuildFunction = SecretHitlerAi.GAME_SETUP_CLIENT_BUILD_FUNCTION;
+		private int launchParallelism = Fleet.DEFAULT_LAUNCH_PARALLELISM;
+		private AccessTokenCache accessTokenCache;
+
+		protected Builder() {
+			super();
+		}
+
+		public Builder withTables(final int tables) {
+			this.tables = tables;
+			return this;
+		}
+
+		public Builder withLevels(final List<Integer> levels) {
+			this.levels = new ArrayList<>(levels);
+			return this;
+		}
+
+		public Builder withRampMillis(final long rampMillis) {
+			this.rampMillis = rampMillis;
+			return this;
+		}
+
+		public Builder withDurationMillis(final long durationMillis) {
+			this.durationMillis = durationMillis;
+			return this;
+		}
+
+		public Builder withPropertiesFileName(final String propertiesFileName) {
+			this.propertiesFileName = propertiesFileName;
+			return this;
+		}
+
+		public Builder withGetUrlFunction(final Function<String, UrlWrapper> getUrlFunction) {
+			this.getUrlFunction = getUrlFunction;
+			return this;
+		}
+
+		public Builder withGameSetupClientBuildFunction(final Function<GameSetupWebsocketClientEndpoint.Builder, GameSetupWebsocketClientEndpoint> gameSetupClientBuildFunction) {
+			this.gameSetupClientBuildFunction = gameSetupClientBuildFunction;
+			return this;
+		}
+
+		public Builder withLaunchParallelism(final int launchParallelism) {
+			this.launchParallelism = launchParallelism;
+			return this;
+		}
+
+		public Builder withAccessTokenCache(final AccessTokenCache accessTokenCache) {
+			this.accessTokenCache = accessTokenCache;
+			return this;
+		}
+
+		public LoadGenerator build() {
+			return new LoadGenerator(this);
+		}
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	private final int tableCount;
+	private final List<Integer> levels;
+	private final long rampMillis;
+	private final long durationMillis;
+	private final String propertiesFileName;
+	private final Function<String, UrlWrapper> getUrlFunction;
+	private final Function<GameSetupWebsocketClientEndpoint.Builder, GameSetupWebsocketClientEndpoint> gameSetupClientBuildFunction;
+	private final int launchParallelism;
+	private final AccessTokenCache accessTokenCache;
+	private final List<SecretHitlerAi> tables = new CopyOnWriteArrayList<>();
+	private final AtomicInteger failedTables = new AtomicInteger();
+	private final CountDownLatch shutdownRequested = new CountDownLatch(1);
+	private volatile boolean shutdown = false;
+
+	private LoadGenerator(final Builder builder) {
+		if (builder.tables < 1 || builder.levels.isEmpty()) {
+			throw new IllegalArgumentException("A load run needs at least one table with at least one seat level");
+		}
+		if (builder.rampMillis < 0 || builder.durationMillis < 0) {
+			throw new IllegalArgumentException("The ramp and duration of a load run can not be negative");
+		}
+		this.tableCount = builder.tables;
+		this.levels = builder.levels;
+		this.rampMillis = builder.rampMillis;
+		this.durationMillis = builder.durationMillis;
+		this.propertiesFileName = builder.propertiesFileName;
+		this.getUrlFunction = builder.getUrlFunction;
+		this.gameSetupClientBuildFunction = builder.gameSetupClientBuildFunction;
+		this.launchParallelism = builder.launchParallelism;
+		this.accessTokenCache = builder.accessTokenCache != null ? builder.accessTokenCache : AccessTokenCache.builder().build();
+	}
+
+	/**
+	 * Ramps up, holds the tables for the duration once they have all been launched, or until
+	 * {@link #shutdown()} is called, and stops every table. The metrics of the JVM are reset
+	 * first, so the report only covers this run.
+	 */
+	public LoadReport run() throws InterruptedException {
+		BotMetrics.getInstance().reset();
+		final long start = System.nanoTime();
+		ScheduledExecutorService launcher = Executors.newScheduledThreadPool(launchParallelism, new ThreadFactoryBuilder()
+				.setNameFormat("load-launcher-%d")
+				.setDaemon(true)
+				.build());
+		CountDownLatch launched = new CountDownLatch(tableCount);
+		try {
+			for (int table = 0; table < tableCount; table++) {
+				final int firstRobot = 1 + table * levels.size();
+				launcher.schedule(() -> {
+					launchTable(firstRobot);
+					launched.countDown();
+				}, getLaunchDelay(table), TimeUnit.MILLISECONDS);
+			}
+			if (awaitLaunched(launched)) {
+				LOGGER.info(() -> String.format("Holding %d tables for %d ms", tables.size(), durationMillis));
+				shutdownRequested.await(durationMillis, TimeUnit.MILLISECONDS);
+			}
+		} finally {
+			shutdown = true;
+			launcher.shutdownNow();
+			launcher.awaitTermination(1, TimeUnit.MINUTES);
+			tables.forEach(SecretHitlerAi::stopGame);
+			accessTokenCache.close();
+		}
+		final long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+		return new LoadReport(tables.size(), failedTables.get(), elapsedMillis, BotMetrics.getInstance());
+	}
+
+	/**
+	 * @return whether every table was launched, or tried to be, before a shutdown was requested
+	 */
+	private boolean awaitLaunched(final CountDownLatch launched) throws InterruptedException {
+		while (!launched.await(LAUNCH_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+			if (shutdownRequested.getCount() == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return how long after the start of the run the table is launched, spreading the tables evenly over the ramp
+	 */
+	protected long getLaunchDelay(final int table) {
+		return tableCount == 1 ? 0 : rampMillis * table / (tableCount - 1);
+	}
+
+	private void launchTable(final int firstRobot) {
+		if (shutdown) {
+			return;
+		}
+		try {
+			SecretHitlerAi table = SecretHitlerAi.builder()
+					.withPropertiesFileName(propertiesFileName)
+					.withGetUrlFunction(getUrlFunction)
+					.withGameSetupClientBuildFunction(gameSetupClientBuildFunction)
+					.withGameId(SecretHitlerAi.NEW_GAME_COMMAND)
+					.withAiDifficulties(levels)
+					.withFirstRobot(firstRobot)
+					.withAccessTokenCache(accessTokenCache)
+					.withHostPolicy(HostPolicy.builder().withMode(HostPolicy.Mode.AUTO).build())
+					.build();
+			tables.add(table);
+			if (shutdown) {
+				table.stopGame();
+			}
+			LOGGER.info(() -> String.format("Launched %d of %d tables", tables.size(), tableCount));
+		} catch (Exception e) {
+			LOGGER.log(Level.SEVERE, String.format("Failed to launch the table starting with Robot %d", firstRobot), e);
+			failedTables.incrementAndGet();
+		}
+	}
+
+	public List<SecretHitlerAi> getTables() {
+		return tables;
+	}
+
+	/**
+	 * Ends the run early, as if its duration were up.
+	 */
+	public void shutdown() {
+		shutdownRequested.countDown();
+	}
+}
@@ -0,0 +1,99 @@
+package com.secrethitler.ai;
+
+import java.util.Map;
+
+import com.secrethitler.ai.enums.SecretRole;
+import com.secrethitler.ai.metrics.BotMetrics;
+import com.secrethitler.ai.metrics.LatencyHistogram;
+
+/**
+ * What a {@link LoadGenerator} run measured: how many tables were launched and the percentiles
+ * of every latency the robots recorded, most importantly the round trip from sending a move to
+ * hearing of the next phase.
+ */
+public class LoadReport {
+	protected static final double[] PERCENTILES = {50, 90, 99, 99.9};
+	private static final double NANOS_PER_MILLI = 1000000;
+
+	private final int tablesLaunched;
+	private final int tablesFailed;
+	private final long elapsedMillis;
+	private final long messagesReceived;
+	private final long messagesActed;
+	private final long messagesDropped;
+	private final long gamesFinished;
+	private final Map<BotMetrics.Key, LatencyHistogram> latencies;
+
+	public LoadReport(final int tablesLaunched, final int tablesFailed, final long elapsedMillis, final BotMetrics metrics) {
+		this.tablesLaunched = tablesLaunched;
+		this.tablesFailed = tablesFailed;
+		this.elapsedMillis = elapsedMillis;
+		this.messagesReceived = metrics.getMessagesReceived();
+		this.messagesActed = metrics.getMessagesActed();
+		this.messagesDropped = metrics.getMessagesDropped();
+		long outcomes = 0;
+		for (SecretRole role : SecretRole.values()) {
+			outcomes += metrics.getWins(role) + metrics.getLosses(role);
+		}
+		this.gamesFinished = outcomes;
+		this.latencies = metrics.getLatencies();
+	}
+
+	public int getTablesLaunched() {
+		return tablesLaunched;
+	}
+
+	public int getTablesFailed() {
+		return tablesFailed;
+	}
+
+	public long getElapsedMillis() {
+		return elapsedMillis;
+	}
+
+	public long getMessagesReceived() {
+		return messagesReceived;
+	}
+
+	public long getMessagesActed() {
+		return messagesActed;
+	}
+
+	public long getMessagesDropped() {
+		return messagesDropped;
+	}
+
+	/**
+	 * @return how many times a robot saw a game it played to the end, so a full table counts once per seat
+	 */
+	public long getGamesFinished() {
+		return gamesFinished;
+	}
+
+	public Map<BotMetrics.Key, LatencyHistogram> getLatencies() {
+		return latencies;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder report = new StringBuilder(String.format("%d tables launched (%d failed) in %d ms, %d robot games finished, %d messages received, %d moves made, %d dropped%n",
+				tablesLaunched, tablesFailed, elapsedMillis, gamesFinished, messagesReceived, messagesActed, messagesDropped));
+		report.append(String.format("%-50s %8s", "latency (ms)", "count"));
+		for (double percentile : PERCENTILES) {
+			report.append(String.format(" %8s", "p" + formatPercentile(percentile)));
+		}
+		report.append(String.format(" %8s%n", "max"));
+		latencies.forEach((key, histogram) -> {
+			report.append(String.format("%-50s %8d", key, histogram.getCount()));
+			for (double percentile : PERCENTILES) {
+				report.append(String.format(" %8.2f", histogram.getValueAtPercentile(percentile) / NANOS_PER_MILLI));
+			}
+			report.append(String.format(" %8.2f%n", histogram.getMax() / NANOS_PER_MILLI));
+		});
+		return report.toString();
+	}
+
+	private static String formatPercentile(final double percentile) {
+		return percentile == Math.rint(percentile) ? String.valueOf((long) percentile) : String.valueOf(percentile);
+	}
+}
@@ -1,36 +1,64 @@
 package com.secrethitler.ai;
 
-import java.io.BufferedReader;
+import java.io.File;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.OutputStream;
-import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
 import java.net.URISyntaxException;
-import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.Scanner;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
+import com.secrethitler.ai.dtos.FleetGameSpec;
+import com.secrethitler.ai.dtos.GameRequest;
+import com.secrethitler.ai.dtos.GameplayAction;
 import com.secrethitler.ai.dtos.LoginRequest;
 import com.secrethitler.ai.dtos.LoginResponse;
+import com.secrethitler.ai.dtos.ParticipantGameNotification;
+import com.secrethitler.ai.enums.GameState;
+import com.secrethitler.ai.gamelog.ReplayReport;
+import com.secrethitler.ai.gamelog.ReplayRunner;
+import com.secrethitler.ai.metrics.MetricsHttpServer;
 import com.secrethitler.ai.processors.GameplayProcessorFactory;
 import com.secrethitler.ai.processors.GameplayProcessorFactoryImpl;
+import com.secrethitler.ai.simulation.Tournament;
+import com.secrethitler.ai.simulation.TournamentReport;
+import com.secrethitler.ai.utils.AccessTokenCache;
+import com.secrethitler.ai.utils.HttpPostClient;
 import com.secrethitler.ai.utils.UrlWrapper;
 import com.secrethitler.ai.websockets.GameSetupWebsocketClientEndpoint;
+import com.secrethitler.ai.websockets.SharedWebsocketContainer;
+import com.secrethitler.ai.websockets.WebsocketClientEndpoint;
 
 public class SecretHitlerAi {
 	private static final Logger LOGGER = Logger.getLogger(SecretHitlerAi.class.getName());
-	private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
-	private static final ObjectWriter OBJECT_WRITER = OBJECT_MAPPER.writer().withDefaultPrettyPrinter();
-	private static final String PROPERTIES_FILE_NAME = "application.properties";
+	private static final Logger PROCESSORS_LOGGER = Logger.getLogger("com.secrethitler.ai.processors");
+	private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper().registerModule(new AfterburnerModule());
+	private static final ObjectWriter OBJECT_WRITER = OBJECT_MAPPER.writer();
+	private static final ObjectReader NOTIFICATION_READER = OBJECT_MAPPER.readerFor(ParticipantGameNotification.class);
+	private static final ObjectReader GAME_REQUEST_READER = OBJECT_MAPPER.readerFor(GameRequest.class);
+	private static final ObjectWriter GAMEPLAY_ACTION_WRITER = OBJECT_MAPPER.writerFor(GameplayAction.class);
+	protected static final String PROPERTIES_FILE_NAME = "application.properties";
 	protected static final GameplayProcessorFactory GAMEPLAY_PROCESSOR_FACTORY = new GameplayProcessorFactoryImpl();
 	protected static final Function<String, UrlWrapper> GET_URL_FUNCTION = urlString -> {
 		try {
@@ -47,23 +75,142 @@ public class SecretHitlerAi {
 		}
 	};
 	protected static final String NEW_GAME_COMMAND = "newGame";
+	protected static final String TOURNAMENT_COMMAND = "tournament";
+	protected static final String FLEET_COMMAND = "fleet";
+	protected static final String REPLAY_COMMAND = "replay";
+	protected static final String LOAD_COMMAND = "load";
 	protected static final String EMPTY_PAYLOAD = "{}"; 
-	
-	private static boolean gameStopped = false;
-	private static boolean gameOver = false;
+	protected static final String HTTP_CONNECT_TIMEOUT = "secrethitler.http.connecttimeout";
+	protected static final String HTTP_READ_TIMEOUT = "secrethitler.http.readtimeout";
+	protected static final String HTTP_MAX_ATTEMPTS = "secrethitler.http.maxattempts";
+	protected static final String HTTP_INITIAL_BACKOFF = "secrethitler.http.initialbackoff";
+	protected static final String PROPERTY_PREFIX = "secrethitler.";
 	
 	public static void main(String[] args) throws Exception {
 		final String originalGameId = args[0];
+		if (TOURNAMENT_COMMAND.equals(originalGameId)) {
+			runTournament(args);
+			return;
+		}
+		if (REPLAY_COMMAND.equals(originalGameId)) {
+			runReplay(args);
+			return;
+		}
+		if (LOAD_COMMAND.equals(originalGameId)) {
+			runLoad(args, GET_URL_FUNCTION, GAME_SETUP_CLIENT_BUILD_FUNCTION);
+			return;
+		}
+		if (FLEET_COMMAND.equals(originalGameId)) {
+			Fleet fleet = runFleet(args, GET_URL_FUNCTION, GAME_SETUP_CLIENT_BUILD_FUNCTION);
+			Runtime.getRuntime().addShutdownHook(new Thread(fleet::shutdown));
+			fleet.awaitStopped();
+			return;
+		}
 		List<Integer> aiDifficulties = IntStream.range(1, args.length).boxed()
 				.map(index -> args[index])
 				.map(Integer::parseInt)
 				.collect(Collectors.toList());
 		
-		new SecretHitlerAi(PROPERTIES_FILE_NAME, GET_URL_FUNCTION, GAME_SETUP_CLIENT_BUILD_FUNCTION, originalGameId, aiDifficulties);
-		
-		while(!gameStopped) {
-			Thread.sleep(1000);
+		SecretHitlerAi ai = new SecretHitlerAi(PROPERTIES_FILE_NAME, GET_URL_FUNCTION, GAME_SETUP_CLIENT_BUILD_FUNCTION, originalGameId, aiDifficulties);
+		Runtime.getRuntime().addShutdownHook(new Thread(ai::stopGame));
+		ai.awaitStopped();
+	}
+	
+	protected static TournamentReport runTournament(final String[] args) throws InterruptedException {
+		final int games = Integer.parseInt(args[1]);
+		List<Integer> seatLevels = IntStream.range(2, args.length).boxed()
+				.map(index -> args[index])
+				.map(Integer::parseInt)
+				.collect(Collectors.toList());
+		LOGGER.info(() -> String.format("Starting a tournament of %d games with seat levels %s", games, seatLevels));
+		PROCESSORS_LOGGER.setLevel(Level.WARNING);
+		final long start = System.nanoTime();
+		TournamentReport report = Tournament.builder()
+				.withGames(games)
+				.withSeatLevels(seatLevels)
+				.build()
+				.run();
+		final long elapsedMillis = (System.nanoTime() - start) / 1000000;
+		LOGGER.info(() -> String.format("Tournament finished in %d ms%n%s", elapsedMillis, report));
+		return report;
+	}
+	
+	/**
+	 * Replays the game logs, or directories of them, given after the processor level against that level.
+	 *
+	 * @return the divergences of the level from the recorded games
+	 */
+	protected static ReplayReport runReplay(final String[] args) throws IOException, InterruptedException {
+		final int level = Integer.parseInt(args[1]);
+		List<Path> logs = new ArrayList<>();
+		for (int index = 2; index < args.length; index++) {
+			logs.addAll(ReplayRunner.findLogs(Paths.get(args[index])));
 		}
+		LOGGER.info(() -> String.format("Replaying %d game logs with level %d", logs.size(), level));
+		PROCESSORS_LOGGER.setLevel(Level.WARNING);
+		final long start = System.nanoTime();
+		ReplayReport report = ReplayRunner.builder()
+				.withLogs(logs)
+				.withLevel(level)
+				.build()
+				.run();
+		final long elapsedMillis = (System.nanoTime() - start) / 1000000;
+		LOGGER.info(() -> String.format("Replay finished in %d ms%n%s", elapsedMillis, report));
+		return report;
+	}
+	
+	/**
+	 * Launches every table described in the fleet spec file given as the second argument.
+	 *
+	 * @return the fleet, once all of its tables have been launched
+	 */
+	protected static Fleet runFleet(final String[] args, final Function<String, UrlWrapper> getUrlFunction, 
+			final Function<GameSetupWebsocketClientEndpoint.Builder, GameSetupWebsocketClientEndpoint> gameSetupClientBuildFunction) throws IOException, InterruptedException {
+		List<FleetGameSpec> gameSpecs = OBJECT_MAPPER.readValue(new File(args[1]), new TypeReference<List<FleetGameSpec>>() {});
+		Fleet fleet = Fleet.builder()
+				.withGameSpecs(gameSpecs)
+				.withGetUrlFunction(getUrlFunction)
+				.withGameSetupClientBuildFunction(gameSetupClientBuildFunction)
+				.withAccessTokenCache(AccessTokenCache.fromProperties(loadProperties(PROPERTIES_FILE_NAME)))
+				.build();
+		fleet.start();
+		LOGGER.info(() -> String.format("Fleet launched with tables in states %s", fleet.getTableStates()));
+		return fleet;
+	}
+	
+	/**
+	 * Ramps up to the number of tables given as the second argument over the number of seconds
+	 * given as the third, holds them for the number of seconds given as the fourth, and seats
+	 * every table with the levels given after that.
+	 *
+	 * @return the latencies and counts measured while the tables were running
+	 */
+	protected static LoadReport runLoad(final String[] args, final Function<String, UrlWrapper> getUrlFunction, 
+			final Function<GameSetupWebsocketClientEndpoint.Builder, GameSetupWebsocketClientEndpoint> gameSetupClientBuildFunction) throws IOException, InterruptedException {
+		final int tables = Integer.parseInt(args[1]);
+		final long rampMillis = TimeUnit.SECONDS.toMillis(Long.parseLong(args[2]));
+		final long durationMillis = TimeUnit.SECONDS.toMillis(Long.parseLong(args[3]));
+		List<Integer> levels = IntStream.range(4, args.length).boxed()
+				.map(index -> args[index])
+				.map(Integer::parseInt)
+				.collect(Collectors.toList());
+		LOGGER.info(() -> String.format("Ramping up to %d tables of levels %s over %d ms and holding them for %d ms", tables, levels, rampMillis, durationMillis));
+		PROCESSORS_LOGGER.setLevel(Level.WARNING);
+		LoadGenerator loadGenerator = LoadGenerator.builder()
+				.withTables(tables)
+				.withLevels(levels)
+				.withRampMillis(rampMillis)
+				.withDurationMillis(durationMillis)
+				.withGetUrlFunction(getUrlFunction)
+				.withGameSetupClientBuildFunction(gameSetupClientBuildFunction)
+				.withAccessTokenCache(AccessTokenCache.fromProperties(loadProperties(PROPERTIES_FILE_NAME)))
+				.build();
+		Thread shutdownHook = new Thread(loadGenerator::shutdown);
+		Runtime.getRuntime().addShutdownHook(shutdownHook);
+		LoadReport report = loadGenerator.run();
+		Runtime.getRuntime().removeShutdownHook(shutdownHook);
+		LOGGER.info(() -> String.format("Load run finished%n%s", report));
+		return report;
 	}
 	
 	private static String getStartupLogMessage(final boolean newGame, final String gameId, final int totalUsers) {
@@ -73,10 +220,6 @@ public class SecretHitlerAi {
 		return String.format("Starting Secret Hitler AI for %d users with gameId %s.", totalUsers, gameId);
 	}
 	
-	public static void stopGame() {
-		gameStopped = true;
-	}
-	
 	public static Scanner getScanner() {
 		return new Scanner(System.in);
 	}
@@ -89,98 +232,239 @@ public class SecretHitlerAi {
 		return OBJECT_WRITER;
 	}
 	
+	public static ObjectReader getNotificationReader() {
+		return NOTIFICATION_READER;
+	}
+	
+	public static ObjectReader getGameRequestReader() {
+		return GAME_REQUEST_READER;
+	}
+	
+	public static ObjectWriter getGameplayActionWriter() {
+		return GAMEPLAY_ACTION_WRITER;
+	}
+	
 	public static GameplayProcessorFactory getGameplayProcessorFactory() {
 		return GAMEPLAY_PROCESSOR_FACTORY;
 	}
 
-	public static boolean isGameOver() {
-		return gameOver;
+	/**
+	 * Seats a table of robots. The robots are numbered from the first robot, so tables sharing
+	 * a process use distinct robots. Without an access token cache the table has its own, and
+	 * without a host policy the host follows the policy of the properties.
+	 */
+	public static class Builder {
+		private String propertiesFileName = PROPERTIES_FILE_NAME;
+		private Function<String, UrlWrapper> getUrlFunction = GET_URL_FUNCTION;
+		private Function<GameSetupWebsocketClientEndpoint.Builder, GameSetupWebsocketClientEndpoint> gameSetupClientBuildFunction = GAME_SETUP_CLIENT_BUILD_FUNCTION;
+		private String gameId = NEW_GAME_COMMAND;
+		private List<Integer> aiDifficulties = new ArrayList<>();
+		private int firstRobot = 1;
+		private AccessTokenCache accessTokenCache;
+		private HostPolicy hostPolicy;
+		
+		protected Builder() {
+			super();
+		}
+		
+		public Builder withPropertiesFileName(final String propertiesFileName) {
+			this.propertiesFileName = propertiesFileName;
+			return this;
+		}
+		
+		public Builder withGetUrlFunction(final Function<String, UrlWrapper> getUrlFunction) {
+			this.getUrlFunction = getUrlFunction;
+			return this;
+		}
+		
+		public Builder withGameSetupClientBuildFunction(final Function<GameSetupWebsocketClientEndpoint.Builder, GameSetupWebsocketClientEndpoint> gameSetupClientBuildFunction) {
+			this.gameSetupClientBuildFunction = gameSetupClientBuildFunction;
+			return this;
+		}
+		
+		public Builder withGameId(final String gameId) {
+			this.gameId = gameId;
+			return this;
+		}
+		
+		public Builder withAiDifficulties(final List<Integer> aiDifficulties) {
+			this.aiDifficulties = new ArrayList<>(aiDifficulties);
+			return this;
+		}
+		
+		public Builder withFirstRobot(final int firstRobot) {
+			this.firstRobot = firstRobot;
+			return this;
+		}
+		
+		public Builder withAccessTokenCache(final AccessTokenCache accessTokenCache) {
+			this.accessTokenCache = accessTokenCache;
+			return this;
+		}
+		
+		public Builder withHostPolicy(final HostPolicy hostPolicy) {
+			this.hostPolicy = hostPolicy;
+			return this;
+		}
+		
+		public SecretHitlerAi build() throws Exception {
+			return new SecretHitlerAi(this);
+		}
 	}
 	
-	public static void setGameOver(final boolean gameOver) {
-		SecretHitlerAi.gameOver = gameOver;
+	public static Builder builder() {
+		return new Builder();
 	}
 
 	private final Properties prop;
-	private final Function<String, UrlWrapper> getUrlFunction;
+	private final HttpPostClient httpPostClient;
+	private final AccessTokenCache accessTokenCache;
+	private final boolean ownAccessTokenCache;
+	private final String robotPassword;
 	private final boolean secureUrl;
 	private final String baseUrlString;
+	private final List<String> usernames = new ArrayList<>();
+	private final Set<WebsocketClientEndpoint> endpoints = ConcurrentHashMap.newKeySet();
+	private final CountDownLatch stopped = new CountDownLatch(1);
+	private final HostPolicy hostPolicy;
+	private volatile GameState state = GameState.STARTING;
 
 	public SecretHitlerAi(final String propertiesFileName, final Function<String, UrlWrapper> getUrlFunction, 
 			Function<GameSetupWebsocketClientEndpoint.Builder, GameSetupWebsocketClientEndpoint> gameSetupClientBuildFunction, 
 			final String originalGameId, final List<Integer> aiDifficulties) throws Exception {
-		ClassLoader loader = Thread.currentThread().getContextClassLoader(); 
-		boolean newGame = NEW_GAME_COMMAND.equals(originalGameId);
-		LOGGER.info(() -> getStartupLogMessage(newGame, originalGameId, aiDifficulties.size()));
-		prop = new Properties();
-		prop.load(loader.getResourceAsStream(propertiesFileName));
+		this(builder()
+				.withPropertiesFileName(propertiesFileName)
+				.withGetUrlFunction(getUrlFunction)
+				.withGameSetupClientBuildFunction(gameSetupClientBuildFunction)
+				.withGameId(originalGameId)
+				.withAiDifficulties(aiDifficulties));
+	}
+
+	private SecretHitlerAi(final Builder builder) throws Exception {
+		boolean newGame = NEW_GAME_COMMAND.equals(builder.gameId);
+		LOGGER.info(() -> getStartupLogMessage(newGame, builder.gameId, builder.aiDifficulties.size()));
+		prop = loadProperties(builder.propertiesFileName);
+		this.hostPolicy = builder.hostPolicy != null ? builder.hostPolicy : HostPolicy.fromProperties(prop);
+		SharedWebsocketContainer.configure(prop);
+		MetricsHttpServer.configure(prop);
 		secureUrl = Boolean.valueOf(prop.getProperty("secrethitler.secureurl"));
 		baseUrlString = prop.getProperty("secrethitler.url");
-		final String robotPassword = prop.getProperty("secrethitler.login.robotpassword");
-		this.getUrlFunction = getUrlFunction;
+		robotPassword = prop.getProperty("secrethitler.login.robotpassword");
+		ownAccessTokenCache = builder.accessTokenCache == null;
+		this.accessTokenCache = ownAccessTokenCache ? AccessTokenCache.fromProperties(prop) : builder.accessTokenCache;
+		httpPostClient = HttpPostClient.builder()
+				.withGetUrlFunction(builder.getUrlFunction)
+				.withConnectTimeout(Integer.parseInt(prop.getProperty(HTTP_CONNECT_TIMEOUT, String.valueOf(HttpPostClient.DEFAULT_CONNECT_TIMEOUT))))
+				.withReadTimeout(Integer.parseInt(prop.getProperty(HTTP_READ_TIMEOUT, String.valueOf(HttpPostClient.DEFAULT_READ_TIMEOUT))))
+				.withMaxAttempts(Integer.parseInt(prop.getProperty(HTTP_MAX_ATTEMPTS, String.valueOf(HttpPostClient.DEFAULT_MAX_ATTEMPTS))))
+				.withInitialBackoff(Long.parseLong(prop.getProperty(HTTP_INITIAL_BACKOFF, String.valueOf(HttpPostClient.DEFAULT_INITIAL_BACKOFF))))
+				.build();
 		
-		String gameId = originalGameId;
-		int idx = 1;
-		for (int difficulty : aiDifficulties) {
-			String username = String.format("Robot %d", idx);
-			String accessToken = getAuthenticatedAccessToken(username, robotPassword);
-			LOGGER.info(() -> String.format("Logged in user %s", username));
-			boolean host = false;
-			if (idx == 1 && newGame) {
-				host = true;
-				final String newGameId = createNewGame(accessToken);
-				LOGGER.info(() -> String.format("New game created with id: %s", newGameId));
-				gameId = newGameId;
-			}
-			gameSetupClientBuildFunction.apply(
+		List<CompletableFuture<String>> accessTokens = new ArrayList<>();
+		for (int idx = 0; idx < builder.aiDifficulties.size(); idx++) {
+			String username = String.format("Robot %d", builder.firstRobot + idx);
+			usernames.add(username);
+			accessTokens.add(getAccessToken(username));
+		}
+		final CompletableFuture<String> gameIdFuture = newGame ?
+				accessTokens.get(0).thenCompose(this::createNewGame) : CompletableFuture.completedFuture(builder.gameId);
+		final String gameId = join(gameIdFuture);
+		if (newGame) {
+			LOGGER.info(() -> String.format("New game created with id: %s", gameId));
+		}
+		for (int idx = 0; idx < builder.aiDifficulties.size(); idx++) {
+			final String username = usernames.get(idx);
+			builder.gameSetupClientBuildFunction.apply(
 					GameSetupWebsocketClientEndpoint.builder()
 							.withAi(this)
 							.withGameId(gameId)
-							.withAccessToken(accessToken)
-							.withGameplayLevel(difficulty)
+							.withAccessToken(join(accessTokens.get(idx)))
+							.withGameplayLevel(builder.aiDifficulties.get(idx))
 							.withUsername(username)
-							.withHost(host)
+							.withHost(idx == 0 && newGame)
 			);
-			idx++;
+		}
+		if (GameState.STARTING == state) {
+			state = GameState.WAITING_FOR_PLAYERS;
 		}
 	}
 	
-	private String getAuthenticatedAccessToken(final String username, final String password) throws IOException {
-		final String json = OBJECT_WRITER.writeValueAsString(new LoginRequest(username, password));
+	/**
+	 * Loads the properties file from the classpath, letting system properties of the same
+	 * {@code secrethitler.} names override it, e.g. to point the robots at another server.
+	 */
+	protected static Properties loadProperties(final String propertiesFileName) throws IOException {
+		ClassLoader loader = Thread.currentThread().getContextClassLoader(); 
+		Properties properties = new Properties();
+		properties.load(loader.getResourceAsStream(propertiesFileName));
+		System.getProperties().stringPropertyNames().stream()
+				.filter(name -> name.startsWith(PROPERTY_PREFIX))
+				.forEach(name -> properties.setProperty(name, System.getProperty(name)));
+		return properties;
+	}
+	
+	private static <T> T join(final CompletableFuture<T> future) throws Exception {
+		try {
+			return future.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof Exception) {
+				throw (Exception) e.getCause();
+			}
+			throw e;
+		}
+	}
+	
+	/**
+	 * Gets a valid access token of the robot from the token cache, logging it in if needed.
+	 */
+	public CompletableFuture<String> getAccessToken(final String username) {
+		return accessTokenCache.getAccessToken(username, () -> getAuthenticatedAccessToken(username, robotPassword));
+	}
+	
+	/**
+	 * Drops the cached access token of the robot after the server rejected it, so the robot logs in again.
+	 */
+	public void invalidateAccessToken(final String username) {
+		accessTokenCache.invalidate(username);
+	}
+	
+	private CompletableFuture<String> getAuthenticatedAccessToken(final String username, final String password) {
+		final String json;
+		try {
+			json = OBJECT_WRITER.writeValueAsString(new LoginRequest(username, password));
+		} catch (JsonProcessingException e) {
+			return failedFuture(e);
+		}
 		LOGGER.fine(() -> String.format("Logging on with payload: %s", json));
 		final String loginUrlString = prop.getProperty("secrethitler.login.url");
-		final String response = post(json, loginUrlString, Optional.empty());
-		LOGGER.fine(() -> String.format("Received login response: %s", response));
-		return OBJECT_MAPPER.readValue(response, LoginResponse.class).getAccessToken();
+		return post(json, loginUrlString, Optional.empty(), true).thenApply(response -> {
+			LOGGER.fine(() -> String.format("Received login response: %s", response));
+			try {
+				final String accessToken = OBJECT_MAPPER.readValue(response, LoginResponse.class).getAccessToken();
+				LOGGER.info(() -> String.format("Logged in user %s", username));
+				return accessToken;
+			} catch (JsonProcessingException e) {
+				throw new CompletionException(e);
+			}
+		});
+	}
+	
+	private static <T> CompletableFuture<T> failedFuture(final Throwable e) {
+		CompletableFuture<T> future = new CompletableFuture<>();
+		future.completeExceptionally(e);
+		return future;
 	}
 	
-	private String createNewGame(final String accessToken) throws IOException {
+	/**
+	 * Creates a game, which is not idempotent: a retry after the server got the request could create a second game.
+	 */
+	private CompletableFuture<String> createNewGame(final String accessToken) {
 		final String createGameUrlString = prop.getProperty("secrethitler.creategame.url");
-		return post(EMPTY_PAYLOAD, createGameUrlString, Optional.of(accessToken));
+		return post(EMPTY_PAYLOAD, createGameUrlString, Optional.of(accessToken), false);
 	}
 	
-	private String post(final String payload, final String urlString, final Optional<String> authorization) throws IOException {
-		final UrlWrapper url = getUrlFunction.apply(String.format("%s://%s%s", secureUrl ? "https" : "http", baseUrlString, urlString));
-		final HttpURLConnection con = (HttpURLConnection) url.openConnection();
-		con.setRequestMethod("POST");
-		con.setRequestProperty("Content-Type", "application/json; utf-8");
-		con.setRequestProperty("Accept", "application/json");
-		authorization.ifPresent(auth -> con.setRequestProperty("authorization", auth));
-		con.setDoOutput(true);
-		try(OutputStream os = con.getOutputStream()) {
-		    byte[] input = payload.getBytes(StandardCharsets.UTF_8);
-		    os.write(input, 0, input.length);			
-		}
-		
-		try(BufferedReader br = new BufferedReader(
-				new InputStreamReader(con.getInputStream(), StandardCharsets.UTF_8))) {
-			StringBuilder response = new StringBuilder();
-			String responseLine = null;
-			while ((responseLine = br.readLine()) != null) {
-				response.append(responseLine.trim());
-			}
-			return response.toString();
-		}
+	private CompletableFuture<String> post(final String payload, final String urlString, final Optional<String> authorization, final boolean idempotent) {
+		return httpPostClient.postAsync(String.format("%s://%s%s", secureUrl ? "https" : "http", baseUrlString, urlString), payload, authorization, idempotent);
 	}
 
 	public Properties getProp() {
@@ -194,4 +478,55 @@ public class SecretHitlerAi {
 	public String getBaseUrlString() {
 		return baseUrlString;
 	}
+
+	public List<String> getUsernames() {
+		return usernames;
+	}
+
+	public GameState getState() {
+		return state;
+	}
+
+	public void setState(final GameState state) {
+		if (GameState.STOPPED != this.state) {
+			this.state = state;
+		}
+	}
+
+	public HostPolicy getHostPolicy() {
+		return hostPolicy;
+	}
+
+	public boolean isGameOver() {
+		return GameState.GAME_OVER == state;
+	}
+
+	public void registerEndpoint(final WebsocketClientEndpoint endpoint) {
+		endpoints.add(endpoint);
+	}
+
+	public void unregisterEndpoint(final WebsocketClientEndpoint endpoint) {
+		endpoints.remove(endpoint);
+	}
+
+	/**
+	 * Closes every websocket of this table and releases anyone waiting for it to stop.
+	 */
+	public void stopGame() {
+		state = GameState.STOPPED;
+		endpoints.forEach(WebsocketClientEndpoint::close);
+		endpoints.clear();
+		if (ownAccessTokenCache) {
+			accessTokenCache.close();
+		}
+		stopped.countDown();
+	}
+
+	public boolean isStopped() {
+		return stopped.getCount() == 0;
+	}
+
+	public void awaitStopped() throws InterruptedException {
+		stopped.await();
+	}
 }
@@ -0,0 +1,28 @@
+package com.secrethitler.ai.dtos;
+
+import java.util.List;
+
+public class FleetGameSpec {
+	private String gameId;
+	private int count = 1;
+	private List<Integer> levels;
+	
+	public String getGameId() {
+		return gameId;
+	}
+	public void setGameId(String gameId) {
+		this.gameId = gameId;
+	}
+	public int getCount() {
+		return count;
+	}
+	public void setCount(int count) {
+		this.count = count;
+	}
+	public List<Integer> getLevels() {
+		return levels;
+	}
+	public void setLevels(List<Integer> levels) {
+		this.levels = levels;
+	}
+}
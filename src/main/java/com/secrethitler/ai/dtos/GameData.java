@@ -1,12 +1,15 @@
 package com.secrethitler.ai.dtos;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
 
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import com.secrethitler.ai.enums.GamePhase;
 import com.secrethitler.ai.enums.PartyMembership;
 import com.secrethitler.ai.enums.Policy;
@@ -34,12 +37,14 @@ public class GameData {
 	}
 	public void setMyPlayer(PlayerData myPlayer) {
 		this.myPlayer = myPlayer;
+		assignSeats();
 	}
 	public List<PlayerData> getPlayers() {
 		return players;
 	}
 	public void setPlayers(List<PlayerData> players) {
 		this.players = players;
+		assignSeats();
 	}
 	public Set<String> getWatchers() {
 		return watchers;
@@ -126,6 +131,62 @@ public class GameData {
 		this.nextGameId = nextGameId;
 	}
 	
+	/**
+	 * @return whether the player is in the players at the seat they were tagged with, which a
+	 * copy of the player from another notification may not be
+	 */
+	public static boolean isSeated(final List<PlayerData> players, final PlayerData player) {
+		final int seat = player.getSeat();
+		if (seat == PlayerData.NO_SEAT || players == null || seat >= players.size()) {
+			return false;
+		}
+		final PlayerData seated = players.get(seat);
+		return seated == player || seated.getUsername() != null && Objects.equals(seated.getUsername(), player.getUsername());
+	}
+	
+	/**
+	 * @return the index of the player in {@link #getPlayers()}, or {@link PlayerData#NO_SEAT} if they are not playing
+	 */
+	public int getSeat(final PlayerData player) {
+		return isSeated(players, player) ? player.getSeat() : getSeat(player.getUsername());
+	}
+	
+	/**
+	 * @return the index of the player with the username in {@link #getPlayers()}, or {@link PlayerData#NO_SEAT} if they are not playing
+	 */
+	public int getSeat(final String username) {
+		if (players == null || username == null) {
+			return PlayerData.NO_SEAT;
+		}
+		for (int seat = 0; seat < players.size(); seat++) {
+			if (username.equals(players.get(seat).getUsername())) {
+				return seat;
+			}
+		}
+		return PlayerData.NO_SEAT;
+	}
+	
+	@JsonIgnore
+	public int getMySeat() {
+		return myPlayer == null ? PlayerData.NO_SEAT : getSeat(myPlayer);
+	}
+	
+	/**
+	 * Tags every player, including {@link #getMyPlayer()}, with their index in the player list so
+	 * processors can identify players by seat rather than comparing every field.
+	 */
+	private void assignSeats() {
+		if (players == null) {
+			return;
+		}
+		for (int seat = 0; seat < players.size(); seat++) {
+			players.get(seat).setSeat(seat);
+		}
+		if (myPlayer != null) {
+			myPlayer.setSeat(getSeat(myPlayer.getUsername()));
+		}
+	}
+	
 	@Override
 	public int hashCode() {
 		return HashCodeBuilder.reflectionHashCode(this);
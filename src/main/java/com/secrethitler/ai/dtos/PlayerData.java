@@ -1,14 +1,18 @@
 package com.secrethitler.ai.dtos;
 
-import org.apache.commons.lang3.builder.EqualsBuilder;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
+import java.util.Objects;
+
 import org.apache.commons.lang3.builder.ToStringBuilder;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import com.secrethitler.ai.enums.PartyMembership;
 import com.secrethitler.ai.enums.SecretRole;
 import com.secrethitler.ai.enums.Vote;
 
 public class PlayerData {
+	public static final int NO_SEAT = -1;
+	
 	private String username;
 	private boolean host;
 	private boolean connected;
@@ -20,6 +24,8 @@ public class PlayerData {
 	private boolean previousGovernmentMember;
 	private Vote vote;
 	private boolean voteReady;
+	@JsonIgnore
+	private int seat = NO_SEAT;
 	
 	public String getUsername() {
 		return username;
@@ -88,14 +94,43 @@ public class PlayerData {
 		this.voteReady = voteReady;
 	}
 	
+	/**
+	 * @return the index of the player in {@link GameData#getPlayers()}, assigned when the list is set, or {@link #NO_SEAT}
+	 */
+	@JsonIgnore
+	public int getSeat() {
+		return seat;
+	}
+	@JsonIgnore
+	public void setSeat(int seat) {
+		this.seat = seat;
+	}
+	
 	@Override
 	public int hashCode() {
-		return HashCodeBuilder.reflectionHashCode(this);
+		return Objects.hashCode(username);
 	}
 	
 	@Override
 	public boolean equals(Object obj) {
-		return EqualsBuilder.reflectionEquals(this, obj);
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof PlayerData)) {
+			return false;
+		}
+		PlayerData other = (PlayerData) obj;
+		return host == other.host
+				&& connected == other.connected
+				&& alive == other.alive
+				&& president == other.president
+				&& chancellor == other.chancellor
+				&& previousGovernmentMember == other.previousGovernmentMember
+				&& voteReady == other.voteReady
+				&& partyMembership == other.partyMembership
+				&& secretRole == other.secretRole
+				&& vote == other.vote
+				&& Objects.equals(username, other.username);
 	}
 	
 	@Override
@@ -0,0 +1,9 @@
+package com.secrethitler.ai.enums;
+
+public enum GameState {
+	STARTING,
+	WAITING_FOR_PLAYERS,
+	PLAYING,
+	GAME_OVER,
+	STOPPED,
+}
@@ -0,0 +1,145 @@
+package com.secrethitler.ai.gamelog;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import com.secrethitler.ai.SecretHitlerAi;
+import com.secrethitler.ai.dtos.GameplayAction;
+import com.secrethitler.ai.enums.GamePhase;
+import com.secrethitler.ai.processors.GameplayProcessor;
+import com.secrethitler.ai.websockets.NotificationHeader;
+
+/**
+ * Reads a log written by {@link GameLogWriter} through a read-only memory map, so a corpus of
+ * games is replayed without copying the files onto the heap first.
+ */
+public class GameLogReader implements Closeable {
+	private static final int HEADER_SIZE = Integer.BYTES + Byte.BYTES;
+	private static final int RECORD_HEADER_SIZE = Byte.BYTES + Long.BYTES + Integer.BYTES;
+	private static final GameLogRecord.Type[] TYPES = GameLogRecord.Type.values();
+
+	private final Path path;
+	private final FileChannel channel;
+	private final MappedByteBuffer buffer;
+	private final Inflater inflater = new Inflater();
+	private byte[] inflated = new byte[8192];
+
+	public GameLogReader(final Path path) throws IOException {
+		this.path = path;
+		channel = FileChannel.open(path, StandardOpenOption.READ);
+		try {
+			if (channel.size() > Integer.MAX_VALUE) {
+				throw new IOException(String.format("%s is too large to map", path));
+			}
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != GameLogWriter.MAGIC) {
+				throw new IOException(String.format("%s is not a game log", path));
+			}
+			final byte version = buffer.get();
+			if (version != GameLogWriter.VERSION) {
+				throw new IOException(String.format("%s has unsupported game log version %d", path, version));
+			}
+		} catch (IOException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * @return the next record, or empty at the end of the log or at a record cut short by a crash
+	 */
+	public Optional<GameLogRecord> next() throws IOException {
+		if (buffer.remaining() < RECORD_HEADER_SIZE) {
+			return Optional.empty();
+		}
+		final int type = buffer.get() & 0xFF;
+		final long timestamp = buffer.getLong();
+		final int length = buffer.getInt();
+		final int ordinal = type & ~GameLogWriter.COMPRESSED;
+		if (ordinal >= TYPES.length || length < 0) {
+			throw new IOException(String.format("%s has a corrupt record at byte %d", path, buffer.position() - RECORD_HEADER_SIZE));
+		}
+		if (buffer.remaining() < length) {
+			buffer.position(buffer.limit());
+			return Optional.empty();
+		}
+		final ByteBuffer payload = buffer.slice();
+		payload.limit(length);
+		buffer.position(buffer.position() + length);
+		final String json = (type & GameLogWriter.COMPRESSED) == 0 ? StandardCharsets.UTF_8.decode(payload).toString() : inflate(payload);
+		return Optional.of(new GameLogRecord(TYPES[ordinal], timestamp, json));
+	}
+
+	public List<GameLogRecord> readAll() throws IOException {
+		List<GameLogRecord> records = new ArrayList<>();
+		for (Optional<GameLogRecord> record = next(); record.isPresent(); record = next()) {
+			records.add(record.get());
+		}
+		return records;
+	}
+
+	/**
+	 * Feeds the remaining notifications of the log to the processor, the way the gameplay
+	 * endpoint would have, ignoring the actions the bot sent at the time. Like the endpoint and
+	 * {@link ReplayRunner}, a repeated phase or the invitation to the next game is not a move.
+	 *
+	 * @return the action the processor chose for each notification it was given, in order
+	 */
+	public List<Optional<GameplayAction>> replay(final GameplayProcessor processor) throws IOException {
+		List<Optional<GameplayAction>> actions = new ArrayList<>();
+		GamePhase previousPhase = null;
+		for (Optional<GameLogRecord> record = next(); record.isPresent(); record = next()) {
+			if (GameLogRecord.Type.NOTIFICATION != record.get().getType()) {
+				continue;
+			}
+			final NotificationHeader header = NotificationHeader.read(SecretHitlerAi.getObjectMapper().getFactory(), record.get().getJson());
+			if (header.getNextGameId() != null || header.getPhase() == previousPhase) {
+				continue;
+			}
+			previousPhase = header.getPhase();
+			actions.add(processor.getActionToTake(record.get().toNotification()));
+		}
+		return actions;
+	}
+
+	private String inflate(final ByteBuffer payload) throws IOException {
+		final byte[] compressed = new byte[payload.remaining()];
+		payload.get(compressed);
+		inflater.reset();
+		inflater.setInput(compressed);
+		int length = 0;
+		try {
+			while (!inflater.finished()) {
+				if (length == inflated.length) {
+					inflated = Arrays.copyOf(inflated, inflated.length * 2);
+				}
+				final int read = inflater.inflate(inflated, length, inflated.length - length);
+				if (read == 0 && inflater.needsInput()) {
+					throw new IOException(String.format("%s has a truncated compressed record", path));
+				}
+				length += read;
+			}
+		} catch (DataFormatException e) {
+			throw new IOException(String.format("%s has a corrupt compressed record", path), e);
+		}
+		return new String(inflated, 0, length, StandardCharsets.UTF_8);
+	}
+
+	@Override
+	public void close() throws IOException {
+		inflater.end();
+		channel.close();
+	}
+}
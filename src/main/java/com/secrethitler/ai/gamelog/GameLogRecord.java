@@ -0,0 +1,78 @@
+package com.secrethitler.ai.gamelog;
+
+import java.io.IOException;
+
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.secrethitler.ai.SecretHitlerAi;
+import com.secrethitler.ai.dtos.GameplayAction;
+import com.secrethitler.ai.dtos.ParticipantGameNotification;
+
+/**
+ * One message of a game log, kept as the JSON that went over the wire.
+ */
+public class GameLogRecord {
+	private static final ObjectReader ACTION_READER = SecretHitlerAi.getObjectMapper().readerFor(GameplayAction.class);
+
+	public enum Type {
+		NOTIFICATION,
+		ACTION
+	}
+
+	private final Type type;
+	private final long timestamp;
+	private final String json;
+
+	public GameLogRecord(final Type type, final long timestamp, final String json) {
+		this.type = type;
+		this.timestamp = timestamp;
+		this.json = json;
+	}
+
+	public Type getType() {
+		return type;
+	}
+
+	/**
+	 * @return when the message was received or sent, in milliseconds since the epoch
+	 */
+	public long getTimestamp() {
+		return timestamp;
+	}
+
+	public String getJson() {
+		return json;
+	}
+
+	public ParticipantGameNotification toNotification() throws IOException {
+		if (Type.NOTIFICATION != type) {
+			throw new IllegalStateException(String.format("A %s record is not a notification", type));
+		}
+		return SecretHitlerAi.getNotificationReader().readValue(json);
+	}
+
+	public GameplayAction toAction() throws IOException {
+		if (Type.ACTION != type) {
+			throw new IllegalStateException(String.format("A %s record is not an action", type));
+		}
+		return ACTION_READER.readValue(json);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		return EqualsBuilder.reflectionEquals(this, obj);
+	}
+
+	@Override
+	public int hashCode() {
+		return HashCodeBuilder.reflectionHashCode(this);
+	}
+
+	@Override
+	public String toString() {
+		return ToStringBuilder.reflectionToString(this);
+	}
+}
@@ -0,0 +1,119 @@
+package com.secrethitler.ai.gamelog;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+
+/**
+ * Appends the messages of one player's game to a binary log. The file starts with the
+ * {@link #MAGIC} number and {@link #VERSION}, followed by one record per message:
+ * <pre>
+ * byte  type ordinal, with {@link #COMPRESSED} set if the payload is deflated
+ * long  timestamp in milliseconds since the epoch
+ * int   payload length
+ * byte[] payload, the UTF-8 JSON of the message
+ * </pre>
+ * Records are flushed as they are written so a crashed bot leaves a readable log behind.
+ */
+public class GameLogWriter implements Closeable {
+	public static final int MAGIC = 0x53484C47;
+	public static final byte VERSION = 1;
+	public static final int COMPRESSED = 0x80;
+	public static final String EXTENSION = ".shlog";
+	private static final int BUFFER_SIZE = 8192;
+
+	/**
+	 * @return the log file of the player in the game, named so it sorts by game
+	 */
+	public static Path getPath(final Path directory, final String gameId, final String username) {
+		return directory.resolve(String.format("%s-%s%s", sanitize(gameId), sanitize(username), EXTENSION));
+	}
+
+	private static String sanitize(final String name) {
+		return String.valueOf(name).replaceAll("[^A-Za-z0-9._-]", "_");
+	}
+
+	private final Path path;
+	private final DataOutputStream out;
+	private final Deflater deflater;
+	private byte[] buffer = new byte[BUFFER_SIZE];
+
+	/**
+	 * Opens the log of the player in the game, appending to it if it already exists.
+	 *
+	 * @param compress whether to deflate the payload of every record
+	 */
+	public GameLogWriter(final Path directory, final String gameId, final String username, final boolean compress) throws IOException {
+		Files.createDirectories(directory);
+		path = getPath(directory, gameId, username);
+		final boolean empty = !Files.exists(path) || Files.size(path) == 0;
+		out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path, StandardOpenOption.CREATE, StandardOpenOption.APPEND), BUFFER_SIZE));
+		deflater = compress ? new Deflater(Deflater.BEST_SPEED) : null;
+		if (empty) {
+			out.writeInt(MAGIC);
+			out.writeByte(VERSION);
+			out.flush();
+		}
+	}
+
+	public Path getPath() {
+		return path;
+	}
+
+	public void recordNotification(final String json) throws IOException {
+		record(GameLogRecord.Type.NOTIFICATION, System.currentTimeMillis(), json);
+	}
+
+	public void recordAction(final String json) throws IOException {
+		record(GameLogRecord.Type.ACTION, System.currentTimeMillis(), json);
+	}
+
+	/**
+	 * Notifications arrive on the websocket thread and actions are sent from the move
+	 * scheduler, so records are appended one at a time.
+	 */
+	public synchronized void record(final GameLogRecord.Type type, final long timestamp, final String json) throws IOException {
+		final byte[] payload = json.getBytes(StandardCharsets.UTF_8);
+		if (deflater == null) {
+			writeRecord(type.ordinal(), timestamp, payload, payload.length);
+			return;
+		}
+		deflater.reset();
+		deflater.setInput(payload);
+		deflater.finish();
+		int length = 0;
+		while (!deflater.finished()) {
+			if (length == buffer.length) {
+				buffer = Arrays.copyOf(buffer, buffer.length * 2);
+			}
+			length += deflater.deflate(buffer, length, buffer.length - length);
+		}
+		writeRecord(type.ordinal() | COMPRESSED, timestamp, buffer, length);
+	}
+
+	private void writeRecord(final int type, final long timestamp, final byte[] payload, final int length) throws IOException {
+		out.writeByte(type);
+		out.writeLong(timestamp);
+		out.writeInt(length);
+		out.write(payload, 0, length);
+		out.flush();
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		try {
+			out.close();
+		} finally {
+			if (deflater != null) {
+				deflater.end();
+			}
+		}
+	}
+}
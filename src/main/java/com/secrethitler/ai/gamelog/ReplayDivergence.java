@@ -0,0 +1,76 @@
+package com.secrethitler.ai.gamelog;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Optional;
+
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+
+import com.secrethitler.ai.dtos.GameplayAction;
+import com.secrethitler.ai.enums.GamePhase;
+
+/**
+ * The first move of a replayed game where the processor chose differently from the bot that
+ * recorded the game.
+ */
+public class ReplayDivergence {
+	private final Path log;
+	private final int move;
+	private final GamePhase phase;
+	private final Optional<GameplayAction> recordedAction;
+	private final Optional<GameplayAction> replayedAction;
+
+	public ReplayDivergence(final Path log, final int move, final GamePhase phase, final Optional<GameplayAction> recordedAction,
+			final Optional<GameplayAction> replayedAction) {
+		this.log = log;
+		this.move = move;
+		this.phase = phase;
+		this.recordedAction = recordedAction;
+		this.replayedAction = replayedAction;
+	}
+
+	public Path getLog() {
+		return log;
+	}
+
+	/**
+	 * @return the index of the notification that was answered differently, counting only those the bot acted on
+	 */
+	public int getMove() {
+		return move;
+	}
+
+	public GamePhase getPhase() {
+		return phase;
+	}
+
+	public Optional<GameplayAction> getRecordedAction() {
+		return recordedAction;
+	}
+
+	public Optional<GameplayAction> getReplayedAction() {
+		return replayedAction;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		return EqualsBuilder.reflectionEquals(this, obj);
+	}
+
+	@Override
+	public int hashCode() {
+		return HashCodeBuilder.reflectionHashCode(this);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s move %d during %s: recorded %s, replayed %s", log.getFileName(), move, phase,
+				describe(recordedAction), describe(replayedAction));
+	}
+
+	private static String describe(final Optional<GameplayAction> action) {
+		return action.map(present -> String.format("%s %s", present.getAction(), Arrays.toString(present.getArgs())))
+				.orElse("nothing");
+	}
+}
@@ -0,0 +1,94 @@
+package com.secrethitler.ai.gamelog;
+
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import com.secrethitler.ai.enums.GamePhase;
+
+/**
+ * Thread safe tally of replayed game logs, counting the games whose moves a processor no longer
+ * reproduces by the phase of their first divergent move.
+ */
+public class ReplayReport {
+	private static final int REPORTED_DIVERGENCES = 20;
+
+	private final Map<GamePhase, LongAdder> phaseToDivergencesMap = new EnumMap<>(GamePhase.class);
+	private final Queue<ReplayDivergence> divergences = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger gamesReplayed = new AtomicInteger();
+	private final AtomicInteger gamesFailed = new AtomicInteger();
+	private final LongAdder moves = new LongAdder();
+
+	public ReplayReport() {
+		for (GamePhase phase : GamePhase.values()) {
+			phaseToDivergencesMap.put(phase, new LongAdder());
+		}
+	}
+
+	/**
+	 * @param moves the moves compared, up to and including the first divergent one
+	 */
+	public void recordGame(final int moves) {
+		gamesReplayed.incrementAndGet();
+		this.moves.add(moves);
+	}
+
+	public void recordDivergence(final ReplayDivergence divergence) {
+		divergences.add(divergence);
+		phaseToDivergencesMap.get(divergence.getPhase()).increment();
+	}
+
+	public void recordFailedGame() {
+		gamesFailed.incrementAndGet();
+	}
+
+	public int getGamesReplayed() {
+		return gamesReplayed.get();
+	}
+
+	public int getGamesFailed() {
+		return gamesFailed.get();
+	}
+
+	public int getGamesDiverged() {
+		return divergences.size();
+	}
+
+	public long getMoves() {
+		return moves.sum();
+	}
+
+	public int getDivergences(final GamePhase phase) {
+		return phaseToDivergencesMap.get(phase).intValue();
+	}
+
+	/**
+	 * @return the first divergence of every game that diverged, ordered by log file
+	 */
+	public List<ReplayDivergence> getDivergences() {
+		return divergences.stream()
+				.sorted(Comparator.comparing(ReplayDivergence::getLog))
+				.collect(Collectors.toList());
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder report = new StringBuilder(String.format("%d games replayed (%d failed), %d moves compared, %d games diverged%n",
+				getGamesReplayed(), getGamesFailed(), getMoves(), getGamesDiverged()));
+		phaseToDivergencesMap.forEach((phase, count) -> {
+			if (count.intValue() > 0) {
+				report.append(String.format("%-20s: %d%n", phase, count.intValue()));
+			}
+		});
+		getDivergences().stream()
+				.limit(REPORTED_DIVERGENCES)
+				.forEach(divergence -> report.append(divergence).append(System.lineSeparator()));
+		return report.toString();
+	}
+}
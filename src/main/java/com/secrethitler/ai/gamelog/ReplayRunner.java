@@ -0,0 +1,197 @@
+package com.secrethitler.ai.gamelog;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.secrethitler.ai.SecretHitlerAi;
+import com.secrethitler.ai.dtos.GameplayAction;
+import com.secrethitler.ai.dtos.ParticipantGameNotification;
+import com.secrethitler.ai.enums.GamePhase;
+import com.secrethitler.ai.processors.GameplayProcessor;
+import com.secrethitler.ai.processors.GameplayProcessorFactory;
+import com.secrethitler.ai.processors.GameplayProcessorFactoryImpl;
+import com.secrethitler.ai.utils.RandomUtilImpl;
+import com.secrethitler.ai.websockets.NotificationHeader;
+
+/**
+ * Replays a corpus of recorded game logs through a processor level on a {@link ForkJoinPool},
+ * comparing every action it chooses with the one the recording bot sent, and tallies the first
+ * divergence of each game in a {@link ReplayReport}.
+ * <p>
+ * Notifications are filtered the way the gameplay endpoint filters them, so a repeated phase or
+ * the invitation to the next game is not a move. Every log gets its own random generator seeded
+ * from the runner's seed and the log's file name, so a replay does not depend on how the corpus
+ * was split between threads. Levels whose search is bounded by time rather than by a generator
+ * are not reproducible this way.
+ */
+public class ReplayRunner {
+	private static final Logger LOGGER = Logger.getLogger(ReplayRunner.class.getName());
+
+	public static class Builder {
+		private List<Path> logs = new ArrayList<>();
+		private int level;
+		private int parallelism = Runtime.getRuntime().availableProcessors();
+		private long seed;
+		private GameplayProcessorFactory gameplayProcessorFactory = new GameplayProcessorFactoryImpl();
+
+		protected Builder() {
+			super();
+		}
+
+		public Builder withLogs(final List<Path> logs) {
+			this.logs = new ArrayList<>(logs);
+			return this;
+		}
+
+		public Builder withLevel(final int level) {
+			this.level = level;
+			return this;
+		}
+
+		public Builder withParallelism(final int parallelism) {
+			this.parallelism = parallelism;
+			return this;
+		}
+
+		public Builder withSeed(final long seed) {
+			this.seed = seed;
+			return this;
+		}
+
+		public Builder withGameplayProcessorFactory(final GameplayProcessorFactory gameplayProcessorFactory) {
+			this.gameplayProcessorFactory = gameplayProcessorFactory;
+			return this;
+		}
+
+		public ReplayRunner build() {
+			return new ReplayRunner(this);
+		}
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * @return the log itself, or every game log under a directory
+	 */
+	public static List<Path> findLogs(final Path path) throws IOException {
+		if (!Files.isDirectory(path)) {
+			return Collections.singletonList(path);
+		}
+		try (Stream<Path> paths = Files.walk(path)) {
+			return paths.filter(Files::isRegularFile)
+					.filter(file -> file.getFileName().toString().endsWith(GameLogWriter.EXTENSION))
+					.sorted()
+					.collect(Collectors.toList());
+		}
+	}
+
+	private final List<Path> logs;
+	private final int level;
+	private final int parallelism;
+	private final long seed;
+	private final GameplayProcessorFactory gameplayProcessorFactory;
+
+	private ReplayRunner(final Builder builder) {
+		this.logs = builder.logs;
+		this.level = builder.level;
+		this.parallelism = builder.parallelism;
+		this.seed = builder.seed;
+		this.gameplayProcessorFactory = builder.gameplayProcessorFactory;
+	}
+
+	/**
+	 * Replays every log and blocks until they have all finished.
+	 *
+	 * @return the tally of all logs replayed
+	 */
+	public ReplayReport run() throws InterruptedException {
+		ReplayReport report = new ReplayReport();
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		try {
+			pool.submit(() -> logs.parallelStream().forEach(log -> replay(log, report))).get();
+		} catch (ExecutionException e) {
+			throw new IllegalStateException(e.getCause());
+		} finally {
+			pool.shutdown();
+		}
+		return report;
+	}
+
+	private void replay(final Path log, final ReplayReport report) {
+		try (GameLogReader reader = new GameLogReader(log)) {
+			final Optional<ReplayDivergence> divergence = replay(log, reader, report);
+			divergence.ifPresent(report::recordDivergence);
+		} catch (Exception e) {
+			LOGGER.log(Level.WARNING, String.format("Replay of %s failed", log), e);
+			report.recordFailedGame();
+		}
+	}
+
+	private Optional<ReplayDivergence> replay(final Path log, final GameLogReader reader, final ReplayReport report) throws Exception {
+		GameplayProcessor processor = null;
+		GamePhase previousPhase = null;
+		Move move = null;
+		int moves = 0;
+		for (Optional<GameLogRecord> next = reader.next(); next.isPresent(); next = reader.next()) {
+			final GameLogRecord record = next.get();
+			if (GameLogRecord.Type.ACTION == record.getType()) {
+				if (move != null && !move.recordedAction.isPresent()) {
+					move.recordedAction = Optional.of(record.toAction());
+				}
+				continue;
+			}
+			final NotificationHeader header = NotificationHeader.read(SecretHitlerAi.getObjectMapper().getFactory(), record.getJson());
+			if (header.getNextGameId() != null || header.getPhase() == previousPhase) {
+				continue;
+			}
+			if (move != null && move.isDivergent()) {
+				break;
+			}
+			final ParticipantGameNotification notification = record.toNotification();
+			previousPhase = header.getPhase();
+			if (processor == null) {
+				final String username = notification.getGameData().getMyPlayer().getUsername();
+				processor = gameplayProcessorFactory.getGameplayProcessor(level, username, new RandomUtilImpl(seed ^ log.getFileName().toString().hashCode()));
+			}
+			move = new Move(moves++, previousPhase, processor.getActionToTake(notification));
+		}
+		report.recordGame(moves);
+		if (move == null || !move.isDivergent()) {
+			return Optional.empty();
+		}
+		return Optional.of(new ReplayDivergence(log, move.index, move.phase, move.recordedAction, move.replayedAction));
+	}
+
+	/**
+	 * A notification the processor has answered, and the first action the recording bot sent after it.
+	 */
+	private static class Move {
+		private final int index;
+		private final GamePhase phase;
+		private final Optional<GameplayAction> replayedAction;
+		private Optional<GameplayAction> recordedAction = Optional.empty();
+
+		private Move(final int index, final GamePhase phase, final Optional<GameplayAction> replayedAction) {
+			this.index = index;
+			this.phase = phase;
+			this.replayedAction = replayedAction;
+		}
+
+		private boolean isDivergent() {
+			return !recordedAction.equals(replayedAction);
+		}
+	}
+}
@@ -0,0 +1,331 @@
+package com.secrethitler.ai.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import com.secrethitler.ai.enums.GamePhase;
+import com.secrethitler.ai.enums.PartyMembership;
+import com.secrethitler.ai.enums.SecretRole;
+import com.secrethitler.ai.websockets.SharedWebsocketContainer;
+
+/**
+ * Counters and latency histograms of every robot in the JVM, registered as a
+ * {@link BotMetricsMXBean} and optionally served in the Prometheus text format by a
+ * {@link MetricsHttpServer}. Recording is lock free, so it can stay on for a whole fleet.
+ */
+public final class BotMetrics implements BotMetricsMXBean {
+	private static final Logger LOGGER = Logger.getLogger(BotMetrics.class.getName());
+	protected static final String OBJECT_NAME = "com.secrethitler.ai:type=BotMetrics";
+	private static final double NANOS_PER_MILLI = 1000000;
+	private static final BotMetrics INSTANCE = new BotMetrics();
+
+	public enum Timer {
+		DECISION,
+		PARSE,
+		SEND,
+		ROUND_TRIP
+	}
+
+	/**
+	 * What a latency was measured for; the processor level and phase are only known for decisions
+	 * and round trips.
+	 */
+	public static final class Key implements Comparable<Key> {
+		private final Timer timer;
+		private final int level;
+		private final GamePhase phase;
+
+		private Key(final Timer timer, final int level, final GamePhase phase) {
+			this.timer = timer;
+			this.level = level;
+			this.phase = phase;
+		}
+
+		public Timer getTimer() {
+			return timer;
+		}
+
+		public int getLevel() {
+			return level;
+		}
+
+		public GamePhase getPhase() {
+			return phase;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return timer == other.timer && level == other.level && phase == other.phase;
+		}
+
+		@Override
+		public int hashCode() {
+			return (timer.ordinal() * 31 + level) * 31 + (phase == null ? -1 : phase.ordinal());
+		}
+
+		@Override
+		public int compareTo(final Key other) {
+			if (timer != other.timer) {
+				return timer.compareTo(other.timer);
+			}
+			if (level != other.level) {
+				return Integer.compare(level, other.level);
+			}
+			return Integer.compare(phase == null ? -1 : phase.ordinal(), other.phase == null ? -1 : other.phase.ordinal());
+		}
+
+		@Override
+		public String toString() {
+			return phase != null ? String.format("%s level=%d phase=%s", timer.name().toLowerCase(), level, phase) : timer.name().toLowerCase();
+		}
+	}
+
+	public static BotMetrics getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Registers the metrics with the platform MBean server, if they are not registered already.
+	 */
+	public static synchronized void registerMXBean() {
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName(OBJECT_NAME);
+			if (!server.isRegistered(name)) {
+				server.registerMBean(INSTANCE, name);
+				LOGGER.fine(() -> String.format("Registered the bot metrics as %s", OBJECT_NAME));
+			}
+		} catch (JMException e) {
+			LOGGER.log(Level.WARNING, "Unable to register the bot metrics with JMX", e);
+		}
+	}
+
+	private final ConcurrentMap<Key, LatencyHistogram> latencies = new ConcurrentHashMap<>();
+	private final ConcurrentMap<SecretRole, LongAdder> wins = new ConcurrentHashMap<>();
+	private final ConcurrentMap<SecretRole, LongAdder> losses = new ConcurrentHashMap<>();
+	private final LongAdder messagesReceived = new LongAdder();
+	private final LongAdder messagesIgnored = new LongAdder();
+	private final LongAdder messagesActed = new LongAdder();
+	private final AtomicInteger outboundQueueDepth = new AtomicInteger();
+	private final LongAdder messagesDropped = new LongAdder();
+	private final LongAdder sendRetries = new LongAdder();
+	private final LongAdder sendFailures = new LongAdder();
+
+	protected BotMetrics() {
+		super();
+	}
+
+	public void recordDecision(final int level, final GamePhase phase, final long nanos) {
+		record(new Key(Timer.DECISION, level, phase), nanos);
+	}
+
+	public void recordParse(final long nanos) {
+		record(new Key(Timer.PARSE, 0, null), nanos);
+	}
+
+	public void recordSend(final long nanos) {
+		record(new Key(Timer.SEND, 0, null), nanos);
+	}
+
+	/**
+	 * Records the time from sending a move made in the phase to hearing of the next phase.
+	 */
+	public void recordRoundTrip(final int level, final GamePhase phase, final long nanos) {
+		record(new Key(Timer.ROUND_TRIP, level, phase), nanos);
+	}
+
+	private void record(final Key key, final long nanos) {
+		latencies.computeIfAbsent(key, newKey -> new LatencyHistogram()).record(nanos);
+	}
+
+	public void messageReceived() {
+		messagesReceived.increment();
+	}
+
+	public void messageIgnored() {
+		messagesIgnored.increment();
+	}
+
+	public void messageActed() {
+		messagesActed.increment();
+	}
+
+	public void messageQueued() {
+		outboundQueueDepth.incrementAndGet();
+	}
+
+	public void messageDequeued() {
+		outboundQueueDepth.decrementAndGet();
+	}
+
+	public void messageDropped() {
+		messagesDropped.increment();
+	}
+
+	public void sendRetried() {
+		sendRetries.increment();
+	}
+
+	public void sendFailed() {
+		sendFailures.increment();
+	}
+
+	public void recordOutcome(final SecretRole role, final PartyMembership winners) {
+		if (role == null || SecretRole.UNKNOWN == role || winners == null) {
+			return;
+		}
+		final boolean won = (SecretRole.LIBERAL == role) == (PartyMembership.LIBERAL == winners);
+		(won ? wins : losses).computeIfAbsent(role, key -> new LongAdder()).increment();
+	}
+
+	/**
+	 * @return a snapshot of the latency histograms recorded so far, ordered by what was timed
+	 */
+	public Map<Key, LatencyHistogram> getLatencies() {
+		return new TreeMap<>(latencies);
+	}
+
+	public long getWins(final SecretRole role) {
+		final LongAdder count = wins.get(role);
+		return count == null ? 0 : count.sum();
+	}
+
+	public long getLosses(final SecretRole role) {
+		final LongAdder count = losses.get(role);
+		return count == null ? 0 : count.sum();
+	}
+
+	@Override
+	public long getMessagesReceived() {
+		return messagesReceived.sum();
+	}
+
+	@Override
+	public long getMessagesIgnored() {
+		return messagesIgnored.sum();
+	}
+
+	@Override
+	public long getMessagesActed() {
+		return messagesActed.sum();
+	}
+
+	@Override
+	public int getOutboundQueueDepth() {
+		return outboundQueueDepth.get();
+	}
+
+	@Override
+	public long getMessagesDropped() {
+		return messagesDropped.sum();
+	}
+
+	@Override
+	public long getSendRetries() {
+		return sendRetries.sum();
+	}
+
+	@Override
+	public long getSendFailures() {
+		return sendFailures.sum();
+	}
+
+	@Override
+	public int getOpenSessions() {
+		return SharedWebsocketContainer.getOpenSessions();
+	}
+
+	@Override
+	public long getSessionsOpened() {
+		return SharedWebsocketContainer.getSessionsOpened();
+	}
+
+	@Override
+	public Map<String, Long> getLatencyCounts() {
+		return getLatencyLongs(LatencyHistogram::getCount);
+	}
+
+	@Override
+	public Map<String, Double> getLatencyMeanMillis() {
+		return getLatencyMillis(histogram -> histogram.getCount() == 0 ? 0 : ((double) histogram.getSum()) / histogram.getCount());
+	}
+
+	@Override
+	public Map<String, Double> getLatencyP50Millis() {
+		return getLatencyMillis(histogram -> histogram.getValueAtPercentile(50));
+	}
+
+	@Override
+	public Map<String, Double> getLatencyP99Millis() {
+		return getLatencyMillis(histogram -> histogram.getValueAtPercentile(99));
+	}
+
+	@Override
+	public Map<String, Double> getLatencyMaxMillis() {
+		return getLatencyMillis(LatencyHistogram::getMax);
+	}
+
+	@Override
+	public Map<String, Long> getWins() {
+		return getOutcomes(this::getWins);
+	}
+
+	@Override
+	public Map<String, Long> getLosses() {
+		return getOutcomes(this::getLosses);
+	}
+
+	private Map<String, Long> getLatencyLongs(final ToLongFunction<LatencyHistogram> value) {
+		Map<String, Long> values = new TreeMap<>();
+		getLatencies().forEach((key, histogram) -> values.put(key.toString(), value.applyAsLong(histogram)));
+		return values;
+	}
+
+	private Map<String, Double> getLatencyMillis(final ToDoubleFunction<LatencyHistogram> nanos) {
+		Map<String, Double> values = new TreeMap<>();
+		getLatencies().forEach((key, histogram) -> values.put(key.toString(), nanos.applyAsDouble(histogram) / NANOS_PER_MILLI));
+		return values;
+	}
+
+	private static Map<String, Long> getOutcomes(final ToLongFunction<SecretRole> count) {
+		Map<String, Long> outcomes = new TreeMap<>();
+		for (SecretRole role : SecretRole.values()) {
+			if (SecretRole.UNKNOWN != role) {
+				outcomes.put(role.name(), count.applyAsLong(role));
+			}
+		}
+		return outcomes;
+	}
+
+	/**
+	 * Forgets everything recorded so far.
+	 */
+	public void reset() {
+		latencies.clear();
+		wins.clear();
+		losses.clear();
+		messagesReceived.reset();
+		messagesIgnored.reset();
+		messagesActed.reset();
+		messagesDropped.reset();
+		sendRetries.reset();
+		sendFailures.reset();
+	}
+}
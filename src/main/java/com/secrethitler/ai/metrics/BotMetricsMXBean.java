@@ -0,0 +1,41 @@
+package com.secrethitler.ai.metrics;
+
+import java.util.Map;
+
+/**
+ * The bot metrics as published over JMX. Latencies are keyed by what was timed, such as
+ * {@code decision level=3 phase=ELECTION}, and outcomes by secret role.
+ */
+public interface BotMetricsMXBean {
+	long getMessagesReceived();
+
+	long getMessagesIgnored();
+
+	long getMessagesActed();
+
+	int getOutboundQueueDepth();
+
+	long getMessagesDropped();
+
+	long getSendRetries();
+
+	long getSendFailures();
+
+	int getOpenSessions();
+
+	long getSessionsOpened();
+
+	Map<String, Long> getLatencyCounts();
+
+	Map<String, Double> getLatencyMeanMillis();
+
+	Map<String, Double> getLatencyP50Millis();
+
+	Map<String, Double> getLatencyP99Millis();
+
+	Map<String, Double> getLatencyMaxMillis();
+
+	Map<String, Long> getWins();
+
+	Map<String, Long> getLosses();
+}
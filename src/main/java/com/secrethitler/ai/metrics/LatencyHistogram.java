@@ -0,0 +1,85 @@
+package com.secrethitler.ai.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock free histogram of durations in nanoseconds. Every power of two is split into
+ * {@value #SUB_BUCKETS} linear sub-buckets, so a percentile is reported within 1/{@value #SUB_BUCKETS}
+ * of the recorded value from a nanosecond up to hundreds of years, in a fixed few kilobytes.
+ */
+public class LatencyHistogram {
+	protected static final int SUB_BUCKET_BITS = 3;
+	protected static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+	private final LongAdder count = new LongAdder();
+	private final LongAdder sum = new LongAdder();
+	private final AtomicLong max = new AtomicLong();
+
+	protected static int getBucket(final long value) {
+		if (value < SUB_BUCKETS) {
+			return (int) value;
+		}
+		final int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+		final int shift = exponent - SUB_BUCKET_BITS;
+		return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+	}
+
+	/**
+	 * @return the largest value that falls in the bucket
+	 */
+	protected static long getBucketLimit(final int bucket) {
+		if (bucket < SUB_BUCKETS) {
+			return bucket;
+		}
+		final int shift = bucket / SUB_BUCKETS - 1;
+		final long subBucket = SUB_BUCKETS + bucket % SUB_BUCKETS;
+		return ((subBucket + 1) << shift) - 1;
+	}
+
+	public void record(final long nanos) {
+		final long value = Math.max(0, nanos);
+		counts.incrementAndGet(getBucket(value));
+		count.increment();
+		sum.add(value);
+		max.accumulateAndGet(value, Math::max);
+	}
+
+	public long getCount() {
+		return count.sum();
+	}
+
+	public long getSum() {
+		return sum.sum();
+	}
+
+	public long getMax() {
+		return max.get();
+	}
+
+	/**
+	 * @param percentile between 0 and 100
+	 * @return the duration at or below which the given percentage of the recorded durations fall, or 0 if none were recorded
+	 */
+	public long getValueAtPercentile(final double percentile) {
+		long total = 0;
+		for (int bucket = 0; bucket < BUCKETS; bucket++) {
+			total += counts.get(bucket);
+		}
+		if (total == 0) {
+			return 0;
+		}
+		final long target = Math.max(1, (long) Math.ceil(total * Math.min(percentile, 100) / 100));
+		long seen = 0;
+		for (int bucket = 0; bucket < BUCKETS; bucket++) {
+			seen += counts.get(bucket);
+			if (seen >= target) {
+				return Math.min(getBucketLimit(bucket), getMax());
+			}
+		}
+		return getMax();
+	}
+}
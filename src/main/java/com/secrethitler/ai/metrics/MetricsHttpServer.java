@@ -0,0 +1,154 @@
+package com.secrethitler.ai.metrics;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Logger;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.secrethitler.ai.enums.SecretRole;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Serves the {@link BotMetrics} at {@value #PATH} in the Prometheus text exposition format, so
+ * a scraper can collect them without JMX. Latencies are exported as summaries in seconds.
+ */
+public final class MetricsHttpServer {
+	private static final Logger LOGGER = Logger.getLogger(MetricsHttpServer.class.getName());
+	protected static final String PORT = "secrethitler.ai.metrics.port";
+	protected static final String PATH = "/metrics";
+	protected static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+	private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+	private static final double NANOS_PER_SECOND = 1000000000;
+
+	private static HttpServer server = null;
+
+	/**
+	 * Registers the metrics with JMX and, if a metrics port is configured, starts serving them
+	 * over HTTP. Only the first call has any effect, as every table of a fleet shares the metrics.
+	 */
+	public static synchronized void configure(final Properties prop) throws IOException {
+		BotMetrics.registerMXBean();
+		final String port = prop.getProperty(PORT);
+		if (server != null || port == null || port.isEmpty()) {
+			return;
+		}
+		server = start(Integer.parseInt(port));
+	}
+
+	/**
+	 * @param port the port to listen on, or 0 for any free port
+	 */
+	protected static HttpServer start(final int port) throws IOException {
+		HttpServer httpServer = HttpServer.create(new InetSocketAddress(port), 0);
+		httpServer.createContext(PATH, MetricsHttpServer::handle);
+		httpServer.setExecutor(Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
+				.setNameFormat("metrics-http-%d")
+				.setDaemon(true)
+				.build()));
+		httpServer.start();
+		LOGGER.info(() -> String.format("Serving metrics at http://localhost:%d%s", httpServer.getAddress().getPort(), PATH));
+		return httpServer;
+	}
+
+	private static void handle(final HttpExchange exchange) throws IOException {
+		try {
+			if (!"GET".equals(exchange.getRequestMethod())) {
+				exchange.sendResponseHeaders(405, -1);
+				return;
+			}
+			final byte[] body = format(BotMetrics.getInstance()).getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+			exchange.sendResponseHeaders(200, body.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(body);
+			}
+		} finally {
+			exchange.close();
+		}
+	}
+
+	protected static String format(final BotMetrics metrics) {
+		StringBuilder text = new StringBuilder();
+		counter(text, "secrethitler_messages_received_total", "Gameplay messages received", metrics.getMessagesReceived());
+		counter(text, "secrethitler_messages_ignored_total", "Gameplay messages skipped as repeats of the current phase", metrics.getMessagesIgnored());
+		counter(text, "secrethitler_messages_acted_total", "Gameplay messages answered with a move", metrics.getMessagesActed());
+		counter(text, "secrethitler_messages_dropped_total", "Outbound messages refused because the session's queue was full", metrics.getMessagesDropped());
+		counter(text, "secrethitler_send_retries_total", "Outbound sends retried after a failure", metrics.getSendRetries());
+		counter(text, "secrethitler_send_failures_total", "Outbound messages dropped after every attempt failed", metrics.getSendFailures());
+		header(text, "secrethitler_outbound_queue_depth", "Outbound messages waiting to be sent across all sessions", "gauge");
+		text.append("secrethitler_outbound_queue_depth ").append(metrics.getOutboundQueueDepth()).append('\n');
+		counter(text, "secrethitler_sessions_opened_total", "Websocket sessions opened", metrics.getSessionsOpened());
+		header(text, "secrethitler_open_sessions", "Websocket sessions currently open", "gauge");
+		text.append("secrethitler_open_sessions ").append(metrics.getOpenSessions()).append('\n');
+
+		header(text, "secrethitler_games_total", "Finished games by the robot's secret role and outcome", "counter");
+		for (SecretRole role : SecretRole.values()) {
+			if (SecretRole.UNKNOWN != role) {
+				sample(text, "secrethitler_games_total", String.format("role=\"%s\",outcome=\"win\"", role), metrics.getWins(role));
+				sample(text, "secrethitler_games_total", String.format("role=\"%s\",outcome=\"loss\"", role), metrics.getLosses(role));
+			}
+		}
+
+		for (BotMetrics.Timer timer : BotMetrics.Timer.values()) {
+			final String name = String.format("secrethitler_%s_seconds", timer.name().toLowerCase(Locale.ROOT));
+			header(text, name, String.format("Time spent on %s", timer.name().toLowerCase(Locale.ROOT)), "summary");
+			metrics.getLatencies().forEach((key, histogram) -> {
+				if (key.getTimer() != timer) {
+					return;
+				}
+				final String labels = key.getPhase() != null ? String.format("level=\"%d\",phase=\"%s\"", key.getLevel(), key.getPhase()) : "";
+				for (double quantile : QUANTILES) {
+					sample(text, name, join(labels, String.format("quantile=\"%s\"", quantile)),
+							histogram.getValueAtPercentile(quantile * 100) / NANOS_PER_SECOND);
+				}
+				sample(text, name + "_sum", labels, histogram.getSum() / NANOS_PER_SECOND);
+				sample(text, name + "_count", labels, histogram.getCount());
+			});
+		}
+		return text.toString();
+	}
+
+	private static void counter(final StringBuilder text, final String name, final String help, final long value) {
+		header(text, name, help, "counter");
+		text.append(name).append(' ').append(value).append('\n');
+	}
+
+	private static void header(final StringBuilder text, final String name, final String help, final String type) {
+		text.append("# HELP ").append(name).append(' ').append(help).append('\n');
+		text.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+	}
+
+	private static void sample(final StringBuilder text, final String name, final String labels, final Number value) {
+		text.append(name);
+		if (!labels.isEmpty()) {
+			text.append('{').append(labels).append('}');
+		}
+		text.append(' ').append(value).append('\n');
+	}
+
+	private static String join(final String labels, final String label) {
+		return labels.isEmpty() ? label : labels + "," + label;
+	}
+
+	/**
+	 * Stops serving metrics, so a later call to {@link #configure(Properties)} may start again.
+	 */
+	public static synchronized void stop() {
+		if (server != null) {
+			server.stop(0);
+			((ExecutorService) server.getExecutor()).shutdown();
+			server = null;
+		}
+	}
+
+	private MetricsHttpServer() {
+		super();
+	}
+}
@@ -47,6 +47,10 @@ public abstract class AbstractDeductionGameplayProcessor extends SimpleGameplayP
 		return POLICY_TO_MEMBERSHIP_MAP.get(policy);
 	}
 	
+	protected static int getNumberOfFascistsFromNumberOfPlayers(final int players) {
+		return (players - 5) / 2 + 2;
+	}
+	
 	protected static PlayerData getPlayerByUsername(final List<PlayerData> players, final String username) {
 		return players.stream()
 				.filter(player -> username.equals(player.getUsername()))
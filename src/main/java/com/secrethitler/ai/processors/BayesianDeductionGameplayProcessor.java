@@ -0,0 +1,462 @@
+package com.secrethitler.ai.processors;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.commons.math3.util.CombinatoricsUtils;
+
+import com.google.common.collect.ImmutableMap;
+import com.secrethitler.ai.dtos.GameData;
+import com.secrethitler.ai.dtos.GameplayAction;
+import com.secrethitler.ai.dtos.ParticipantGameNotification;
+import com.secrethitler.ai.dtos.PlayerData;
+import com.secrethitler.ai.enums.GamePhase;
+import com.secrethitler.ai.enums.PartyMembership;
+import com.secrethitler.ai.enums.Policy;
+import com.secrethitler.ai.enums.SecretRole;
+import com.secrethitler.ai.enums.SuspicionAction;
+import com.secrethitler.ai.enums.Vote;
+import com.secrethitler.ai.simulation.LocalGame;
+import com.secrethitler.ai.utils.RandomUtil;
+
+/**
+ * Deduces memberships by exact Bayesian inference over every role assignment consistent with
+ * what the player knows, held in a {@link RoleDistribution}. Each deducer weighs the worlds by
+ * how likely the observed votes, policies, kills and vetoes would be in them, and the decision
+ * methods work from the resulting fascist and Hitler probability of every player.
+ */
+public class BayesianDeductionGameplayProcessor extends AbstractDeductionGameplayProcessor {
+	private static final Logger LOGGER = Logger.getLogger(BayesianDeductionGameplayProcessor.class.getName());
+
+	private static final int SUSPICION_SCALE = 1000;
+	private static final double PROBABILITY_TOLERANCE = 1e-9;
+
+	private static final double LIBERAL_PRESIDENT_DISCARDS_FASCIST = 0.95;
+	private static final double FASCIST_PRESIDENT_DISCARDS_LIBERAL = 0.8;
+	private static final double LIBERAL_CHANCELLOR_ENACTS_LIBERAL = 0.95;
+	private static final double FASCIST_CHANCELLOR_ENACTS_FASCIST = 0.8;
+	private static final double VETO_REQUESTED_WITH_OPPOSING_POLICIES = 0.9;
+	private static final double VETO_REFUSED_WITH_FAVOURED_POLICIES = 0.9;
+
+	private static final double LIBERAL_JA_FOR_FASCIST_GOVERNMENT = 0.45;
+	private static final double LIBERAL_JA_FOR_LIBERAL_GOVERNMENT = 0.6;
+	private static final double FASCIST_JA_FOR_FASCIST_GOVERNMENT = 0.9;
+	private static final double FASCIST_JA_FOR_LIBERAL_GOVERNMENT = 0.3;
+
+	private static final double[][] KILL_LIKELIHOODS = {{0.4, 0.6}, {0.9, 0.1}};
+	private static final double SAME_TEAM_CHOSEN_FACTOR = 1.5;
+	private static final double CHANCELLOR_VETO_FACTOR = 9;
+	private static final double SUCCESSFUL_VETO_FACTOR = 4;
+	private static final double DEFAULT_EVIDENCE_FACTOR = 2;
+
+	private static final Map<SuspicionAction, Double> SUSPICION_ACTION_TO_EVIDENCE_FACTOR_MAP = ImmutableMap.<SuspicionAction, Double>builder()
+			.put(SuspicionAction.RUNNING_MATE_CHOSEN, SAME_TEAM_CHOSEN_FACTOR)
+			.put(SuspicionAction.PRESIDENTIAL_CANDIDATE_CHOSEN, SAME_TEAM_CHOSEN_FACTOR)
+			.put(SuspicionAction.CHANCELLOR_VETO, CHANCELLOR_VETO_FACTOR)
+			.put(SuspicionAction.SUCCESSFUL_VETO, SUCCESSFUL_VETO_FACTOR)
+			.build();
+
+	private static double binomialCoefficient(final int n, final int k) {
+		if (n < k || k < 0) {
+			return 0;
+		}
+		return CombinatoricsUtils.binomialCoefficientDouble(n, k);
+	}
+
+	private static int index(final boolean fascist) {
+		return fascist ? 1 : 0;
+	}
+
+	private RoleDistribution distribution;
+	private final Map<String, Integer> usernameToSeatMap = new HashMap<>();
+	private List<PlayerData> seatedPlayers;
+	private final List<Policy> knownDiscardedPolicies = new ArrayList<>();
+	private Optional<Integer> observedPassedFascistPolicies = Optional.empty();
+
+	public BayesianDeductionGameplayProcessor(final String username, final RandomUtil randomUtil) {
+		super(username, randomUtil);
+	}
+
+	@Override
+	public Optional<GameplayAction> getActionToTake(final ParticipantGameNotification notification) {
+		final GameData gameData = notification.getGameData();
+		applyKnownRoles(gameData);
+		if (GamePhase.ELECTION == gameData.getPhase()) {
+			recordGovernment(gameData);
+		}
+		return super.getActionToTake(notification);
+	}
+	
+	/**
+	 * Remembers the government up for election, even when this player is dead and does not vote on it.
+	 */
+	private void recordGovernment(final GameData gameData) {
+		final Optional<PlayerData> president = gameData.getPlayers().stream().filter(PlayerData::isPresident).findAny();
+		final Optional<PlayerData> chancellor = gameData.getPlayers().stream().filter(PlayerData::isChancellor).findAny();
+		if (president.isPresent() && chancellor.isPresent()) {
+			previousPresident = president.get().getUsername();
+			previousChancellor = chancellor.get().getUsername();
+		}
+	}
+
+	/**
+	 * Rules out every world that contradicts the memberships and roles this player can see,
+	 * and any dead player being Hitler, since killing Hitler ends the game.
+	 */
+	private void applyKnownRoles(final GameData gameData) {
+		List<PlayerData> players = gameData.getPlayers();
+		if (players == null || players.isEmpty()) {
+			return;
+		}
+		if (distribution == null || distribution.getPlayers() != players.size()) {
+			distribution = new RoleDistribution(players.size(), getNumberOfFascistsFromNumberOfPlayers(players.size()));
+			usernameToSeatMap.clear();
+			for (int seat = 0; seat < players.size(); seat++) {
+				usernameToSeatMap.put(players.get(seat).getUsername(), seat);
+			}
+		}
+		seatedPlayers = players;
+		for (int seat = 0; seat < players.size(); seat++) {
+			final PlayerData player = players.get(seat);
+			if (PartyMembership.UNKNOWN != player.getPartyMembership() && player.getPartyMembership() != null) {
+				distribution.setKnownFascist(seat, PartyMembership.FASCIST == player.getPartyMembership());
+			}
+			if (SecretRole.HITLER == player.getSecretRole()) {
+				distribution.setKnownHitler(seat, true);
+			} else if (KNOWN_NON_HITLER_ROLES.contains(player.getSecretRole()) || !player.isAlive()
+					|| provenNonHitlers.contains(player.getUsername())) {
+				distribution.setKnownHitler(seat, false);
+			}
+		}
+	}
+
+	private Optional<Integer> getSeat(final String username) {
+		return Optional.ofNullable(usernameToSeatMap.get(username));
+	}
+
+	/**
+	 * @return the seat the player was given in the current game data, falling back to their
+	 * username for a player from another list, or {@link PlayerData#NO_SEAT} if they are not playing
+	 */
+	private int getSeat(final PlayerData player) {
+		if (distribution != null && GameData.isSeated(seatedPlayers, player)) {
+			return player.getSeat();
+		}
+		return usernameToSeatMap.getOrDefault(player.getUsername(), PlayerData.NO_SEAT);
+	}
+
+	private double getFascistProbability(final PlayerData player) {
+		final int seat = getSeat(player);
+		return seat == PlayerData.NO_SEAT ? 0 : distribution.getFascistProbability(seat);
+	}
+
+	private double getHitlerProbability(final PlayerData player) {
+		final int seat = getSeat(player);
+		return seat == PlayerData.NO_SEAT ? 0 : distribution.getHitlerProbability(seat);
+	}
+
+	public double getFascistProbability(final String username) {
+		return getSeat(username).map(distribution::getFascistProbability).orElse(0d);
+	}
+
+	public double getHitlerProbability(final String username) {
+		return getSeat(username).map(distribution::getHitlerProbability).orElse(0d);
+	}
+
+	/**
+	 * Draws the secret roles of every seat from the current belief.
+	 *
+	 * @param uniform a number drawn uniformly from [0, 1)
+	 * @return the sampled role of every seat, or empty before the first notification
+	 */
+	protected Optional<List<SecretRole>> sampleRoles(final double uniform) {
+		if (distribution == null) {
+			return Optional.empty();
+		}
+		final int world = distribution.sample(uniform);
+		final int fascistSeats = distribution.getFascistSeats(world);
+		final int hitlerSeat = distribution.getHitlerSeat(world);
+		List<SecretRole> roles = new ArrayList<>(distribution.getPlayers());
+		for (int seat = 0; seat < distribution.getPlayers(); seat++) {
+			if (seat == hitlerSeat) {
+				roles.add(SecretRole.HITLER);
+			} else {
+				roles.add(RoleDistribution.isFascist(fascistSeats, seat) ? SecretRole.FASCIST : SecretRole.LIBERAL);
+			}
+		}
+		return Optional.of(roles);
+	}
+
+	@Override
+	protected int getMembershipSuspicion(final String username) {
+		return getSeat(username)
+				.map(seat -> (int) Math.round((1 - 2 * distribution.getFascistProbability(seat)) * SUSPICION_SCALE))
+				.orElse(0);
+	}
+
+	@Override
+	protected void updateSuspectedMembership(final PlayerData player, final PartyMembership membership,
+			final SuspicionAction suspicionAction, final GameData gameData) {
+		if (PartyMembership.UNKNOWN == membership) {
+			return;
+		}
+		final int seat = getSeat(player);
+		if (seat != PlayerData.NO_SEAT) {
+			distribution.weigh(seat, PartyMembership.FASCIST == membership,
+					SUSPICION_ACTION_TO_EVIDENCE_FACTOR_MAP.getOrDefault(suspicionAction, DEFAULT_EVIDENCE_FACTOR));
+		}
+	}
+
+	@Override
+	protected void updateSuspectedMembership(final PlayerData player, final int suspicion,
+			final SuspicionAction suspicionAction, final GameData gameData) {
+		updateSuspectedMembership(player, getPartyMembership(suspicion), suspicionAction, gameData);
+	}
+
+	/**
+	 * A government whose memberships are unknown is evidence that its members are on the same team.
+	 */
+	@Override
+	protected void updateSuspectedMembershipsForGovernment(final List<PlayerData> team,
+			final SuspicionAction suspicionAction, final GameData gameData, final int govtSuspectedMembership) {
+		final int first = getSeat(team.get(0));
+		final int second = getSeat(team.get(1));
+		if (first == PlayerData.NO_SEAT || second == PlayerData.NO_SEAT) {
+			return;
+		}
+		final double factor = SUSPICION_ACTION_TO_EVIDENCE_FACTOR_MAP.getOrDefault(suspicionAction, DEFAULT_EVIDENCE_FACTOR);
+		distribution.weigh(first, second, new double[][] {{factor, 1}, {1, factor}});
+	}
+
+	@Override
+	protected void printSuspectedPlayerMatrix(final String action) {
+		log(LOGGER, Level.INFO, () -> String.format("%s's role probabilities after %s: %n%s", username, action, distribution));
+	}
+
+	@Override
+	protected Set<PlayerData> getMostExpectedFascists(final GameData gameData) {
+		final int totalFascists = getNumberOfFascistsFromNumberOfPlayers(gameData.getPlayers().size());
+		return gameData.getPlayers().stream()
+				.sorted(Comparator.comparingDouble((PlayerData player) -> getFascistProbability(player)).reversed())
+				.limit(totalFascists)
+				.collect(Collectors.toSet());
+	}
+
+	@Override
+	protected List<PlayerData> getMostLikelyMatchesHitlerPreference(final List<PlayerData> players, final boolean hitlerPreferred) {
+		final double target = players.stream()
+				.mapToDouble(this::getHitlerProbability)
+				.reduce(hitlerPreferred ? Math::max : Math::min)
+				.orElse(0);
+		return players.stream()
+				.filter(player -> Math.abs(getHitlerProbability(player) - target) < PROBABILITY_TOLERANCE)
+				.collect(Collectors.toList());
+	}
+
+	@Override
+	protected void governmentElectedDeducer(final ParticipantGameNotification notification) {
+		super.governmentElectedDeducer(notification);
+		weighVotes(notification.getGameData());
+		printSuspectedPlayerMatrix("government was elected");
+	}
+
+	@Override
+	protected void governmentDeniedDeducer(final ParticipantGameNotification notification) {
+		weighVotes(notification.getGameData());
+		observedPassedFascistPolicies = Optional.empty();
+		printSuspectedPlayerMatrix("government was denied");
+	}
+
+	/**
+	 * Weighs every world by how likely the votes of the other players were, given whether a
+	 * fascist was in the government they voted on.
+	 */
+	private void weighVotes(final GameData gameData) {
+		final Optional<Integer> president = getSeat(previousPresident);
+		final Optional<Integer> chancellor = getSeat(previousChancellor);
+		if (!president.isPresent() || !chancellor.isPresent()) {
+			return;
+		}
+		final int governmentSeats = (1 << president.get()) | (1 << chancellor.get());
+		final int mySeat = gameData.getMySeat();
+		final List<int[]> votes = gameData.getPlayers().stream()
+				.filter(PlayerData::isAlive)
+				.filter(player -> getSeat(player) != mySeat)
+				.filter(player -> player.getVote() != null)
+				.map(player -> new int[] {getSeat(player), Vote.JA == player.getVote() ? 1 : 0})
+				.collect(Collectors.toList());
+		distribution.weigh((fascistSeats, hitlerSeat) -> {
+			final boolean fascistGovernment = (fascistSeats & governmentSeats) != 0;
+			double likelihood = 1;
+			for (int[] vote : votes) {
+				final double ja = RoleDistribution.isFascist(fascistSeats, vote[0]) ?
+						(fascistGovernment ? FASCIST_JA_FOR_FASCIST_GOVERNMENT : FASCIST_JA_FOR_LIBERAL_GOVERNMENT) :
+						(fascistGovernment ? LIBERAL_JA_FOR_FASCIST_GOVERNMENT : LIBERAL_JA_FOR_LIBERAL_GOVERNMENT);
+				likelihood *= vote[1] == 1 ? ja : 1 - ja;
+			}
+			return likelihood;
+		});
+	}
+
+	@Override
+	protected void policyPlayedDeducer(final ParticipantGameNotification notification, final Policy policy) {
+		final Optional<Integer> president = getSeat(previousPresident);
+		final Optional<Integer> chancellor = getSeat(previousChancellor);
+		if (president.isPresent() && chancellor.isPresent() && !president.get().equals(chancellor.get())) {
+			distribution.weigh(president.get(), chancellor.get(), getPolicyLikelihoods(notification.getGameData(), policy));
+			printSuspectedPlayerMatrix(String.format("%s policy was inacted", policy.name()));
+		}
+		observedPassedFascistPolicies = Optional.empty();
+		policyOptionsForNextGovernment.clear();
+		vetoRequestor = Optional.empty();
+	}
+
+	/**
+	 * @return the likelihood of the government enacting the policy, indexed by whether the president and the chancellor are fascist
+	 */
+	protected double[][] getPolicyLikelihoods(final GameData gameData, final Policy policy) {
+		final double[] handDistribution = getHandDistribution(gameData);
+		final boolean fascistPolicy = Policy.FASCIST == policy;
+		double[][] likelihoods = new double[2][2];
+		for (boolean fascistPresident : new boolean[] {false, true}) {
+			double[] passedDistribution = getPassedDistribution(handDistribution, fascistPresident);
+			for (boolean fascistChancellor : new boolean[] {false, true}) {
+				double likelihood = 0;
+				for (int passed = 0; passed <= 2; passed++) {
+					final double probability = observedPassedFascistPolicies.isPresent() ?
+							(observedPassedFascistPolicies.get() == passed ? 1 : 0) : passedDistribution[passed];
+					likelihood += probability * getEnactLikelihood(passed, fascistPresident, fascistChancellor, fascistPolicy);
+				}
+				if (observedPassedFascistPolicies.isPresent() && !previousPresident.equals(username)) {
+					likelihood *= passedDistribution[observedPassedFascistPolicies.get()];
+				}
+				likelihoods[index(fascistPresident)][index(fascistChancellor)] = likelihood;
+			}
+		}
+		return likelihoods;
+	}
+
+	private double getEnactLikelihood(final int passedFascists, final boolean fascistPresident, final boolean fascistChancellor, final boolean fascistPolicy) {
+		if (vetoRequestor.isPresent()) {
+			final int opposingPolicies = fascistChancellor ? 0 : 2;
+			if (passedFascists != opposingPolicies || fascistPolicy != (passedFascists == 2)) {
+				return 0;
+			}
+			final boolean favoured = fascistPresident == fascistPolicy;
+			return VETO_REQUESTED_WITH_OPPOSING_POLICIES * (favoured ? VETO_REFUSED_WITH_FAVOURED_POLICIES : 1 - VETO_REFUSED_WITH_FAVOURED_POLICIES);
+		}
+		final double enactsFascist;
+		if (passedFascists == 0) {
+			enactsFascist = 0;
+		} else if (passedFascists == 2) {
+			enactsFascist = 1;
+		} else {
+			enactsFascist = fascistChancellor ? FASCIST_CHANCELLOR_ENACTS_FASCIST : 1 - LIBERAL_CHANCELLOR_ENACTS_LIBERAL;
+		}
+		return fascistPolicy ? enactsFascist : 1 - enactsFascist;
+	}
+
+	/**
+	 * @return the probability of the president drawing 0 to 3 fascist policies
+	 */
+	private double[] getHandDistribution(final GameData gameData) {
+		double[] distribution = new double[4];
+		if (!policyOptionsForNextGovernment.isEmpty()) {
+			distribution[(int) policyOptionsForNextGovernment.stream().filter(Policy.FASCIST::equals).count()] = 1;
+			return distribution;
+		}
+		final int fascistsRemaining = Math.max(0, LocalGame.STARTING_FASCIST_POLICIES - gameData.getFascistPolicies()
+				- (int) knownDiscardedPolicies.stream().filter(Policy.FASCIST::equals).count());
+		final int liberalsRemaining = Math.max(0, LocalGame.STARTING_LIBERAL_POLICIES - gameData.getLiberalPolicies()
+				- (int) knownDiscardedPolicies.stream().filter(Policy.LIBERAL::equals).count());
+		final double hands = binomialCoefficient(fascistsRemaining + liberalsRemaining, 3);
+		if (hands == 0) {
+			distribution[1] = 1;
+			return distribution;
+		}
+		for (int fascists = 0; fascists <= 3; fascists++) {
+			distribution[fascists] = binomialCoefficient(fascistsRemaining, fascists) * binomialCoefficient(liberalsRemaining, 3 - fascists) / hands;
+		}
+		return distribution;
+	}
+
+	/**
+	 * @return the probability of the president passing 0 to 2 fascist policies to the chancellor
+	 */
+	private static double[] getPassedDistribution(final double[] handDistribution, final boolean fascistPresident) {
+		double[] passed = new double[3];
+		passed[0] += handDistribution[0];
+		passed[2] += handDistribution[3];
+		for (int fascists = 1; fascists <= 2; fascists++) {
+			final double discardsFascist = fascistPresident ? 1 - FASCIST_PRESIDENT_DISCARDS_LIBERAL : LIBERAL_PRESIDENT_DISCARDS_FASCIST;
+			passed[fascists - 1] += handDistribution[fascists] * discardsFascist;
+			passed[fascists] += handDistribution[fascists] * (1 - discardsFascist);
+		}
+		return passed;
+	}
+
+	@Override
+	protected void playerKilledDeducer(final ParticipantGameNotification notification) {
+		final String[] args = notification.getAction().getArgs();
+		final Optional<Integer> killer = getSeat(args[0]);
+		final Optional<Integer> victim = getSeat(args[1]);
+		if (!killer.isPresent() || !victim.isPresent()) {
+			return;
+		}
+		distribution.setKnownHitler(victim.get(), false);
+		if (!username.equals(args[0])) {
+			distribution.weigh(killer.get(), victim.get(), KILL_LIKELIHOODS);
+		}
+		printSuspectedPlayerMatrix(String.format("%s killed %s", args[0], args[1]));
+	}
+
+	@Override
+	protected Optional<GameplayAction> pickRunningMate(final GameData gameData) {
+		if (gameData.getDeniedPolicies() == 0) {
+			knownDiscardedPolicies.clear();
+		}
+		return super.pickRunningMate(gameData);
+	}
+
+	@Override
+	protected GameplayAction discardPresidentPolicy(final GameData gameData, final int index) {
+		GameplayAction action = super.discardPresidentPolicy(gameData, index);
+		observedPassedFascistPolicies = Optional.of(countFascistPolicies(gameData.getPoliciesToView()));
+		return action;
+	}
+
+	@Override
+	protected GameplayAction discardChancellorPolicy(final GameData gameData, final int index) {
+		observedPassedFascistPolicies = Optional.of(countFascistPolicies(gameData.getPoliciesToView()));
+		return super.discardChancellorPolicy(gameData, index);
+	}
+
+	private static int countFascistPolicies(final List<Policy> policies) {
+		return (int) policies.stream()
+				.filter(Policy.FASCIST::equals)
+				.count();
+	}
+
+	@Override
+	protected void recordDiscardedPolicy(final Policy discardedPolicy) {
+		knownDiscardedPolicies.add(discardedPolicy);
+		super.recordDiscardedPolicy(discardedPolicy);
+	}
+
+	@Override
+	protected void presidentVetoDeducer(final ParticipantGameNotification notification) {
+		observedPassedFascistPolicies = Optional.empty();
+		if (Stream.of(notification.getAction().getArgs()[0], vetoRequestor.orElse(null)).allMatch(usernameToSeatMap::containsKey)) {
+			super.presidentVetoDeducer(notification);
+		}
+	}
+}
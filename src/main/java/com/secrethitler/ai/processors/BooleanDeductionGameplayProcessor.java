@@ -3,27 +3,141 @@ package com.secrethitler.ai.processors;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
 import com.secrethitler.ai.dtos.GameData;
+import com.secrethitler.ai.dtos.GameplayAction;
+import com.secrethitler.ai.dtos.ParticipantGameNotification;
 import com.secrethitler.ai.dtos.PlayerData;
 import com.secrethitler.ai.enums.PartyMembership;
+import com.secrethitler.ai.enums.SecretRole;
 import com.secrethitler.ai.enums.SuspicionAction;
 import com.secrethitler.ai.utils.RandomUtil;
 
+/**
+ * Suspects every player of a single membership, backed by a {@link WorldSet} of the role
+ * assignments consistent with the hard facts, so memberships that follow logically from
+ * those facts are certain and override any suspicion.
+ */
 public class BooleanDeductionGameplayProcessor extends AbstractDeductionGameplayProcessor {
 	private static final Logger LOGGER = Logger.getLogger(BooleanDeductionGameplayProcessor.class.getName());
 	
 	private Map<String, PartyMembership> suspectedMemberships = new HashMap<>();
+	private final Map<String, Integer> usernameToSeatMap = new HashMap<>();
+	private WorldSet worldSet;
 
 	public BooleanDeductionGameplayProcessor(final String username, final RandomUtil randomUtil) {
 		super(username, randomUtil);
 	}
 	
+	@Override
+	public Optional<GameplayAction> getActionToTake(final ParticipantGameNotification notification) {
+		applyKnownRoles(notification.getGameData());
+		return super.getActionToTake(notification);
+	}
+	
+	/**
+	 * Prunes the worlds that contradict the memberships and roles this player can see, and any
+	 * dead player being Hitler, since killing Hitler ends the game.
+	 */
+	private void applyKnownRoles(final GameData gameData) {
+		final List<PlayerData> players = gameData.getPlayers();
+		if (players == null || players.size() < 5) {
+			return;
+		}
+		if (worldSet == null || worldSet.getPlayers() != players.size()) {
+			worldSet = new WorldSet(players.size(), getNumberOfFascistsFromNumberOfPlayers(players.size()));
+			usernameToSeatMap.clear();
+			for (int seat = 0; seat < players.size(); seat++) {
+				usernameToSeatMap.put(players.get(seat).getUsername(), seat);
+			}
+		}
+		for (int seat = 0; seat < players.size(); seat++) {
+			final PlayerData player = players.get(seat);
+			if (PartyMembership.FASCIST == player.getPartyMembership() || PartyMembership.LIBERAL == player.getPartyMembership()) {
+				setKnownFascist(seat, PartyMembership.FASCIST == player.getPartyMembership());
+			}
+			if (SecretRole.HITLER == player.getSecretRole()) {
+				setKnownHitler(seat, true);
+			} else if (KNOWN_NON_HITLER_ROLES.contains(player.getSecretRole()) || !player.isAlive()) {
+				setKnownHitler(seat, false);
+			}
+		}
+		applyProvenNonHitlers();
+	}
+	
+	private void setKnownFascist(final int seat, final boolean fascist) {
+		if (!worldSet.setKnownFascist(seat, fascist)) {
+			log(LOGGER, Level.WARNING, () -> String.format("%s ignored seat %d being %s as it contradicts every possible world", username, seat, fascist ? "fascist" : "liberal"));
+		}
+	}
+	
+	private void setKnownHitler(final int seat, final boolean hitler) {
+		if (!worldSet.setKnownHitler(seat, hitler)) {
+			log(LOGGER, Level.WARNING, () -> String.format("%s ignored seat %d %s Hitler as it contradicts every possible world", username, seat, hitler ? "being" : "not being"));
+		}
+	}
+	
+	/**
+	 * Prunes the worlds where a player proven not to be Hitler is Hitler, then proves every
+	 * player who is not Hitler in any remaining world.
+	 */
+	private void applyProvenNonHitlers() {
+		if (worldSet == null) {
+			return;
+		}
+		provenNonHitlers.stream()
+				.map(usernameToSeatMap::get)
+				.filter(seat -> seat != null)
+				.forEach(seat -> setKnownHitler(seat, false));
+		usernameToSeatMap.forEach((player, seat) -> {
+			if (worldSet.isCertainlyNotHitler(seat)) {
+				provenNonHitlers.add(player);
+			}
+		});
+	}
+	
+	@Override
+	protected void governmentElectedDeducer(final ParticipantGameNotification notification) {
+		super.governmentElectedDeducer(notification);
+		applyProvenNonHitlers();
+	}
+	
+	@Override
+	protected void playerKilledDeducer(final ParticipantGameNotification notification) {
+		super.playerKilledDeducer(notification);
+		Optional.ofNullable(usernameToSeatMap.get(notification.getAction().getArgs()[1]))
+				.ifPresent(victim -> setKnownHitler(victim, false));
+		applyProvenNonHitlers();
+	}
+	
+	/**
+	 * @return the membership of the player if it follows from the hard facts
+	 */
+	protected PartyMembership getCertainMembership(final String username) {
+		final Integer seat = usernameToSeatMap.get(username);
+		if (worldSet == null || seat == null) {
+			return PartyMembership.UNKNOWN;
+		}
+		if (worldSet.isCertainlyFascist(seat)) {
+			return PartyMembership.FASCIST;
+		}
+		if (worldSet.isCertainlyLiberal(seat)) {
+			return PartyMembership.LIBERAL;
+		}
+		return PartyMembership.UNKNOWN;
+	}
+	
 	@Override
 	protected int getMembershipSuspicion(String username) {
+		PartyMembership certainMembership = getCertainMembership(username);
+		if (PartyMembership.UNKNOWN != certainMembership) {
+			return PARTY_MEMBERSHIP_TO_SUSPICION_MAP.get(certainMembership);
+		}
 		PartyMembership suspectedMembership = suspectedMemberships.getOrDefault(username, PartyMembership.UNKNOWN);
 		return PARTY_MEMBERSHIP_TO_SUSPICION_MAP.get(suspectedMembership);
 	}
@@ -36,18 +150,32 @@ public class BooleanDeductionGameplayProcessor extends AbstractDeductionGameplay
 		updateSuspectedMembership(player, getPartyMembership(suspicion), suspicionAction, gameData);
 	}
 	
+	/**
+	 * Suspects the player of the membership, unless it contradicts a membership the player can
+	 * see or one that follows from the known roles, in which case the known membership is kept.
+	 */
 	@Override
 	protected void updateSuspectedMembership(final PlayerData player, final PartyMembership membership, final SuspicionAction suspicionAction, final GameData gameData) {
-		if (player.getPartyMembership() != PartyMembership.UNKNOWN && membership != player.getPartyMembership()) {
-			throw new IllegalArgumentException("Tried to set a suspected membership of a player that is known to be incorrect!");
-		}
 		final String suspectUsername = player.getUsername();
+		final PartyMembership visibleMembership = player.getPartyMembership();
+		if (PartyMembership.UNKNOWN != visibleMembership && membership != visibleMembership) {
+			log(LOGGER, Level.FINE, () -> String.format("%s keeps %s as %s, which it can see", username, suspectUsername, visibleMembership));
+			Optional.ofNullable(usernameToSeatMap.get(suspectUsername))
+					.ifPresent(seat -> setKnownFascist(seat, PartyMembership.FASCIST == visibleMembership));
+			suspectedMemberships.put(suspectUsername, visibleMembership);
+			return;
+		}
+		final PartyMembership certainMembership = getCertainMembership(suspectUsername);
+		if (PartyMembership.UNKNOWN != certainMembership && membership != certainMembership) {
+			log(LOGGER, Level.FINE, () -> String.format("%s keeps %s as %s, which follows from the known roles", username, suspectUsername, certainMembership));
+			return;
+		}
 		suspectedMemberships.put(suspectUsername, membership);
 	}
 	
 	@Override
 	protected void printSuspectedPlayerMatrix(final String action) {
-		LOGGER.info(() -> String.format("%s's suspected player matrix after %s: %n%s", username, action, suspectedMemberships.toString()));
+		log(LOGGER, Level.INFO, () -> String.format("%s's suspected player matrix after %s: %n%s with %s", username, action, suspectedMemberships.toString(), worldSet));
 	}
 	
 	@Override
@@ -1,11 +1,11 @@
 package com.secrethitler.ai.processors;
 
-import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+import com.google.common.collect.Lists;
 import com.secrethitler.ai.dtos.GameData;
 import com.secrethitler.ai.dtos.PlayerData;
 import com.secrethitler.ai.enums.PartyMembership;
@@ -54,9 +54,7 @@ public class DeceptionGameplayProcessor extends WeightedDeductionGameplayProcess
 				}
 				return getMostSuspectedFascist(eligiblePlayers);
 			} else {
-				List<Set<PlayerData>> playersOrderedBySuspicion = getPlayersOrderedBySuspicion(eligiblePlayers);
-				Collections.reverse(playersOrderedBySuspicion);
-				Optional<PlayerData> leastSuspectedFascist = playersOrderedBySuspicion.stream()
+				Optional<PlayerData> leastSuspectedFascist = Lists.reverse(getPlayersOrderedBySuspicion(eligiblePlayers)).stream()
 						.map(playerSet -> playerSet.stream()
 								.filter(player -> SecretRole.FASCIST == player.getSecretRole())
 								.findFirst()
@@ -105,9 +103,7 @@ public class DeceptionGameplayProcessor extends WeightedDeductionGameplayProcess
 	}
 	
 	private PlayerData getMostSuspectedLiberal(List<PlayerData> eligiblePlayers) {
-		List<Set<PlayerData>> playersOrderedBySuspicion = getPlayersOrderedBySuspicion(eligiblePlayers);
-		Collections.reverse(playersOrderedBySuspicion);
-		return playersOrderedBySuspicion.stream()
+		return Lists.reverse(getPlayersOrderedBySuspicion(eligiblePlayers)).stream()
 				.findFirst()
 				.orElseThrow(IllegalStateException::new)
 				.iterator()
@@ -116,14 +112,8 @@ public class DeceptionGameplayProcessor extends WeightedDeductionGameplayProcess
 	
 	private boolean isPlayerSuspectedFascist(final GameData gameData, PlayerData suspect) {
 		int totalFascists = getNumberOfFascistsFromNumberOfPlayers(gameData.getPlayers().size());
-		List<Set<PlayerData>> playersOrderedBySuspicion = getPlayersOrderedBySuspicion(gameData);
-		for (int i=0; i < totalFascists; i++) {
-			Set<PlayerData> playerLevel = playersOrderedBySuspicion.get(i);
-			if (playerLevel.contains(suspect)) {
-				return true;
-			}
-		}
-		return false;
+		final int level = getSuspicionLevel(gameData, suspect);
+		return level >= 0 && level < totalFascists;
 	}
 
 }
@@ -2,6 +2,10 @@ package com.secrethitler.ai.processors;
 
 import java.lang.reflect.InvocationTargetException;
 
+import com.secrethitler.ai.utils.RandomUtil;
+
 public interface GameplayProcessorFactory {
 	GameplayProcessor getGameplayProcessor(final int level, final String username) throws InstantiationException, IllegalAccessException, InvocationTargetException, NoSuchMethodException;
+	
+	GameplayProcessor getGameplayProcessor(final int level, final String username, final RandomUtil randomUtil) throws InstantiationException, IllegalAccessException, InvocationTargetException, NoSuchMethodException;
 }
@@ -8,20 +8,45 @@ import com.secrethitler.ai.utils.RandomUtil;
 import com.secrethitler.ai.utils.RandomUtilImpl;
 
 public class GameplayProcessorFactoryImpl implements GameplayProcessorFactory {
-	protected static final RandomUtil RANDOM_UTIL = new RandomUtilImpl();
+	protected static final String SEED_PROPERTY = "secrethitler.ai.seed";
 	private static final Map<Integer, Class<? extends GameplayProcessor>> GAMEPLAY_PROCESSOR_LEVEL_MAP = ImmutableMap.<Integer, Class<? extends GameplayProcessor>>builder()
 			.put(1, SimpleGameplayProcessor.class)
 			.put(2, BooleanDeductionGameplayProcessor.class)
 			.put(3, WeightedDeductionGameplayProcessor.class)
 			.put(4, DeceptionGameplayProcessor.class)
+			.put(5, BayesianDeductionGameplayProcessor.class)
+			.put(6, MonteCarloTreeSearchGameplayProcessor.class)
 			.build();
 	
+	private final RandomUtilImpl randomUtil;
+	
+	/**
+	 * Creates a factory whose processors draw from streams split off the seed in the
+	 * {@value #SEED_PROPERTY} system property, or off an unseeded stream if it is not set.
+	 */
+	public GameplayProcessorFactoryImpl() {
+		final Long seed = Long.getLong(SEED_PROPERTY);
+		this.randomUtil = seed == null ? new RandomUtilImpl() : new RandomUtilImpl(seed);
+	}
+	
+	/**
+	 * Creates a factory whose processors draw from streams split off the seed, in the order they are created.
+	 */
+	public GameplayProcessorFactoryImpl(final long seed) {
+		this.randomUtil = new RandomUtilImpl(seed);
+	}
+	
 	@Override
 	public GameplayProcessor getGameplayProcessor(final int level, final String username) throws InstantiationException, IllegalAccessException, InvocationTargetException, NoSuchMethodException {
+		return getGameplayProcessor(level, username, randomUtil.split());
+	}
+	
+	@Override
+	public GameplayProcessor getGameplayProcessor(final int level, final String username, final RandomUtil randomUtil) throws InstantiationException, IllegalAccessException, InvocationTargetException, NoSuchMethodException {
 		Class<? extends GameplayProcessor> processorClass = GAMEPLAY_PROCESSOR_LEVEL_MAP.get(level);
 		if (processorClass == null) {
 			throw new IllegalArgumentException("No gameplay handler defined for level " + level);
 		}
-		return processorClass.getDeclaredConstructor(String.class, RandomUtil.class).newInstance(username, RANDOM_UTIL);
+		return processorClass.getDeclaredConstructor(String.class, RandomUtil.class).newInstance(username, randomUtil);
 	}
 }
@@ -0,0 +1,437 @@
+package com.secrethitler.ai.processors;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.commons.lang3.tuple.Pair;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.secrethitler.ai.dtos.GameData;
+import com.secrethitler.ai.dtos.GameplayAction;
+import com.secrethitler.ai.dtos.ParticipantGameNotification;
+import com.secrethitler.ai.dtos.PlayerData;
+import com.secrethitler.ai.enums.Action;
+import com.secrethitler.ai.enums.GamePhase;
+import com.secrethitler.ai.enums.PartyMembership;
+import com.secrethitler.ai.enums.Policy;
+import com.secrethitler.ai.enums.SecretRole;
+import com.secrethitler.ai.enums.Vote;
+import com.secrethitler.ai.simulation.LocalGame;
+import com.secrethitler.ai.utils.RandomUtil;
+import com.secrethitler.ai.utils.RandomUtilImpl;
+
+/**
+ * Chooses its moves by information set Monte Carlo tree search. Every simulation draws the
+ * secret roles from the Bayesian belief of {@link BayesianDeductionGameplayProcessor} and the
+ * unseen policies uniformly, recreates the game in a {@link LocalGame} and plays it out with
+ * heuristic processors in every seat. This player's own decisions are the nodes of the tree,
+ * keyed by what the player can see, so the tree is shared by every sampled world and carries
+ * over from one notification of the game to the next. Simulations run in parallel until the
+ * per-move time budget runs out, and the most visited move is played.
+ */
+public class MonteCarloTreeSearchGameplayProcessor extends BayesianDeductionGameplayProcessor {
+	private static final Logger LOGGER = Logger.getLogger(MonteCarloTreeSearchGameplayProcessor.class.getName());
+	protected static final String MOVE_BUDGET_PROPERTY = "secrethitler.ai.mcts.movebudget";
+	protected static final String PARALLELISM_PROPERTY = "secrethitler.ai.mcts.parallelism";
+	protected static final String ROLLOUT_LEVEL_PROPERTY = "secrethitler.ai.mcts.rolloutlevel";
+	private static final long DEFAULT_MOVE_BUDGET_MILLIS = 1000;
+	private static final int DEFAULT_ROLLOUT_LEVEL = 1;
+	private static final int SEARCH_LEVEL = 6;
+	private static final int MAX_TREE_NODES = 100_000;
+	private static final int MAX_SIMULATION_MOVES = 500;
+	private static final double EXPLORATION = 0.7;
+	private static final double UNFINISHED_GAME_REWARD = 0.5;
+
+	private static final GameplayProcessorFactory ROLLOUT_PROCESSOR_FACTORY = new GameplayProcessorFactoryImpl();
+	private static final ExecutorService SEARCH_EXECUTOR = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+			new ThreadFactoryBuilder()
+					.setNameFormat("mcts-search-%d")
+					.setDaemon(true)
+					.build());
+
+	/**
+	 * The statistics of one information set of this player: how often each of its moves was
+	 * tried and the total reward the simulations through it earned.
+	 */
+	private static class Node {
+		private final Map<String, double[]> actionStatistics = new HashMap<>();
+		private int visits = 0;
+
+		/**
+		 * Picks the move with the best upper confidence bound and counts the visit straight
+		 * away, so parallel simulations spread over the moves instead of all trying the same one.
+		 */
+		private synchronized GameplayAction select(final List<GameplayAction> actions) {
+			GameplayAction best = null;
+			double bestScore = Double.NEGATIVE_INFINITY;
+			for (GameplayAction action : actions) {
+				final double[] statistics = actionStatistics.get(getActionKey(action));
+				final double score = statistics == null || statistics[0] == 0 ? Double.POSITIVE_INFINITY :
+						statistics[1] / statistics[0] + EXPLORATION * Math.sqrt(Math.log(visits) / statistics[0]);
+				if (score > bestScore) {
+					best = action;
+					bestScore = score;
+				}
+			}
+			visits++;
+			actionStatistics.computeIfAbsent(getActionKey(best), key -> new double[2])[0]++;
+			return best;
+		}
+
+		private synchronized void update(final String actionKey, final double reward) {
+			actionStatistics.get(actionKey)[1] += reward;
+		}
+
+		private synchronized Optional<GameplayAction> getMostVisited(final List<GameplayAction> actions) {
+			return actions.stream()
+					.filter(action -> actionStatistics.containsKey(getActionKey(action)))
+					.max((first, second) -> Double.compare(actionStatistics.get(getActionKey(first))[0], actionStatistics.get(getActionKey(second))[0]));
+		}
+
+		private synchronized int getVisits() {
+			return visits;
+		}
+	}
+
+	private static String getActionKey(final GameplayAction action) {
+		return action.getAction() + Arrays.toString(action.getArgs());
+	}
+
+	private final long moveBudgetMillis;
+	private final int parallelism;
+	private final int rolloutLevel;
+	private final Map<String, Node> tree = new ConcurrentHashMap<>();
+	private ParticipantGameNotification currentNotification;
+	private int reusedVisits = 0;
+
+	public MonteCarloTreeSearchGameplayProcessor(final String username, final RandomUtil randomUtil) {
+		this(username, randomUtil, Long.getLong(MOVE_BUDGET_PROPERTY, DEFAULT_MOVE_BUDGET_MILLIS),
+				Integer.getInteger(PARALLELISM_PROPERTY, Runtime.getRuntime().availableProcessors()),
+				Integer.getInteger(ROLLOUT_LEVEL_PROPERTY, DEFAULT_ROLLOUT_LEVEL));
+	}
+
+	/**
+	 * @param moveBudgetMillis how long to search before each move
+	 * @param parallelism how many simulations to run at once
+	 * @param rolloutLevel the level of the processors playing out the simulated games
+	 */
+	public MonteCarloTreeSearchGameplayProcessor(final String username, final RandomUtil randomUtil,
+			final long moveBudgetMillis, final int parallelism, final int rolloutLevel) {
+		super(username, randomUtil);
+		if (rolloutLevel == SEARCH_LEVEL || moveBudgetMillis < 0 || parallelism < 1) {
+			throw new IllegalArgumentException(String.format("Can not search for %d ms with %d simulations at once and level %d rollouts",
+					moveBudgetMillis, parallelism, rolloutLevel));
+		}
+		this.moveBudgetMillis = moveBudgetMillis;
+		this.parallelism = parallelism;
+		this.rolloutLevel = rolloutLevel;
+	}
+
+	@Override
+	public Optional<GameplayAction> getActionToTake(final ParticipantGameNotification notification) {
+		currentNotification = notification;
+		if (GamePhase.GAME_OVER == notification.getGameData().getPhase()) {
+			tree.clear();
+		}
+		return super.getActionToTake(notification);
+	}
+
+	protected int getTreeSize() {
+		return tree.size();
+	}
+
+	/**
+	 * @return how many visits the root of the latest search already had from earlier searches
+	 */
+	protected int getReusedVisits() {
+		return reusedVisits;
+	}
+
+	@Override
+	protected Optional<GameplayAction> pickRunningMate(final GameData gameData) {
+		return super.pickRunningMate(gameData).map(heuristic -> search().orElse(heuristic));
+	}
+
+	@Override
+	protected Optional<GameplayAction> vote(final GameData gameData) {
+		return super.vote(gameData).map(heuristic -> search().orElse(heuristic));
+	}
+
+	@Override
+	protected Optional<GameplayAction> makePresidentChoice(final GameData gameData) {
+		if (!gameData.getMyPlayer().isPresident()) {
+			return Optional.empty();
+		}
+		Optional<GameplayAction> searched = search();
+		if (!searched.isPresent()) {
+			return super.makePresidentChoice(gameData);
+		}
+		return Optional.of(discardPresidentPolicy(gameData, Integer.parseInt(searched.get().getArgs()[0])));
+	}
+
+	@Override
+	protected Optional<GameplayAction> makeChancellorChoice(final GameData gameData) {
+		if (!gameData.getMyPlayer().isChancellor()) {
+			return Optional.empty();
+		}
+		Optional<GameplayAction> searched = search();
+		if (!searched.isPresent()) {
+			return super.makeChancellorChoice(gameData);
+		}
+		if (Action.CHANCELLOR_VETO == searched.get().getAction()) {
+			vetoUsedThisTurn = true;
+			return searched;
+		}
+		return Optional.of(discardChancellorPolicy(gameData, Integer.parseInt(searched.get().getArgs()[0])));
+	}
+
+	@Override
+	protected Optional<GameplayAction> kill(final GameData gameData) {
+		return super.kill(gameData).map(heuristic -> search().orElse(heuristic));
+	}
+
+	@Override
+	protected Optional<GameplayAction> presidentVeto(final GameData gameData) {
+		return super.presidentVeto(gameData).map(heuristic -> search().orElse(heuristic));
+	}
+
+	@Override
+	protected Optional<GameplayAction> investigate(final GameData gameData) {
+		return super.investigate(gameData).map(heuristic -> search().orElse(heuristic));
+	}
+
+	@Override
+	protected Optional<GameplayAction> chooseNextPresidentialCandidate(final GameData gameData) {
+		return super.chooseNextPresidentialCandidate(gameData).map(heuristic -> search().orElse(heuristic));
+	}
+
+	/**
+	 * Runs simulations from the current notification until the move budget runs out.
+	 *
+	 * @return the most visited move, or empty if there is no choice to make or nothing could be simulated
+	 */
+	private Optional<GameplayAction> search() {
+		final ParticipantGameNotification notification = currentNotification;
+		final List<GameplayAction> actions = getLegalActions(notification);
+		if (actions.size() < 2 || moveBudgetMillis == 0) {
+			return Optional.empty();
+		}
+		final Node root = tree.computeIfAbsent(getInformationSetKey(notification), key -> new Node());
+		reusedVisits = root.getVisits();
+		final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(moveBudgetMillis);
+		final Callable<Integer> worker = () -> simulateUntil(notification, deadline);
+		int simulations = 0;
+		try {
+			for (Future<Integer> future : SEARCH_EXECUTOR.invokeAll(Collections.nCopies(parallelism, worker))) {
+				simulations += future.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return Optional.empty();
+		} catch (ExecutionException e) {
+			LOGGER.log(Level.WARNING, "Search failed", e.getCause());
+			return Optional.empty();
+		}
+		final int totalSimulations = simulations;
+		Optional<GameplayAction> best = root.getMostVisited(actions);
+		LOGGER.fine(() -> String.format("%s ran %d simulations on top of %d reused ones and chose %s", username, totalSimulations,
+				reusedVisits, best.map(MonteCarloTreeSearchGameplayProcessor::getActionKey).orElse("nothing")));
+		return best;
+	}
+
+	private int simulateUntil(final ParticipantGameNotification notification, final long deadline) {
+		int simulations = 0;
+		while (System.nanoTime() < deadline) {
+			simulations += simulate(notification, ThreadLocalRandom.current()) ? 1 : 0;
+		}
+		return simulations;
+	}
+
+	/**
+	 * Plays one sampled world to the end, choosing this player's moves from the tree and
+	 * expanding it by at most one node, then credits every move taken with the result.
+	 *
+	 * @return false if the simulation could not be played out
+	 */
+	private boolean simulate(final ParticipantGameNotification notification, final Random random) {
+		final Optional<List<SecretRole>> roles = sampleRoles(random.nextDouble());
+		if (!roles.isPresent()) {
+			return false;
+		}
+		List<Pair<Node, String>> path = new ArrayList<>();
+		try {
+			final LocalGame game = LocalGame.fromNotification(notification, previousPresident, roles.get(), random);
+			final List<String> usernames = game.getUsernames();
+			final int mySeat = usernames.indexOf(username);
+			final List<GameplayProcessor> processors = getRolloutProcessors(usernames, random);
+			boolean expanded = false;
+			int moves = 0;
+			while (!game.isOver() && moves < MAX_SIMULATION_MOVES) {
+				final GamePhase phase = game.getPhase();
+				final ParticipantGameNotification myNotification = game.getNotification(mySeat);
+				final List<GameplayAction> myActions = getLegalActions(myNotification);
+				Optional<GameplayAction> myAction = Optional.empty();
+				if (myActions.size() > 1) {
+					final String key = getInformationSetKey(myNotification);
+					Node node = tree.get(key);
+					if (node == null && !expanded && tree.size() < MAX_TREE_NODES) {
+						node = tree.computeIfAbsent(key, newKey -> new Node());
+						expanded = true;
+					}
+					if (node != null) {
+						myAction = Optional.of(node.select(myActions));
+						path.add(Pair.of(node, getActionKey(myAction.get())));
+					}
+				}
+				List<Optional<GameplayAction>> actions = new ArrayList<>(usernames.size());
+				for (int seat = 0; seat < usernames.size(); seat++) {
+					actions.add(processors.get(seat).getActionToTake(seat == mySeat ? myNotification : game.getNotification(seat)));
+				}
+				if (myAction.isPresent()) {
+					actions.set(mySeat, myAction);
+				}
+				for (int seat = 0; seat < actions.size() && phase == game.getPhase(); seat++) {
+					final int actor = seat;
+					actions.get(seat).ifPresent(action -> game.apply(actor, action));
+				}
+				if (phase == game.getPhase()) {
+					throw new IllegalStateException(String.format("No player completed the %s phase", phase));
+				}
+				moves++;
+			}
+			final double reward = !game.isOver() ? UNFINISHED_GAME_REWARD :
+					game.getWinners() == getMembership(roles.get().get(mySeat)) ? 1 : 0;
+			path.forEach(step -> step.getLeft().update(step.getRight(), reward));
+			return true;
+		} catch (RuntimeException e) {
+			LOGGER.log(Level.FINEST, "Abandoned a simulation", e);
+			path.forEach(step -> step.getLeft().update(step.getRight(), UNFINISHED_GAME_REWARD));
+			return false;
+		}
+	}
+
+	private static PartyMembership getMembership(final SecretRole role) {
+		return SecretRole.LIBERAL == role ? PartyMembership.LIBERAL : PartyMembership.FASCIST;
+	}
+
+	/**
+	 * Seeds every rollout processor from the simulation's own generator, so simulations running
+	 * on different threads never draw from a shared stream, and quiets it so simulated moves
+	 * are not logged as if they were played.
+	 */
+	private List<GameplayProcessor> getRolloutProcessors(final List<String> usernames, final Random random) {
+		List<GameplayProcessor> processors = new ArrayList<>(usernames.size());
+		for (String player : usernames) {
+			try {
+				final GameplayProcessor processor = ROLLOUT_PROCESSOR_FACTORY.getGameplayProcessor(rolloutLevel, player, new RandomUtilImpl(random.nextLong()));
+				if (processor instanceof SimpleGameplayProcessor) {
+					((SimpleGameplayProcessor) processor).setQuiet(true);
+				}
+				processors.add(processor);
+			} catch (InstantiationException | IllegalAccessException | InvocationTargetException | NoSuchMethodException e) {
+				throw new IllegalStateException(String.format("Unable to create a level %d rollout processor", rolloutLevel), e);
+			}
+		}
+		return processors;
+	}
+
+	/**
+	 * Lists the moves this player can make, leaving out moves that are the same as another,
+	 * like discarding either of two fascist policies.
+	 */
+	protected static List<GameplayAction> getLegalActions(final ParticipantGameNotification notification) {
+		final GameData gameData = notification.getGameData();
+		final PlayerData myPlayer = gameData.getMyPlayer();
+		final int mySeat = gameData.getMySeat();
+		final List<PlayerData> otherAlivePlayers = gameData.getPlayers().stream()
+				.filter(player -> player.isAlive() && gameData.getSeat(player) != mySeat)
+				.collect(Collectors.toList());
+		switch (gameData.getPhase()) {
+			case PICKING_RUNNING_MATE:
+				return !myPlayer.isPresident() ? Collections.emptyList() : otherAlivePlayers.stream()
+						.filter(player -> !player.isPreviousGovernmentMember())
+						.map(player -> action(Action.CHOOSE_RUNNING_MATE, String.valueOf(gameData.getSeat(player))))
+						.collect(Collectors.toList());
+			case ELECTION:
+				return !myPlayer.isAlive() || myPlayer.isVoteReady() ? Collections.emptyList() :
+						ImmutableList.of(action(Action.VOTE, Vote.JA.name()), action(Action.VOTE, Vote.NEIN.name()));
+			case PRESIDENT_CHOICE:
+				return !myPlayer.isPresident() ? Collections.emptyList() : getDiscards(Action.PRESIDENT_CHOICE, gameData.getPoliciesToView());
+			case CHANCELLOR_CHOICE:
+				if (!myPlayer.isChancellor()) {
+					return Collections.emptyList();
+				}
+				List<GameplayAction> choices = getDiscards(Action.CHANCELLOR_CHOICE, gameData.getPoliciesToView());
+				if (gameData.isVetoUnlocked() && Action.PRESIDENT_VETO_NO != notification.getAction().getAction()) {
+					choices.add(action(Action.CHANCELLOR_VETO));
+				}
+				return choices;
+			case VETO:
+				return !myPlayer.isPresident() ? Collections.emptyList() :
+						ImmutableList.of(action(Action.PRESIDENT_VETO, Boolean.TRUE.toString()), action(Action.PRESIDENT_VETO, Boolean.FALSE.toString()));
+			case KILL:
+			case INVESTIGATE:
+				final Action targetAction = GamePhase.KILL == gameData.getPhase() ? Action.KILL_PLAYER : Action.INVESTIGATE_PLAYER;
+				return !myPlayer.isPresident() ? Collections.emptyList() : otherAlivePlayers.stream()
+						.map(player -> action(targetAction, player.getUsername()))
+						.collect(Collectors.toList());
+			case SPECIAL_ELECTION:
+				return !myPlayer.isPresident() ? Collections.emptyList() : otherAlivePlayers.stream()
+						.map(player -> action(Action.CHOOSE_NEXT_PRESIDENTIAL_CANDIDATE, String.valueOf(gameData.getSeat(player))))
+						.collect(Collectors.toList());
+			default:
+				return Collections.emptyList();
+		}
+	}
+
+	private static List<GameplayAction> getDiscards(final Action action, final List<Policy> policies) {
+		return Stream.of(Policy.values())
+				.filter(policies::contains)
+				.map(policy -> action(action, String.valueOf(policies.indexOf(policy))))
+				.collect(Collectors.toList());
+	}
+
+	private static GameplayAction action(final Action action, final String... args) {
+		return new GameplayAction(action, args);
+	}
+
+	/**
+	 * Describes everything about the game this player can see that matters for the rest of it.
+	 */
+	protected static String getInformationSetKey(final ParticipantGameNotification notification) {
+		final GameData gameData = notification.getGameData();
+		StringBuilder key = new StringBuilder()
+				.append(gameData.getPhase()).append('|')
+				.append(getActionKey(notification.getAction())).append('|')
+				.append(gameData.getLiberalPolicies()).append(gameData.getFascistPolicies())
+				.append(gameData.getUnsuccessfulGovernments()).append('|')
+				.append(gameData.getNextPresident()).append('|');
+		for (PlayerData player : gameData.getPlayers()) {
+			key.append(player.isAlive() ? 'A' : 'D')
+					.append(player.isPresident() ? 'P' : player.isChancellor() ? 'C' : player.isPreviousGovernmentMember() ? 'T' : '-')
+					.append(player.isVoteReady() ? 'V' : '-')
+					.append(player.getPartyMembership() == null ? PartyMembership.UNKNOWN.ordinal() : player.getPartyMembership().ordinal());
+		}
+		return key.append('|').append(gameData.getPoliciesToView()).toString();
+	}
+}
@@ -0,0 +1,192 @@
+package com.secrethitler.ai.processors;
+
+import java.util.Arrays;
+
+/**
+ * Probability distribution over the worlds of a {@link WorldSet}, every assignment of the
+ * fascist team and Hitler to the seats of a game, so a ten player game has at most
+ * C(10,4)*4 = 840 weights in a primitive array. Hard facts prune the world set, and other
+ * evidence is applied by multiplying the weight of every world by the likelihood of the
+ * evidence in that world.
+ */
+public class RoleDistribution {
+	@FunctionalInterface
+	public interface WorldLikelihood {
+		/**
+		 * @param fascistSeats bitmask of the fascist seats, including Hitler
+		 * @param hitlerSeat the seat of Hitler
+		 * @return the likelihood of the evidence if this world is the real one
+		 */
+		double getLikelihood(int fascistSeats, int hitlerSeat);
+	}
+
+	public static boolean isFascist(final int fascistSeats, final int seat) {
+		return WorldSet.isFascist(fascistSeats, seat);
+	}
+
+	private final WorldSet worldSet;
+	private final double[] weights;
+	private final double[] fascistProbabilities;
+	private final double[] hitlerProbabilities;
+
+	/**
+	 * @param players the number of seats at the table
+	 * @param fascists the size of the fascist team, including Hitler
+	 */
+	public RoleDistribution(final int players, final int fascists) {
+		worldSet = new WorldSet(players, fascists);
+		weights = new double[worldSet.getWorlds()];
+		fascistProbabilities = new double[players];
+		hitlerProbabilities = new double[players];
+		reset();
+	}
+
+	public int getPlayers() {
+		return worldSet.getPlayers();
+	}
+
+	public int getWorlds() {
+		return worldSet.getWorlds();
+	}
+
+	public double getFascistProbability(final int seat) {
+		return fascistProbabilities[seat];
+	}
+
+	public double getHitlerProbability(final int seat) {
+		return hitlerProbabilities[seat];
+	}
+
+	/**
+	 * @return bitmask of the fascist seats of the world, including Hitler
+	 */
+	public int getFascistSeats(final int world) {
+		return worldSet.getFascistSeats(world);
+	}
+
+	public int getHitlerSeat(final int world) {
+		return worldSet.getHitlerSeat(world);
+	}
+
+	/**
+	 * Draws a world with probability equal to its weight.
+	 *
+	 * @param uniform a number drawn uniformly from [0, 1)
+	 * @return the index of the drawn world
+	 */
+	public int sample(final double uniform) {
+		double cumulative = 0;
+		int last = 0;
+		for (int world = 0; world < weights.length; world++) {
+			if (weights[world] == 0) {
+				continue;
+			}
+			cumulative += weights[world];
+			last = world;
+			if (uniform < cumulative) {
+				return world;
+			}
+		}
+		return last;
+	}
+
+	/**
+	 * Rules out every world where the seat's membership is not the known one.
+	 */
+	public void setKnownFascist(final int seat, final boolean fascist) {
+		final int possible = worldSet.countPossible();
+		if (worldSet.setKnownFascist(seat, fascist) && worldSet.countPossible() != possible) {
+			excludeImpossibleWorlds();
+		}
+	}
+
+	/**
+	 * Rules out every world where whether the seat is Hitler is not the known one.
+	 */
+	public void setKnownHitler(final int seat, final boolean hitler) {
+		final int possible = worldSet.countPossible();
+		if (worldSet.setKnownHitler(seat, hitler) && worldSet.countPossible() != possible) {
+			excludeImpossibleWorlds();
+		}
+	}
+
+	/**
+	 * Multiplies the weight of every world where the seat is on the given team.
+	 */
+	public void weigh(final int seat, final boolean fascist, final double factor) {
+		weigh((mask, hitler) -> isFascist(mask, seat) == fascist ? factor : 1);
+	}
+
+	/**
+	 * Weighs every world by the likelihood of an event that depends on the memberships of two seats.
+	 *
+	 * @param likelihoods the likelihood of the event indexed by whether the first and second seats are fascist, 0 for liberal and 1 for fascist
+	 */
+	public void weigh(final int first, final int second, final double[][] likelihoods) {
+		weigh((mask, hitler) -> likelihoods[isFascist(mask, first) ? 1 : 0][isFascist(mask, second) ? 1 : 0]);
+	}
+
+	public void weigh(final WorldLikelihood likelihood) {
+		for (int world = 0; world < weights.length; world++) {
+			if (weights[world] != 0) {
+				weights[world] *= likelihood.getLikelihood(worldSet.getFascistSeats(world), worldSet.getHitlerSeat(world));
+			}
+		}
+		normalize();
+	}
+
+	private void excludeImpossibleWorlds() {
+		for (int world = 0; world < weights.length; world++) {
+			if (!worldSet.isPossible(world)) {
+				weights[world] = 0;
+			}
+		}
+		normalize();
+	}
+
+	/**
+	 * Scales the weights to sum to one and recalculates the marginals. Evidence that
+	 * contradicts every possible world resets the distribution to the possible worlds.
+	 */
+	private void normalize() {
+		double total = 0;
+		for (double weight : weights) {
+			total += weight;
+		}
+		if (total <= 0 || Double.isNaN(total)) {
+			reset();
+			return;
+		}
+		Arrays.fill(fascistProbabilities, 0);
+		Arrays.fill(hitlerProbabilities, 0);
+		for (int world = 0; world < weights.length; world++) {
+			final double weight = weights[world] / total;
+			weights[world] = weight;
+			if (weight == 0) {
+				continue;
+			}
+			int mask = worldSet.getFascistSeats(world);
+			while (mask != 0) {
+				fascistProbabilities[Integer.numberOfTrailingZeros(mask)] += weight;
+				mask &= mask - 1;
+			}
+			hitlerProbabilities[worldSet.getHitlerSeat(world)] += weight;
+		}
+	}
+
+	private void reset() {
+		for (int world = 0; world < weights.length; world++) {
+			weights[world] = worldSet.isPossible(world) ? 1 : 0;
+		}
+		normalize();
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		for (int seat = 0; seat < getPlayers(); seat++) {
+			builder.append(String.format("%d: fascist %.3f hitler %.3f%n", seat, fascistProbabilities[seat], hitlerProbabilities[seat]));
+		}
+		return builder.toString();
+	}
+}
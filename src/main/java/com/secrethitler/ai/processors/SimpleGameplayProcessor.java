@@ -8,13 +8,14 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.apache.commons.collections4.CollectionUtils;
 
-import com.google.common.base.Predicates;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.secrethitler.ai.dtos.GameData;
@@ -57,6 +58,7 @@ public class SimpleGameplayProcessor implements GameplayProcessor {
 	protected final String username;
 	protected boolean vetoUsedThisTurn = false;
 	protected boolean chancellorHasChoice;
+	private boolean quiet = false;
 	
 	public SimpleGameplayProcessor(final String username, final RandomUtil randomUtil) {
 		this.username = username;
@@ -74,6 +76,19 @@ public class SimpleGameplayProcessor implements GameplayProcessor {
 				.build();
 	}
 
+	/**
+	 * @param quiet whether to stop logging, like when playing out games that are only simulated
+	 */
+	public void setQuiet(final boolean quiet) {
+		this.quiet = quiet;
+	}
+	
+	protected void log(final Logger logger, final Level level, final Supplier<String> message) {
+		if (!quiet) {
+			logger.log(level, message);
+		}
+	}
+	
 	@Override
 	public Optional<GameplayAction> getActionToTake(final ParticipantGameNotification notification) {
 		final GameData gameData = notification.getGameData();
@@ -86,16 +101,16 @@ public class SimpleGameplayProcessor implements GameplayProcessor {
 			return Optional.empty();
 		}
 		PlayerData runningMate = chooseRunningMate(gameData);
-		LOGGER.info(() -> String.format("%s is picking %s as running mate.", username, runningMate.getUsername()));
-		final int runningMateIndex = gameData.getPlayers().indexOf(runningMate);
+		log(LOGGER, Level.INFO, () -> String.format("%s is picking %s as running mate.", username, runningMate.getUsername()));
+		final int runningMateIndex = gameData.getSeat(runningMate);
 		String[] args = {String.valueOf(runningMateIndex)};
 		return Optional.of(new GameplayAction(Action.CHOOSE_RUNNING_MATE, args));		
 	}
 
 	protected PlayerData chooseRunningMate(final GameData gameData) {
-		final PlayerData myPlayer = gameData.getMyPlayer();
+		final int mySeat = gameData.getMySeat();
 		List<PlayerData> eligiblePlayers = gameData.getPlayers().stream()
-				.filter(not(myPlayer::equals))
+				.filter(player -> gameData.getSeat(player) != mySeat)
 				.filter(not(PlayerData::isPreviousGovernmentMember))
 				.filter(PlayerData::isAlive)
 				.collect(Collectors.toList());
@@ -155,7 +170,7 @@ public class SimpleGameplayProcessor implements GameplayProcessor {
 			return Optional.empty();
 		}
 		Vote vote = isVoteJa(myPlayer.getPartyMembership(), myPlayer.getSecretRole(), gameData) ? Vote.JA : Vote.NEIN;
-		LOGGER.info(() -> String.format("%s is voting %s", username, vote.name()));
+		log(LOGGER, Level.INFO, () -> String.format("%s is voting %s", username, vote.name()));
 		String[] args = {vote.name()};
 		return Optional.of(new GameplayAction(Action.VOTE, args));
 	}
@@ -176,12 +191,20 @@ public class SimpleGameplayProcessor implements GameplayProcessor {
 		List<Policy> policies = gameData.getPoliciesToView();
 		int preferredIndex = policies.indexOf(preferredPolicyToDiscard);
 		int index = preferredIndex == -1 ? 0 : preferredIndex;
+		return Optional.of(discardPresidentPolicy(gameData, index));
+	}
+	
+	/**
+	 * Records the president's discard and removes it from the policies passed to the chancellor.
+	 */
+	protected GameplayAction discardPresidentPolicy(final GameData gameData, final int index) {
+		List<Policy> policies = gameData.getPoliciesToView();
 		Policy discardedPolicy = policies.get(index);
 		recordDiscardedPolicy(discardedPolicy);
 		policies.remove(index);
 		chancellorHasChoice = policies.get(0) != policies.get(1);
 		String[] args = {String.valueOf(index)};
-		return Optional.of(new GameplayAction(Action.PRESIDENT_CHOICE, args));
+		return new GameplayAction(Action.PRESIDENT_CHOICE, args);
 	}
 	
 	protected Optional<GameplayAction> makeChancellorChoice(final GameData gameData) {
@@ -192,20 +215,24 @@ public class SimpleGameplayProcessor implements GameplayProcessor {
 		if (!vetoUsedThisTurn && gameData.isVetoUnlocked() && gameData.getPoliciesToView().stream().allMatch(policy -> preferredPolicyToDiscard == policy)) {
 			vetoUsedThisTurn = true;
 			String[] args = {};
-			LOGGER.info(() -> String.format("%s is vetoing the policies", username));
+			log(LOGGER, Level.INFO, () -> String.format("%s is vetoing the policies", username));
 			return Optional.of(new GameplayAction(Action.CHANCELLOR_VETO, args));
 		}
 		List<Policy> policies = gameData.getPoliciesToView();
 		int preferredIndex = policies.indexOf(preferredPolicyToDiscard);
 		int index = preferredIndex == -1 ? 0 : preferredIndex;
-		Policy discardedPolicy = policies.get(index);
+		return Optional.of(discardChancellorPolicy(gameData, index));
+	}
+	
+	protected GameplayAction discardChancellorPolicy(final GameData gameData, final int index) {
+		Policy discardedPolicy = gameData.getPoliciesToView().get(index);
 		recordDiscardedPolicy(discardedPolicy);
 		String[] args = {String.valueOf(index)};
-		return Optional.of(new GameplayAction(Action.CHANCELLOR_CHOICE, args));
+		return new GameplayAction(Action.CHANCELLOR_CHOICE, args);
 	}
 	
 	protected void recordDiscardedPolicy(Policy discardedPolicy) {
-		LOGGER.info(() -> String.format("%s is discarding %s policy", username, discardedPolicy.name()));
+		log(LOGGER, Level.INFO, () -> String.format("%s is discarding %s policy", username, discardedPolicy.name()));
 	}
 	
 	protected Optional<GameplayAction> examine(final GameData gameData) {
@@ -214,7 +241,7 @@ public class SimpleGameplayProcessor implements GameplayProcessor {
 		}
 		examinationHelper(gameData);
 		String[] args = {};
-		LOGGER.info(() -> String.format("%s is examining the top three policies", username));
+		log(LOGGER, Level.INFO, () -> String.format("%s is examining the top three policies", username));
 		return Optional.of(new GameplayAction(Action.FINISH_EXAMINATION, args));
 	}
 	
@@ -227,16 +254,16 @@ public class SimpleGameplayProcessor implements GameplayProcessor {
 			return Optional.empty();
 		}
 		final PlayerData myPlayer = gameData.getMyPlayer();
-		List<PlayerData> allPlayers = gameData.getPlayers();
-		List<PlayerData> eligiblePlayers = allPlayers.stream()
-				.filter(Predicates.not(myPlayer::equals))
+		final int mySeat = gameData.getMySeat();
+		List<PlayerData> eligiblePlayers = gameData.getPlayers().stream()
+				.filter(player -> gameData.getSeat(player) != mySeat)
 				.filter(PlayerData::isAlive)
 				.collect(Collectors.toList());
 		PartyMembership myMembership = myPlayer.getPartyMembership();
 		List<PlayerData> preferredPlayers = getPreferredPlayers(getOppositeMembership(myMembership), eligiblePlayers, myPlayer.getSecretRole(), PartyMembership.LIBERAL == myMembership);
 		PlayerData playerToKill = randomUtil.getRandomItemFromList(preferredPlayers);
 		String[] args = {String.valueOf(playerToKill.getUsername())};
-		LOGGER.info(() -> String.format("%s is killing %s", username, playerToKill.getUsername()));
+		log(LOGGER, Level.INFO, () -> String.format("%s is killing %s", username, playerToKill.getUsername()));
 		return Optional.of(new GameplayAction(Action.KILL_PLAYER, args));
 	}
 	
@@ -246,7 +273,7 @@ public class SimpleGameplayProcessor implements GameplayProcessor {
 		}
 		boolean concur = presidentVetoHelper(gameData);
 		String[] args = {Boolean.toString(concur)};
-		LOGGER.info(() -> String.format("%s is agreeing to the veto", username));
+		log(LOGGER, Level.INFO, () -> String.format("%s is agreeing to the veto", username));
 		return Optional.of(new GameplayAction(Action.PRESIDENT_VETO, args));
 	}
 	
@@ -259,8 +286,9 @@ public class SimpleGameplayProcessor implements GameplayProcessor {
 		if (!gameData.getMyPlayer().isPresident()) {
 			return Optional.empty();
 		}
+		final int mySeat = gameData.getMySeat();
 		List<PlayerData> availablePlayers = gameData.getPlayers().stream()
-				.filter(player -> !gameData.getMyPlayer().equals(player))
+				.filter(player -> gameData.getSeat(player) != mySeat)
 				.filter(PlayerData::isAlive)
 				.collect(Collectors.toList());
 		List<PlayerData> unknownPlayers = availablePlayers.stream()
@@ -282,15 +310,15 @@ public class SimpleGameplayProcessor implements GameplayProcessor {
 			return Optional.empty();
 		}
 		final PlayerData myPlayer = gameData.getMyPlayer();
-		List<PlayerData> allPlayers = gameData.getPlayers();
-		List<PlayerData> eligiblePlayers = allPlayers.stream()
-				.filter(player -> !myPlayer.equals(player))
+		final int mySeat = gameData.getMySeat();
+		List<PlayerData> eligiblePlayers = gameData.getPlayers().stream()
+				.filter(player -> gameData.getSeat(player) != mySeat)
 				.filter(PlayerData::isAlive)
 				.collect(Collectors.toList());
 		PartyMembership myMembership = myPlayer.getPartyMembership();
 		List<PlayerData> preferredPlayers = getPreferredPlayers(myMembership, eligiblePlayers, myPlayer.getSecretRole(), PartyMembership.LIBERAL == myMembership);
 		PlayerData nextCandidate = randomUtil.getRandomItemFromList(preferredPlayers);
-		String[] args = {Integer.toString(allPlayers.indexOf(nextCandidate))};
+		String[] args = {Integer.toString(gameData.getSeat(nextCandidate))};
 		return Optional.of(new GameplayAction(Action.CHOOSE_NEXT_PRESIDENTIAL_CANDIDATE, args));
 	}
 }
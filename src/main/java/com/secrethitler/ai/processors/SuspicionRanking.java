@@ -0,0 +1,133 @@
+package com.secrethitler.ai.processors;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+import com.secrethitler.ai.dtos.PlayerData;
+
+/**
+ * Suspicion scores of the players a processor has heard of, grouped by score from the most to
+ * the least suspected fascist. A change of score moves one player between two groups of a tree,
+ * so the order never has to be rebuilt. The levels of the latest list of players queried are
+ * kept until the next change of score, so asking again about the same notification is free.
+ * Players are identified by username, since suspicion can be raised before they have a seat,
+ * and players that were never scored are at zero without being registered by a query.
+ */
+public class SuspicionRanking {
+	private final Map<String, Integer> suspicions = new HashMap<>();
+	private final NavigableMap<Integer, Set<String>> usernamesBySuspicion = new TreeMap<>();
+
+	private List<PlayerData> cachedPlayers;
+	private List<Set<PlayerData>> cachedLevels;
+	private Map<String, Integer> cachedLevelByUsername;
+
+	public int getSuspicion(final String username) {
+		return suspicions.getOrDefault(username, 0);
+	}
+
+	public void addSuspicion(final String username, final int change) {
+		setSuspicion(username, getSuspicion(username) + change);
+	}
+
+	public void setSuspicion(final String username, final int suspicion) {
+		final Integer previous = suspicions.put(username, suspicion);
+		if (previous != null && previous == suspicion) {
+			return;
+		}
+		if (previous != null) {
+			final Set<String> previousLevel = usernamesBySuspicion.get(previous);
+			previousLevel.remove(username);
+			if (previousLevel.isEmpty()) {
+				usernamesBySuspicion.remove(previous);
+			}
+		}
+		usernamesBySuspicion.computeIfAbsent(suspicion, key -> new LinkedHashSet<>()).add(username);
+		cachedPlayers = null;
+	}
+
+	/**
+	 * Groups the players by their suspicion, most suspected fascists first.
+	 *
+	 * @return the levels, which must not be modified since they are kept for the next query
+	 */
+	public List<Set<PlayerData>> getLevels(final List<PlayerData> players) {
+		cacheLevels(players);
+		return cachedLevels;
+	}
+
+	/**
+	 * @return the index of the suspicion level of the suspect among the players, most suspected first, or -1 if they are not one of the players
+	 */
+	public int getLevel(final List<PlayerData> players, final PlayerData suspect) {
+		cacheLevels(players);
+		return cachedLevelByUsername.getOrDefault(suspect.getUsername(), -1);
+	}
+
+	/**
+	 * Walks the scored players in order, picking out the queried ones, with the players that
+	 * were never scored joining the level at zero.
+	 */
+	private void cacheLevels(final List<PlayerData> players) {
+		if (players == cachedPlayers) {
+			return;
+		}
+		Map<String, PlayerData> playersByUsername = new HashMap<>();
+		Set<PlayerData> unscored = new LinkedHashSet<>();
+		for (PlayerData player : players) {
+			playersByUsername.put(player.getUsername(), player);
+			if (!suspicions.containsKey(player.getUsername())) {
+				unscored.add(player);
+			}
+		}
+		List<Set<PlayerData>> levels = new ArrayList<>();
+		Map<String, Integer> levelByUsername = new HashMap<>();
+		boolean unscoredAdded = unscored.isEmpty();
+		for (Map.Entry<Integer, Set<String>> entry : usernamesBySuspicion.entrySet()) {
+			if (!unscoredAdded && entry.getKey() > 0) {
+				addLevel(levels, levelByUsername, unscored);
+				unscoredAdded = true;
+			}
+			Set<PlayerData> level = new LinkedHashSet<>();
+			for (String username : entry.getValue()) {
+				final PlayerData player = playersByUsername.get(username);
+				if (player != null) {
+					level.add(player);
+				}
+			}
+			if (!unscoredAdded && entry.getKey() == 0) {
+				level.addAll(unscored);
+				unscoredAdded = true;
+			}
+			addLevel(levels, levelByUsername, level);
+		}
+		if (!unscoredAdded) {
+			addLevel(levels, levelByUsername, unscored);
+		}
+		cachedLevels = Collections.unmodifiableList(levels);
+		cachedLevelByUsername = levelByUsername;
+		cachedPlayers = players;
+	}
+
+	private static void addLevel(final List<Set<PlayerData>> levels, final Map<String, Integer> levelByUsername, final Set<PlayerData> level) {
+		if (level.isEmpty()) {
+			return;
+		}
+		level.forEach(player -> levelByUsername.put(player.getUsername(), levels.size()));
+		levels.add(Collections.unmodifiableSet(level));
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder("{");
+		usernamesBySuspicion.forEach((suspicion, usernames) -> usernames.forEach(username ->
+				builder.append(builder.length() == 1 ? "" : ", ").append(username).append('=').append(suspicion)));
+		return builder.append('}').toString();
+	}
+}
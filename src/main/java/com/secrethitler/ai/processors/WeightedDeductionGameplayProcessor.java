@@ -1,14 +1,13 @@
 package com.secrethitler.ai.processors;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.Map.Entry;
 import java.util.function.BiFunction;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
@@ -96,10 +95,6 @@ public class WeightedDeductionGameplayProcessor extends AbstractDeductionGamepla
 		return CombinatoricsUtils.binomialCoefficient(n, k);
 	}
 	
-	protected static int getNumberOfFascistsFromNumberOfPlayers(int players) {
-		return (players - 5) / 2 + 2;
-	}
-	
 	private final Map<SuspicionAction, BiFunction<Integer, GameData, Integer>> suspicionActionToWeightedSuspicionFunctionMap = 
 			ImmutableMap.<SuspicionAction, BiFunction<Integer, GameData, Integer>>builder()
 			.put(SuspicionAction.GOVERNMENT_DENIED_VOTE, this::governmentDenied)
@@ -114,7 +109,7 @@ public class WeightedDeductionGameplayProcessor extends AbstractDeductionGamepla
 			.put(SuspicionAction.PRESIDENTIAL_CANDIDATE_CHOSEN, this::teammateChosen)
 			.build();
 	
-	private final Map<String, Integer> weightedUserSuspicionMap = new HashMap<>();
+	private final SuspicionRanking suspicionRanking = new SuspicionRanking();
 	protected List<Policy> knownDiscardedPolicies = new ArrayList<>();
 	
 	public WeightedDeductionGameplayProcessor(String username, RandomUtil randomUtil) {
@@ -123,7 +118,7 @@ public class WeightedDeductionGameplayProcessor extends AbstractDeductionGamepla
 
 	@Override
 	protected int getMembershipSuspicion(String username) {
-		return weightedUserSuspicionMap.getOrDefault(username, 0);
+		return suspicionRanking.getSuspicion(username);
 	}
 
 	@Override
@@ -135,14 +130,13 @@ public class WeightedDeductionGameplayProcessor extends AbstractDeductionGamepla
 
 	@Override
 	protected void updateSuspectedMembership(PlayerData player, int suspicion, SuspicionAction suspicionAction, GameData gameData) {
-		final int startingSuspicion = weightedUserSuspicionMap.getOrDefault(player.getUsername(), 0);
 		final int weightedSuspicionChange = suspicionActionToWeightedSuspicionFunctionMap.getOrDefault(suspicionAction, this::defaultWeightedSuspicionFunction).apply(suspicion, gameData);
-		weightedUserSuspicionMap.put(player.getUsername(), startingSuspicion + weightedSuspicionChange);
+		suspicionRanking.addSuspicion(player.getUsername(), weightedSuspicionChange);
 	}
 
 	@Override
 	protected void printSuspectedPlayerMatrix(String action) {
-		LOGGER.info(() -> String.format("%s's suspected player matrix after %s: %n%s", username, action, weightedUserSuspicionMap.toString()));
+		log(LOGGER, Level.INFO, () -> String.format("%s's suspected player matrix after %s: %n%s", username, action, suspicionRanking.toString()));
 	}
 	
 	@Override
@@ -188,12 +182,14 @@ public class WeightedDeductionGameplayProcessor extends AbstractDeductionGamepla
 	}
 	
 	protected List<Set<PlayerData>> getPlayersOrderedBySuspicion(List<PlayerData> players) {
-		return players.stream()
-				.collect(Collectors.groupingBy(player -> getMembershipSuspicion(player.getUsername()), Collectors.toSet()))
-				.entrySet().stream()
-				.sorted((entry1, entry2) -> entry1.getKey().compareTo(entry2.getKey()))
-				.map(Entry::getValue)
-				.collect(Collectors.toList());
+		return suspicionRanking.getLevels(players);
+	}
+	
+	/**
+	 * @return the index of the player's level in {@link #getPlayersOrderedBySuspicion(GameData)}, or -1 if they are not playing
+	 */
+	protected int getSuspicionLevel(GameData gameData, PlayerData player) {
+		return suspicionRanking.getLevel(gameData.getPlayers(), player);
 	}
 	
 	private int defaultWeightedSuspicionFunction(final int suspicion, final GameData gameData) {
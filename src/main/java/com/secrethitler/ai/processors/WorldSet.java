@@ -0,0 +1,165 @@
+package com.secrethitler.ai.processors;
+
+/**
+ * Every assignment of the fascist team and Hitler to the seats of a game that is still
+ * consistent with the hard facts known to a player. The worlds are enumerated once, and the
+ * possible ones are a bitset, so a fact prunes them with a few bitwise operations per seat
+ * and a question like "is this seat certainly fascist" takes O(worlds/64).
+ */
+public class WorldSet {
+	private final int players;
+	private final int worlds;
+	private final int[] fascistSeats;
+	private final byte[] hitlerSeats;
+	private final long[][] fascistWorlds;
+	private final long[][] hitlerWorlds;
+	private final long[] possible;
+
+	/**
+	 * @param players the number of seats at the table
+	 * @param fascists the size of the fascist team, including Hitler
+	 */
+	public WorldSet(final int players, final int fascists) {
+		if (players > Integer.SIZE - 1 || fascists < 1 || fascists > players) {
+			throw new IllegalArgumentException(String.format("Cannot seat %d fascists at a table of %d", fascists, players));
+		}
+		this.players = players;
+		worlds = (int) (binomialCoefficient(players, fascists) * fascists);
+		fascistSeats = new int[worlds];
+		hitlerSeats = new byte[worlds];
+		final int words = (worlds + Long.SIZE - 1) / Long.SIZE;
+		fascistWorlds = new long[players][words];
+		hitlerWorlds = new long[players][words];
+		possible = new long[words];
+		int world = 0;
+		for (int mask = 0; mask < 1 << players; mask++) {
+			if (Integer.bitCount(mask) != fascists) {
+				continue;
+			}
+			for (int hitler = 0; hitler < players; hitler++) {
+				if (!isFascist(mask, hitler)) {
+					continue;
+				}
+				fascistSeats[world] = mask;
+				hitlerSeats[world] = (byte) hitler;
+				for (int seat = 0; seat < players; seat++) {
+					if (isFascist(mask, seat)) {
+						set(fascistWorlds[seat], world);
+					}
+				}
+				set(hitlerWorlds[hitler], world);
+				set(possible, world);
+				world++;
+			}
+		}
+	}
+
+	public static boolean isFascist(final int fascistSeats, final int seat) {
+		return (fascistSeats & (1 << seat)) != 0;
+	}
+
+	private static long binomialCoefficient(final int n, final int k) {
+		long result = 1;
+		for (int i = 1; i <= k; i++) {
+			result = result * (n - k + i) / i;
+		}
+		return result;
+	}
+
+	private static void set(final long[] bits, final int index) {
+		bits[index / Long.SIZE] |= 1L << (index % Long.SIZE);
+	}
+
+	public int getPlayers() {
+		return players;
+	}
+
+	public int getWorlds() {
+		return worlds;
+	}
+
+	/**
+	 * @return bitmask of the fascist seats of the world, including Hitler
+	 */
+	public int getFascistSeats(final int world) {
+		return fascistSeats[world];
+	}
+
+	public int getHitlerSeat(final int world) {
+		return hitlerSeats[world];
+	}
+
+	public boolean isPossible(final int world) {
+		return (possible[world / Long.SIZE] & (1L << (world % Long.SIZE))) != 0;
+	}
+
+	public int countPossible() {
+		int count = 0;
+		for (long word : possible) {
+			count += Long.bitCount(word);
+		}
+		return count;
+	}
+
+	/**
+	 * Rules out every world where the seat's membership is not the known one.
+	 *
+	 * @return false, leaving the worlds untouched, if the fact contradicts every possible world
+	 */
+	public boolean setKnownFascist(final int seat, final boolean fascist) {
+		return prune(fascistWorlds[seat], fascist);
+	}
+
+	/**
+	 * Rules out every world where whether the seat is Hitler is not the known one.
+	 *
+	 * @return false, leaving the worlds untouched, if the fact contradicts every possible world
+	 */
+	public boolean setKnownHitler(final int seat, final boolean hitler) {
+		return prune(hitlerWorlds[seat], hitler);
+	}
+
+	private boolean prune(final long[] worldsWithFact, final boolean fact) {
+		boolean anyPossible = false;
+		for (int word = 0; word < possible.length && !anyPossible; word++) {
+			anyPossible = (possible[word] & (fact ? worldsWithFact[word] : ~worldsWithFact[word])) != 0;
+		}
+		if (!anyPossible) {
+			return false;
+		}
+		for (int word = 0; word < possible.length; word++) {
+			possible[word] &= fact ? worldsWithFact[word] : ~worldsWithFact[word];
+		}
+		return true;
+	}
+
+	public boolean isCertainlyFascist(final int seat) {
+		return isCertainly(fascistWorlds[seat], true);
+	}
+
+	public boolean isCertainlyLiberal(final int seat) {
+		return isCertainly(fascistWorlds[seat], false);
+	}
+
+	public boolean isCertainlyHitler(final int seat) {
+		return isCertainly(hitlerWorlds[seat], true);
+	}
+
+	public boolean isCertainlyNotHitler(final int seat) {
+		return isCertainly(hitlerWorlds[seat], false);
+	}
+
+	private boolean isCertainly(final long[] worldsWithFact, final boolean fact) {
+		for (int word = 0; word < possible.length; word++) {
+			if ((possible[word] & (fact ? ~worldsWithFact[word] : worldsWithFact[word])) != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%d of %d worlds possible", countPossible(), worlds);
+	}
+}
@@ -0,0 +1,807 @@
+package com.secrethitler.ai.simulation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import com.secrethitler.ai.dtos.GameData;
+import com.secrethitler.ai.dtos.PlayerData;
+import com.secrethitler.ai.enums.Action;
+import com.secrethitler.ai.enums.GamePhase;
+import com.secrethitler.ai.enums.PartyMembership;
+import com.secrethitler.ai.enums.Policy;
+import com.secrethitler.ai.enums.SecretRole;
+import com.secrethitler.ai.enums.Vote;
+
+/**
+ * The rules of {@link LocalGame} over a game held entirely in a few primitive words: seats are
+ * 4 bit indexes, roles, votes and alive players are bitmasks and the policy counts are packed
+ * into a single int. Moves are ints too, so playing a game out allocates nothing, a copy is an
+ * array copy and every move can be undone by restoring the words it changed.
+ * <p>
+ * Only the order of the draw pile is kept, as a bitmask of its fascist policies; the hand is a
+ * count of fascist policies, since the order of the policies in it never matters.
+ */
+public class CompactGameState {
+	protected static final int NO_SEAT = 0xF;
+	protected static final int MAX_MOVES = LocalGame.MAX_PLAYERS;
+	private static final int MOVE_ARGUMENT_BITS = 8;
+	private static final int MOVE_ARGUMENT_MASK = (1 << MOVE_ARGUMENT_BITS) - 1;
+	private static final int POLICIES_PER_GOVERNMENT = 3;
+	private static final int MAX_PLAYERS_FOR_HITLER_TO_KNOW_FASCISTS = 6;
+	private static final int MAX_ALIVE_PLAYERS_WITHOUT_PRESIDENT_TERM_LIMIT = 5;
+	private static final int INITIAL_HISTORY_DEPTH = 64;
+	private static final GamePhase[] PHASES = GamePhase.values();
+	private static final Action[] ACTIONS = Action.values();
+
+	private static final int PHASE = 0;
+	private static final int SEATS = 1;
+	private static final int ALIVE = 2;
+	private static final int FASCISTS = 3;
+	private static final int HITLER = 4;
+	private static final int VOTED = 5;
+	private static final int JA_VOTES = 6;
+	private static final int POLICIES = 7;
+	private static final int DRAW_PILE = 8;
+	private static final int INVESTIGATIONS = 9;
+	private static final int WORDS = INVESTIGATIONS + LocalGame.MAX_PLAYERS;
+
+	private static final int PRESIDENT = 0;
+	private static final int CHANCELLOR = 4;
+	private static final int PREVIOUS_PRESIDENT = 8;
+	private static final int PREVIOUS_CHANCELLOR = 12;
+	private static final int ROTATION_PRESIDENT = 16;
+	private static final int SPECIAL_ELECTION_CANDIDATE = 20;
+	private static final int PLAYERS = 24;
+
+	private static final int COUNT_BITS = 5;
+	private static final int LIBERAL_POLICIES = 0;
+	private static final int FASCIST_POLICIES = 5;
+	private static final int UNSUCCESSFUL_GOVERNMENTS = 10;
+	private static final int DISCARDED_POLICIES = 15;
+	private static final int DRAW_PILE_SIZE = 20;
+	private static final int HAND_SIZE = 25;
+	private static final int HAND_FASCISTS = 27;
+	private static final int VETO_REQUESTED = 29;
+	private static final int WINNERS = 30;
+	private static final int HAND_BITS = 2;
+	private static final int FLAG_BITS = 1;
+	private static final int WINNER_BITS = 2;
+	private static final int LIBERALS_WON = 1;
+	private static final int FASCISTS_WON = 2;
+
+	/**
+	 * @param action the kind of move
+	 * @param argument the seat the move targets, 1 for a JA vote, a fascist discard or an accepted veto, and 0 otherwise
+	 */
+	public static int move(final Action action, final int argument) {
+		return action.ordinal() << MOVE_ARGUMENT_BITS | argument;
+	}
+
+	public static Action getAction(final int move) {
+		return ACTIONS[move >>> MOVE_ARGUMENT_BITS];
+	}
+
+	public static int getArgument(final int move) {
+		return move & MOVE_ARGUMENT_MASK;
+	}
+
+	private static boolean isSet(final int mask, final int seat) {
+		return (mask & (1 << seat)) != 0;
+	}
+
+	private final int[] state;
+	private final Random random;
+	private int[] history = new int[INITIAL_HISTORY_DEPTH * WORDS];
+	private int depth = 0;
+
+	/**
+	 * Deals a new game with the first president chosen at random.
+	 *
+	 * @param fascistSeats bitmask of the fascist seats, including Hitler
+	 * @param hitlerSeat the seat of Hitler
+	 */
+	public CompactGameState(final int players, final int fascistSeats, final int hitlerSeat, final Random random) {
+		this(players, fascistSeats, hitlerSeat, random, new int[WORDS]);
+		setSeat(PRESIDENT, random.nextInt(players));
+		setSeat(ROTATION_PRESIDENT, getSeat(PRESIDENT));
+		shuffleDrawPile();
+	}
+
+	private CompactGameState(final int players, final int fascistSeats, final int hitlerSeat, final Random random, final int[] state) {
+		if (players < LocalGame.MIN_PLAYERS || players > LocalGame.MAX_PLAYERS) {
+			throw new IllegalArgumentException(String.format("A game needs between %d and %d players", LocalGame.MIN_PLAYERS, LocalGame.MAX_PLAYERS));
+		}
+		if (Integer.bitCount(fascistSeats) != LocalGame.getNumberOfFascistsFromNumberOfPlayers(players) || !isSet(fascistSeats, hitlerSeat)
+				|| fascistSeats >>> players != 0) {
+			throw new IllegalArgumentException(String.format("%d players need %d fascists including Hitler", players,
+					LocalGame.getNumberOfFascistsFromNumberOfPlayers(players)));
+		}
+		this.state = state;
+		this.random = random;
+		state[SEATS] = -1;
+		setSeat(PLAYERS, players);
+		state[ALIVE] = (1 << players) - 1;
+		state[FASCISTS] = fascistSeats;
+		state[HITLER] = hitlerSeat;
+	}
+
+	private CompactGameState(final CompactGameState other) {
+		state = other.state.clone();
+		random = other.random;
+	}
+
+	/**
+	 * Recreates a game in progress from one player's view of it, filling in the policies the
+	 * player has not seen uniformly at random like {@link LocalGame#fromNotification}.
+	 *
+	 * @param gameData the latest game data received by the player
+	 * @param previousPresident the username of the last elected president, to tell the previous government members apart
+	 * @param fascistSeats bitmask of the fascist seats, including Hitler
+	 * @param hitlerSeat the seat of Hitler
+	 */
+	public static CompactGameState fromGameData(final GameData gameData, final String previousPresident,
+			final int fascistSeats, final int hitlerSeat, final Random random) {
+		final List<PlayerData> players = gameData.getPlayers();
+		if (GamePhase.GAME_OVER == gameData.getPhase()) {
+			throw new IllegalArgumentException("Only a game in progress can be recreated");
+		}
+		CompactGameState game = new CompactGameState(players.size(), fascistSeats, hitlerSeat, random, new int[WORDS]);
+		final int viewer = indexOf(players, gameData.getMyPlayer().getUsername());
+		int previousGovernment = 0;
+		for (int seat = 0; seat < players.size(); seat++) {
+			final PlayerData player = players.get(seat);
+			game.state[ALIVE] &= player.isAlive() ? -1 : ~(1 << seat);
+			game.state[VOTED] |= player.getVote() != null ? 1 << seat : 0;
+			game.state[JA_VOTES] |= Vote.JA == player.getVote() ? 1 << seat : 0;
+			game.state[INVESTIGATIONS + viewer] |= PartyMembership.UNKNOWN != player.getPartyMembership() && player.getPartyMembership() != null ? 1 << seat : 0;
+			previousGovernment |= player.isPreviousGovernmentMember() ? 1 << seat : 0;
+			if (player.isPresident()) {
+				game.setSeat(PRESIDENT, seat);
+			}
+			if (player.isChancellor()) {
+				game.setSeat(CHANCELLOR, seat);
+			}
+			if (player.getUsername().equals(previousPresident) && player.isPreviousGovernmentMember()) {
+				game.setSeat(PREVIOUS_PRESIDENT, seat);
+			}
+		}
+		if (game.getSeat(PREVIOUS_PRESIDENT) != NO_SEAT) {
+			previousGovernment &= ~(1 << game.getSeat(PREVIOUS_PRESIDENT));
+		} else if (Integer.bitCount(previousGovernment) > 1) {
+			game.setSeat(PREVIOUS_PRESIDENT, Integer.SIZE - 1 - Integer.numberOfLeadingZeros(previousGovernment));
+			previousGovernment &= ~(1 << game.getSeat(PREVIOUS_PRESIDENT));
+		}
+		if (previousGovernment != 0) {
+			game.setSeat(PREVIOUS_CHANCELLOR, Integer.numberOfTrailingZeros(previousGovernment));
+		}
+		game.state[PHASE] = gameData.getPhase().ordinal();
+		game.setCount(LIBERAL_POLICIES, gameData.getLiberalPolicies());
+		game.setCount(FASCIST_POLICIES, gameData.getFascistPolicies());
+		game.setCount(UNSUCCESSFUL_GOVERNMENTS, gameData.getUnsuccessfulGovernments());
+		final int nextPresident = indexOf(players, gameData.getNextPresident());
+		game.setSeat(ROTATION_PRESIDENT, nextPresident < 0 ? game.getSeat(PRESIDENT) : game.getPreviousAlivePlayer(nextPresident));
+		game.setFlag(VETO_REQUESTED, GamePhase.VETO == gameData.getPhase());
+		game.dealUnseenPolicies(gameData);
+		return game;
+	}
+
+	private static int indexOf(final List<PlayerData> players, final String username) {
+		for (int seat = 0; seat < players.size(); seat++) {
+			if (players.get(seat).getUsername().equals(username)) {
+				return seat;
+			}
+		}
+		return -1;
+	}
+
+	private void dealUnseenPolicies(final GameData gameData) {
+		final List<Policy> seen = gameData.getPoliciesToView() == null ? Collections.emptyList() : gameData.getPoliciesToView();
+		final int seenFascists = Collections.frequency(seen, Policy.FASCIST);
+		int unseenLiberals = LocalGame.STARTING_LIBERAL_POLICIES - getLiberalPolicies() - (seen.size() - seenFascists);
+		int unseenFascists = LocalGame.STARTING_FASCIST_POLICIES - getFascistPolicies() - seenFascists;
+		final GamePhase phase = getPhase();
+		final int handSize = seen.isEmpty() ? getHandSize(phase) : seen.size();
+		int handFascists = seenFascists;
+		if (seen.isEmpty()) {
+			handFascists = drawFascists(handSize, unseenLiberals + unseenFascists, unseenFascists);
+			unseenLiberals -= handSize - handFascists;
+			unseenFascists -= handFascists;
+		}
+		setHand(handSize, handFascists);
+		final boolean examining = GamePhase.EXAMINE == phase;
+		final int unseenInPile = Math.max(0, Math.min(gameData.getPolicyDocketSize() - (examining ? handSize : 0), unseenLiberals + unseenFascists));
+		final int pileFascists = drawFascists(unseenInPile, unseenLiberals + unseenFascists, unseenFascists);
+		int pile = arrange(unseenInPile, pileFascists);
+		int pileSize = unseenInPile;
+		if (examining) {
+			pile = pile << handSize | arrange(handSize, handFascists);
+			pileSize += handSize;
+		}
+		state[DRAW_PILE] = pile;
+		setCount(DRAW_PILE_SIZE, pileSize);
+		setCount(DISCARDED_POLICIES, unseenLiberals + unseenFascists - unseenInPile);
+	}
+
+	private static int getHandSize(final GamePhase phase) {
+		switch (phase) {
+			case PRESIDENT_CHOICE:
+			case EXAMINE:
+				return POLICIES_PER_GOVERNMENT;
+			case CHANCELLOR_CHOICE:
+			case VETO:
+				return POLICIES_PER_GOVERNMENT - 1;
+			default:
+				return 0;
+		}
+	}
+
+	public CompactGameState copy() {
+		return new CompactGameState(this);
+	}
+
+	/**
+	 * Overwrites this game with another one without allocating, forgetting the moves that could be undone.
+	 */
+	public void copyFrom(final CompactGameState other) {
+		System.arraycopy(other.state, 0, state, 0, WORDS);
+		depth = 0;
+	}
+
+	/**
+	 * Applies a player's move to the current phase of the game. The move can be taken back with {@link #undo()}.
+	 *
+	 * @param seat the index of the player making the move
+	 * @param move the move, built with {@link #move(Action, int)}
+	 * @throws IllegalStateException if the move is not allowed for that player in the current phase, leaving the game unchanged
+	 */
+	public void apply(final int seat, final int move) {
+		if (!isLegal(seat, move)) {
+			throw new IllegalStateException(String.format("Seat %d can not %s %d during the %s phase", seat, getAction(move), getArgument(move), getPhase()));
+		}
+		if ((depth + 1) * WORDS > history.length) {
+			history = Arrays.copyOf(history, history.length * 2);
+		}
+		System.arraycopy(state, 0, history, depth * WORDS, WORDS);
+		depth++;
+		final int argument = getArgument(move);
+		switch (getPhase()) {
+			case PICKING_RUNNING_MATE:
+				setSeat(CHANCELLOR, argument);
+				state[VOTED] = 0;
+				state[JA_VOTES] = 0;
+				setPhase(GamePhase.ELECTION);
+				break;
+			case ELECTION:
+				vote(seat, argument == 1);
+				break;
+			case PRESIDENT_CHOICE:
+				discard(argument == 1);
+				setFlag(VETO_REQUESTED, false);
+				setPhase(GamePhase.CHANCELLOR_CHOICE);
+				break;
+			case CHANCELLOR_CHOICE:
+				if (Action.CHANCELLOR_VETO == getAction(move)) {
+					setFlag(VETO_REQUESTED, true);
+					setPhase(GamePhase.VETO);
+				} else {
+					discard(argument == 1);
+					enactPolicy(getCount(HAND_FASCISTS, HAND_BITS) == 1, true);
+				}
+				break;
+			case VETO:
+				if (argument == 1) {
+					setCount(DISCARDED_POLICIES, getCount(DISCARDED_POLICIES) + getCount(HAND_SIZE, HAND_BITS));
+					setHand(0, 0);
+					failedGovernment();
+				} else {
+					setPhase(GamePhase.CHANCELLOR_CHOICE);
+				}
+				break;
+			case INVESTIGATE:
+				state[INVESTIGATIONS + getSeat(PRESIDENT)] |= 1 << argument;
+				nextRound();
+				break;
+			case SPECIAL_ELECTION:
+				setSeat(SPECIAL_ELECTION_CANDIDATE, argument);
+				nextRound();
+				break;
+			case KILL:
+				state[ALIVE] &= ~(1 << argument);
+				if (argument == state[HITLER]) {
+					endGame(LIBERALS_WON);
+				} else {
+					nextRound();
+				}
+				break;
+			default:
+				nextRound();
+				break;
+		}
+	}
+
+	/**
+	 * Takes back the last move applied.
+	 *
+	 * @throws IllegalStateException if no move is left to take back
+	 */
+	public void undo() {
+		if (depth == 0) {
+			throw new IllegalStateException("There is no move to undo");
+		}
+		depth--;
+		System.arraycopy(history, depth * WORDS, state, 0, WORDS);
+	}
+
+	/**
+	 * Lists every move the player can make right now, leaving out moves that are the same as
+	 * another, like discarding either of two fascist policies.
+	 *
+	 * @param moves filled with the moves, at least {@link #MAX_MOVES} long
+	 * @return the number of moves, 0 if the player has nothing to do
+	 */
+	public int getLegalMoves(final int seat, final int[] moves) {
+		final int president = getSeat(PRESIDENT);
+		final GamePhase phase = getPhase();
+		if (GamePhase.ELECTION == phase) {
+			if (!isAlive(seat) || isSet(state[VOTED], seat)) {
+				return 0;
+			}
+			moves[0] = move(Action.VOTE, 1);
+			moves[1] = move(Action.VOTE, 0);
+			return 2;
+		}
+		if (GamePhase.CHANCELLOR_CHOICE == phase) {
+			return seat == getSeat(CHANCELLOR) ? getDiscards(Action.CHANCELLOR_CHOICE, moves, isVetoUnlocked() && !getFlag(VETO_REQUESTED)) : 0;
+		}
+		if (seat != president || GamePhase.GAME_OVER == phase) {
+			return 0;
+		}
+		switch (phase) {
+			case PRESIDENT_CHOICE:
+				return getDiscards(Action.PRESIDENT_CHOICE, moves, false);
+			case VETO:
+				moves[0] = move(Action.PRESIDENT_VETO, 1);
+				moves[1] = move(Action.PRESIDENT_VETO, 0);
+				return 2;
+			case EXAMINE:
+				moves[0] = move(Action.FINISH_EXAMINATION, 0);
+				return 1;
+			default:
+				final Action action = getTargetAction(phase);
+				int count = 0;
+				for (int target = 0; target < getPlayers(); target++) {
+					if (isLegalTarget(phase, target)) {
+						moves[count++] = move(action, target);
+					}
+				}
+				return count;
+		}
+	}
+
+	private int getDiscards(final Action action, final int[] moves, final boolean vetoAllowed) {
+		final int fascists = getCount(HAND_FASCISTS, HAND_BITS);
+		int count = 0;
+		if (fascists < getCount(HAND_SIZE, HAND_BITS)) {
+			moves[count++] = move(action, 0);
+		}
+		if (fascists > 0) {
+			moves[count++] = move(action, 1);
+		}
+		if (vetoAllowed) {
+			moves[count++] = move(Action.CHANCELLOR_VETO, 0);
+		}
+		return count;
+	}
+
+	private static Action getTargetAction(final GamePhase phase) {
+		switch (phase) {
+			case PICKING_RUNNING_MATE:
+				return Action.CHOOSE_RUNNING_MATE;
+			case INVESTIGATE:
+				return Action.INVESTIGATE_PLAYER;
+			case SPECIAL_ELECTION:
+				return Action.CHOOSE_NEXT_PRESIDENTIAL_CANDIDATE;
+			case KILL:
+				return Action.KILL_PLAYER;
+			default:
+				return null;
+		}
+	}
+
+	private boolean isLegal(final int seat, final int move) {
+		final GamePhase phase = getPhase();
+		final Action action = getAction(move);
+		final int argument = getArgument(move);
+		final int president = getSeat(PRESIDENT);
+		switch (phase) {
+			case ELECTION:
+				return Action.VOTE == action && argument <= 1 && isAlive(seat) && !isSet(state[VOTED], seat);
+			case PRESIDENT_CHOICE:
+				return seat == president && Action.PRESIDENT_CHOICE == action && isInHand(argument);
+			case CHANCELLOR_CHOICE:
+				return seat == getSeat(CHANCELLOR) && (Action.CHANCELLOR_VETO == action ? isVetoUnlocked() && !getFlag(VETO_REQUESTED) :
+						Action.CHANCELLOR_CHOICE == action && isInHand(argument));
+			case VETO:
+				return seat == president && Action.PRESIDENT_VETO == action && argument <= 1;
+			case EXAMINE:
+				return seat == president && Action.FINISH_EXAMINATION == action;
+			case GAME_OVER:
+				return false;
+			default:
+				return seat == president && getTargetAction(phase) == action && argument < getPlayers() && isLegalTarget(phase, argument);
+		}
+	}
+
+	private boolean isLegalTarget(final GamePhase phase, final int target) {
+		final boolean otherAlivePlayer = target != getSeat(PRESIDENT) && isAlive(target);
+		return GamePhase.PICKING_RUNNING_MATE == phase ? otherAlivePlayer && !isTermLimited(target) : otherAlivePlayer;
+	}
+
+	private boolean isInHand(final int fascist) {
+		final int fascists = getCount(HAND_FASCISTS, HAND_BITS);
+		return fascist == 1 ? fascists > 0 : fascist == 0 && fascists < getCount(HAND_SIZE, HAND_BITS);
+	}
+
+	private void vote(final int seat, final boolean ja) {
+		state[VOTED] |= 1 << seat;
+		state[JA_VOTES] |= ja ? 1 << seat : 0;
+		final int voters = state[VOTED] & state[ALIVE];
+		if (voters != state[ALIVE]) {
+			return;
+		}
+		if (Integer.bitCount(state[JA_VOTES] & voters) * 2 > Integer.bitCount(voters)) {
+			governmentElected();
+		} else {
+			failedGovernment();
+		}
+	}
+
+	private void governmentElected() {
+		if (getFascistPolicies() >= LocalGame.FASCIST_DANGER_ZONE_POLICIES && getSeat(CHANCELLOR) == state[HITLER]) {
+			endGame(FASCISTS_WON);
+			return;
+		}
+		setCount(UNSUCCESSFUL_GOVERNMENTS, 0);
+		setSeat(PREVIOUS_PRESIDENT, getSeat(PRESIDENT));
+		setSeat(PREVIOUS_CHANCELLOR, getSeat(CHANCELLOR));
+		ensureDrawPile();
+		final int drawn = state[DRAW_PILE] & ((1 << POLICIES_PER_GOVERNMENT) - 1);
+		state[DRAW_PILE] >>>= POLICIES_PER_GOVERNMENT;
+		setCount(DRAW_PILE_SIZE, getCount(DRAW_PILE_SIZE) - POLICIES_PER_GOVERNMENT);
+		setHand(POLICIES_PER_GOVERNMENT, Integer.bitCount(drawn));
+		setPhase(GamePhase.PRESIDENT_CHOICE);
+	}
+
+	private void failedGovernment() {
+		final int unsuccessfulGovernments = getCount(UNSUCCESSFUL_GOVERNMENTS) + 1;
+		if (unsuccessfulGovernments < LocalGame.MAX_UNSUCCESSFUL_GOVERNMENTS) {
+			setCount(UNSUCCESSFUL_GOVERNMENTS, unsuccessfulGovernments);
+			nextRound();
+			return;
+		}
+		setCount(UNSUCCESSFUL_GOVERNMENTS, 0);
+		setSeat(PREVIOUS_PRESIDENT, NO_SEAT);
+		setSeat(PREVIOUS_CHANCELLOR, NO_SEAT);
+		ensureDrawPile();
+		final boolean fascist = (state[DRAW_PILE] & 1) == 1;
+		state[DRAW_PILE] >>>= 1;
+		setCount(DRAW_PILE_SIZE, getCount(DRAW_PILE_SIZE) - 1);
+		enactPolicy(fascist, false);
+	}
+
+	private void discard(final boolean fascist) {
+		setHand(getCount(HAND_SIZE, HAND_BITS) - 1, getCount(HAND_FASCISTS, HAND_BITS) - (fascist ? 1 : 0));
+		setCount(DISCARDED_POLICIES, getCount(DISCARDED_POLICIES) + 1);
+	}
+
+	private void enactPolicy(final boolean fascist, final boolean presidentialPowerGranted) {
+		setHand(0, 0);
+		if (!fascist) {
+			setCount(LIBERAL_POLICIES, getLiberalPolicies() + 1);
+		} else {
+			setCount(FASCIST_POLICIES, getFascistPolicies() + 1);
+		}
+		if (getLiberalPolicies() >= LocalGame.LIBERAL_POLICIES_TO_WIN) {
+			endGame(LIBERALS_WON);
+			return;
+		}
+		if (getFascistPolicies() >= LocalGame.FASCIST_POLICIES_TO_WIN) {
+			endGame(FASCISTS_WON);
+			return;
+		}
+		final GamePhase power = LocalGame.getPresidentialPower(getPlayers(), getFascistPolicies());
+		if (!presidentialPowerGranted || !fascist || power == null) {
+			nextRound();
+			return;
+		}
+		setPhase(power);
+		if (GamePhase.EXAMINE == power) {
+			ensureDrawPile();
+			setHand(POLICIES_PER_GOVERNMENT, Integer.bitCount(state[DRAW_PILE] & ((1 << POLICIES_PER_GOVERNMENT) - 1)));
+		}
+	}
+
+	private void nextRound() {
+		if (getSeat(SPECIAL_ELECTION_CANDIDATE) != NO_SEAT) {
+			setSeat(PRESIDENT, getSeat(SPECIAL_ELECTION_CANDIDATE));
+			setSeat(SPECIAL_ELECTION_CANDIDATE, NO_SEAT);
+		} else {
+			setSeat(ROTATION_PRESIDENT, getNextAlivePlayer(getSeat(ROTATION_PRESIDENT)));
+			setSeat(PRESIDENT, getSeat(ROTATION_PRESIDENT));
+		}
+		setSeat(CHANCELLOR, NO_SEAT);
+		setHand(0, 0);
+		setPhase(GamePhase.PICKING_RUNNING_MATE);
+	}
+
+	private void endGame(final int winners) {
+		setCount(WINNERS, WINNER_BITS, winners);
+		setPhase(GamePhase.GAME_OVER);
+	}
+
+	private void ensureDrawPile() {
+		if (getCount(DRAW_PILE_SIZE) < POLICIES_PER_GOVERNMENT) {
+			shuffleDrawPile();
+		}
+	}
+
+	private void shuffleDrawPile() {
+		final int liberals = LocalGame.STARTING_LIBERAL_POLICIES - getLiberalPolicies();
+		final int fascists = LocalGame.STARTING_FASCIST_POLICIES - getFascistPolicies();
+		state[DRAW_PILE] = arrange(liberals + fascists, fascists);
+		setCount(DRAW_PILE_SIZE, liberals + fascists);
+		setCount(DISCARDED_POLICIES, 0);
+	}
+
+	/**
+	 * @return a uniformly random order of the policies as a bitmask of the fascist ones
+	 */
+	private int arrange(final int size, final int fascists) {
+		int pile = 0;
+		int fascistsLeft = fascists;
+		for (int position = 0; position < size; position++) {
+			if (random.nextInt(size - position) < fascistsLeft) {
+				pile |= 1 << position;
+				fascistsLeft--;
+			}
+		}
+		return pile;
+	}
+
+	/**
+	 * @return how many fascist policies are among the given number drawn from a shuffled pile
+	 */
+	private int drawFascists(final int drawn, final int size, final int fascists) {
+		int fascistsLeft = fascists;
+		for (int position = 0; position < drawn; position++) {
+			if (random.nextInt(size - position) < fascistsLeft) {
+				fascistsLeft--;
+			}
+		}
+		return fascists - fascistsLeft;
+	}
+
+	private int getNextAlivePlayer(final int seat) {
+		int next = seat;
+		do {
+			next = (next + 1) % getPlayers();
+		} while (!isAlive(next));
+		return next;
+	}
+
+	private int getPreviousAlivePlayer(final int seat) {
+		int previous = seat;
+		do {
+			previous = (previous + getPlayers() - 1) % getPlayers();
+		} while (!isAlive(previous));
+		return previous;
+	}
+
+	private boolean isTermLimited(final int seat) {
+		return seat == getSeat(PREVIOUS_CHANCELLOR) ||
+				(seat == getSeat(PREVIOUS_PRESIDENT) && Integer.bitCount(state[ALIVE]) > MAX_ALIVE_PLAYERS_WITHOUT_PRESIDENT_TERM_LIMIT);
+	}
+
+	private int getSeat(final int shift) {
+		return state[SEATS] >>> shift & NO_SEAT;
+	}
+
+	private void setSeat(final int shift, final int seat) {
+		state[SEATS] = state[SEATS] & ~(NO_SEAT << shift) | seat << shift;
+	}
+
+	private int getCount(final int shift) {
+		return getCount(shift, COUNT_BITS);
+	}
+
+	private int getCount(final int shift, final int bits) {
+		return state[POLICIES] >>> shift & ((1 << bits) - 1);
+	}
+
+	private void setCount(final int shift, final int count) {
+		setCount(shift, COUNT_BITS, count);
+	}
+
+	private void setCount(final int shift, final int bits, final int count) {
+		final int mask = (1 << bits) - 1;
+		state[POLICIES] = state[POLICIES] & ~(mask << shift) | (count & mask) << shift;
+	}
+
+	private boolean getFlag(final int shift) {
+		return getCount(shift, FLAG_BITS) == 1;
+	}
+
+	private void setFlag(final int shift, final boolean flag) {
+		setCount(shift, FLAG_BITS, flag ? 1 : 0);
+	}
+
+	private void setHand(final int size, final int fascists) {
+		setCount(HAND_SIZE, HAND_BITS, size);
+		setCount(HAND_FASCISTS, HAND_BITS, fascists);
+	}
+
+	private void setPhase(final GamePhase phase) {
+		state[PHASE] = phase.ordinal();
+	}
+
+	public GamePhase getPhase() {
+		return PHASES[state[PHASE]];
+	}
+
+	public boolean isOver() {
+		return GamePhase.GAME_OVER == getPhase();
+	}
+
+	public int getPlayers() {
+		return getSeat(PLAYERS);
+	}
+
+	public boolean isAlive(final int seat) {
+		return isSet(state[ALIVE], seat);
+	}
+
+	public boolean isFascist(final int seat) {
+		return isSet(state[FASCISTS], seat);
+	}
+
+	public int getPresident() {
+		return getSeat(PRESIDENT);
+	}
+
+	/**
+	 * @return the seat of the chancellor, or {@link #NO_SEAT} if there is none
+	 */
+	public int getChancellor() {
+		return getSeat(CHANCELLOR);
+	}
+
+	public int getLiberalPolicies() {
+		return getCount(LIBERAL_POLICIES);
+	}
+
+	public int getFascistPolicies() {
+		return getCount(FASCIST_POLICIES);
+	}
+
+	public boolean isVetoUnlocked() {
+		return getFascistPolicies() >= LocalGame.VETO_UNLOCKED_POLICIES;
+	}
+
+	public PartyMembership getWinners() {
+		switch (getCount(WINNERS, WINNER_BITS)) {
+			case LIBERALS_WON:
+				return PartyMembership.LIBERAL;
+			case FASCISTS_WON:
+				return PartyMembership.FASCIST;
+			default:
+				return null;
+		}
+	}
+
+	/**
+	 * @return how many moves can be undone
+	 */
+	public int getDepth() {
+		return depth;
+	}
+
+	private SecretRole getRole(final int seat) {
+		if (seat == state[HITLER]) {
+			return SecretRole.HITLER;
+		}
+		return isFascist(seat) ? SecretRole.FASCIST : SecretRole.LIBERAL;
+	}
+
+	/**
+	 * Builds the game data the given player would receive from the server for the current state
+	 * of the game. The policies in the hand are listed liberal first, since their order is not kept.
+	 *
+	 * @param seat the index of the player receiving the game data
+	 * @param usernames the username of every seat
+	 */
+	public GameData toGameData(final int seat, final List<String> usernames) {
+		final boolean over = isOver();
+		final SecretRole viewerRole = getRole(seat);
+		final boolean knowsEveryone = over || SecretRole.FASCIST == viewerRole ||
+				(SecretRole.HITLER == viewerRole && getPlayers() <= MAX_PLAYERS_FOR_HITLER_TO_KNOW_FASCISTS);
+		final boolean electionInProgress = GamePhase.ELECTION == getPhase();
+		List<PlayerData> players = new ArrayList<>(getPlayers());
+		for (int target = 0; target < getPlayers(); target++) {
+			final boolean roleKnown = knowsEveryone || target == seat;
+			final SecretRole role = roleKnown ? getRole(target) : SecretRole.UNKNOWN;
+			PlayerData player = new PlayerData();
+			player.setUsername(usernames.get(target));
+			player.setHost(target == 0);
+			player.setConnected(true);
+			player.setAlive(isAlive(target));
+			player.setSecretRole(role);
+			player.setPartyMembership(roleKnown || isSet(state[INVESTIGATIONS + seat], target) ? LocalGame.getMembershipFromRole(getRole(target)) :
+					PartyMembership.UNKNOWN);
+			player.setPresident(!over && target == getSeat(PRESIDENT));
+			player.setChancellor(!over && target == getSeat(CHANCELLOR));
+			player.setPreviousGovernmentMember(isTermLimited(target));
+			player.setVoteReady(isSet(state[VOTED], target));
+			player.setVote(!isSet(state[VOTED], target) || (electionInProgress && target != seat) ? null :
+					isSet(state[JA_VOTES], target) ? Vote.JA : Vote.NEIN);
+			players.add(player);
+		}
+
+		GameData gameData = new GameData();
+		gameData.setPlayers(players);
+		gameData.setMyPlayer(players.get(seat));
+		gameData.setWatchers(Collections.emptySet());
+		gameData.setPhase(getPhase());
+		gameData.setPolicyDocketSize(getCount(DRAW_PILE_SIZE));
+		gameData.setDeniedPolicies(getCount(DISCARDED_POLICIES));
+		gameData.setLiberalPolicies(getLiberalPolicies());
+		gameData.setFascistPolicies(getFascistPolicies());
+		gameData.setUnsuccessfulGovernments(getCount(UNSUCCESSFUL_GOVERNMENTS));
+		gameData.setFascistDangerZone(getFascistPolicies() >= LocalGame.FASCIST_DANGER_ZONE_POLICIES);
+		gameData.setVetoUnlocked(isVetoUnlocked());
+		gameData.setHistory(new ArrayList<>());
+		gameData.setPoliciesToView(canViewPolicies(seat) ? getHand() : new ArrayList<>());
+		gameData.setNextPresident(over ? null : usernames.get(getSeat(SPECIAL_ELECTION_CANDIDATE) != NO_SEAT ?
+				getSeat(SPECIAL_ELECTION_CANDIDATE) : getNextAlivePlayer(getSeat(ROTATION_PRESIDENT))));
+		gameData.setWinners(getWinners());
+		return gameData;
+	}
+
+	private List<Policy> getHand() {
+		final int fascists = getCount(HAND_FASCISTS, HAND_BITS);
+		List<Policy> hand = new ArrayList<>(Collections.nCopies(getCount(HAND_SIZE, HAND_BITS) - fascists, Policy.LIBERAL));
+		hand.addAll(Collections.nCopies(fascists, Policy.FASCIST));
+		return hand;
+	}
+
+	private boolean canViewPolicies(final int seat) {
+		switch (getPhase()) {
+			case PRESIDENT_CHOICE:
+			case EXAMINE:
+			case VETO:
+				return seat == getSeat(PRESIDENT);
+			case CHANCELLOR_CHOICE:
+				return seat == getSeat(CHANCELLOR);
+			default:
+				return false;
+		}
+	}
+
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(state);
+	}
+
+	@Override
+	public boolean equals(final Object obj) {
+		return obj instanceof CompactGameState && Arrays.equals(state, ((CompactGameState) obj).state);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s with %d liberal and %d fascist policies, president %d and chancellor %d", getPhase(),
+				getLiberalPolicies(), getFascistPolicies(), getSeat(PRESIDENT), getSeat(CHANCELLOR));
+	}
+}
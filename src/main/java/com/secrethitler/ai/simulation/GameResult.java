@@ -0,0 +1,61 @@
+package com.secrethitler.ai.simulation;
+
+import java.util.List;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+import com.google.common.collect.ImmutableList;
+import com.secrethitler.ai.enums.PartyMembership;
+import com.secrethitler.ai.enums.SecretRole;
+
+public class GameResult {
+	private final List<String> usernames;
+	private final List<SecretRole> roles;
+	private final PartyMembership winners;
+	private final int liberalPolicies;
+	private final int fascistPolicies;
+	private final int moves;
+
+	public GameResult(final List<String> usernames, final List<SecretRole> roles, final PartyMembership winners,
+			final int liberalPolicies, final int fascistPolicies, final int moves) {
+		this.usernames = ImmutableList.copyOf(usernames);
+		this.roles = ImmutableList.copyOf(roles);
+		this.winners = winners;
+		this.liberalPolicies = liberalPolicies;
+		this.fascistPolicies = fascistPolicies;
+		this.moves = moves;
+	}
+
+	public List<String> getUsernames() {
+		return usernames;
+	}
+
+	public List<SecretRole> getRoles() {
+		return roles;
+	}
+
+	public PartyMembership getWinners() {
+		return winners;
+	}
+
+	public int getLiberalPolicies() {
+		return liberalPolicies;
+	}
+
+	public int getFascistPolicies() {
+		return fascistPolicies;
+	}
+
+	public int getMoves() {
+		return moves;
+	}
+
+	public boolean isWinner(final int seat) {
+		return winners == LocalGame.getMembershipFromRole(roles.get(seat));
+	}
+
+	@Override
+	public String toString() {
+		return ToStringBuilder.reflectionToString(this);
+	}
+}
@@ -0,0 +1,736 @@
+package com.secrethitler.ai.simulation;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.BiConsumer;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.secrethitler.ai.dtos.GameData;
+import com.secrethitler.ai.dtos.GameplayAction;
+import com.secrethitler.ai.dtos.ParticipantGameNotification;
+import com.secrethitler.ai.dtos.PlayerData;
+import com.secrethitler.ai.enums.Action;
+import com.secrethitler.ai.enums.GamePhase;
+import com.secrethitler.ai.enums.PartyMembership;
+import com.secrethitler.ai.enums.Policy;
+import com.secrethitler.ai.enums.SecretRole;
+import com.secrethitler.ai.enums.Vote;
+
+/**
+ * In-process implementation of the Secret Hitler rules. The game hands out the same
+ * {@link ParticipantGameNotification} snapshots the server would send to each player
+ * and consumes the {@link GameplayAction} replies directly.
+ */
+public class LocalGame {
+	public static final int MIN_PLAYERS = 5;
+	public static final int MAX_PLAYERS = 10;
+	public static final int STARTING_LIBERAL_POLICIES = 6;
+	public static final int STARTING_FASCIST_POLICIES = 11;
+	protected static final int LIBERAL_POLICIES_TO_WIN = 5;
+	protected static final int FASCIST_POLICIES_TO_WIN = 6;
+	protected static final int FASCIST_DANGER_ZONE_POLICIES = 3;
+	protected static final int VETO_UNLOCKED_POLICIES = 5;
+	protected static final int MAX_UNSUCCESSFUL_GOVERNMENTS = 3;
+	private static final int POLICIES_PER_GOVERNMENT = 3;
+	private static final int MAX_PLAYERS_FOR_HITLER_TO_KNOW_FASCISTS = 6;
+	private static final int MAX_ALIVE_PLAYERS_WITHOUT_PRESIDENT_TERM_LIMIT = 5;
+	private static final int NO_PLAYER = -1;
+	private static final String[] NO_ARGS = {};
+
+	private static final Map<Integer, GamePhase> SMALL_GAME_POWERS = ImmutableMap.<Integer, GamePhase>builder()
+			.put(3, GamePhase.EXAMINE)
+			.put(4, GamePhase.KILL)
+			.put(5, GamePhase.KILL)
+			.build();
+
+	private static final Map<Integer, GamePhase> MEDIUM_GAME_POWERS = ImmutableMap.<Integer, GamePhase>builder()
+			.put(2, GamePhase.INVESTIGATE)
+			.put(3, GamePhase.SPECIAL_ELECTION)
+			.put(4, GamePhase.KILL)
+			.put(5, GamePhase.KILL)
+			.build();
+
+	private static final Map<Integer, GamePhase> LARGE_GAME_POWERS = ImmutableMap.<Integer, GamePhase>builder()
+			.put(1, GamePhase.INVESTIGATE)
+			.put(2, GamePhase.INVESTIGATE)
+			.put(3, GamePhase.SPECIAL_ELECTION)
+			.put(4, GamePhase.KILL)
+			.put(5, GamePhase.KILL)
+			.build();
+
+	private static final Map<Integer, Map<Integer, GamePhase>> PLAYERS_TO_POWERS_MAP = ImmutableMap.<Integer, Map<Integer, GamePhase>>builder()
+			.put(5, SMALL_GAME_POWERS)
+			.put(6, SMALL_GAME_POWERS)
+			.put(7, MEDIUM_GAME_POWERS)
+			.put(8, MEDIUM_GAME_POWERS)
+			.put(9, LARGE_GAME_POWERS)
+			.put(10, LARGE_GAME_POWERS)
+			.build();
+
+	private static final Map<SecretRole, PartyMembership> ROLE_TO_MEMBERSHIP_MAP = ImmutableMap.<SecretRole, PartyMembership>builder()
+			.put(SecretRole.LIBERAL, PartyMembership.LIBERAL)
+			.put(SecretRole.FASCIST, PartyMembership.FASCIST)
+			.put(SecretRole.HITLER, PartyMembership.FASCIST)
+			.put(SecretRole.UNKNOWN, PartyMembership.UNKNOWN)
+			.build();
+
+	protected static int getNumberOfFascistsFromNumberOfPlayers(final int players) {
+		return (players - 5) / 2 + 2;
+	}
+
+	protected static PartyMembership getMembershipFromRole(final SecretRole role) {
+		return ROLE_TO_MEMBERSHIP_MAP.get(role);
+	}
+
+	/**
+	 * @return the power the president is granted for enacting the given fascist policy, or null if there is none
+	 */
+	protected static GamePhase getPresidentialPower(final int players, final int fascistPolicies) {
+		return PLAYERS_TO_POWERS_MAP.get(players).get(fascistPolicies);
+	}
+
+	private final List<String> usernames;
+	private final Random random;
+	private final SecretRole[] roles;
+	private final SecretRole[][] knownRoles;
+	private final PartyMembership[][] knownMemberships;
+	private final boolean[] alive;
+	private final Vote[] votes;
+	private final Deque<Policy> drawPile = new ArrayDeque<>();
+	private final Map<GamePhase, BiConsumer<Integer, GameplayAction>> phaseToHandlerMap;
+	private List<Policy> policiesInHand = new ArrayList<>();
+	private int discardedPolicies = 0;
+	private int liberalPolicies = 0;
+	private int fascistPolicies = 0;
+	private int unsuccessfulGovernments = 0;
+	private int rotationPresident;
+	private int president;
+	private int chancellor = NO_PLAYER;
+	private int previousPresident = NO_PLAYER;
+	private int previousChancellor = NO_PLAYER;
+	private int specialElectionCandidate = NO_PLAYER;
+	private boolean vetoRequested = false;
+	private GamePhase phase = GamePhase.PICKING_RUNNING_MATE;
+	private GameplayAction lastAction = new GameplayAction(Action.CONNECTED, NO_ARGS);
+	private PartyMembership winners = null;
+
+	public LocalGame(final List<String> usernames, final Random random) {
+		this(usernames, random, true);
+	}
+
+	private LocalGame(final List<String> usernames, final Random random, final boolean deal) {
+		if (usernames.size() < MIN_PLAYERS || usernames.size() > MAX_PLAYERS) {
+			throw new IllegalArgumentException(String.format("A game needs between %d and %d players", MIN_PLAYERS, MAX_PLAYERS));
+		}
+		this.usernames = ImmutableList.copyOf(usernames);
+		this.random = random;
+		final int totalPlayers = usernames.size();
+		roles = new SecretRole[totalPlayers];
+		knownRoles = new SecretRole[totalPlayers][totalPlayers];
+		knownMemberships = new PartyMembership[totalPlayers][totalPlayers];
+		alive = new boolean[totalPlayers];
+		votes = new Vote[totalPlayers];
+		Arrays.fill(alive, true);
+		phaseToHandlerMap = ImmutableMap.<GamePhase, BiConsumer<Integer, GameplayAction>>builder()
+				.put(GamePhase.PICKING_RUNNING_MATE, this::pickRunningMate)
+				.put(GamePhase.ELECTION, this::vote)
+				.put(GamePhase.PRESIDENT_CHOICE, this::presidentChoice)
+				.put(GamePhase.CHANCELLOR_CHOICE, this::chancellorChoice)
+				.put(GamePhase.VETO, this::presidentVeto)
+				.put(GamePhase.EXAMINE, this::examine)
+				.put(GamePhase.INVESTIGATE, this::investigate)
+				.put(GamePhase.SPECIAL_ELECTION, this::specialElection)
+				.put(GamePhase.KILL, this::kill)
+				.build();
+		if (deal) {
+			assignRoles();
+			shuffleDeck();
+			rotationPresident = random.nextInt(totalPlayers);
+			president = rotationPresident;
+		}
+	}
+
+	/**
+	 * Recreates a game in progress from one player's notification, filling in what that player
+	 * can not see: the secret roles are the given ones and the policies the player has not seen
+	 * are shuffled into the draw pile, hand and discard pile uniformly at random. Other players'
+	 * investigations and any vote not visible to the player are forgotten, so those players
+	 * vote again.
+	 *
+	 * @param notification the latest notification received by the player
+	 * @param previousPresident the username of the last elected president, to tell the previous government members apart
+	 * @param roles the secret role of every seat, in the order of the notification's players
+	 * @param random the source of randomness for the unseen policies and the rest of the game
+	 * @return a game that continues from the notification
+	 * @throws IllegalArgumentException if the game is over or the roles do not match the players
+	 */
+	public static LocalGame fromNotification(final ParticipantGameNotification notification, final String previousPresident,
+			final List<SecretRole> roles, final Random random) {
+		final GameData gameData = notification.getGameData();
+		final List<PlayerData> players = gameData.getPlayers();
+		if (GamePhase.GAME_OVER == gameData.getPhase() || roles.size() != players.size()) {
+			throw new IllegalArgumentException("Only a game in progress with a role for every player can be recreated");
+		}
+		List<String> usernames = new ArrayList<>(players.size());
+		players.forEach(player -> usernames.add(player.getUsername()));
+		LocalGame game = new LocalGame(usernames, random, false);
+		final int viewer = usernames.indexOf(gameData.getMyPlayer().getUsername());
+		roles.toArray(game.roles);
+		game.revealRoles();
+		for (int seat = 0; seat < players.size(); seat++) {
+			final PlayerData player = players.get(seat);
+			game.alive[seat] = player.isAlive();
+			game.votes[seat] = player.getVote();
+			if (PartyMembership.UNKNOWN != player.getPartyMembership() && player.getPartyMembership() != null) {
+				game.knownMemberships[viewer][seat] = player.getPartyMembership();
+			}
+			if (player.isPresident()) {
+				game.president = seat;
+			}
+			if (player.isChancellor()) {
+				game.chancellor = seat;
+			}
+		}
+		game.restorePreviousGovernment(players, usernames.indexOf(previousPresident));
+		game.phase = gameData.getPhase();
+		game.liberalPolicies = gameData.getLiberalPolicies();
+		game.fascistPolicies = gameData.getFascistPolicies();
+		game.unsuccessfulGovernments = gameData.getUnsuccessfulGovernments();
+		final String[] args = notification.getAction().getArgs();
+		game.lastAction = new GameplayAction(notification.getAction().getAction(), args == null ? NO_ARGS : args.clone());
+		game.vetoRequested = GamePhase.VETO == game.phase || Action.PRESIDENT_VETO_NO == game.lastAction.getAction();
+		final int nextPresident = gameData.getNextPresident() == null ? NO_PLAYER : usernames.indexOf(gameData.getNextPresident());
+		game.rotationPresident = nextPresident == NO_PLAYER ? game.president : game.getPreviousAlivePlayer(nextPresident);
+		game.dealUnseenPolicies(gameData);
+		return game;
+	}
+
+	private void restorePreviousGovernment(final List<PlayerData> players, final int previousPresidentSeat) {
+		for (int seat = 0; seat < players.size(); seat++) {
+			if (!players.get(seat).isPreviousGovernmentMember()) {
+				continue;
+			}
+			if (seat == previousPresidentSeat || previousChancellor != NO_PLAYER) {
+				previousPresident = seat;
+			} else {
+				previousChancellor = seat;
+			}
+		}
+		if (previousPresident != NO_PLAYER && previousChancellor == NO_PLAYER) {
+			previousChancellor = previousPresident;
+			previousPresident = NO_PLAYER;
+		}
+	}
+
+	/**
+	 * Deals the policies left in the game into the hand, draw pile and discard pile, keeping the
+	 * sizes the notification reports and the policies the player can see where they are.
+	 */
+	private void dealUnseenPolicies(final GameData gameData) {
+		List<Policy> unseen = new ArrayList<>(STARTING_LIBERAL_POLICIES + STARTING_FASCIST_POLICIES);
+		unseen.addAll(Collections.nCopies(STARTING_LIBERAL_POLICIES - liberalPolicies, Policy.LIBERAL));
+		unseen.addAll(Collections.nCopies(STARTING_FASCIST_POLICIES - fascistPolicies, Policy.FASCIST));
+		final List<Policy> seen = gameData.getPoliciesToView() == null ? Collections.emptyList() : gameData.getPoliciesToView();
+		seen.forEach(unseen::remove);
+		Collections.shuffle(unseen, random);
+		Deque<Policy> shuffled = new ArrayDeque<>(unseen);
+
+		policiesInHand = new ArrayList<>(seen);
+		final int handSize = seen.isEmpty() ? getHandSize(phase) : seen.size();
+		while (policiesInHand.size() < handSize && !shuffled.isEmpty()) {
+			policiesInHand.add(shuffled.pop());
+		}
+		drawPile.clear();
+		if (GamePhase.EXAMINE == phase) {
+			drawPile.addAll(policiesInHand);
+		}
+		while (drawPile.size() < gameData.getPolicyDocketSize() && !shuffled.isEmpty()) {
+			drawPile.add(shuffled.pop());
+		}
+		discardedPolicies = shuffled.size();
+	}
+
+	private static int getHandSize(final GamePhase phase) {
+		switch (phase) {
+			case PRESIDENT_CHOICE:
+			case EXAMINE:
+				return POLICIES_PER_GOVERNMENT;
+			case CHANCELLOR_CHOICE:
+			case VETO:
+				return POLICIES_PER_GOVERNMENT - 1;
+			default:
+				return 0;
+		}
+	}
+
+	private void assignRoles() {
+		final int totalPlayers = usernames.size();
+		List<SecretRole> deck = new ArrayList<>(totalPlayers);
+		deck.add(SecretRole.HITLER);
+		for (int i = 1; i < getNumberOfFascistsFromNumberOfPlayers(totalPlayers); i++) {
+			deck.add(SecretRole.FASCIST);
+		}
+		while (deck.size() < totalPlayers) {
+			deck.add(SecretRole.LIBERAL);
+		}
+		Collections.shuffle(deck, random);
+		deck.toArray(roles);
+		revealRoles();
+	}
+
+	/**
+	 * Shows every player their own role, and the fascists, and Hitler in a small game, the whole fascist team.
+	 */
+	private void revealRoles() {
+		final int totalPlayers = usernames.size();
+		final boolean hitlerKnowsFascists = totalPlayers <= MAX_PLAYERS_FOR_HITLER_TO_KNOW_FASCISTS;
+		for (int viewer = 0; viewer < totalPlayers; viewer++) {
+			final SecretRole viewerRole = roles[viewer];
+			final boolean knowsEveryone = SecretRole.FASCIST == viewerRole || (SecretRole.HITLER == viewerRole && hitlerKnowsFascists);
+			for (int target = 0; target < totalPlayers; target++) {
+				knownRoles[viewer][target] = knowsEveryone || viewer == target ? roles[target] : SecretRole.UNKNOWN;
+				knownMemberships[viewer][target] = getMembershipFromRole(knownRoles[viewer][target]);
+			}
+		}
+	}
+
+	private void shuffleDeck() {
+		List<Policy> deck = new ArrayList<>(STARTING_LIBERAL_POLICIES + STARTING_FASCIST_POLICIES);
+		deck.addAll(Collections.nCopies(STARTING_LIBERAL_POLICIES - liberalPolicies, Policy.LIBERAL));
+		deck.addAll(Collections.nCopies(STARTING_FASCIST_POLICIES - fascistPolicies, Policy.FASCIST));
+		Collections.shuffle(deck, random);
+		drawPile.clear();
+		drawPile.addAll(deck);
+		discardedPolicies = 0;
+	}
+
+	private void ensureDrawPile() {
+		if (drawPile.size() < POLICIES_PER_GOVERNMENT) {
+			shuffleDeck();
+		}
+	}
+
+	/**
+	 * Applies a player's reply to the current phase of the game.
+	 *
+	 * @param seat the index of the player taking the action
+	 * @param action the action the player is taking
+	 * @throws IllegalStateException if the action is not allowed for that player in the current phase
+	 */
+	public void apply(final int seat, final GameplayAction action) {
+		BiConsumer<Integer, GameplayAction> handler = phaseToHandlerMap.get(phase);
+		if (handler == null) {
+			throw new IllegalStateException(String.format("No actions can be taken during the %s phase", phase));
+		}
+		handler.accept(seat, action);
+	}
+
+	private void pickRunningMate(final int seat, final GameplayAction action) {
+		requireActor(seat, president, action, Action.CHOOSE_RUNNING_MATE);
+		final int runningMate = parseSeat(action);
+		if (!isEligibleChancellor(runningMate)) {
+			throw new IllegalStateException(String.format("%s is not eligible to be chancellor", usernames.get(runningMate)));
+		}
+		chancellor = runningMate;
+		Arrays.fill(votes, null);
+		phase = GamePhase.ELECTION;
+		lastAction = actionWithPlayers(Action.CHOOSE_RUNNING_MATE, president, chancellor);
+	}
+
+	private void vote(final int seat, final GameplayAction action) {
+		requireAction(action, Action.VOTE);
+		if (!alive[seat]) {
+			throw new IllegalStateException(String.format("%s is dead and can not vote", usernames.get(seat)));
+		}
+		if (votes[seat] != null) {
+			throw new IllegalStateException(String.format("%s has already voted", usernames.get(seat)));
+		}
+		votes[seat] = Vote.valueOf(action.getArgs()[0]);
+		int totalVotes = 0;
+		int jaVotes = 0;
+		for (int i = 0; i < votes.length; i++) {
+			if (alive[i] && votes[i] != null) {
+				totalVotes++;
+				jaVotes += Vote.JA == votes[i] ? 1 : 0;
+			}
+		}
+		if (totalVotes < getAlivePlayers()) {
+			return;
+		}
+		if (jaVotes * 2 > totalVotes) {
+			governmentElected();
+		} else {
+			governmentDenied();
+		}
+	}
+
+	private void governmentElected() {
+		if (fascistPolicies >= FASCIST_DANGER_ZONE_POLICIES && SecretRole.HITLER == roles[chancellor]) {
+			endGame(PartyMembership.FASCIST);
+			return;
+		}
+		unsuccessfulGovernments = 0;
+		previousPresident = president;
+		previousChancellor = chancellor;
+		ensureDrawPile();
+		policiesInHand = new ArrayList<>(POLICIES_PER_GOVERNMENT);
+		for (int i = 0; i < POLICIES_PER_GOVERNMENT; i++) {
+			policiesInHand.add(drawPile.pop());
+		}
+		phase = GamePhase.PRESIDENT_CHOICE;
+		lastAction = new GameplayAction(Action.SHUSH, NO_ARGS);
+	}
+
+	private void governmentDenied() {
+		lastAction = new GameplayAction(Action.DENIED, NO_ARGS);
+		failedGovernment();
+	}
+
+	private void failedGovernment() {
+		unsuccessfulGovernments++;
+		if (unsuccessfulGovernments < MAX_UNSUCCESSFUL_GOVERNMENTS) {
+			nextRound();
+			return;
+		}
+		if (Action.DENIED == lastAction.getAction()) {
+			lastAction = new GameplayAction(Action.ANARCHY, NO_ARGS);
+		}
+		unsuccessfulGovernments = 0;
+		previousPresident = NO_PLAYER;
+		previousChancellor = NO_PLAYER;
+		ensureDrawPile();
+		final GameplayAction cause = lastAction;
+		enactPolicy(drawPile.pop(), false);
+		if (GamePhase.GAME_OVER != phase) {
+			lastAction = cause;
+		}
+	}
+
+	private void presidentChoice(final int seat, final GameplayAction action) {
+		requireActor(seat, president, action, Action.PRESIDENT_CHOICE);
+		policiesInHand.remove(parseIndex(action, policiesInHand.size()));
+		discardedPolicies++;
+		vetoRequested = false;
+		phase = GamePhase.CHANCELLOR_CHOICE;
+		lastAction = new GameplayAction(Action.PRESIDENT_CHOICE, NO_ARGS);
+	}
+
+	private void chancellorChoice(final int seat, final GameplayAction action) {
+		if (action != null && Action.CHANCELLOR_VETO == action.getAction()) {
+			requireActor(seat, chancellor, action, Action.CHANCELLOR_VETO);
+			if (!isVetoUnlocked() || vetoRequested) {
+				throw new IllegalStateException("A veto can not be requested right now");
+			}
+			vetoRequested = true;
+			phase = GamePhase.VETO;
+			lastAction = actionWithPlayers(Action.CHANCELLOR_VETO, chancellor);
+			return;
+		}
+		requireActor(seat, chancellor, action, Action.CHANCELLOR_CHOICE);
+		policiesInHand.remove(parseIndex(action, policiesInHand.size()));
+		discardedPolicies++;
+		final Policy enactedPolicy = policiesInHand.remove(0);
+		enactPolicy(enactedPolicy, true);
+	}
+
+	private void presidentVeto(final int seat, final GameplayAction action) {
+		requireActor(seat, president, action, Action.PRESIDENT_VETO);
+		if (!Boolean.parseBoolean(action.getArgs()[0])) {
+			phase = GamePhase.CHANCELLOR_CHOICE;
+			lastAction = actionWithPlayers(Action.PRESIDENT_VETO_NO, president);
+			return;
+		}
+		discardedPolicies += policiesInHand.size();
+		policiesInHand.clear();
+		lastAction = actionWithPlayers(Action.PRESIDENT_VETO_YES, president);
+		failedGovernment();
+	}
+
+	private void enactPolicy(final Policy policy, final boolean presidentialPowerGranted) {
+		policiesInHand.clear();
+		if (Policy.LIBERAL == policy) {
+			liberalPolicies++;
+			lastAction = new GameplayAction(Action.LIBERAL_POLICY, NO_ARGS);
+		} else {
+			fascistPolicies++;
+			lastAction = new GameplayAction(Action.FASCIST_POLICY, NO_ARGS);
+		}
+		if (liberalPolicies >= LIBERAL_POLICIES_TO_WIN) {
+			endGame(PartyMembership.LIBERAL);
+			return;
+		}
+		if (fascistPolicies >= FASCIST_POLICIES_TO_WIN) {
+			endGame(PartyMembership.FASCIST);
+			return;
+		}
+		GamePhase power = getPresidentialPower(usernames.size(), fascistPolicies);
+		if (!presidentialPowerGranted || Policy.FASCIST != policy || power == null) {
+			nextRound();
+			return;
+		}
+		phase = power;
+		if (GamePhase.EXAMINE == power) {
+			ensureDrawPile();
+			Iterator<Policy> it = drawPile.iterator();
+			for (int i = 0; i < POLICIES_PER_GOVERNMENT; i++) {
+				policiesInHand.add(it.next());
+			}
+		}
+	}
+
+	private void examine(final int seat, final GameplayAction action) {
+		requireActor(seat, president, action, Action.FINISH_EXAMINATION);
+		lastAction = new GameplayAction(Action.FINISH_EXAMINATION, NO_ARGS);
+		nextRound();
+	}
+
+	private void investigate(final int seat, final GameplayAction action) {
+		requireActor(seat, president, action, Action.INVESTIGATE_PLAYER);
+		final int suspect = getTargetByUsername(action);
+		knownMemberships[president][suspect] = getMembershipFromRole(roles[suspect]);
+		lastAction = actionWithPlayers(Action.INVESTIGATE_PLAYER, president, suspect);
+		nextRound();
+	}
+
+	private void specialElection(final int seat, final GameplayAction action) {
+		requireActor(seat, president, action, Action.CHOOSE_NEXT_PRESIDENTIAL_CANDIDATE);
+		final int candidate = parseSeat(action);
+		if (candidate == president || !alive[candidate]) {
+			throw new IllegalStateException(String.format("%s can not be the next presidential candidate", usernames.get(candidate)));
+		}
+		specialElectionCandidate = candidate;
+		lastAction = actionWithPlayers(Action.CHOOSE_NEXT_PRESIDENTIAL_CANDIDATE, president, candidate);
+		nextRound();
+	}
+
+	private void kill(final int seat, final GameplayAction action) {
+		requireActor(seat, president, action, Action.KILL_PLAYER);
+		final int victim = getTargetByUsername(action);
+		alive[victim] = false;
+		if (SecretRole.HITLER == roles[victim]) {
+			endGame(PartyMembership.LIBERAL);
+			return;
+		}
+		lastAction = actionWithPlayers(Action.KILL_PLAYER, president, victim);
+		nextRound();
+	}
+
+	private void nextRound() {
+		if (specialElectionCandidate != NO_PLAYER) {
+			president = specialElectionCandidate;
+			specialElectionCandidate = NO_PLAYER;
+		} else {
+			rotationPresident = getNextAlivePlayer(rotationPresident);
+			president = rotationPresident;
+		}
+		chancellor = NO_PLAYER;
+		policiesInHand = new ArrayList<>();
+		phase = GamePhase.PICKING_RUNNING_MATE;
+	}
+
+	private void endGame(final PartyMembership winningParty) {
+		winners = winningParty;
+		phase = GamePhase.GAME_OVER;
+		lastAction = new GameplayAction(PartyMembership.LIBERAL == winningParty ? Action.LIBERAL_WIN : Action.FASCIST_WIN, NO_ARGS);
+		for (int viewer = 0; viewer < roles.length; viewer++) {
+			for (int target = 0; target < roles.length; target++) {
+				knownRoles[viewer][target] = roles[target];
+				knownMemberships[viewer][target] = getMembershipFromRole(roles[target]);
+			}
+		}
+	}
+
+	private int getNextAlivePlayer(final int seat) {
+		int next = seat;
+		do {
+			next = (next + 1) % usernames.size();
+		} while (!alive[next]);
+		return next;
+	}
+
+	private int getPreviousAlivePlayer(final int seat) {
+		int previous = seat;
+		do {
+			previous = (previous + usernames.size() - 1) % usernames.size();
+		} while (!alive[previous]);
+		return previous;
+	}
+
+	private int getAlivePlayers() {
+		int total = 0;
+		for (boolean isAlive : alive) {
+			total += isAlive ? 1 : 0;
+		}
+		return total;
+	}
+
+	private boolean isTermLimited(final int seat) {
+		return seat == previousChancellor ||
+				(seat == previousPresident && getAlivePlayers() > MAX_ALIVE_PLAYERS_WITHOUT_PRESIDENT_TERM_LIMIT);
+	}
+
+	private boolean isEligibleChancellor(final int seat) {
+		return seat != president && alive[seat] && !isTermLimited(seat);
+	}
+
+	private boolean isVetoUnlocked() {
+		return fascistPolicies >= VETO_UNLOCKED_POLICIES;
+	}
+
+	private void requireActor(final int seat, final int expectedSeat, final GameplayAction action, final Action expectedAction) {
+		if (seat != expectedSeat) {
+			throw new IllegalStateException(String.format("%s can not act during the %s phase", usernames.get(seat), phase));
+		}
+		requireAction(action, expectedAction);
+	}
+
+	private void requireAction(final GameplayAction action, final Action expectedAction) {
+		if (action == null || expectedAction != action.getAction()) {
+			throw new IllegalStateException(String.format("Expected a %s action during the %s phase but received %s", expectedAction, phase, action));
+		}
+	}
+
+	private int parseIndex(final GameplayAction action, final int size) {
+		final int index;
+		try {
+			index = Integer.parseInt(action.getArgs()[0]);
+		} catch (RuntimeException e) {
+			throw new IllegalStateException(String.format("Invalid arguments for %s", action), e);
+		}
+		if (index < 0 || index >= size) {
+			throw new IllegalStateException(String.format("Index %d is out of range for %s", index, action));
+		}
+		return index;
+	}
+
+	private int parseSeat(final GameplayAction action) {
+		return parseIndex(action, usernames.size());
+	}
+
+	private int getTargetByUsername(final GameplayAction action) {
+		final int target = action.getArgs() == null || action.getArgs().length == 0 ? NO_PLAYER : usernames.indexOf(action.getArgs()[0]);
+		if (target == NO_PLAYER || target == president || !alive[target]) {
+			throw new IllegalStateException(String.format("Invalid target for %s", action));
+		}
+		return target;
+	}
+
+	private GameplayAction actionWithPlayers(final Action action, final int... seats) {
+		String[] args = new String[seats.length];
+		for (int i = 0; i < seats.length; i++) {
+			args[i] = usernames.get(seats[i]);
+		}
+		return new GameplayAction(action, args);
+	}
+
+	/**
+	 * Builds the notification the given player would receive from the server for the current state of the game.
+	 * Every call returns a new snapshot, so processors are free to modify it.
+	 *
+	 * @param seat the index of the player receiving the notification
+	 * @return the notification for that player
+	 */
+	public ParticipantGameNotification getNotification(final int seat) {
+		final int totalPlayers = usernames.size();
+		final boolean electionInProgress = GamePhase.ELECTION == phase;
+		List<PlayerData> players = new ArrayList<>(totalPlayers);
+		for (int target = 0; target < totalPlayers; target++) {
+			PlayerData player = new PlayerData();
+			player.setUsername(usernames.get(target));
+			player.setHost(target == 0);
+			player.setConnected(true);
+			player.setAlive(alive[target]);
+			player.setPartyMembership(knownMemberships[seat][target]);
+			player.setSecretRole(knownRoles[seat][target]);
+			player.setPresident(target == president && GamePhase.GAME_OVER != phase);
+			player.setChancellor(target == chancellor && GamePhase.GAME_OVER != phase);
+			player.setPreviousGovernmentMember(isTermLimited(target));
+			player.setVoteReady(votes[target] != null);
+			player.setVote(electionInProgress && target != seat ? null : votes[target]);
+			players.add(player);
+		}
+
+		GameData gameData = new GameData();
+		gameData.setPlayers(players);
+		gameData.setMyPlayer(players.get(seat));
+		gameData.setWatchers(Collections.emptySet());
+		gameData.setPhase(phase);
+		gameData.setPolicyDocketSize(drawPile.size());
+		gameData.setDeniedPolicies(discardedPolicies);
+		gameData.setLiberalPolicies(liberalPolicies);
+		gameData.setFascistPolicies(fascistPolicies);
+		gameData.setUnsuccessfulGovernments(unsuccessfulGovernments);
+		gameData.setFascistDangerZone(fascistPolicies >= FASCIST_DANGER_ZONE_POLICIES);
+		gameData.setVetoUnlocked(isVetoUnlocked());
+		gameData.setHistory(new ArrayList<>());
+		gameData.setPoliciesToView(canViewPolicies(seat) ? new ArrayList<>(policiesInHand) : new ArrayList<>());
+		gameData.setNextPresident(GamePhase.GAME_OVER == phase ? null : usernames.get(getNextPresident()));
+		gameData.setWinners(winners);
+
+		ParticipantGameNotification notification = new ParticipantGameNotification();
+		notification.setGameData(gameData);
+		notification.setAction(new GameplayAction(lastAction.getAction(), lastAction.getArgs().clone()));
+		return notification;
+	}
+
+	private boolean canViewPolicies(final int seat) {
+		switch (phase) {
+			case PRESIDENT_CHOICE:
+			case EXAMINE:
+			case VETO:
+				return seat == president;
+			case CHANCELLOR_CHOICE:
+				return seat == chancellor;
+			default:
+				return false;
+		}
+	}
+
+	private int getNextPresident() {
+		return specialElectionCandidate != NO_PLAYER ? specialElectionCandidate : getNextAlivePlayer(rotationPresident);
+	}
+
+	public boolean isOver() {
+		return GamePhase.GAME_OVER == phase;
+	}
+
+	public GamePhase getPhase() {
+		return phase;
+	}
+
+	public List<String> getUsernames() {
+		return usernames;
+	}
+
+	public List<SecretRole> getRoles() {
+		return ImmutableList.copyOf(roles);
+	}
+
+	public PartyMembership getWinners() {
+		return winners;
+	}
+
+	public int getLiberalPolicies() {
+		return liberalPolicies;
+	}
+
+	public int getFascistPolicies() {
+		return fascistPolicies;
+	}
+
+	public int getPresident() {
+		return president;
+	}
+
+	public int getChancellor() {
+		return chancellor;
+	}
+}
@@ -0,0 +1,108 @@
+package com.secrethitler.ai.simulation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.logging.Logger;
+
+import com.secrethitler.ai.dtos.GameplayAction;
+import com.secrethitler.ai.enums.GamePhase;
+import com.secrethitler.ai.processors.GameplayProcessor;
+
+/**
+ * Plays a complete game of Secret Hitler in process, without a server. Every player's
+ * {@link GameplayProcessor} receives a notification each time the phase changes, exactly
+ * like the gameplay websocket would deliver it, and its replies are applied straight to
+ * the {@link LocalGame}.
+ */
+public class LocalGameEngine {
+	private static final Logger LOGGER = Logger.getLogger(LocalGameEngine.class.getName());
+	protected static final int DEFAULT_MAX_MOVES = 1000;
+
+	public static class Builder {
+		private final List<String> usernames = new ArrayList<>();
+		private final List<GameplayProcessor> processors = new ArrayList<>();
+		private Random random = new Random();
+		private int maxMoves = DEFAULT_MAX_MOVES;
+
+		protected Builder() {
+			super();
+		}
+
+		public Builder withPlayer(final String username, final GameplayProcessor processor) {
+			usernames.add(username);
+			processors.add(processor);
+			return this;
+		}
+
+		public Builder withRandom(final Random random) {
+			this.random = random;
+			return this;
+		}
+
+		public Builder withMaxMoves(final int maxMoves) {
+			this.maxMoves = maxMoves;
+			return this;
+		}
+
+		public LocalGameEngine build() {
+			return new LocalGameEngine(this);
+		}
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	private final List<String> usernames;
+	private final List<GameplayProcessor> processors;
+	private final Random random;
+	private final int maxMoves;
+
+	private LocalGameEngine(final Builder builder) {
+		this.usernames = new ArrayList<>(builder.usernames);
+		this.processors = new ArrayList<>(builder.processors);
+		this.random = builder.random;
+		this.maxMoves = builder.maxMoves;
+	}
+
+	/**
+	 * Plays the game to completion.
+	 *
+	 * @return the outcome of the game
+	 * @throws IllegalStateException if a processor makes an illegal move, stalls the game or the game exceeds the move limit
+	 */
+	public GameResult play() {
+		LocalGame game = new LocalGame(usernames, random);
+		int moves = 0;
+		while (!game.isOver()) {
+			if (moves >= maxMoves) {
+				throw new IllegalStateException(String.format("Game did not finish within %d moves", maxMoves));
+			}
+			final GamePhase phase = game.getPhase();
+			List<Optional<GameplayAction>> actions = notifyPlayers(game);
+			for (int seat = 0; seat < actions.size() && phase == game.getPhase(); seat++) {
+				final int actor = seat;
+				actions.get(seat).ifPresent(action -> game.apply(actor, action));
+			}
+			if (phase == game.getPhase()) {
+				throw new IllegalStateException(String.format("No player completed the %s phase", phase));
+			}
+			moves++;
+		}
+		notifyPlayers(game);
+		final int totalMoves = moves;
+		LOGGER.fine(() -> String.format("Game finished after %d moves with a %s win", totalMoves, game.getWinners()));
+		return new GameResult(game.getUsernames(), game.getRoles(), game.getWinners(),
+				game.getLiberalPolicies(), game.getFascistPolicies(), totalMoves);
+	}
+
+	private List<Optional<GameplayAction>> notifyPlayers(final LocalGame game) {
+		List<Optional<GameplayAction>> actions = new ArrayList<>(processors.size());
+		for (int seat = 0; seat < processors.size(); seat++) {
+			actions.add(processors.get(seat).getActionToTake(game.getNotification(seat)));
+		}
+		return actions;
+	}
+}
@@ -0,0 +1,133 @@
+package com.secrethitler.ai.simulation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.IntStream;
+
+import com.secrethitler.ai.processors.GameplayProcessorFactory;
+import com.secrethitler.ai.processors.GameplayProcessorFactoryImpl;
+import com.secrethitler.ai.utils.RandomUtilImpl;
+
+/**
+ * Runs many {@link LocalGameEngine} games concurrently on a {@link ForkJoinPool}, seating
+ * a configurable mix of processor levels at every table and tallying the results in a
+ * {@link TournamentReport}.
+ */
+public class Tournament {
+	private static final Logger LOGGER = Logger.getLogger(Tournament.class.getName());
+
+	public static class Builder {
+		private int games;
+		private List<Integer> seatLevels = new ArrayList<>();
+		private int parallelism = Runtime.getRuntime().availableProcessors();
+		private long seed = System.nanoTime();
+		private boolean shuffleSeats = true;
+		private GameplayProcessorFactory gameplayProcessorFactory = new GameplayProcessorFactoryImpl();
+
+		protected Builder() {
+			super();
+		}
+
+		public Builder withGames(final int games) {
+			this.games = games;
+			return this;
+		}
+
+		public Builder withSeatLevels(final List<Integer> seatLevels) {
+			this.seatLevels = new ArrayList<>(seatLevels);
+			return this;
+		}
+
+		public Builder withParallelism(final int parallelism) {
+			this.parallelism = parallelism;
+			return this;
+		}
+
+		public Builder withSeed(final long seed) {
+			this.seed = seed;
+			return this;
+		}
+
+		public Builder withShuffleSeats(final boolean shuffleSeats) {
+			this.shuffleSeats = shuffleSeats;
+			return this;
+		}
+
+		public Builder withGameplayProcessorFactory(final GameplayProcessorFactory gameplayProcessorFactory) {
+			this.gameplayProcessorFactory = gameplayProcessorFactory;
+			return this;
+		}
+
+		public Tournament build() {
+			return new Tournament(this);
+		}
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	private final int games;
+	private final List<Integer> seatLevels;
+	private final int parallelism;
+	private final long seed;
+	private final boolean shuffleSeats;
+	private final GameplayProcessorFactory gameplayProcessorFactory;
+
+	private Tournament(final Builder builder) {
+		if (builder.seatLevels.size() < LocalGame.MIN_PLAYERS || builder.seatLevels.size() > LocalGame.MAX_PLAYERS) {
+			throw new IllegalArgumentException(String.format("A tournament table needs between %d and %d seats", LocalGame.MIN_PLAYERS, LocalGame.MAX_PLAYERS));
+		}
+		this.games = builder.games;
+		this.seatLevels = builder.seatLevels;
+		this.parallelism = builder.parallelism;
+		this.seed = builder.seed;
+		this.shuffleSeats = builder.shuffleSeats;
+		this.gameplayProcessorFactory = builder.gameplayProcessorFactory;
+	}
+
+	/**
+	 * Plays every game of the tournament and blocks until they have all finished.
+	 *
+	 * @return the tally of all games played
+	 */
+	public TournamentReport run() throws InterruptedException {
+		TournamentReport report = new TournamentReport();
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		try {
+			pool.submit(() -> IntStream.range(0, games).parallel().forEach(game -> playGame(game, report))).get();
+		} catch (ExecutionException e) {
+			throw new IllegalStateException(e.getCause());
+		} finally {
+			pool.shutdown();
+		}
+		return report;
+	}
+
+	private void playGame(final int game, final TournamentReport report) {
+		final Random random = new Random(seed + game);
+		final RandomUtilImpl randomUtil = new RandomUtilImpl(seed + game);
+		List<Integer> levels = new ArrayList<>(seatLevels);
+		if (shuffleSeats) {
+			Collections.shuffle(levels, random);
+		}
+		try {
+			LocalGameEngine.Builder builder = LocalGameEngine.builder()
+					.withRandom(random);
+			for (int seat = 0; seat < levels.size(); seat++) {
+				final String username = String.format("Robot %d", seat + 1);
+				builder.withPlayer(username, gameplayProcessorFactory.getGameplayProcessor(levels.get(seat), username, randomUtil.split()));
+			}
+			report.recordGame(levels, builder.build().play());
+		} catch (Exception e) {
+			LOGGER.log(Level.WARNING, String.format("Tournament game %d failed", game), e);
+			report.recordFailedGame();
+		}
+	}
+}
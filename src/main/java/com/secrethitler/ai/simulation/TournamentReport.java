@@ -0,0 +1,106 @@
+package com.secrethitler.ai.simulation;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.commons.math3.stat.interval.ConfidenceInterval;
+import org.apache.commons.math3.stat.interval.WilsonScoreInterval;
+
+import com.google.common.collect.ImmutableList;
+import com.secrethitler.ai.enums.SecretRole;
+
+/**
+ * Thread safe tally of tournament games, reporting the win rate of every processor level
+ * for each secret role along with a Wilson score confidence interval.
+ */
+public class TournamentReport {
+	protected static final double CONFIDENCE_LEVEL = 0.95;
+	private static final List<SecretRole> REPORTED_ROLES = ImmutableList.of(SecretRole.LIBERAL, SecretRole.FASCIST, SecretRole.HITLER);
+	private static final WilsonScoreInterval WILSON_SCORE_INTERVAL = new WilsonScoreInterval();
+
+	private static class Tally {
+		private final LongAdder games = new LongAdder();
+		private final LongAdder wins = new LongAdder();
+	}
+
+	private final Map<Integer, Map<SecretRole, Tally>> levelToRoleTallyMap = new ConcurrentHashMap<>();
+	private final AtomicInteger gamesPlayed = new AtomicInteger();
+	private final AtomicInteger gamesFailed = new AtomicInteger();
+	private final LongAdder moves = new LongAdder();
+
+	public void recordGame(final List<Integer> seatLevels, final GameResult result) {
+		gamesPlayed.incrementAndGet();
+		moves.add(result.getMoves());
+		for (int seat = 0; seat < seatLevels.size(); seat++) {
+			Tally tally = getTally(seatLevels.get(seat), result.getRoles().get(seat));
+			tally.games.increment();
+			if (result.isWinner(seat)) {
+				tally.wins.increment();
+			}
+		}
+	}
+
+	public void recordFailedGame() {
+		gamesFailed.incrementAndGet();
+	}
+
+	private Tally getTally(final int level, final SecretRole role) {
+		return levelToRoleTallyMap.computeIfAbsent(level, key -> new ConcurrentHashMap<>())
+				.computeIfAbsent(role, key -> new Tally());
+	}
+
+	public int getGamesPlayed() {
+		return gamesPlayed.get();
+	}
+
+	public int getGamesFailed() {
+		return gamesFailed.get();
+	}
+
+	public long getMoves() {
+		return moves.sum();
+	}
+
+	public int getGames(final int level, final SecretRole role) {
+		return getTally(level, role).games.intValue();
+	}
+
+	public int getWins(final int level, final SecretRole role) {
+		return getTally(level, role).wins.intValue();
+	}
+
+	public double getWinRate(final int level, final SecretRole role) {
+		final int games = getGames(level, role);
+		return games == 0 ? 0 : ((double) getWins(level, role)) / games;
+	}
+
+	/**
+	 * @return the Wilson score interval of the win rate, or {@code null} if the level never played the role
+	 */
+	public ConfidenceInterval getWinRateInterval(final int level, final SecretRole role) {
+		final int games = getGames(level, role);
+		if (games == 0) {
+			return null;
+		}
+		return WILSON_SCORE_INTERVAL.createInterval(games, getWins(level, role), CONFIDENCE_LEVEL);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder report = new StringBuilder(String.format("%d games played (%d failed), %d moves%n", getGamesPlayed(), getGamesFailed(), getMoves()));
+		levelToRoleTallyMap.keySet().stream().sorted().forEach(level -> {
+			for (SecretRole role : REPORTED_ROLES) {
+				ConfidenceInterval interval = getWinRateInterval(level, role);
+				if (interval != null) {
+					report.append(String.format("Level %d as %-7s: %6.2f%% of %d games (%.0f%% CI %.2f%% - %.2f%%)%n",
+							level, role, getWinRate(level, role) * 100, getGames(level, role), CONFIDENCE_LEVEL * 100,
+							interval.getLowerBound() * 100, interval.getUpperBound() * 100));
+				}
+			}
+		});
+		return report.toString();
+	}
+}
@@ -0,0 +1,308 @@
+package com.secrethitler.ai.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Caches the access token of every robot by username, so robots only log in when they have
+ * no valid token. A token expires at the {@code exp} claim of its JWT payload, or after the
+ * configured time to live when it is not a JWT, and is refreshed in the background shortly
+ * before it expires. The cache can optionally be persisted to a file, so tokens survive a
+ * restart of the process.
+ */
+public class AccessTokenCache {
+	private static final Logger LOGGER = Logger.getLogger(AccessTokenCache.class.getName());
+	private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+	protected static final String TOKEN_TTL = "secrethitler.auth.tokenttl";
+	protected static final String REFRESH_MARGIN = "secrethitler.auth.refreshmargin";
+	protected static final String CACHE_FILE = "secrethitler.auth.tokencachefile";
+	protected static final long DEFAULT_TOKEN_TTL = TimeUnit.HOURS.toMillis(1);
+	protected static final long DEFAULT_REFRESH_MARGIN = TimeUnit.MINUTES.toMillis(5);
+	protected static final long MIN_REFRESH_DELAY = TimeUnit.SECONDS.toMillis(1);
+	protected static final String BEARER_PREFIX = "Bearer ";
+	private static final ScheduledExecutorService REFRESH_SCHEDULER = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+			.setNameFormat("access-token-refresh-%d")
+			.setDaemon(true)
+			.build());
+	
+	public static class CachedToken {
+		private String accessToken;
+		private long expiresAt;
+		
+		public CachedToken() {
+			super();
+		}
+		
+		public CachedToken(final String accessToken, final long expiresAt) {
+			this.accessToken = accessToken;
+			this.expiresAt = expiresAt;
+		}
+		
+		public String getAccessToken() {
+			return accessToken;
+		}
+		public void setAccessToken(String accessToken) {
+			this.accessToken = accessToken;
+		}
+		public long getExpiresAt() {
+			return expiresAt;
+		}
+		public void setExpiresAt(long expiresAt) {
+			this.expiresAt = expiresAt;
+		}
+	}
+	
+	private static class Entry {
+		private final CompletableFuture<CachedToken> token;
+		private final Supplier<CompletableFuture<String>> login;
+		private ScheduledFuture<?> refresh;
+		private boolean refreshScheduled;
+		
+		private Entry(final CompletableFuture<CachedToken> token, final Supplier<CompletableFuture<String>> login) {
+			this.token = token;
+			this.login = login;
+		}
+	}
+	
+	public static class Builder {
+		private long tokenTtl = DEFAULT_TOKEN_TTL;
+		private long refreshMargin = DEFAULT_REFRESH_MARGIN;
+		private Optional<Path> cacheFile = Optional.empty();
+		private ScheduledExecutorService refreshScheduler = REFRESH_SCHEDULER;
+		private Clock clock = Clock.systemUTC();
+		
+		protected Builder() {
+			super();
+		}
+		
+		public Builder withTokenTtl(final long tokenTtl) {
+			this.tokenTtl = tokenTtl;
+			return this;
+		}
+		
+		public Builder withRefreshMargin(final long refreshMargin) {
+			this.refreshMargin = refreshMargin;
+			return this;
+		}
+		
+		public Builder withCacheFile(final Optional<Path> cacheFile) {
+			this.cacheFile = cacheFile;
+			return this;
+		}
+		
+		public Builder withRefreshScheduler(final ScheduledExecutorService refreshScheduler) {
+			this.refreshScheduler = refreshScheduler;
+			return this;
+		}
+		
+		public Builder withClock(final Clock clock) {
+			this.clock = clock;
+			return this;
+		}
+		
+		public AccessTokenCache build() {
+			return new AccessTokenCache(this);
+		}
+	}
+	
+	public static Builder builder() {
+		return new Builder();
+	}
+	
+	public static AccessTokenCache fromProperties(final Properties prop) {
+		return builder()
+				.withTokenTtl(Long.parseLong(prop.getProperty(TOKEN_TTL, String.valueOf(DEFAULT_TOKEN_TTL))))
+				.withRefreshMargin(Long.parseLong(prop.getProperty(REFRESH_MARGIN, String.valueOf(DEFAULT_REFRESH_MARGIN))))
+				.withCacheFile(Optional.ofNullable(prop.getProperty(CACHE_FILE))
+						.filter(fileName -> !fileName.isEmpty())
+						.map(Paths::get))
+				.build();
+	}
+	
+	private final long tokenTtl;
+	private final long refreshMargin;
+	private final Optional<Path> cacheFile;
+	private final ScheduledExecutorService refreshScheduler;
+	private final Clock clock;
+	private final Map<String, Entry> usernameToEntryMap = new ConcurrentHashMap<>();
+	private final Map<String, CachedToken> persistedTokens = new ConcurrentHashMap<>();
+	
+	private AccessTokenCache(final Builder builder) {
+		this.tokenTtl = builder.tokenTtl;
+		this.refreshMargin = builder.refreshMargin;
+		this.cacheFile = builder.cacheFile;
+		this.refreshScheduler = builder.refreshScheduler;
+		this.clock = builder.clock;
+		cacheFile.filter(Files::exists).ifPresent(this::load);
+	}
+	
+	/**
+	 * Gets the cached access token of the user, logging in with the given function if there
+	 * is no valid token. Concurrent callers for the same user share a single login.
+	 */
+	public CompletableFuture<String> getAccessToken(final String username, final Supplier<CompletableFuture<String>> login) {
+		final Entry cached = usernameToEntryMap.compute(username, (key, entry) -> {
+			if (entry != null && isUsable(entry.token)) {
+				return entry;
+			}
+			CachedToken persistedToken = persistedTokens.get(username);
+			if (entry == null && persistedToken != null && isValid(persistedToken)) {
+				LOGGER.fine(() -> String.format("Using the persisted access token of %s", username));
+				return new Entry(CompletableFuture.completedFuture(persistedToken), login);
+			}
+			if (entry != null && entry.refresh != null) {
+				entry.refresh.cancel(false);
+			}
+			return login(username, login);
+		});
+		cached.token.thenAccept(token -> scheduleRefresh(username, cached));
+		return cached.token.thenApply(CachedToken::getAccessToken);
+	}
+	
+	/**
+	 * Forgets the token of the user, for example after the server has rejected it.
+	 */
+	public void invalidate(final String username) {
+		persistedTokens.remove(username);
+		Entry entry = usernameToEntryMap.remove(username);
+		if (entry != null && entry.refresh != null) {
+			entry.refresh.cancel(false);
+		}
+	}
+	
+	/**
+	 * Stops refreshing every cached token.
+	 */
+	public void close() {
+		usernameToEntryMap.values().stream()
+				.filter(entry -> entry.refresh != null)
+				.forEach(entry -> entry.refresh.cancel(false));
+	}
+	
+	private boolean isUsable(final CompletableFuture<CachedToken> token) {
+		if (!token.isDone()) {
+			return true;
+		}
+		return !token.isCompletedExceptionally() && isValid(token.join());
+	}
+	
+	private boolean isValid(final CachedToken token) {
+		return clock.millis() < token.getExpiresAt();
+	}
+	
+	private Entry login(final String username, final Supplier<CompletableFuture<String>> login) {
+		Entry entry = new Entry(login.get().thenApply(accessToken -> new CachedToken(accessToken, getExpiresAt(accessToken))), login);
+		entry.token.thenAccept(token -> persist(username, token));
+		return entry;
+	}
+	
+	/**
+	 * Schedules the refresh of the token of the entry, unless the entry was replaced or
+	 * invalidated in the meantime or its refresh is already scheduled, so a token that is no
+	 * longer cached is never refreshed.
+	 */
+	private void scheduleRefresh(final String username, final Entry entry) {
+		usernameToEntryMap.computeIfPresent(username, (key, current) -> {
+			if (current == entry && !entry.refreshScheduled) {
+				entry.refreshScheduled = true;
+				entry.refresh = refreshScheduler.schedule(() -> refresh(username, entry), getRefreshDelay(entry.token.join()), TimeUnit.MILLISECONDS);
+			}
+			return current;
+		});
+	}
+	
+	/**
+	 * @return how long to wait before refreshing the token, which is the refresh margin before
+	 * it expires, or halfway through its lifetime when the token lives shorter than twice the margin
+	 */
+	private long getRefreshDelay(final CachedToken token) {
+		final long lifetime = token.getExpiresAt() - clock.millis();
+		return Math.max(MIN_REFRESH_DELAY, lifetime - Math.min(refreshMargin, lifetime / 2));
+	}
+	
+	private void refresh(final String username, final Entry entry) {
+		LOGGER.fine(() -> String.format("Refreshing the access token of %s", username));
+		Entry refreshed = login(username, entry.login);
+		refreshed.token.whenComplete((token, e) -> {
+			if (e != null) {
+				LOGGER.log(Level.WARNING, String.format("Failed to refresh the access token of %s", username), e);
+				return;
+			}
+			if (usernameToEntryMap.replace(username, entry, refreshed)) {
+				scheduleRefresh(username, refreshed);
+			}
+		});
+	}
+	
+	protected long getExpiresAt(final String accessToken) {
+		return getJwtExpiry(accessToken).orElseGet(() -> clock.millis() + tokenTtl);
+	}
+	
+	/**
+	 * @return the {@code exp} claim of the token in milliseconds, if it is a JWT that has one
+	 */
+	protected static Optional<Long> getJwtExpiry(final String accessToken) {
+		final String jwt = accessToken.startsWith(BEARER_PREFIX) ? accessToken.substring(BEARER_PREFIX.length()) : accessToken;
+		final String[] parts = jwt.split("\\.");
+		if (parts.length != 3) {
+			return Optional.empty();
+		}
+		try {
+			JsonNode exp = OBJECT_MAPPER.readTree(Base64.getUrlDecoder().decode(parts[1])).get("exp");
+			return exp != null && exp.canConvertToLong() ? Optional.of(TimeUnit.SECONDS.toMillis(exp.asLong())) : Optional.empty();
+		} catch (IllegalArgumentException | IOException e) {
+			return Optional.empty();
+		}
+	}
+	
+	private void load(final Path file) {
+		try {
+			Map<String, CachedToken> tokens = OBJECT_MAPPER.readValue(file.toFile(), new TypeReference<Map<String, CachedToken>>() {});
+			tokens.entrySet().stream()
+					.filter(token -> isValid(token.getValue()))
+					.forEach(token -> persistedTokens.put(token.getKey(), token.getValue()));
+			LOGGER.info(() -> String.format("Loaded %d access tokens from %s", persistedTokens.size(), file));
+		} catch (IOException e) {
+			LOGGER.log(Level.WARNING, String.format("Failed to load the access token cache from %s", file), e);
+		}
+	}
+	
+	private synchronized void persist(final String username, final CachedToken token) {
+		if (!cacheFile.isPresent()) {
+			return;
+		}
+		final Path file = cacheFile.get();
+		persistedTokens.put(username, token);
+		try {
+			File temp = File.createTempFile("access-tokens", ".json", file.toAbsolutePath().getParent().toFile());
+			Files.write(temp.toPath(), OBJECT_MAPPER.writeValueAsString(persistedTokens).getBytes(StandardCharsets.UTF_8));
+			Files.move(temp.toPath(), file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			LOGGER.log(Level.WARNING, String.format("Failed to persist the access token cache to %s", file), e);
+		}
+	}
+}
@@ -0,0 +1,224 @@
+package com.secrethitler.ai.utils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.logging.Logger;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Posts JSON payloads asynchronously on a bounded pool of threads, with connect and read
+ * timeouts. Connection failures, timeouts and server errors are retried with exponential
+ * backoff, while other client errors fail straight away. A post that is not idempotent is
+ * only retried if the server never processed it, so a retry can not repeat its effect.
+ * Response bodies are always read to the end and closed, so the JDK can
+ * keep the connection alive and reuse it for the next request to the same server.
+ */
+public class HttpPostClient {
+	private static final Logger LOGGER = Logger.getLogger(HttpPostClient.class.getName());
+	protected static final int DEFAULT_THREADS = 16;
+	public static final int DEFAULT_CONNECT_TIMEOUT = 5000;
+	public static final int DEFAULT_READ_TIMEOUT = 10000;
+	public static final int DEFAULT_MAX_ATTEMPTS = 3;
+	public static final long DEFAULT_INITIAL_BACKOFF = 250;
+	protected static final int TOO_MANY_REQUESTS = 429;
+	private static final Executor DEFAULT_EXECUTOR = Executors.newFixedThreadPool(DEFAULT_THREADS, new ThreadFactoryBuilder()
+			.setNameFormat("http-post-%d")
+			.setDaemon(true)
+			.build());
+	
+	public static class Builder {
+		private Function<String, UrlWrapper> getUrlFunction;
+		private Executor executor = DEFAULT_EXECUTOR;
+		private int connectTimeout = DEFAULT_CONNECT_TIMEOUT;
+		private int readTimeout = DEFAULT_READ_TIMEOUT;
+		private int maxAttempts = DEFAULT_MAX_ATTEMPTS;
+		private long initialBackoff = DEFAULT_INITIAL_BACKOFF;
+		
+		protected Builder() {
+			super();
+		}
+		
+		public Builder withGetUrlFunction(final Function<String, UrlWrapper> getUrlFunction) {
+			this.getUrlFunction = getUrlFunction;
+			return this;
+		}
+		
+		public Builder withExecutor(final Executor executor) {
+			this.executor = executor;
+			return this;
+		}
+		
+		public Builder withConnectTimeout(final int connectTimeout) {
+			this.connectTimeout = connectTimeout;
+			return this;
+		}
+		
+		public Builder withReadTimeout(final int readTimeout) {
+			this.readTimeout = readTimeout;
+			return this;
+		}
+		
+		public Builder withMaxAttempts(final int maxAttempts) {
+			this.maxAttempts = maxAttempts;
+			return this;
+		}
+		
+		public Builder withInitialBackoff(final long initialBackoff) {
+			this.initialBackoff = initialBackoff;
+			return this;
+		}
+		
+		public HttpPostClient build() {
+			return new HttpPostClient(this);
+		}
+	}
+	
+	public static Builder builder() {
+		return new Builder();
+	}
+	
+	private final Function<String, UrlWrapper> getUrlFunction;
+	private final Executor executor;
+	private final int connectTimeout;
+	private final int readTimeout;
+	private final int maxAttempts;
+	private final long initialBackoff;
+	
+	private HttpPostClient(final Builder builder) {
+		this.getUrlFunction = builder.getUrlFunction;
+		this.executor = builder.executor;
+		this.connectTimeout = builder.connectTimeout;
+		this.readTimeout = builder.readTimeout;
+		this.maxAttempts = builder.maxAttempts;
+		this.initialBackoff = builder.initialBackoff;
+	}
+	
+	/**
+	 * Posts an idempotent request, retrying any failure that might be temporary.
+	 *
+	 * @return the response body, or an {@link IOException} wrapped in a {@link CompletionException} once every attempt has failed
+	 */
+	public CompletableFuture<String> postAsync(final String urlString, final String payload, final Optional<String> authorization) {
+		return postAsync(urlString, payload, authorization, true);
+	}
+	
+	/**
+	 * @param idempotent whether the request can safely be repeated once the server might have processed it
+	 * @return the response body, or an {@link IOException} wrapped in a {@link CompletionException} once every attempt has failed
+	 */
+	public CompletableFuture<String> postAsync(final String urlString, final String payload, final Optional<String> authorization, final boolean idempotent) {
+		return CompletableFuture.supplyAsync(() -> {
+			try {
+				return postWithRetries(urlString, payload, authorization, idempotent);
+			} catch (IOException e) {
+				throw new CompletionException(e);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new CompletionException(e);
+			}
+		}, executor);
+	}
+	
+	private String postWithRetries(final String urlString, final String payload, final Optional<String> authorization,
+			final boolean idempotent) throws IOException, InterruptedException {
+		long backoff = initialBackoff;
+		for (int attempt = 1; ; attempt++) {
+			try {
+				return post(urlString, payload, authorization);
+			} catch (RejectedRequestException e) {
+				throw e;
+			} catch (IOException e) {
+				if (attempt >= maxAttempts || !(idempotent || e instanceof UnprocessedRequestException)) {
+					throw e;
+				}
+				final int failedAttempt = attempt;
+				final long delay = backoff;
+				LOGGER.warning(() -> String.format("Attempt %d to post to %s failed, retrying in %d ms: %s", failedAttempt, urlString, delay, e.getMessage()));
+				Thread.sleep(delay);
+				backoff *= 2;
+			}
+		}
+	}
+	
+	private String post(final String urlString, final String payload, final Optional<String> authorization) throws IOException {
+		final UrlWrapper url = getUrlFunction.apply(urlString);
+		final HttpURLConnection con = (HttpURLConnection) url.openConnection();
+		con.setConnectTimeout(connectTimeout);
+		con.setReadTimeout(readTimeout);
+		con.setRequestMethod("POST");
+		con.setRequestProperty("Content-Type", "application/json; utf-8");
+		con.setRequestProperty("Accept", "application/json");
+		authorization.ifPresent(auth -> con.setRequestProperty("authorization", auth));
+		con.setDoOutput(true);
+		try {
+			con.connect();
+		} catch (IOException e) {
+			throw new UnprocessedRequestException(String.format("Unable to connect to %s: %s", urlString, e.getMessage()), e);
+		}
+		try(OutputStream os = con.getOutputStream()) {
+			byte[] input = payload.getBytes(StandardCharsets.UTF_8);
+			os.write(input, 0, input.length);
+		}
+		
+		final int status = con.getResponseCode();
+		if (status >= HttpURLConnection.HTTP_BAD_REQUEST) {
+			final String error = readBody(con.getErrorStream());
+			final String message = String.format("Post to %s failed with status %d: %s", urlString, status, error);
+			if (status == TOO_MANY_REQUESTS) {
+				throw new UnprocessedRequestException(message, null);
+			}
+			if (status >= HttpURLConnection.HTTP_INTERNAL_ERROR) {
+				throw new IOException(message);
+			}
+			throw new RejectedRequestException(message);
+		}
+		return readBody(con.getInputStream());
+	}
+	
+	private static String readBody(final InputStream in) throws IOException {
+		if (in == null) {
+			return "";
+		}
+		try(BufferedReader br = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+			StringBuilder response = new StringBuilder();
+			String responseLine = null;
+			while ((responseLine = br.readLine()) != null) {
+				response.append(responseLine.trim());
+			}
+			return response.toString();
+		}
+	}
+	
+	/**
+	 * The server understood and refused the request, so sending it again will not help.
+	 */
+	@SuppressWarnings("serial")
+	public static class RejectedRequestException extends IOException {
+		private RejectedRequestException(final String message) {
+			super(message);
+		}
+	}
+	
+	/**
+	 * The server never processed the request, because it could not be reached or turned the
+	 * request away before handling it, so sending it again is safe even if it is not idempotent.
+	 */
+	@SuppressWarnings("serial")
+	public static class UnprocessedRequestException extends IOException {
+		private UnprocessedRequestException(final String message, final IOException cause) {
+			super(message, cause);
+		}
+	}
+}
@@ -1,19 +1,59 @@
 package com.secrethitler.ai.utils;
 
 import java.util.List;
-import java.util.Random;
+import java.util.SplittableRandom;
 
+/**
+ * A {@link RandomUtil} drawing from a {@link SplittableRandom} stream of its own. An instance is
+ * meant to be used by one processor at a time, so drawing never contends with other bots; give
+ * every processor its own stream with {@link #split()}, which derives it deterministically from
+ * this one, so a seeded run makes the same choices no matter how many threads share the JVM.
+ */
 public class RandomUtilImpl implements RandomUtil {
-	private static final Random RANDOM_GENERATOR = new Random();
+	private static final SplittableRandom ROOT = new SplittableRandom();
+	
+	private final SplittableRandom random;
+	
+	/**
+	 * Creates a stream split off a root shared by the JVM, for callers that do not need to reproduce their choices.
+	 */
+	public RandomUtilImpl() {
+		this(splitRoot());
+	}
+	
+	/**
+	 * @param seed the seed of a stream of this instance's own, so a replayed game makes the same random choices every time
+	 */
+	public RandomUtilImpl(final long seed) {
+		this(new SplittableRandom(seed));
+	}
+	
+	private RandomUtilImpl(final SplittableRandom random) {
+		this.random = random;
+	}
+	
+	private static synchronized SplittableRandom splitRoot() {
+		return ROOT.split();
+	}
+	
+	/**
+	 * @return an independent stream for another processor, the same for the same sequence of splits of a seeded instance
+	 */
+	public synchronized RandomUtilImpl split() {
+		return new RandomUtilImpl(random.split());
+	}
 	
 	@Override
 	public <T> T getRandomItemFromList(List<T> list) {
-		int index = RANDOM_GENERATOR.nextInt(list.size());
+		int index = random.nextInt(list.size());
 		return list.get(index);
 	}
 
+	/**
+	 * @return a number uniformly distributed between 0 inclusive and 1 exclusive
+	 */
 	@Override
 	public double getRandomNumber() {
-		return RANDOM_GENERATOR.nextInt(100) / 100;
+		return random.nextDouble();
 	}
 }
@@ -3,22 +3,47 @@ package com.secrethitler.ai.websockets;
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.net.URISyntaxException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import javax.websocket.ClientEndpoint;
+import javax.websocket.CloseReason;
+import javax.websocket.OnClose;
 import javax.websocket.OnMessage;
+import javax.websocket.OnOpen;
+import javax.websocket.Session;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectWriter;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.secrethitler.ai.HostPolicy;
 import com.secrethitler.ai.SecretHitlerAi;
 import com.secrethitler.ai.dtos.GameData;
 import com.secrethitler.ai.dtos.GameplayAction;
 import com.secrethitler.ai.dtos.ParticipantGameNotification;
+import com.secrethitler.ai.dtos.PlayerData;
 import com.secrethitler.ai.enums.Action;
 import com.secrethitler.ai.enums.GamePhase;
+import com.secrethitler.ai.enums.GameState;
+import com.secrethitler.ai.gamelog.GameLogRecord;
+import com.secrethitler.ai.gamelog.GameLogWriter;
+import com.secrethitler.ai.metrics.BotMetrics;
 import com.secrethitler.ai.processors.GameplayProcessor;
 import com.secrethitler.ai.processors.GameplayProcessorFactory;
 import com.secrethitler.ai.utils.UriWrapper;
@@ -28,6 +53,27 @@ public class GamePlayWebsocketClientEndpoint extends WebsocketClientEndpoint {
 	private static final Logger LOGGER = Logger.getLogger(GamePlayWebsocketClientEndpoint.class.getName());
 	protected static final String GAMEPLAY_URL = "secrethitler.gameplay.url";
 	protected static final String MOVE_DELAY = "secrethitler.ai.movedelay";
+	protected static final String GAME_LOG_DIRECTORY = "secrethitler.ai.gamelog.directory";
+	protected static final String GAME_LOG_COMPRESS = "secrethitler.ai.gamelog.compress";
+	protected static final String RECONNECT_MAX_ATTEMPTS = "secrethitler.ai.reconnect.maxattempts";
+	protected static final String RECONNECT_INITIAL_BACKOFF = "secrethitler.ai.reconnect.initialbackoff";
+	protected static final int DEFAULT_RECONNECT_MAX_ATTEMPTS = 5;
+	protected static final long DEFAULT_RECONNECT_INITIAL_BACKOFF = 500;
+	private static final int MAX_BACKOFF_DOUBLINGS = 6;
+	protected static final ScheduledExecutorService MOVE_SCHEDULER = Executors.newScheduledThreadPool(Runtime.getRuntime().availableProcessors(),
+			new ThreadFactoryBuilder()
+					.setNameFormat("move-scheduler-%d")
+					.setDaemon(true)
+					.build());
+	/**
+	 * Runs the processors, which may search for as long as their move budget, so neither the
+	 * websocket threads nor the move scheduler wait on them.
+	 */
+	protected static final ExecutorService DECISION_EXECUTOR = Executors.newCachedThreadPool(
+			new ThreadFactoryBuilder()
+					.setNameFormat("move-decider-%d")
+					.setDaemon(true)
+					.build());
 	
 	public static class Builder extends WebsocketClientEndpoint.Builder {
 		private SecretHitlerAi ai;
@@ -37,6 +83,8 @@ public class GamePlayWebsocketClientEndpoint extends WebsocketClientEndpoint {
 		private String gameId;
 		private GameplayProcessorFactory gameplayProcessorFactory;
 		private Function<GamePlayWebsocketClientEndpoint.Builder, GamePlayWebsocketClientEndpoint> gamePlayClientBuildFunction;
+		private ScheduledExecutorService moveScheduler = MOVE_SCHEDULER;
+		private Executor decisionExecutor = DECISION_EXECUTOR;
 		
 		protected Builder() {
 			super();
@@ -77,6 +125,21 @@ public class GamePlayWebsocketClientEndpoint extends WebsocketClientEndpoint {
 			return this;
 		}
 		
+		public Builder withMoveScheduler(final ScheduledExecutorService moveScheduler) {
+			this.moveScheduler = moveScheduler;
+			return this;
+		}
+		
+		public Builder withDecisionExecutor(final Executor decisionExecutor) {
+			this.decisionExecutor = decisionExecutor;
+			return this;
+		}
+		
+		public Builder withConnectExecutor(final Executor connectExecutor) {
+			this.connectExecutor = connectExecutor;
+			return this;
+		}
+		
 		public Builder withUriBuilderFunction(final Function<String, UriWrapper> uriBuilderFunction) {
 			this.uriBuilderFunction = uriBuilderFunction;
 			return this;
@@ -105,8 +168,26 @@ public class GamePlayWebsocketClientEndpoint extends WebsocketClientEndpoint {
 	private final String username;
 	private final GameplayProcessorFactory gameplayProcessorFactory;
 	private final Function<GamePlayWebsocketClientEndpoint.Builder, GamePlayWebsocketClientEndpoint> gamePlayClientBuildFunction;
+	private final ScheduledExecutorService moveScheduler;
+	private final Executor decisionExecutor;
+	private final Executor connectExecutor;
+	private final GameLogWriter gameLog;
+	private final String gameId;
+	private final Function<String, UriWrapper> uriBuilderFunction;
+	private final int maxReconnectAttempts;
+	private final long initialReconnectBackoff;
 	
 	protected GamePhase previousPhase = null;
+	protected ParticipantGameNotification previousNotification = null;
+	protected volatile boolean reconnected = false;
+	protected ScheduledFuture<?> pendingMove = null;
+	protected volatile boolean closing = false;
+	protected volatile String unsentMessage = null;
+	protected volatile int reconnectAttempts = 0;
+	protected volatile long moveSentAt = 0;
+	private final AtomicLong latestNotification = new AtomicLong();
+	private CompletableFuture<Void> pendingResend = CompletableFuture.completedFuture(null);
+	private CompletableFuture<Void> pendingDecision = CompletableFuture.completedFuture(null);
 
 	private GamePlayWebsocketClientEndpoint(final Builder builder) throws InstantiationException, IllegalAccessException, URISyntaxException, InvocationTargetException, NoSuchMethodException {	
 		super(builder);
@@ -117,72 +198,388 @@ public class GamePlayWebsocketClientEndpoint extends WebsocketClientEndpoint {
 		this.username = builder.username;
 		this.gameplayProcessorFactory = builder.gameplayProcessorFactory;
 		this.gamePlayClientBuildFunction = builder.gamePlayClientBuildFunction;
+		this.moveScheduler = builder.moveScheduler;
+		this.decisionExecutor = builder.decisionExecutor;
+		this.connectExecutor = builder.connectExecutor;
+		this.gameId = builder.gameId;
+		this.uriBuilderFunction = builder.uriBuilderFunction;
+		this.maxReconnectAttempts = getIntProperty(RECONNECT_MAX_ATTEMPTS, DEFAULT_RECONNECT_MAX_ATTEMPTS);
+		this.initialReconnectBackoff = getIntProperty(RECONNECT_INITIAL_BACKOFF, (int) DEFAULT_RECONNECT_INITIAL_BACKOFF);
 		processor = gameplayProcessorFactory.getGameplayProcessor(level, username);
-		final String gameSetupUrlString = String.format("%s://%s%s?gameId=%s&auth=%s", ai.isSecureUrl() ? "wss" : "ws",
+		gameLog = openGameLog(builder.gameId);
+		ai.registerEndpoint(this);
+		setupWebsocketClientEndpoint(uriBuilderFunction.apply(getGameplayUrlString(accessToken)));
+	}
+	
+	private String getGameplayUrlString(final String accessToken) {
+		return String.format("%s://%s%s?gameId=%s&auth=%s", ai.isSecureUrl() ? "wss" : "ws",
 				ai.getBaseUrlString(), ai.getProp().getProperty(GAMEPLAY_URL), 
-				builder.gameId, accessToken);
-		setupWebsocketClientEndpoint(builder.uriBuilderFunction.apply(gameSetupUrlString));
+				gameId, accessToken);
+	}
+	
+	private int getIntProperty(final String key, final int defaultValue) {
+		final String value = ai.getProp().getProperty(key);
+		return value == null || value.isEmpty() ? defaultValue : Integer.parseInt(value);
+	}
+	
+	@OnOpen
+	@Override
+	public void onOpen(Session userSession) {
+		super.onOpen(userSession);
+		if (reconnectAttempts > 0) {
+			LOGGER.info(() -> String.format("%s reconnected to game %s", username, gameId));
+			reconnected = true;
+		}
+		reconnectAttempts = 0;
 	}
 
 	@OnMessage
 	@Override
 	public void onMessage(String message) {
 		LOGGER.fine(() -> String.format("Received Gameplay message: %s", message));
+		final BotMetrics metrics = BotMetrics.getInstance();
+		metrics.messageReceived();
 		try {
-			ParticipantGameNotification gameNotification = SecretHitlerAi.getObjectMapper().readValue(message, ParticipantGameNotification.class);
-			GameData gameData = gameNotification.getGameData();
-			String nextGameId = gameData.getNextGameId();
+			record(GameLogRecord.Type.NOTIFICATION, message);
+			long start = System.nanoTime();
+			NotificationHeader header = NotificationHeader.read(SecretHitlerAi.getObjectMapper().getFactory(), message);
+			String nextGameId = header.getNextGameId();
 			if (nextGameId != null) {
-				LOGGER.info(() -> String.format("%s is joining the next game with id %s", username, nextGameId));
-				gamePlayClientBuildFunction.apply(GamePlayWebsocketClientEndpoint.builder()
-						.withAi(ai)
-						.withGameId(nextGameId)
-						.withAccessToken(accessToken)
-						.withLevel(level)
-						.withUsername(username)
-						.withGameplayProcessorFactory(gameplayProcessorFactory)
-						.withGamePlayClientBuildFunction(gamePlayClientBuildFunction));
-				userSession.close();
+				if (!closing) {
+					closing = true;
+					joinNextGame(nextGameId);
+				}
 				return;
 			}
-			GamePhase currentPhase = gameData.getPhase();
-			if (previousPhase == currentPhase) {
+			GamePhase currentPhase = header.getPhase();
+			final boolean firstSinceReconnect = reconnected;
+			reconnected = false;
+			if (previousPhase == currentPhase && (!firstSinceReconnect || isSameTurn(previousNotification, message))) {
+				LOGGER.finest(() -> String.format("%s skipped a repeated %s notification after %s", username, currentPhase, header.getAction()));
+				metrics.messageIgnored();
+				resendUnsentMessage();
 				return;
 			}
+			ParticipantGameNotification gameNotification = SecretHitlerAi.getNotificationReader().readValue(message);
+			metrics.recordParse(System.nanoTime() - start);
+			GameData gameData = gameNotification.getGameData();
+			recordRoundTrip(metrics);
 			previousPhase = currentPhase;
+			previousNotification = gameNotification;
+			final long notificationNumber = supersedeMove();
+			ai.setState(GamePhase.GAME_OVER == currentPhase ? GameState.GAME_OVER : GameState.PLAYING);
+			if (GamePhase.GAME_OVER == currentPhase) {
+				metrics.recordOutcome(gameData.getMyPlayer().getSecretRole(), gameData.getWinners());
+			}
 			if (GamePhase.GAME_OVER == currentPhase && gameData.getMyPlayer().isHost()) {
-				Thread t = new Thread(() -> {
-					SecretHitlerAi.setGameOver(true);
-					LOGGER.info("Press enter when you are ready to start a new game");
-		        	SecretHitlerAi.getScanner().nextLine();
-		        	SecretHitlerAi.setGameOver(false);
-		        	String[] args = {};
-		        	GameplayAction newGame = new GameplayAction(Action.NEW_GAME, args);
-		            sendMessage(gameplayActionToString(newGame));
-		            LOGGER.info("Game has been initiated by the host");
-	        	});
-	        	t.start();
+				hostGameOver();
 			} else {
-				processor.getActionToTake(gameNotification).ifPresent(this::sendDelayedMessage);
+				pendingDecision = pendingDecision.thenRunAsync(() -> decide(gameNotification, notificationNumber), decisionExecutor);
 			}
 		} catch (IOException e) {
 			LOGGER.log(Level.SEVERE, "Exception on a game setup message", e);
 		}
 	}
 
-	private void sendDelayedMessage(GameplayAction gameplayAction) {
+	/**
+	 * Tells whether a notification of the same phase is the turn that was already handled, or
+	 * a new one, like the next election, the game reached while the robot was disconnected.
+	 */
+	private static boolean isSameTurn(final ParticipantGameNotification previous, final String message) throws IOException {
+		if (previous == null) {
+			return false;
+		}
+		final ParticipantGameNotification current = SecretHitlerAi.getNotificationReader().readValue(message);
+		final GameData previousData = previous.getGameData();
+		final GameData currentData = current.getGameData();
+		return Objects.equals(previous.getAction(), current.getAction())
+				&& previousData.getLiberalPolicies() == currentData.getLiberalPolicies()
+				&& previousData.getFascistPolicies() == currentData.getFascistPolicies()
+				&& previousData.getUnsuccessfulGovernments() == currentData.getUnsuccessfulGovernments()
+				&& Objects.equals(getGovernment(previousData), getGovernment(currentData));
+	}
+	
+	/**
+	 * @return the usernames of the president and chancellor, in that order
+	 */
+	private static List<String> getGovernment(final GameData gameData) {
+		final List<PlayerData> players = gameData.getPlayers() == null ? Collections.emptyList() : gameData.getPlayers();
+		return Arrays.asList(
+				players.stream().filter(PlayerData::isPresident).map(PlayerData::getUsername).findFirst().orElse(null),
+				players.stream().filter(PlayerData::isChancellor).map(PlayerData::getUsername).findFirst().orElse(null));
+	}
+
+	/**
+	 * Runs the processor on the decision executor, one notification after another, and sends
+	 * the move it chooses unless a newer notification arrived in the meantime. Every
+	 * notification is still given to the processor, since it deduces from all of them.
+	 */
+	private void decide(final ParticipantGameNotification notification, final long notificationNumber) {
+		final BotMetrics metrics = BotMetrics.getInstance();
+		final GamePhase phase = notification.getGameData().getPhase();
+		try {
+			final long start = System.nanoTime();
+			Optional<GameplayAction> action = processor.getActionToTake(notification);
+			metrics.recordDecision(level, phase, System.nanoTime() - start);
+			if (action.isPresent()) {
+				metrics.messageActed();
+				sendDelayedMessage(action.get(), notificationNumber);
+			}
+		} catch (RuntimeException e) {
+			LOGGER.log(Level.SEVERE, String.format("%s failed to decide on the %s phase", username, phase), e);
+		}
+	}
+
+	/**
+	 * Moves on to the next game once the robot has a valid access token for it, leaving this
+	 * game behind. Getting the token may mean logging in again, which is not waited for here,
+	 * and the next game is connected on the connect executor rather than the websocket thread.
+	 */
+	private void joinNextGame(final String nextGameId) {
+		LOGGER.info(() -> String.format("%s is joining the next game with id %s", username, nextGameId));
+		cancelPendingMove();
+		connectWithValidAccessToken(ai, username, accessToken, validAccessToken -> {
+			gamePlayClientBuildFunction.apply(GamePlayWebsocketClientEndpoint.builder()
+					.withAi(ai)
+					.withGameId(nextGameId)
+					.withAccessToken(validAccessToken)
+					.withLevel(level)
+					.withUsername(username)
+					.withGameplayProcessorFactory(gameplayProcessorFactory)
+					.withGamePlayClientBuildFunction(gamePlayClientBuildFunction)
+					.withMoveScheduler(moveScheduler)
+					.withDecisionExecutor(decisionExecutor)
+					.withConnectExecutor(connectExecutor));
+			close();
+		}, connectExecutor).exceptionally(e -> {
+			LOGGER.log(Level.SEVERE, String.format("%s failed to join the next game with id %s", username, nextGameId), e);
+			close();
+			return null;
+		});
+	}
+
+	/**
+	 * Starts the next game as the host policy says: once enter is pressed, after the move delay,
+	 * or not at all once its rounds are played, in which case the table is stopped. Holds the
+	 * monitor like every other method that sets the pending move.
+	 */
+	private synchronized void hostGameOver() {
+		final HostPolicy hostPolicy = ai.getHostPolicy();
+		if (!hostPolicy.isAuto()) {
+			hostPolicy.prompt("Press enter when you are ready to start a new game", this::startNewGame);
+		} else if (hostPolicy.finishRound()) {
+			pendingMove = moveScheduler.schedule(this::startNewGame, moveDelay, TimeUnit.MILLISECONDS);
+		} else {
+			LOGGER.info(() -> String.format("%s played its last round after %d games", username, hostPolicy.getRoundsPlayed()));
+			pendingMove = moveScheduler.schedule(ai::stopGame, moveDelay, TimeUnit.MILLISECONDS);
+		}
+	}
+	
+	private void startNewGame() {
+		String[] args = {};
+		GameplayAction newGame = new GameplayAction(Action.NEW_GAME, args);
+		sendMessage(gameplayActionToString(newGame));
+		LOGGER.info("Game has been initiated by the host");
+	}
+	
+	/**
+	 * Records how long the server took to move on from the phase after our move was sent.
+	 */
+	private void recordRoundTrip(final BotMetrics metrics) {
+		final long sentAt = moveSentAt;
+		if (sentAt != 0) {
+			moveSentAt = 0;
+			metrics.recordRoundTrip(level, previousPhase, System.nanoTime() - sentAt);
+		}
+	}
+
+	@OnClose
+	@Override
+	public void onClose(Session userSession, CloseReason reason) {
+		super.onClose(userSession, reason);
+		if (isAccessTokenRejected(reason)) {
+			LOGGER.warning(() -> String.format("The server rejected the access token of %s, logging in again", username));
+			ai.invalidateAccessToken(username);
+		}
+		if (isDropped(reason)) {
+			LOGGER.warning(() -> String.format("%s lost the connection to game %s: %s", username, gameId, reason));
+			scheduleReconnect();
+			return;
+		}
+		shutdown();
+	}
+	
+	@Override
+	public void close() {
+		closing = true;
+		super.close();
+	}
+	
+	/**
+	 * @return whether the session ended without either side meaning to end it, so it is worth reconnecting
+	 */
+	private boolean isDropped(final CloseReason reason) {
+		return !closing && reason != null && CloseReason.CloseCodes.NORMAL_CLOSURE != reason.getCloseCode()
+				&& GameState.STOPPED != ai.getState() && maxReconnectAttempts > 0;
+	}
+	
+	private void shutdown() {
+		cancelPendingMove();
+		ai.unregisterEndpoint(this);
+		closeGameLog();
+	}
+	
+	/**
+	 * Schedules the next attempt to rejoin the game, doubling the wait after every failed
+	 * attempt, or gives up once the attempts are used up. The endpoint, and with it the
+	 * processor's deductions so far, is kept, so the robot picks up the game where it left off.
+	 */
+	private void scheduleReconnect() {
+		if (reconnectAttempts >= maxReconnectAttempts) {
+			LOGGER.severe(() -> String.format("%s gave up reconnecting to game %s after %d attempts", username, gameId, reconnectAttempts));
+			shutdown();
+			return;
+		}
+		final long backoff = initialReconnectBackoff << Math.min(reconnectAttempts, MAX_BACKOFF_DOUBLINGS);
+		reconnectAttempts++;
+		LOGGER.info(() -> String.format("%s will try to reconnect to game %s in %d ms", username, gameId, backoff));
+		moveScheduler.schedule(this::reconnect, backoff, TimeUnit.MILLISECONDS);
+	}
+	
+	protected void reconnect() {
+		if (closing || GameState.STOPPED == ai.getState()) {
+			shutdown();
+			return;
+		}
+		connectWithValidAccessToken(ai, username, accessToken,
+				validAccessToken -> setupWebsocketClientEndpoint(uriBuilderFunction.apply(getGameplayUrlString(validAccessToken))), connectExecutor)
+				.exceptionally(e -> {
+					LOGGER.log(Level.WARNING, String.format("%s failed to reconnect to game %s", username, gameId), e);
+					scheduleReconnect();
+					return null;
+				});
+	}
+	
+	/**
+	 * Sends the move that could not be sent while disconnected, now that the game turned out
+	 * to still be waiting for it in the same turn.
+	 */
+	private synchronized void resendUnsentMessage() {
+		final String message = unsentMessage;
+		if (message == null || !pendingResend.isDone()) {
+			return;
+		}
+		final long notificationNumber = latestNotification.get();
+		pendingResend = sendMessage(message).whenComplete((result, e) -> {
+			if (e == null) {
+				LOGGER.info(() -> String.format("%s resent a move made while disconnected", username));
+				moveSent(message, notificationNumber);
+			}
+		});
+	}
+
+	/**
+	 * Opens the log the messages of this game are recorded to for later replay, if a game log
+	 * directory is configured. A log that can not be opened is not worth failing the game over.
+	 */
+	private GameLogWriter openGameLog(final String gameId) {
+		final String directory = ai.getProp().getProperty(GAME_LOG_DIRECTORY);
+		if (directory == null || directory.isEmpty()) {
+			return null;
+		}
 		try {
-			Thread.sleep(moveDelay);
-		} catch (InterruptedException e) {
-			LOGGER.log(Level.SEVERE, "Exception when delaying the gameplay response message: %s", e);
-			Thread.currentThread().interrupt();
+			return new GameLogWriter(Paths.get(directory), gameId, username, Boolean.parseBoolean(ai.getProp().getProperty(GAME_LOG_COMPRESS)));
+		} catch (IOException e) {
+			LOGGER.log(Level.WARNING, String.format("Unable to open the game log of %s in %s", username, directory), e);
+			return null;
+		}
+	}
+
+	private void closeGameLog() {
+		if (gameLog != null) {
+			try {
+				gameLog.close();
+			} catch (IOException e) {
+				LOGGER.log(Level.WARNING, String.format("Unable to close the game log %s", gameLog.getPath()), e);
+			}
+		}
+	}
+
+	private void record(final GameLogRecord.Type type, final String message) {
+		if (gameLog != null) {
+			try {
+				gameLog.record(type, System.currentTimeMillis(), message);
+			} catch (IOException e) {
+				LOGGER.log(Level.WARNING, String.format("Unable to record a %s to the game log %s", type, gameLog.getPath()), e);
+			}
+		}
+	}
+
+	/**
+	 * Schedules the move to be sent after the move delay, so the websocket thread is free to
+	 * handle other messages in the meantime, unless the notification it answers was superseded
+	 * while the move was being decided.
+	 */
+	private synchronized void sendDelayedMessage(final GameplayAction gameplayAction, final long notificationNumber) {
+		if (closing || notificationNumber != latestNotification.get()) {
+			LOGGER.fine(() -> String.format("%s dropped a move superseded by a newer notification", username));
+			return;
 		}
 		String message = gameplayActionToString(gameplayAction);
-		sendMessage(message);
+		pendingMove = moveScheduler.schedule(() -> {
+			record(GameLogRecord.Type.ACTION, message);
+			sendMessage(message).whenComplete((result, e) -> {
+				if (e == null) {
+					moveSent(message, notificationNumber);
+				} else {
+					moveUnsent(message, notificationNumber);
+				}
+			});
+		}, moveDelay, TimeUnit.MILLISECONDS);
+	}
+	
+	private synchronized void moveSent(final String message, final long notificationNumber) {
+		moveSentAt = System.nanoTime();
+		if (notificationNumber == latestNotification.get() && message.equals(unsentMessage)) {
+			unsentMessage = null;
+		}
+	}
+	
+	/**
+	 * Keeps a move that was not delivered, so it is sent again if the game turns out to still be
+	 * waiting for it, unless a newer notification already moved the game on.
+	 */
+	private synchronized void moveUnsent(final String message, final long notificationNumber) {
+		if (notificationNumber == latestNotification.get()) {
+			LOGGER.fine(() -> String.format("%s keeps a move it could not send to resend later", username));
+			unsentMessage = message;
+		}
+	}
+	
+	/**
+	 * Forgets the move answering the previous notification, sent or not, now that a newer
+	 * notification superseded it.
+	 *
+	 * @return the number of the newer notification
+	 */
+	private synchronized long supersedeMove() {
+		unsentMessage = null;
+		cancelPendingMove();
+		return latestNotification.incrementAndGet();
+	}
+	
+	/**
+	 * Cancels a move that has not been sent yet because a newer notification superseded it.
+	 */
+	private synchronized void cancelPendingMove() {
+		if (pendingMove != null && pendingMove.cancel(false)) {
+			LOGGER.fine(() -> String.format("%s cancelled a move superseded by a newer notification", username));
+		}
+		pendingMove = null;
 	}
 	
 	private String gameplayActionToString(final GameplayAction gameplayAction) {
-		return gameplayActionToString(gameplayAction, SecretHitlerAi.getObjectWriter());
+		return gameplayActionToString(gameplayAction, SecretHitlerAi.getGameplayActionWriter());
 	}
 	
 	protected String gameplayActionToString(final GameplayAction gameplayAction, final ObjectWriter writer) {
@@ -1,18 +1,24 @@
 package com.secrethitler.ai.websockets;
 
 import java.net.URISyntaxException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import javax.websocket.ClientEndpoint;
+import javax.websocket.CloseReason;
+import javax.websocket.OnClose;
 import javax.websocket.OnMessage;
 import javax.websocket.OnOpen;
 import javax.websocket.Session;
 
+import com.secrethitler.ai.HostPolicy;
 import com.secrethitler.ai.SecretHitlerAi;
 import com.secrethitler.ai.dtos.GameRequest;
+import com.secrethitler.ai.enums.GameState;
 import com.secrethitler.ai.utils.UriWrapper;
 
 @ClientEndpoint
@@ -86,6 +92,11 @@ public class GameSetupWebsocketClientEndpoint extends WebsocketClientEndpoint {
 			return this;
 		}
 		
+		public Builder withConnectExecutor(final Executor connectExecutor) {
+			this.connectExecutor = connectExecutor;
+			return this;
+		}
+		
 		@Override
 		public GameSetupWebsocketClientEndpoint build() throws URISyntaxException {
 			return new GameSetupWebsocketClientEndpoint(this);
@@ -103,6 +114,10 @@ public class GameSetupWebsocketClientEndpoint extends WebsocketClientEndpoint {
 	private final String username;
 	private final boolean host;
 	private final Function<GamePlayWebsocketClientEndpoint.Builder, GamePlayWebsocketClientEndpoint> gamePlayClientBuildFunction;
+	private final Executor connectExecutor;
+	private final Function<String, UriWrapper> uriBuilderFunction;
+	private final AtomicBoolean startRequested = new AtomicBoolean(false);
+	private final AtomicBoolean gameJoined = new AtomicBoolean(false);
 	
 	private GameSetupWebsocketClientEndpoint(Builder builder) throws URISyntaxException {
 		super(builder);
@@ -113,11 +128,26 @@ public class GameSetupWebsocketClientEndpoint extends WebsocketClientEndpoint {
 		this.username = builder.username;
 		this.host = builder.host;
 		this.gamePlayClientBuildFunction = builder.gamePlayClientBuildFunction;
+		this.connectExecutor = builder.connectExecutor;
+		this.uriBuilderFunction = builder.uriBuilderFunction;
 		
-		final String gameSetupUrlString = String.format("%s://%s%s?gameId=%s&auth=%s", ai.isSecureUrl() ? "wss" : "ws",
+		ai.registerEndpoint(this);
+		try {
+			setupWebsocketClientEndpoint(uriBuilderFunction.apply(getGameSetupUrlString(accessToken)));
+		} catch (IllegalStateException e) {
+			if (!isAccessTokenRejected(e)) {
+				throw e;
+			}
+			LOGGER.warning(() -> String.format("The server rejected the access token of %s, logging in again", username));
+			ai.invalidateAccessToken(username);
+			setupWebsocketClientEndpoint(uriBuilderFunction.apply(getGameSetupUrlString(ai.getAccessToken(username).join())));
+		}
+	}
+	
+	private String getGameSetupUrlString(final String accessToken) {
+		return String.format("%s://%s%s?gameId=%s&auth=%s", ai.isSecureUrl() ? "wss" : "ws",
 				ai.getBaseUrlString(), ai.getProp().getProperty(GAME_SETUP_URL), 
 				gameId, accessToken);
-		setupWebsocketClientEndpoint(builder.uriBuilderFunction.apply(gameSetupUrlString));
 	}
 
 	@OnOpen
@@ -125,39 +155,90 @@ public class GameSetupWebsocketClientEndpoint extends WebsocketClientEndpoint {
     public void onOpen(Session userSession) {
         super.onOpen(userSession);
         if (host) {
-        	Thread t = new Thread(() -> {
-	        	LOGGER.info("Press enter when you are ready to start the game");
-	        	SecretHitlerAi.getScanner().nextLine();
-	            sendMessage("START");
-	            LOGGER.info("Game has been initiated by the host");
-        	});
-        	t.start();
+        	final HostPolicy hostPolicy = ai.getHostPolicy();
+        	if (hostPolicy.isAuto()) {
+        		LOGGER.info(() -> String.format("%s will start the game as the %s", username, hostPolicy));
+        	} else {
+        		hostPolicy.prompt("Press enter when you are ready to start the game", () -> {
+        			sendMessage("START");
+        			LOGGER.info("Game has been initiated by the host");
+        		});
+        	}
         } else {
 	        sendMessage("JOIN");
         }
         LOGGER.info(() -> String.format("%s joined the game session", username));
     }
 	
+	@OnClose
+	@Override
+	public void onClose(Session userSession, CloseReason reason) {
+		super.onClose(userSession, reason);
+		if (isAccessTokenRejected(reason) && !gameJoined.get() && GameState.STOPPED != ai.getState()) {
+			rejoin();
+			return;
+		}
+		ai.unregisterEndpoint(this);
+	}
+	
+	/**
+	 * Joins the game setup again after the server closed the session over the access token,
+	 * which is dropped from the token cache first so the robot logs in again.
+	 */
+	private void rejoin() {
+		LOGGER.warning(() -> String.format("The server rejected the access token of %s, logging in again", username));
+		ai.invalidateAccessToken(username);
+		connectWithValidAccessToken(ai, username, accessToken,
+				validAccessToken -> setupWebsocketClientEndpoint(uriBuilderFunction.apply(getGameSetupUrlString(validAccessToken))), connectExecutor)
+				.exceptionally(e -> {
+					LOGGER.log(Level.SEVERE, String.format("%s failed to rejoin game %s", username, gameId), e);
+					ai.unregisterEndpoint(this);
+					return null;
+				});
+	}
+	
 	@OnMessage
 	@Override
     public void onMessage(String message) {
 		LOGGER.fine(() -> String.format("Received game setup message: %s", message));
 		try {
-			GameRequest gameRequest = SecretHitlerAi.getObjectMapper().readValue(message, GameRequest.class);
+			GameRequest gameRequest = SecretHitlerAi.getGameRequestReader().readValue(message);
 			if (gameRequest.isStarted()) {
-				LOGGER.info(() -> String.format("%s is starting the game!", username));
-				gamePlayClientBuildFunction.apply(GamePlayWebsocketClientEndpoint.builder()
-						.withAi(ai)
-						.withGameId(gameId)
-						.withAccessToken(accessToken)
-						.withLevel(gameplayLevel)
-						.withUsername(username)
-						.withGameplayProcessorFactory(SecretHitlerAi.getGameplayProcessorFactory())
-						.withGamePlayClientBuildFunction(gamePlayClientBuildFunction));
-				userSession.close();
+				if (gameJoined.compareAndSet(false, true)) {
+					LOGGER.info(() -> String.format("%s is starting the game!", username));
+					ai.setState(GameState.PLAYING);
+					joinGame();
+				}
+			} else if (host && ai.getHostPolicy().shouldStart(gameRequest, ai.getUsernames().size()) && startRequested.compareAndSet(false, true)) {
+				sendMessage("START");
+				LOGGER.info(() -> String.format("%s started the game with %d participants", username, gameRequest.getParticipants().size()));
 			}
 		} catch (Exception e) {
 			LOGGER.log(Level.SEVERE, "Exception on a game setup message", e);
 		}
     }
+	
+	/**
+	 * Opens the gameplay session once the robot has a valid access token, which may mean
+	 * logging in again, and closes the game setup session. The gameplay session is connected on
+	 * the connect executor, since its handshake can not complete while it holds a websocket thread.
+	 */
+	private void joinGame() {
+		connectWithValidAccessToken(ai, username, accessToken, validAccessToken -> {
+			gamePlayClientBuildFunction.apply(GamePlayWebsocketClientEndpoint.builder()
+					.withAi(ai)
+					.withGameId(gameId)
+					.withAccessToken(validAccessToken)
+					.withLevel(gameplayLevel)
+					.withUsername(username)
+					.withGameplayProcessorFactory(SecretHitlerAi.getGameplayProcessorFactory())
+					.withGamePlayClientBuildFunction(gamePlayClientBuildFunction)
+					.withConnectExecutor(connectExecutor));
+			close();
+		}, connectExecutor).exceptionally(e -> {
+			LOGGER.log(Level.SEVERE, String.format("%s failed to join game %s", username, gameId), e);
+			close();
+			return null;
+		});
+	}
 }
@@ -0,0 +1,102 @@
+package com.secrethitler.ai.websockets;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.secrethitler.ai.dtos.ParticipantGameNotification;
+import com.secrethitler.ai.enums.Action;
+import com.secrethitler.ai.enums.GamePhase;
+
+/**
+ * The few fields of a {@link ParticipantGameNotification} needed to decide whether it is worth
+ * binding, read with a streaming parser that skips the players, history and every other nested
+ * value without building them.
+ */
+public class NotificationHeader {
+	private static final String GAME_DATA = "gameData";
+	private static final String PHASE = "phase";
+	private static final String NEXT_GAME_ID = "nextGameId";
+	private static final String ACTION = "action";
+
+	private GamePhase phase;
+	private String nextGameId;
+	private Action action;
+
+	public static NotificationHeader read(final JsonFactory factory, final String message) throws IOException {
+		NotificationHeader header = new NotificationHeader();
+		try (JsonParser parser = factory.createParser(message)) {
+			expect(parser, parser.nextToken(), JsonToken.START_OBJECT);
+			while (parser.nextToken() == JsonToken.FIELD_NAME) {
+				final String field = parser.getCurrentName();
+				final JsonToken value = parser.nextToken();
+				if (GAME_DATA.equals(field) && value == JsonToken.START_OBJECT) {
+					header.readGameData(parser);
+				} else if (ACTION.equals(field) && value == JsonToken.START_OBJECT) {
+					header.readAction(parser);
+				} else {
+					parser.skipChildren();
+				}
+			}
+		}
+		return header;
+	}
+
+	private static void expect(final JsonParser parser, final JsonToken actual, final JsonToken expected) throws JsonParseException {
+		if (actual != expected) {
+			throw new JsonParseException(parser, String.format("Expected %s but found %s", expected, actual));
+		}
+	}
+
+	private static <E extends Enum<E>> E getEnum(final JsonParser parser, final Class<E> type) throws IOException {
+		if (parser.currentToken() == JsonToken.VALUE_NULL) {
+			return null;
+		}
+		final String name = parser.getValueAsString();
+		try {
+			return Enum.valueOf(type, name);
+		} catch (IllegalArgumentException | NullPointerException e) {
+			throw new JsonParseException(parser, String.format("%s is not a %s", name, type.getSimpleName()), e);
+		}
+	}
+
+	private void readGameData(final JsonParser parser) throws IOException {
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			final String field = parser.getCurrentName();
+			parser.nextToken();
+			if (PHASE.equals(field)) {
+				phase = getEnum(parser, GamePhase.class);
+			} else if (NEXT_GAME_ID.equals(field)) {
+				nextGameId = parser.getValueAsString();
+			} else {
+				parser.skipChildren();
+			}
+		}
+	}
+
+	private void readAction(final JsonParser parser) throws IOException {
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			final String field = parser.getCurrentName();
+			parser.nextToken();
+			if (ACTION.equals(field)) {
+				action = getEnum(parser, Action.class);
+			} else {
+				parser.skipChildren();
+			}
+		}
+	}
+
+	public GamePhase getPhase() {
+		return phase;
+	}
+
+	public String getNextGameId() {
+		return nextGameId;
+	}
+
+	public Action getAction() {
+		return action;
+	}
+}
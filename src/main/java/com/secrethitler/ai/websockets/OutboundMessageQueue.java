@@ -0,0 +1,149 @@
+package com.secrethitler.ai.websockets;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.websocket.SendResult;
+import javax.websocket.Session;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.secrethitler.ai.metrics.BotMetrics;
+
+/**
+ * The messages waiting to be sent on one websocket session. Messages are sent one at a time in
+ * the order they were offered, each only once the previous send has completed, so a burst never
+ * piles up writes on the session's async remote. Offering never blocks: a full queue refuses
+ * the message instead. A failed send is retried a few times, waiting twice as long before each
+ * retry, before the message is dropped. Every offer returns the future of its message, so the
+ * caller learns whether it was delivered or dropped on the way.
+ */
+public class OutboundMessageQueue {
+	private static final Logger LOGGER = Logger.getLogger(OutboundMessageQueue.class.getName());
+	protected static final int DEFAULT_CAPACITY = 32;
+	protected static final int DEFAULT_MAX_ATTEMPTS = 3;
+	protected static final long DEFAULT_RETRY_BACKOFF_MILLIS = 100;
+	private static final ScheduledExecutorService RETRY_SCHEDULER = Executors.newSingleThreadScheduledExecutor(
+			new ThreadFactoryBuilder()
+					.setNameFormat("outbound-retry-%d")
+					.setDaemon(true)
+					.build());
+
+	private static class Pending {
+		private final String message;
+		private final long offered = System.nanoTime();
+		private final CompletableFuture<Void> sent = new CompletableFuture<>();
+		private int attempts;
+
+		private Pending(final String message) {
+			this.message = message;
+		}
+	}
+
+	private final Supplier<Session> sessionSupplier;
+	private final int capacity;
+	private final int maxAttempts;
+	private final ScheduledExecutorService retryScheduler;
+	private final long retryBackoffMillis;
+	private final Deque<Pending> queue = new ArrayDeque<>();
+	private boolean sending = false;
+
+	/**
+	 * @param sessionSupplier the session to send on, looked up for every send so a reconnected session is picked up
+	 */
+	public OutboundMessageQueue(final Supplier<Session> sessionSupplier, final int capacity, final int maxAttempts) {
+		this(sessionSupplier, capacity, maxAttempts, RETRY_SCHEDULER, DEFAULT_RETRY_BACKOFF_MILLIS);
+	}
+
+	/**
+	 * @param retryBackoffMillis how long to wait before the first retry of a message, doubled before every further retry
+	 */
+	public OutboundMessageQueue(final Supplier<Session> sessionSupplier, final int capacity, final int maxAttempts,
+			final ScheduledExecutorService retryScheduler, final long retryBackoffMillis) {
+		this.sessionSupplier = sessionSupplier;
+		this.capacity = capacity;
+		this.maxAttempts = maxAttempts;
+		this.retryScheduler = retryScheduler;
+		this.retryBackoffMillis = retryBackoffMillis;
+	}
+
+	/**
+	 * Queues the message to be sent after every message offered before it.
+	 *
+	 * @return completes once the message was sent, or exceptionally if the queue is full or every attempt to send it failed
+	 */
+	public CompletableFuture<Void> offer(final String message) {
+		final Pending pending = new Pending(message);
+		synchronized (this) {
+			if (queue.size() >= capacity) {
+				LOGGER.warning(() -> String.format("Dropped a message as %d messages are already waiting to be sent: %s", capacity, message));
+				BotMetrics.getInstance().messageDropped();
+				pending.sent.completeExceptionally(new IllegalStateException(String.format("%d messages are already waiting to be sent", capacity)));
+				return pending.sent;
+			}
+			queue.add(pending);
+			BotMetrics.getInstance().messageQueued();
+			if (sending) {
+				return pending.sent;
+			}
+			sending = true;
+		}
+		sendNext();
+		return pending.sent;
+	}
+
+	public synchronized int size() {
+		return queue.size();
+	}
+
+	private void sendNext() {
+		final Pending pending;
+		synchronized (this) {
+			pending = queue.peek();
+			if (pending == null) {
+				sending = false;
+				return;
+			}
+		}
+		pending.attempts++;
+		final Session session = sessionSupplier.get();
+		if (session == null) {
+			complete(pending, new SendResult(new IllegalStateException("The session is closed")));
+			return;
+		}
+		try {
+			session.getAsyncRemote().sendText(pending.message, result -> complete(pending, result));
+		} catch (RuntimeException e) {
+			complete(pending, new SendResult(e));
+		}
+	}
+
+	private void complete(final Pending pending, final SendResult result) {
+		if (!result.isOK() && pending.attempts < maxAttempts && sessionSupplier.get() != null) {
+			final long backoff = retryBackoffMillis << (pending.attempts - 1);
+			LOGGER.log(Level.FINE, String.format("Retrying a message in %d ms after attempt %d failed", backoff, pending.attempts), result.getException());
+			BotMetrics.getInstance().sendRetried();
+			retryScheduler.schedule(this::sendNext, backoff, TimeUnit.MILLISECONDS);
+			return;
+		}
+		synchronized (this) {
+			queue.poll();
+		}
+		BotMetrics.getInstance().messageDequeued();
+		if (result.isOK()) {
+			BotMetrics.getInstance().recordSend(System.nanoTime() - pending.offered);
+			pending.sent.complete(null);
+		} else {
+			LOGGER.log(Level.WARNING, String.format("Dropped a message after %d failed attempts: %s", pending.attempts, pending.message), result.getException());
+			BotMetrics.getInstance().sendFailed();
+			pending.sent.completeExceptionally(result.getException());
+		}
+		sendNext();
+	}
+}
@@ -0,0 +1,99 @@
+package com.secrethitler.ai.websockets;
+
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+import javax.websocket.WebSocketContainer;
+
+import org.glassfish.tyrus.client.ClientManager;
+import org.glassfish.tyrus.client.ClientProperties;
+import org.glassfish.tyrus.client.ThreadPoolConfig;
+import org.glassfish.tyrus.container.grizzly.client.GrizzlyClientProperties;
+
+/**
+ * Holds the one {@link WebSocketContainer} every robot in the JVM connects through. The
+ * container shares a single Grizzly transport between all sessions, with bounded selector
+ * and worker thread pools, instead of creating a transport and its threads per connection.
+ * Also keeps count of the websocket sessions opened through it.
+ */
+public final class SharedWebsocketContainer {
+	private static final Logger LOGGER = Logger.getLogger(SharedWebsocketContainer.class.getName());
+	protected static final String SELECTOR_THREADS = "secrethitler.ai.websocket.selectorthreads";
+	protected static final String WORKER_THREADS = "secrethitler.ai.websocket.workerthreads";
+	protected static final int DEFAULT_SELECTOR_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+	protected static final int DEFAULT_WORKER_THREADS = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+	
+	private static final AtomicInteger OPEN_SESSIONS = new AtomicInteger();
+	private static final AtomicLong SESSIONS_OPENED = new AtomicLong();
+	private static ClientManager container = null;
+	
+	/**
+	 * Creates the shared container from the given properties. Only the first call has any
+	 * effect, as the container cannot be reconfigured once robots are connected through it.
+	 */
+	public static synchronized void configure(final Properties prop) {
+		if (container != null) {
+			LOGGER.fine("The shared websocket container is already configured");
+			return;
+		}
+		container = createContainer(prop);
+	}
+	
+	public static synchronized WebSocketContainer getContainer() {
+		if (container == null) {
+			container = createContainer(new Properties());
+		}
+		return container;
+	}
+	
+	protected static ClientManager createContainer(final Properties prop) {
+		final int selectorThreads = getIntProperty(prop, SELECTOR_THREADS, DEFAULT_SELECTOR_THREADS);
+		final int workerThreads = getIntProperty(prop, WORKER_THREADS, DEFAULT_WORKER_THREADS);
+		ClientManager client = ClientManager.createClient();
+		Map<String, Object> properties = client.getProperties();
+		properties.put(ClientProperties.SHARED_CONTAINER, true);
+		properties.put(GrizzlyClientProperties.SELECTOR_THREAD_POOL_CONFIG, org.glassfish.grizzly.threadpool.ThreadPoolConfig.defaultConfig()
+				.setPoolName("websocket-selector")
+				.setDaemon(true)
+				.setMaxPoolSize(selectorThreads)
+				.setCorePoolSize(selectorThreads));
+		properties.put(ClientProperties.WORKER_THREAD_POOL_CONFIG, ThreadPoolConfig.defaultConfig()
+				.setPoolName("websocket-worker")
+				.setDaemon(true)
+				.setMaxPoolSize(workerThreads)
+				.setCorePoolSize(workerThreads));
+		LOGGER.info(() -> String.format("Created the shared websocket container with %d selector and %d worker threads", selectorThreads, workerThreads));
+		return client;
+	}
+	
+	private static int getIntProperty(final Properties prop, final String key, final int defaultValue) {
+		final String value = prop.getProperty(key);
+		return value == null ? defaultValue : Integer.parseInt(value);
+	}
+	
+	static void sessionOpened() {
+		SESSIONS_OPENED.incrementAndGet();
+		final int openSessions = OPEN_SESSIONS.incrementAndGet();
+		LOGGER.fine(() -> String.format("Websocket session opened, %d sessions are open", openSessions));
+	}
+	
+	static void sessionClosed() {
+		final int openSessions = OPEN_SESSIONS.decrementAndGet();
+		LOGGER.fine(() -> String.format("Websocket session closed, %d sessions are open", openSessions));
+	}
+	
+	public static int getOpenSessions() {
+		return OPEN_SESSIONS.get();
+	}
+	
+	public static long getSessionsOpened() {
+		return SESSIONS_OPENED.get();
+	}
+	
+	private SharedWebsocketContainer() {
+		super();
+	}
+}
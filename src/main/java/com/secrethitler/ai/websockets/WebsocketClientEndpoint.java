@@ -1,23 +1,33 @@
 package com.secrethitler.ai.websockets;
 
+import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
+import java.net.HttpURLConnection;
 import java.net.URISyntaxException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import javax.websocket.CloseReason;
-import javax.websocket.ContainerProvider;
 import javax.websocket.OnClose;
 import javax.websocket.OnMessage;
 import javax.websocket.OnOpen;
 import javax.websocket.Session;
-import javax.websocket.WebSocketContainer;
 
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.glassfish.tyrus.client.auth.AuthenticationException;
+import org.glassfish.tyrus.core.HandshakeException;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.secrethitler.ai.SecretHitlerAi;
 import com.secrethitler.ai.utils.UriWrapper;
 
 public abstract class WebsocketClientEndpoint {
@@ -32,16 +42,26 @@ public abstract class WebsocketClientEndpoint {
 	
 	protected static final BiConsumer<WebsocketClientEndpoint, UriWrapper> URI_CONNECTION_CONSUMER = (endpoint, uri) -> {
 		try {
-			WebSocketContainer container = ContainerProvider.getWebSocketContainer();
-			container.connectToServer(endpoint, uri.getUri());
+			SharedWebsocketContainer.getContainer().connectToServer(endpoint, uri.getUri());
 		} catch (Exception e) {
 	        throw new IllegalStateException(e);
 	    }
 	};
 	
+	/**
+	 * Connects endpoints, which blocks until the server answers the handshake, so it is kept off
+	 * the websocket threads that the answer arrives on and off the move scheduler.
+	 */
+	protected static final ExecutorService CONNECT_EXECUTOR = Executors.newCachedThreadPool(
+			new ThreadFactoryBuilder()
+					.setNameFormat("websocket-connector-%d")
+					.setDaemon(true)
+					.build());
+	
 	public abstract static class Builder {
 		protected Function<String, UriWrapper> uriBuilderFunction = URI_BUILDER_FUNCTION;
 		protected BiConsumer<WebsocketClientEndpoint, UriWrapper> uriConnectionConsumer = URI_CONNECTION_CONSUMER;
+		protected Executor connectExecutor = CONNECT_EXECUTOR;
 		
 		protected Builder() {
 			super();
@@ -65,11 +85,13 @@ public abstract class WebsocketClientEndpoint {
 		}
 	}
 	
-	protected Session userSession = null;
+	protected volatile Session userSession = null;
 	private final BiConsumer<WebsocketClientEndpoint, UriWrapper> uriConnectionConsumer;
+	private final OutboundMessageQueue outboundMessages;
 	
 	protected WebsocketClientEndpoint(Builder builder) {
 		this.uriConnectionConsumer = builder.uriConnectionConsumer;
+		this.outboundMessages = new OutboundMessageQueue(() -> userSession, OutboundMessageQueue.DEFAULT_CAPACITY, OutboundMessageQueue.DEFAULT_MAX_ATTEMPTS);
 	}
 
 	protected void setupWebsocketClientEndpoint(final UriWrapper endpointUri) {
@@ -83,6 +105,7 @@ public abstract class WebsocketClientEndpoint {
 	 */
 	@OnOpen
 	public void onOpen(Session userSession) {
+		SharedWebsocketContainer.sessionOpened();
 	    this.userSession = userSession;
 	}
 	
@@ -94,6 +117,9 @@ public abstract class WebsocketClientEndpoint {
 	 */
 	@OnClose
 	public void onClose(Session userSession, CloseReason reason) {
+		if (this.userSession != null) {
+			SharedWebsocketContainer.sessionClosed();
+		}
 	    this.userSession = null;
 	}
 	
@@ -106,12 +132,87 @@ public abstract class WebsocketClientEndpoint {
 	public abstract void onMessage(String message);
 	
 	/**
-	 * Send a message.
+	 * Queues a message to be sent on the session, after any message sent before it.
 	 *
 	 * @param message
+	 * @return completes once the message was sent, or exceptionally if the session is closed, too many messages are waiting or sending it failed
 	 */
-	public void sendMessage(final String message) {
+	public CompletableFuture<Void> sendMessage(final String message) {
+		if (this.userSession == null) {
+			LOGGER.warning(() -> String.format("Unable to send a message while disconnected: %s", message));
+			final CompletableFuture<Void> unsent = new CompletableFuture<>();
+			unsent.completeExceptionally(new IllegalStateException("The session is closed"));
+			return unsent;
+		}
 		LOGGER.fine(() -> String.format("Sending message: %s", message)); 
-	    this.userSession.getAsyncRemote().sendText(message);
+	    return outboundMessages.offer(message);
+	}
+	
+	/**
+	 * Closes the session, if it is still open.
+	 */
+	public void close() {
+		final Session session = this.userSession;
+		if (session == null) {
+			return;
+		}
+		try {
+			session.close();
+		} catch (IOException e) {
+			LOGGER.log(Level.WARNING, "Exception closing the websocket session", e);
+		}
+	}
+	
+	/**
+	 * Gets a valid access token of the robot from the token cache of the table, falling back
+	 * on the current token if the robot could not be logged in again. The token may need a
+	 * login first, so callers chain on it rather than wait for it on the websocket thread.
+	 */
+	protected static CompletableFuture<String> getValidAccessToken(final SecretHitlerAi ai, final String username, final String currentAccessToken) {
+		return ai.getAccessToken(username).exceptionally(e -> {
+			LOGGER.log(Level.WARNING, String.format("Failed to get a valid access token for %s, reusing the current one", username), e);
+			return currentAccessToken;
+		});
+	}
+	
+	/**
+	 * Connects on the connect executor with a valid access token of the robot. If the server
+	 * rejects the token in the handshake, the token is dropped from the token cache and the
+	 * robot logs in again for one more attempt.
+	 */
+	protected static CompletableFuture<Void> connectWithValidAccessToken(final SecretHitlerAi ai, final String username, final String currentAccessToken,
+			final Consumer<String> connect, final Executor connectExecutor) {
+		final CompletableFuture<Void> connected = getValidAccessToken(ai, username, currentAccessToken).thenAcceptAsync(connect, connectExecutor);
+		return connected.handle((result, e) -> {
+			if (e == null || !isAccessTokenRejected(e)) {
+				return connected;
+			}
+			LOGGER.warning(() -> String.format("The server rejected the access token of %s, logging in again", username));
+			ai.invalidateAccessToken(username);
+			return getValidAccessToken(ai, username, currentAccessToken).thenAcceptAsync(connect, connectExecutor);
+		}).thenCompose(Function.identity());
+	}
+	
+	/**
+	 * @return whether the handshake failed because the server did not accept the access token
+	 */
+	protected static boolean isAccessTokenRejected(final Throwable e) {
+		for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+			if (cause instanceof AuthenticationException) {
+				return true;
+			}
+			if (cause instanceof HandshakeException) {
+				final int status = ((HandshakeException) cause).getHttpStatusCode();
+				return status == HttpURLConnection.HTTP_UNAUTHORIZED || status == HttpURLConnection.HTTP_FORBIDDEN;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * @return whether the server closed the session because it did not accept the access token
+	 */
+	protected static boolean isAccessTokenRejected(final CloseReason reason) {
+		return reason != null && CloseReason.CloseCodes.VIOLATED_POLICY == reason.getCloseCode();
 	}
 }
@@ -0,0 +1,128 @@
+package com.secrethitler.ai;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.net.HttpURLConnection;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import com.secrethitler.ai.dtos.FleetGameSpec;
+import com.secrethitler.ai.dtos.LoginResponse;
+import com.secrethitler.ai.enums.GameState;
+import com.secrethitler.ai.utils.UrlWrapper;
+import com.secrethitler.ai.websockets.GameSetupWebsocketClientEndpoint;
+
+@RunWith(MockitoJUnitRunner.class)
+public class FleetTest {
+	private static final String TEST_PROPERTIES_FILE_NAME = "test-nonsecure.properties";
+	
+	@Mock
+	private Function<String, UrlWrapper> getUrlFunction;
+	
+	@Mock
+	private Function<GameSetupWebsocketClientEndpoint.Builder, GameSetupWebsocketClientEndpoint> gameSetupClientBuildFunction;
+	
+	@Mock
+	private UrlWrapper loginUrl;
+	
+	@Mock
+	private HttpURLConnection loginCon;
+	
+	private static FleetGameSpec gameSpec(final String gameId, final int count, final Integer... levels) {
+		FleetGameSpec gameSpec = new FleetGameSpec();
+		gameSpec.setGameId(gameId);
+		gameSpec.setCount(count);
+		gameSpec.setLevels(Arrays.asList(levels));
+		return gameSpec;
+	}
+	
+	@Before
+	public void setUp() throws Exception {
+		when(getUrlFunction.apply("http://test.com/login")).thenReturn(loginUrl);
+		when(loginUrl.openConnection()).thenReturn(loginCon);
+		when(loginCon.getOutputStream()).then(invocation -> new ByteArrayOutputStream());
+		LoginResponse response = new LoginResponse();
+		response.setAccessToken("TestAuthToken");
+		when(loginCon.getInputStream()).then(invocation -> new ByteArrayInputStream(SecretHitlerAi.getObjectWriter().writeValueAsString(response).getBytes(StandardCharsets.UTF_8)));
+	}
+	
+	private Fleet.Builder builderHelper(final FleetGameSpec... gameSpecs) {
+		return Fleet.builder()
+				.withGameSpecs(Arrays.asList(gameSpecs))
+				.withPropertiesFileName(TEST_PROPERTIES_FILE_NAME)
+				.withGetUrlFunction(getUrlFunction)
+				.withGameSetupClientBuildFunction(gameSetupClientBuildFunction)
+				.withLaunchParallelism(3);
+	}
+	
+	@Test
+	public void testStart() throws InterruptedException {
+		Fleet fleet = builderHelper(gameSpec("testGameId", 3, 1, 2, 3), gameSpec("otherGameId", 1, 4, 4)).build();
+		
+		fleet.start();
+		
+		assertEquals(4, fleet.getTables().size());
+		assertEquals(0, fleet.getFailedTables());
+		List<String> usernames = fleet.getTables().stream()
+				.flatMap(table -> table.getUsernames().stream())
+				.sorted()
+				.collect(Collectors.toList());
+		assertEquals(Arrays.asList("Robot 1", "Robot 10", "Robot 11", "Robot 2", "Robot 3", "Robot 4", "Robot 5", 
+				"Robot 6", "Robot 7", "Robot 8", "Robot 9"), usernames);
+		assertEquals(Collections.singletonMap(GameState.WAITING_FOR_PLAYERS, 4L), fleet.getTableStates());
+		verify(gameSetupClientBuildFunction, times(11)).apply(any(GameSetupWebsocketClientEndpoint.Builder.class));
+	}
+	
+	@Test
+	public void testStart_FailedTable() throws InterruptedException {
+		when(gameSetupClientBuildFunction.apply(any(GameSetupWebsocketClientEndpoint.Builder.class)))
+				.thenReturn(null)
+				.thenThrow(new IllegalArgumentException("Bad URI"));
+		Fleet fleet = builderHelper(gameSpec("testGameId", 2, 1)).withLaunchParallelism(1).build();
+		
+		fleet.start();
+		
+		assertEquals(1, fleet.getTables().size());
+		assertEquals(1, fleet.getFailedTables());
+	}
+	
+	@Test
+	public void testShutdown() throws InterruptedException {
+		Fleet fleet = builderHelper(gameSpec("testGameId", 2, 1, 2)).build();
+		fleet.start();
+		
+		fleet.shutdown();
+		fleet.awaitStopped();
+		
+		assertTrue(fleet.getTables().stream().allMatch(SecretHitlerAi::isStopped));
+		assertEquals(Collections.singletonMap(GameState.STOPPED, 2L), fleet.getTableStates());
+	}
+	
+	@Test
+	public void testBadGameSpec() {
+		try {
+			builderHelper(gameSpec("testGameId", 1)).build();
+			fail("Expected an IllegalArgumentException to be thrown if a game has no seats");
+		} catch (IllegalArgumentException e) {
+			assertEquals("Every fleet game needs a game id and at least one seat level", e.getMessage());
+		}
+	}
+}
@@ -0,0 +1,104 @@
+package com.secrethitler.ai;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.secrethitler.ai.dtos.GameParticipant;
+import com.secrethitler.ai.dtos.GameRequest;
+
+public class HostPolicyTest {
+	private static GameRequest gameRequest(final boolean readyToStart, final int participants) {
+		GameRequest gameRequest = new GameRequest();
+		gameRequest.setReadyToStart(readyToStart);
+		gameRequest.setParticipants(Collections.nCopies(participants, new GameParticipant()));
+		return gameRequest;
+	}
+
+	@Test
+	public void testFromProperties() {
+		Properties prop = new Properties();
+		prop.setProperty(HostPolicy.MODE, "auto");
+		prop.setProperty(HostPolicy.MIN_PARTICIPANTS, "5");
+		prop.setProperty(HostPolicy.ROUNDS, "");
+
+		HostPolicy hostPolicy = HostPolicy.fromProperties(prop);
+
+		assertEquals(HostPolicy.Mode.AUTO, hostPolicy.getMode());
+		assertEquals("AUTO host waiting for 5 participants for unlimited rounds", hostPolicy.toString());
+		assertEquals(HostPolicy.Mode.PROMPT, HostPolicy.fromProperties(new Properties()).getMode());
+	}
+
+	@Test
+	public void testShouldStart() {
+		HostPolicy hostPolicy = HostPolicy.builder().withMode(HostPolicy.Mode.AUTO).build();
+
+		assertFalse(hostPolicy.shouldStart(gameRequest(false, 7), 7));
+		assertFalse(hostPolicy.shouldStart(gameRequest(true, 6), 7));
+		assertTrue(hostPolicy.shouldStart(gameRequest(true, 7), 7));
+		assertFalse(hostPolicy.shouldStart(new GameRequest(), 0));
+	}
+
+	@Test
+	public void testShouldStart_MinParticipants() {
+		HostPolicy hostPolicy = HostPolicy.builder().withMode(HostPolicy.Mode.AUTO).withMinParticipants(5).build();
+
+		assertFalse(hostPolicy.shouldStart(gameRequest(true, 4), 7));
+		assertTrue(hostPolicy.shouldStart(gameRequest(true, 5), 7));
+	}
+
+	@Test
+	public void testShouldStart_Prompt() {
+		assertFalse(HostPolicy.builder().build().shouldStart(gameRequest(true, 7), 7));
+	}
+
+	@Test
+	public void testFinishRound() {
+		HostPolicy hostPolicy = HostPolicy.builder().withMode(HostPolicy.Mode.AUTO).withRounds(3).build();
+
+		assertEquals(ImmutableList.of(true, true, false), ImmutableList.of(hostPolicy.finishRound(), hostPolicy.finishRound(), hostPolicy.finishRound()));
+		assertEquals(3, hostPolicy.getRoundsPlayed());
+	}
+
+	@Test
+	public void testFinishRound_Unlimited() {
+		HostPolicy hostPolicy = HostPolicy.builder().withMode(HostPolicy.Mode.AUTO).build();
+
+		for (int round = 0; round < 100; round++) {
+			assertTrue(hostPolicy.finishRound());
+		}
+		assertFalse(HostPolicy.builder().build().finishRound());
+	}
+
+	@Test
+	public void testPrompt() throws InterruptedException {
+		InputStream in = new ByteArrayInputStream("\r\n".getBytes());
+		System.setIn(in);
+		CountDownLatch answered = new CountDownLatch(1);
+
+		HostPolicy.builder().build().prompt("Press enter", answered::countDown);
+
+		assertTrue(answered.await(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void testBadPolicy() {
+		try {
+			HostPolicy.builder().withRounds(-1).build();
+			fail("Expected an IllegalArgumentException to be thrown if the rounds are negative");
+		} catch (IllegalArgumentException e) {
+			assertEquals("A host policy needs a mode and can not wait for a negative number of participants or rounds", e.getMessage());
+		}
+	}
+}
@@ -0,0 +1,177 @@
+package com.secrethitler.ai;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.net.HttpURLConnection;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import com.secrethitler.ai.dtos.LoginResponse;
+import com.secrethitler.ai.enums.GamePhase;
+import com.secrethitler.ai.enums.PartyMembership;
+import com.secrethitler.ai.enums.SecretRole;
+import com.secrethitler.ai.metrics.BotMetrics;
+import com.secrethitler.ai.utils.UrlWrapper;
+import com.secrethitler.ai.websockets.GameSetupWebsocketClientEndpoint;
+
+@RunWith(MockitoJUnitRunner.class)
+public class LoadGeneratorTest {
+	private static final String TEST_PROPERTIES_FILE_NAME = "test-nonsecure.properties";
+
+	@Mock
+	private Function<String, UrlWrapper> getUrlFunction;
+
+	@Mock
+	private Function<GameSetupWebsocketClientEndpoint.Builder, GameSetupWebsocketClientEndpoint> gameSetupClientBuildFunction;
+
+	@Mock
+	private UrlWrapper loginUrl;
+
+	@Mock
+	private HttpURLConnection loginCon;
+
+	@Mock
+	private UrlWrapper createGameUrl;
+
+	@Mock
+	private HttpURLConnection createGameCon;
+
+	@Before
+	public void setUp() throws Exception {
+		when(getUrlFunction.apply("http://test.com/login")).thenReturn(loginUrl);
+		when(loginUrl.openConnection()).thenReturn(loginCon);
+		when(loginCon.getOutputStream()).then(invocation -> new ByteArrayOutputStream());
+		LoginResponse response = new LoginResponse();
+		response.setAccessToken("TestAuthToken");
+		when(loginCon.getInputStream()).then(invocation -> new ByteArrayInputStream(SecretHitlerAi.getObjectWriter().writeValueAsString(response).getBytes(StandardCharsets.UTF_8)));
+		when(getUrlFunction.apply("http://test.com/create-game")).thenReturn(createGameUrl);
+		when(createGameUrl.openConnection()).thenReturn(createGameCon);
+		when(createGameCon.getOutputStream()).then(invocation -> new ByteArrayOutputStream());
+		when(createGameCon.getInputStream()).then(invocation -> new ByteArrayInputStream("testGameId".getBytes(StandardCharsets.UTF_8)));
+	}
+
+	private LoadGenerator.Builder builderHelper(final int tables, final Integer... levels) {
+		return LoadGenerator.builder()
+				.withTables(tables)
+				.withLevels(Arrays.asList(levels))
+				.withPropertiesFileName(TEST_PROPERTIES_FILE_NAME)
+				.withGetUrlFunction(getUrlFunction)
+				.withGameSetupClientBuildFunction(gameSetupClientBuildFunction)
+				.withLaunchParallelism(2);
+	}
+
+	@Test
+	public void testRun() throws InterruptedException {
+		LoadGenerator loadGenerator = builderHelper(3, 1, 2).build();
+
+		LoadReport report = loadGenerator.run();
+
+		assertEquals(3, report.getTablesLaunched());
+		assertEquals(0, report.getTablesFailed());
+		assertTrue(loadGenerator.getTables().stream().allMatch(SecretHitlerAi::isStopped));
+		assertTrue(loadGenerator.getTables().stream().allMatch(table -> table.getHostPolicy().isAuto()));
+		List<String> usernames = loadGenerator.getTables().stream()
+				.flatMap(table -> table.getUsernames().stream())
+				.sorted()
+				.collect(Collectors.toList());
+		assertEquals(Arrays.asList("Robot 1", "Robot 2", "Robot 3", "Robot 4", "Robot 5", "Robot 6"), usernames);
+		verify(gameSetupClientBuildFunction, times(6)).apply(any(GameSetupWebsocketClientEndpoint.Builder.class));
+	}
+
+	@Test
+	public void testRun_FailedTable() throws InterruptedException {
+		when(gameSetupClientBuildFunction.apply(any(GameSetupWebsocketClientEndpoint.Builder.class)))
+				.thenReturn(null)
+				.thenThrow(new IllegalArgumentException("Bad URI"));
+
+		LoadReport report = builderHelper(2, 1).withLaunchParallelism(1).build().run();
+
+		assertEquals(1, report.getTablesLaunched());
+		assertEquals(1, report.getTablesFailed());
+	}
+
+	@Test
+	public void testRun_Shutdown() throws InterruptedException {
+		LoadGenerator loadGenerator = builderHelper(1, 1).withDurationMillis(TimeUnit.HOURS.toMillis(1)).build();
+		CompletableFuture.runAsync(() -> {
+			while (loadGenerator.getTables().isEmpty()) {
+				Thread.yield();
+			}
+			loadGenerator.shutdown();
+		});
+
+		LoadReport report = loadGenerator.run();
+
+		assertEquals(1, report.getTablesLaunched());
+		assertTrue(report.getElapsedMillis() < TimeUnit.HOURS.toMillis(1));
+		assertTrue(loadGenerator.getTables().get(0).isStopped());
+	}
+
+	@Test
+	public void testGetLaunchDelay() {
+		LoadGenerator loadGenerator = builderHelper(5, 1).withRampMillis(1000).build();
+
+		assertEquals(Arrays.asList(0L, 250L, 500L, 750L, 1000L), Arrays.asList(loadGenerator.getLaunchDelay(0),
+				loadGenerator.getLaunchDelay(1), loadGenerator.getLaunchDelay(2), loadGenerator.getLaunchDelay(3), loadGenerator.getLaunchDelay(4)));
+		assertEquals(0, builderHelper(1, 1).withRampMillis(1000).build().getLaunchDelay(0));
+	}
+
+	@Test
+	public void testBadArguments() {
+		try {
+			builderHelper(0, 1).build();
+			fail("Expected an IllegalArgumentException to be thrown if there are no tables");
+		} catch (IllegalArgumentException e) {
+			assertEquals("A load run needs at least one table with at least one seat level", e.getMessage());
+		}
+		try {
+			builderHelper(1, 1).withRampMillis(-1).build();
+			fail("Expected an IllegalArgumentException to be thrown if the ramp is negative");
+		} catch (IllegalArgumentException e) {
+			assertEquals("The ramp and duration of a load run can not be negative", e.getMessage());
+		}
+	}
+
+	@Test
+	public void testReport() {
+		BotMetrics metrics = BotMetrics.getInstance();
+		metrics.reset();
+		metrics.recordRoundTrip(3, GamePhase.ELECTION, TimeUnit.MILLISECONDS.toNanos(20));
+		metrics.recordRoundTrip(3, GamePhase.ELECTION, TimeUnit.MILLISECONDS.toNanos(40));
+		metrics.recordOutcome(SecretRole.LIBERAL, PartyMembership.LIBERAL);
+		metrics.recordOutcome(SecretRole.HITLER, PartyMembership.LIBERAL);
+
+		LoadReport report = new LoadReport(2, 1, 1000, metrics);
+		metrics.reset();
+
+		assertEquals(2, report.getGamesFinished());
+		assertEquals(Collections.singleton("round_trip level=3 phase=ELECTION"), report.getLatencies().keySet().stream()
+				.map(Object::toString)
+				.collect(Collectors.toSet()));
+		String text = report.toString();
+		assertTrue(text.startsWith("2 tables launched (1 failed) in 1000 ms, 2 robot games finished"));
+		assertTrue(text.contains("p50"));
+		assertTrue(text.contains("p99.9"));
+		assertTrue(text.matches("(?s).*round_trip level=3 phase=ELECTION\\s+2\\s+20\\.\\d\\d\\s+.*"));
+	}
+}
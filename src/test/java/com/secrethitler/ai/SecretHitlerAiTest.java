@@ -5,31 +5,46 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.net.HttpURLConnection;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.Properties;
 import java.util.function.Function;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.junit.After;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
+import com.secrethitler.ai.dtos.GameplayAction;
 import com.secrethitler.ai.dtos.LoginRequest;
 import com.secrethitler.ai.dtos.LoginResponse;
+import com.secrethitler.ai.dtos.ParticipantGameNotification;
+import com.secrethitler.ai.enums.Action;
+import com.secrethitler.ai.enums.GamePhase;
+import com.secrethitler.ai.enums.GameState;
+import com.secrethitler.ai.gamelog.ReplayReport;
+import com.secrethitler.ai.simulation.TournamentReport;
 import com.secrethitler.ai.utils.BadGameSetupClientBuilder;
+import com.secrethitler.ai.utils.HttpPostClient;
 import com.secrethitler.ai.utils.UrlWrapper;
 import com.secrethitler.ai.websockets.GameSetupWebsocketClientEndpoint;
+import com.secrethitler.ai.websockets.WebsocketClientEndpoint;
 
 @RunWith(MockitoJUnitRunner.class)
 public class SecretHitlerAiTest {
@@ -37,6 +52,9 @@ public class SecretHitlerAiTest {
 	private static final String TEST_SECURE_PROPERTIES_FILE_NAME = "test-secure.properties";
 	private static final String AUTH = "TestAuthToken";
 	
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+	
 	@Mock
 	private Function<String, UrlWrapper> getUrlFunction;
 	
@@ -55,6 +73,12 @@ public class SecretHitlerAiTest {
 	@Mock
 	private HttpURLConnection createGameCon;
 	
+	@Mock
+	private WebsocketClientEndpoint endpoint;
+	
+	@Mock
+	private WebsocketClientEndpoint closedEndpoint;
+	
 	private ByteArrayOutputStream loginOs;
 	
 	@Before
@@ -187,16 +211,125 @@ public class SecretHitlerAiTest {
 		verify(loginCon, times(2)).setRequestProperty("Content-Type", "application/json; utf-8");
 		verify(loginCon, times(2)).setRequestProperty("Accept", "application/json");
 		verify(loginCon, times(2)).setDoOutput(true);
-		final String expectedJson = SecretHitlerAi.getObjectWriter().writeValueAsString(new LoginRequest("Robot 1", "password")) +
-				SecretHitlerAi.getObjectWriter().writeValueAsString(new LoginRequest("Robot 2", "password"));
+		verify(loginCon, times(2)).setConnectTimeout(5000);
+		verify(loginCon, times(2)).setReadTimeout(10000);
+		final String robot1Json = SecretHitlerAi.getObjectWriter().writeValueAsString(new LoginRequest("Robot 1", "password"));
+		final String robot2Json = SecretHitlerAi.getObjectWriter().writeValueAsString(new LoginRequest("Robot 2", "password"));
 		final String actualJson = new String(loginOs.toByteArray(), StandardCharsets.UTF_8);
-		assertEquals(expectedJson, actualJson);
+		assertTrue(actualJson.equals(robot1Json + robot2Json) || actualJson.equals(robot2Json + robot1Json));
 		assertNotNull(ai.getProp());
 		assertEquals("test.com", ai.getBaseUrlString());
 		
 		return ai;
 	}
 
+	@Test
+	public void testSecretHitlerAi_FirstRobot() throws Exception {
+		when(getUrlFunction.apply("http://test.com/login")).thenReturn(loginUrl);
+		when(loginUrl.openConnection()).thenReturn(loginCon);
+		when(loginCon.getOutputStream()).then(invocation -> new ByteArrayOutputStream());
+		LoginResponse response = new LoginResponse();
+		response.setAccessToken(AUTH);
+		when(loginCon.getInputStream()).then(invocation -> new ByteArrayInputStream(SecretHitlerAi.getObjectWriter().writeValueAsString(response).getBytes(StandardCharsets.UTF_8)));
+		
+		SecretHitlerAi ai = SecretHitlerAi.builder()
+				.withPropertiesFileName(TEST_NON_SECURE_PROPERTIES_FILE_NAME)
+				.withGetUrlFunction(getUrlFunction)
+				.withGameSetupClientBuildFunction(gameSetupClientBuildFunction)
+				.withGameId("testGameId")
+				.withAiDifficulties(Arrays.asList(1, 2))
+				.withFirstRobot(7)
+				.build();
+		
+		assertEquals(Arrays.asList("Robot 7", "Robot 8"), ai.getUsernames());
+		assertEquals(GameState.WAITING_FOR_PLAYERS, ai.getState());
+		verify(gameSetupClientBuildFunction).apply(GameSetupWebsocketClientEndpoint.builder()
+				.withAi(ai)
+				.withGameId("testGameId")
+				.withAccessToken(AUTH)
+				.withGameplayLevel(2)
+				.withUsername("Robot 8")
+				.withHost(false));
+	}
+	
+	@Test
+	public void testSecretHitlerAi_LoginRejected() throws Exception {
+		when(getUrlFunction.apply("http://test.com/login")).thenReturn(loginUrl);
+		when(loginUrl.openConnection()).thenReturn(loginCon);
+		when(loginCon.getOutputStream()).then(invocation -> new ByteArrayOutputStream());
+		when(loginCon.getResponseCode()).thenReturn(401);
+		
+		try {
+			new SecretHitlerAi(TEST_NON_SECURE_PROPERTIES_FILE_NAME, getUrlFunction, gameSetupClientBuildFunction, "testGameId", Arrays.asList(1, 2));
+			fail("Expected an IOException to be thrown if a robot cannot log in");
+		} catch (HttpPostClient.RejectedRequestException e) {
+			assertEquals("Post to http://test.com/login failed with status 401: ", e.getMessage());
+		}
+		verify(gameSetupClientBuildFunction, never()).apply(any(GameSetupWebsocketClientEndpoint.Builder.class));
+	}
+	
+	@Test
+	public void testStopGame() throws Exception {
+		SecretHitlerAi ai = testSecretHitlerAi("testGameId", TEST_NON_SECURE_PROPERTIES_FILE_NAME, "http://test.com/login");
+		ai.registerEndpoint(endpoint);
+		ai.registerEndpoint(closedEndpoint);
+		ai.unregisterEndpoint(closedEndpoint);
+		ai.setState(GameState.GAME_OVER);
+		assertTrue(ai.isGameOver());
+		assertFalse(ai.isStopped());
+		
+		ai.stopGame();
+		ai.awaitStopped();
+		ai.setState(GameState.PLAYING);
+		
+		verify(endpoint).close();
+		verify(closedEndpoint, never()).close();
+		assertTrue(ai.isStopped());
+		assertFalse(ai.isGameOver());
+		assertEquals(GameState.STOPPED, ai.getState());
+	}
+	
+	@Test
+	public void testRunFleet() throws Exception {
+		when(getUrlFunction.apply("https://murder-night.uc.r.appspot.com/api/login")).thenReturn(loginUrl);
+		when(loginUrl.openConnection()).thenReturn(loginCon);
+		when(loginCon.getOutputStream()).then(invocation -> new ByteArrayOutputStream());
+		LoginResponse response = new LoginResponse();
+		response.setAccessToken(AUTH);
+		when(loginCon.getInputStream()).then(invocation -> new ByteArrayInputStream(SecretHitlerAi.getObjectWriter().writeValueAsString(response).getBytes(StandardCharsets.UTF_8)));
+		final String specFile = new File(getClass().getClassLoader().getResource("test-fleet.json").toURI()).getPath();
+		final String[] args = {SecretHitlerAi.FLEET_COMMAND, specFile};
+		
+		Fleet fleet = SecretHitlerAi.runFleet(args, getUrlFunction, gameSetupClientBuildFunction);
+		
+		assertEquals(3, fleet.getTables().size());
+		assertEquals(0, fleet.getFailedTables());
+		verify(gameSetupClientBuildFunction, times(5)).apply(any(GameSetupWebsocketClientEndpoint.Builder.class));
+		fleet.shutdown();
+		fleet.awaitStopped();
+	}
+	
+	@Test
+	public void testRunLoad() throws Exception {
+		when(getUrlFunction.apply("https://murder-night.uc.r.appspot.com/api/login")).thenReturn(loginUrl);
+		when(loginUrl.openConnection()).thenReturn(loginCon);
+		when(loginCon.getOutputStream()).then(invocation -> new ByteArrayOutputStream());
+		LoginResponse response = new LoginResponse();
+		response.setAccessToken(AUTH);
+		when(loginCon.getInputStream()).then(invocation -> new ByteArrayInputStream(SecretHitlerAi.getObjectWriter().writeValueAsString(response).getBytes(StandardCharsets.UTF_8)));
+		when(getUrlFunction.apply("https://murder-night.uc.r.appspot.com/game-setup/create")).thenReturn(createGameUrl);
+		when(createGameUrl.openConnection()).thenReturn(createGameCon);
+		when(createGameCon.getOutputStream()).then(invocation -> new ByteArrayOutputStream());
+		when(createGameCon.getInputStream()).then(invocation -> new ByteArrayInputStream("testGameId".getBytes(StandardCharsets.UTF_8)));
+		final String[] args = {SecretHitlerAi.LOAD_COMMAND, "2", "0", "0", "1", "3"};
+		
+		LoadReport report = SecretHitlerAi.runLoad(args, getUrlFunction, gameSetupClientBuildFunction);
+		
+		assertEquals(2, report.getTablesLaunched());
+		assertEquals(0, report.getTablesFailed());
+		verify(gameSetupClientBuildFunction, times(4)).apply(any(GameSetupWebsocketClientEndpoint.Builder.class));
+	}
+	
 	@Test
 	public void testGetScanner() {
 		
@@ -208,11 +341,57 @@ public class SecretHitlerAiTest {
 		assertNotNull(SecretHitlerAi.getObjectMapper());
 	}
 	
+	@Test
+	public void testGetGameplayActionWriter_Compact() throws Exception {
+		final String json = SecretHitlerAi.getGameplayActionWriter().writeValueAsString(new GameplayAction(Action.VOTE, new String[] {"JA"}));
+		
+		assertEquals("{\"action\":\"VOTE\",\"args\":[\"JA\"]}", json);
+	}
+	
+	@Test
+	public void testGetNotificationReader() throws Exception {
+		ParticipantGameNotification notification = SecretHitlerAi.getNotificationReader().readValue("{\"gameData\":{\"phase\":\"ELECTION\"},\"action\":{\"action\":\"VOTE\",\"args\":[]}}");
+		
+		assertEquals(GamePhase.ELECTION, notification.getGameData().getPhase());
+		assertEquals(Action.VOTE, notification.getAction().getAction());
+	}
+	
 	@Test
 	public void testGetGameplayProcessorFactory() {
 		assertEquals(SecretHitlerAi.GAMEPLAY_PROCESSOR_FACTORY, SecretHitlerAi.getGameplayProcessorFactory());
 	}
 	
+	@Test
+	public void testMain_Tournament() throws Exception {
+		final String[] args = {SecretHitlerAi.TOURNAMENT_COMMAND, "5", "1", "2", "3", "4", "1"};
+		
+		TournamentReport report = SecretHitlerAi.runTournament(args);
+		
+		assertEquals(5, report.getGamesPlayed() + report.getGamesFailed());
+	}
+	
+	@Test
+	public void testMain_Replay() throws Exception {
+		final String[] args = {SecretHitlerAi.REPLAY_COMMAND, "1", folder.getRoot().getPath()};
+		
+		ReplayReport report = SecretHitlerAi.runReplay(args);
+		
+		assertEquals(0, report.getGamesReplayed() + report.getGamesFailed());
+	}
+	
+	@Test
+	public void testLoadProperties_SystemOverride() throws Exception {
+		System.setProperty("secrethitler.url", "localhost:8080");
+		try {
+			Properties prop = SecretHitlerAi.loadProperties(TEST_NON_SECURE_PROPERTIES_FILE_NAME);
+			
+			assertEquals("localhost:8080", prop.getProperty("secrethitler.url"));
+			assertEquals("/login", prop.getProperty("secrethitler.login.url"));
+		} finally {
+			System.clearProperty("secrethitler.url");
+		}
+	}
+	
 	@Test
 	public void testBadUrl() {
 		try {
@@ -237,5 +416,6 @@ public class SecretHitlerAiTest {
 	@After
 	public void tearDown() {
 		Logger.getLogger(SecretHitlerAi.class.getName()).setLevel(Level.INFO);
+		Logger.getLogger("com.secrethitler.ai.processors").setLevel(Level.INFO);
 	}
 }
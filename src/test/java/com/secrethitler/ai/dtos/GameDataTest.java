@@ -1,10 +1,16 @@
 package com.secrethitler.ai.dtos;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
 
+import java.util.Arrays;
+
 import org.junit.Test;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 public class GameDataTest {
 	private static final GameData gameData = new GameData();
 
@@ -17,4 +23,48 @@ public class GameDataTest {
 	public void testToString() {
 		assertNotNull(gameData.toString());
 	}
+	
+	@Test
+	public void testSetPlayers_AssignsSeats() {
+		PlayerData me = getPlayer("Robot 2");
+		GameData data = new GameData();
+		data.setMyPlayer(me);
+		data.setPlayers(Arrays.asList(getPlayer("Robot 1"), getPlayer("Robot 2"), getPlayer("Robot 3")));
+		
+		assertEquals(2, data.getPlayers().get(2).getSeat());
+		assertEquals(1, me.getSeat());
+		assertEquals(1, data.getMySeat());
+		assertEquals(PlayerData.NO_SEAT, data.getSeat("Robot 4"));
+	}
+	
+	@Test
+	public void testGetSeat_Deserialized() throws Exception {
+		ObjectMapper mapper = new ObjectMapper();
+		
+		GameData data = mapper.readValue("{\"myPlayer\":{\"username\":\"Robot 3\"},\"players\":[{\"username\":\"Robot 1\"},{\"username\":\"Robot 3\"}]}", GameData.class);
+		
+		assertEquals(1, data.getMySeat());
+		assertEquals(1, data.getSeat(data.getPlayers().get(1)));
+		assertFalse(mapper.writeValueAsString(data).contains("seat"));
+	}
+	
+	@Test
+	public void testGetSeat_StaleCopy() {
+		GameData data = new GameData();
+		data.setPlayers(Arrays.asList(getPlayer("Robot 1"), getPlayer("Robot 2"), getPlayer("Robot 3")));
+		PlayerData stale = getPlayer("Robot 3");
+		stale.setSeat(0);
+		PlayerData nobody = getPlayer("Robot 4");
+		nobody.setSeat(1);
+		
+		assertEquals(2, data.getSeat(stale));
+		assertEquals(PlayerData.NO_SEAT, data.getSeat(nobody));
+		assertFalse(GameData.isSeated(data.getPlayers(), stale));
+	}
+	
+	private static PlayerData getPlayer(final String username) {
+		PlayerData player = new PlayerData();
+		player.setUsername(username);
+		return player;
+	}
 }
@@ -0,0 +1,36 @@
+package com.secrethitler.ai.dtos;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+
+import org.junit.Test;
+
+import com.secrethitler.ai.enums.PartyMembership;
+
+public class PlayerDataTest {
+	@Test
+	public void testEquals() {
+		PlayerData player = getPlayer("Robot 1");
+		PlayerData samePlayer = getPlayer("Robot 1");
+		samePlayer.setSeat(3);
+		
+		assertEquals(player, samePlayer);
+		assertEquals(player.hashCode(), samePlayer.hashCode());
+		samePlayer.setPartyMembership(PartyMembership.FASCIST);
+		assertNotEquals(player, samePlayer);
+		assertNotEquals(player, getPlayer("Robot 2"));
+	}
+	
+	@Test
+	public void testToString() {
+		assertNotNull(new PlayerData().toString());
+	}
+	
+	private static PlayerData getPlayer(final String username) {
+		PlayerData player = new PlayerData();
+		player.setUsername(username);
+		player.setAlive(true);
+		return player;
+	}
+}
@@ -0,0 +1,145 @@
+package com.secrethitler.ai.gamelog;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.collect.ImmutableList;
+import com.secrethitler.ai.SecretHitlerAi;
+import com.secrethitler.ai.dtos.GameplayAction;
+import com.secrethitler.ai.dtos.ParticipantGameNotification;
+import com.secrethitler.ai.enums.Action;
+import com.secrethitler.ai.enums.GamePhase;
+import com.secrethitler.ai.processors.SimpleGameplayProcessor;
+import com.secrethitler.ai.simulation.LocalGame;
+import com.secrethitler.ai.utils.RandomUtilImpl;
+
+public class GameLogReaderTest {
+	private static final String GAME_ID = "game-1";
+	private static final String ACTION = "{\"action\":\"VOTE\",\"args\":[\"JA\"]}";
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private static List<String> getUsernames(final int players) {
+		return IntStream.rangeClosed(1, players)
+				.mapToObj(index -> String.format("Robot %d", index))
+				.collect(Collectors.toList());
+	}
+
+	private Path writeLog(final String username, final boolean compress, final List<GameLogRecord> records) throws IOException {
+		try (GameLogWriter writer = new GameLogWriter(folder.getRoot().toPath(), GAME_ID, username, compress)) {
+			for (GameLogRecord record : records) {
+				writer.record(record.getType(), record.getTimestamp(), record.getJson());
+			}
+			return writer.getPath();
+		}
+	}
+
+	private static String getNotificationJson(final LocalGame game, final int seat) throws IOException {
+		return SecretHitlerAi.getObjectWriter().writeValueAsString(game.getNotification(seat));
+	}
+
+	@Test
+	public void testReadAll() throws IOException {
+		LocalGame game = new LocalGame(getUsernames(5), new Random(1));
+		List<GameLogRecord> records = ImmutableList.of(new GameLogRecord(GameLogRecord.Type.NOTIFICATION, 1, getNotificationJson(game, 0)),
+				new GameLogRecord(GameLogRecord.Type.ACTION, 2, ACTION));
+
+		for (boolean compress : new boolean[] {false, true}) {
+			try (GameLogReader reader = new GameLogReader(writeLog(compress ? "compressed" : "plain", compress, records))) {
+				assertEquals(records, reader.readAll());
+				assertEquals(Optional.empty(), reader.next());
+			}
+		}
+	}
+
+	@Test
+	public void testNext_TruncatedRecord() throws IOException {
+		Path path = writeLog("Robot 1", false, ImmutableList.of(new GameLogRecord(GameLogRecord.Type.ACTION, 1, ACTION),
+				new GameLogRecord(GameLogRecord.Type.ACTION, 2, ACTION)));
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+			channel.truncate(channel.size() - 1);
+		}
+
+		try (GameLogReader reader = new GameLogReader(path)) {
+			assertEquals(ImmutableList.of(new GameLogRecord(GameLogRecord.Type.ACTION, 1, ACTION)), reader.readAll());
+		}
+	}
+
+	@Test
+	public void testConstructor_NotAGameLog() throws IOException {
+		Path path = folder.newFile("game.shlog").toPath();
+		Files.write(path, "not a log".getBytes("UTF-8"));
+
+		try {
+			new GameLogReader(path).close();
+			fail("Expected an IOException to be thrown if the file is not a game log");
+		} catch (IOException e) {
+			assertEquals(String.format("%s is not a game log", path), e.getMessage());
+		}
+	}
+
+	@Test
+	public void testRecordTypes() throws IOException {
+		GameLogRecord action = new GameLogRecord(GameLogRecord.Type.ACTION, 1, ACTION);
+
+		assertEquals(new GameplayAction(Action.VOTE, new String[] {"JA"}), action.toAction());
+		try {
+			action.toNotification();
+			fail("Expected an IllegalStateException to be thrown if an action is read as a notification");
+		} catch (IllegalStateException e) {
+			assertEquals("A ACTION record is not a notification", e.getMessage());
+		}
+	}
+
+	@Test
+	public void testReplay() throws IOException {
+		LocalGame game = new LocalGame(getUsernames(5), new Random(1));
+		final int president = game.getPresident();
+		final String username = game.getUsernames().get(president);
+		ParticipantGameNotification notification = game.getNotification(president);
+		assertEquals(GamePhase.PICKING_RUNNING_MATE, notification.getGameData().getPhase());
+		Path path = writeLog(username, true, ImmutableList.of(new GameLogRecord(GameLogRecord.Type.NOTIFICATION, 1, getNotificationJson(game, president)),
+				new GameLogRecord(GameLogRecord.Type.ACTION, 2, ACTION)));
+
+		try (GameLogReader reader = new GameLogReader(path)) {
+			List<Optional<GameplayAction>> actions = reader.replay(new SimpleGameplayProcessor(username, new RandomUtilImpl()));
+
+			assertEquals(1, actions.size());
+			assertEquals(Action.CHOOSE_RUNNING_MATE, actions.get(0).get().getAction());
+		}
+	}
+
+	@Test
+	public void testReplay_SkipsRepeatedPhasesAndNextGame() throws IOException {
+		LocalGame game = new LocalGame(getUsernames(5), new Random(1));
+		final int president = game.getPresident();
+		final String username = game.getUsernames().get(president);
+		ParticipantGameNotification nextGame = game.getNotification(president);
+		nextGame.getGameData().setPhase(GamePhase.GAME_OVER);
+		nextGame.getGameData().setNextGameId("game-2");
+		Path path = writeLog(username, false, ImmutableList.of(new GameLogRecord(GameLogRecord.Type.NOTIFICATION, 1, getNotificationJson(game, president)),
+				new GameLogRecord(GameLogRecord.Type.NOTIFICATION, 2, getNotificationJson(game, president)),
+				new GameLogRecord(GameLogRecord.Type.ACTION, 3, ACTION),
+				new GameLogRecord(GameLogRecord.Type.NOTIFICATION, 4, SecretHitlerAi.getObjectWriter().writeValueAsString(nextGame))));
+
+		try (GameLogReader reader = new GameLogReader(path)) {
+			assertEquals(1, reader.replay(new SimpleGameplayProcessor(username, new RandomUtilImpl())).size());
+		}
+	}
+}
@@ -0,0 +1,85 @@
+package com.secrethitler.ai.gamelog;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class GameLogWriterTest {
+	private static final String GAME_ID = "game-1";
+	private static final String USERNAME = "Robot 1";
+	private static final String MESSAGE = "{\"action\":\"VOTE\",\"args\":[\"JA\"]}";
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private Path directory;
+
+	@Before
+	public void setUp() {
+		directory = folder.getRoot().toPath().resolve("logs");
+	}
+
+	@Test
+	public void testGetPath() {
+		assertEquals(directory.resolve("game_1-Robot_1.shlog"), GameLogWriter.getPath(directory, "game/1", USERNAME));
+	}
+
+	@Test
+	public void testRecord() throws IOException {
+		try (GameLogWriter writer = new GameLogWriter(directory, GAME_ID, USERNAME, false)) {
+			writer.record(GameLogRecord.Type.ACTION, 42, MESSAGE);
+		}
+
+		try (DataInputStream in = new DataInputStream(Files.newInputStream(GameLogWriter.getPath(directory, GAME_ID, USERNAME)))) {
+			assertEquals(GameLogWriter.MAGIC, in.readInt());
+			assertEquals(GameLogWriter.VERSION, in.readByte());
+			assertEquals(GameLogRecord.Type.ACTION.ordinal(), in.readByte());
+			assertEquals(42, in.readLong());
+			assertEquals(MESSAGE.length(), in.readInt());
+			byte[] payload = new byte[MESSAGE.length()];
+			in.readFully(payload);
+			assertEquals(MESSAGE, new String(payload, "UTF-8"));
+			assertEquals(-1, in.read());
+		}
+	}
+
+	@Test
+	public void testRecord_Compressed() throws IOException {
+		try (GameLogWriter writer = new GameLogWriter(directory, GAME_ID, USERNAME, true)) {
+			writer.record(GameLogRecord.Type.NOTIFICATION, 42, MESSAGE);
+		}
+
+		try (DataInputStream in = new DataInputStream(Files.newInputStream(GameLogWriter.getPath(directory, GAME_ID, USERNAME)))) {
+			in.skipBytes(Integer.BYTES + Byte.BYTES);
+			assertEquals(GameLogRecord.Type.NOTIFICATION.ordinal() | GameLogWriter.COMPRESSED, in.readUnsignedByte());
+		}
+	}
+
+	@Test
+	public void testReopen_AppendsWithoutHeader() throws IOException {
+		try (GameLogWriter writer = new GameLogWriter(directory, GAME_ID, USERNAME, false)) {
+			writer.recordNotification(MESSAGE);
+		}
+		final long size = Files.size(GameLogWriter.getPath(directory, GAME_ID, USERNAME));
+
+		try (GameLogWriter writer = new GameLogWriter(directory, GAME_ID, USERNAME, false)) {
+			writer.recordAction(MESSAGE);
+		}
+
+		final long recordSize = size - Integer.BYTES - Byte.BYTES;
+		assertEquals(size + recordSize, Files.size(GameLogWriter.getPath(directory, GAME_ID, USERNAME)));
+		try (GameLogReader reader = new GameLogReader(GameLogWriter.getPath(directory, GAME_ID, USERNAME))) {
+			assertEquals(2, reader.readAll().size());
+		}
+		assertTrue(Files.isDirectory(directory));
+	}
+}
@@ -0,0 +1,151 @@
+package com.secrethitler.ai.gamelog;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.secrethitler.ai.SecretHitlerAi;
+import com.secrethitler.ai.dtos.GameplayAction;
+import com.secrethitler.ai.dtos.ParticipantGameNotification;
+import com.secrethitler.ai.enums.GamePhase;
+import com.secrethitler.ai.processors.GameplayProcessor;
+import com.secrethitler.ai.processors.SimpleGameplayProcessor;
+import com.secrethitler.ai.simulation.LocalGameEngine;
+import com.secrethitler.ai.utils.RandomUtilImpl;
+
+public class ReplayRunnerTest {
+	private static final String PROCESSORS_PACKAGE = "com.secrethitler.ai.processors";
+	private static final int PLAYERS = 7;
+	private static final long SEED = 11;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private Path directory;
+
+	/**
+	 * Records what a processor hears and answers, like the gameplay endpoint does.
+	 */
+	private static class RecordingGameplayProcessor implements GameplayProcessor {
+		private final GameplayProcessor processor;
+		private final GameLogWriter writer;
+
+		private RecordingGameplayProcessor(final GameplayProcessor processor, final GameLogWriter writer) {
+			this.processor = processor;
+			this.writer = writer;
+		}
+
+		@Override
+		public Optional<GameplayAction> getActionToTake(final ParticipantGameNotification notification) {
+			try {
+				writer.recordNotification(SecretHitlerAi.getObjectWriter().writeValueAsString(notification));
+				Optional<GameplayAction> action = processor.getActionToTake(notification);
+				if (action.isPresent()) {
+					writer.recordAction(SecretHitlerAi.getGameplayActionWriter().writeValueAsString(action.get()));
+				}
+				return action;
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+
+	@Before
+	public void setUp() throws IOException {
+		Logger.getLogger(PROCESSORS_PACKAGE).setLevel(Level.WARNING);
+		Logger.getLogger(ReplayRunner.class.getName()).setLevel(Level.SEVERE);
+		directory = folder.newFolder("logs").toPath();
+		for (int game = 0; game < 4; game++) {
+			recordGame(String.format("game-%d", game), game);
+		}
+	}
+
+	private void recordGame(final String gameId, final long gameSeed) throws IOException {
+		final String recordedUsername = "Robot 1";
+		final Path path = GameLogWriter.getPath(directory, gameId, recordedUsername);
+		try (GameLogWriter writer = new GameLogWriter(directory, gameId, recordedUsername, true)) {
+			LocalGameEngine.Builder builder = LocalGameEngine.builder()
+					.withRandom(new Random(gameSeed))
+					.withPlayer(recordedUsername, new RecordingGameplayProcessor(new SimpleGameplayProcessor(recordedUsername,
+							new RandomUtilImpl(SEED ^ path.getFileName().toString().hashCode())), writer));
+			for (int seat = 2; seat <= PLAYERS; seat++) {
+				final String username = String.format("Robot %d", seat);
+				builder.withPlayer(username, new SimpleGameplayProcessor(username, new RandomUtilImpl(gameSeed * PLAYERS + seat)));
+			}
+			builder.build().play();
+		}
+	}
+
+	private ReplayReport replay(final int level) throws IOException, InterruptedException {
+		return ReplayRunner.builder()
+				.withLogs(ReplayRunner.findLogs(directory))
+				.withLevel(level)
+				.withSeed(SEED)
+				.withParallelism(2)
+				.build()
+				.run();
+	}
+
+	@Test
+	public void testRun_SameLevel() throws IOException, InterruptedException {
+		ReplayReport report = replay(1);
+
+		assertEquals(4, report.getGamesReplayed());
+		assertEquals(0, report.getGamesFailed());
+		assertEquals(0, report.getGamesDiverged());
+		assertTrue(report.getMoves() > 4);
+	}
+
+	@Test
+	public void testRun_DifferentLevel() throws IOException, InterruptedException {
+		ReplayReport report = replay(3);
+
+		assertEquals(4, report.getGamesReplayed());
+		assertTrue(report.getGamesDiverged() > 0);
+		int divergences = 0;
+		for (GamePhase phase : GamePhase.values()) {
+			divergences += report.getDivergences(phase);
+		}
+		assertEquals(report.getGamesDiverged(), divergences);
+		ReplayDivergence divergence = report.getDivergences().get(0);
+		assertTrue(report.toString().contains(divergence.toString()));
+		assertTrue(divergence.getMove() < report.getMoves());
+	}
+
+	@Test
+	public void testRun_CorruptLog() throws IOException, InterruptedException {
+		Files.write(directory.resolve("corrupt.shlog"), new byte[] {1, 2, 3, 4, 5});
+
+		ReplayReport report = replay(1);
+
+		assertEquals(4, report.getGamesReplayed());
+		assertEquals(1, report.getGamesFailed());
+	}
+
+	@Test
+	public void testFindLogs() throws IOException {
+		Path log = GameLogWriter.getPath(directory, "game-0", "Robot 1");
+		Files.write(directory.resolve("notes.txt"), new byte[0]);
+
+		List<Path> logs = ReplayRunner.findLogs(directory);
+
+		assertEquals(4, logs.size());
+		assertEquals(log, logs.get(0));
+		assertEquals(Collections.singletonList(log), ReplayRunner.findLogs(log));
+	}
+}
@@ -0,0 +1,74 @@
+package com.secrethitler.ai.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.Test;
+
+import com.secrethitler.ai.enums.GamePhase;
+import com.secrethitler.ai.enums.PartyMembership;
+import com.secrethitler.ai.enums.SecretRole;
+
+public class BotMetricsTest {
+	private BotMetrics metrics = new BotMetrics();
+
+	@Test
+	public void testRecordDecision() {
+		metrics.recordDecision(3, GamePhase.ELECTION, 2000000);
+		metrics.recordDecision(3, GamePhase.ELECTION, 4000000);
+		metrics.recordDecision(1, GamePhase.ELECTION, 1000000);
+		metrics.recordParse(500000);
+
+		assertEquals(3, metrics.getLatencies().size());
+		assertEquals(Long.valueOf(2), metrics.getLatencyCounts().get("decision level=3 phase=ELECTION"));
+		assertEquals(3, metrics.getLatencyMeanMillis().get("decision level=3 phase=ELECTION"), 0);
+		assertEquals(4, metrics.getLatencyMaxMillis().get("decision level=3 phase=ELECTION"), 0);
+		assertEquals(0.5, metrics.getLatencyP50Millis().get("parse"), 0.1);
+		assertEquals(1, metrics.getLatencyP99Millis().get("decision level=1 phase=ELECTION"), 0.2);
+	}
+
+	@Test
+	public void testMessages() {
+		metrics.messageReceived();
+		metrics.messageReceived();
+		metrics.messageIgnored();
+		metrics.messageActed();
+
+		assertEquals(2, metrics.getMessagesReceived());
+		assertEquals(1, metrics.getMessagesIgnored());
+		assertEquals(1, metrics.getMessagesActed());
+		metrics.reset();
+		assertEquals(0, metrics.getMessagesReceived());
+	}
+
+	@Test
+	public void testRecordOutcome() {
+		metrics.recordOutcome(SecretRole.LIBERAL, PartyMembership.LIBERAL);
+		metrics.recordOutcome(SecretRole.HITLER, PartyMembership.LIBERAL);
+		metrics.recordOutcome(SecretRole.FASCIST, PartyMembership.FASCIST);
+		metrics.recordOutcome(SecretRole.UNKNOWN, PartyMembership.FASCIST);
+		metrics.recordOutcome(SecretRole.LIBERAL, null);
+
+		assertEquals(1, metrics.getWins(SecretRole.LIBERAL));
+		assertEquals(1, metrics.getWins(SecretRole.FASCIST));
+		assertEquals(1, metrics.getLosses(SecretRole.HITLER));
+		assertEquals(Long.valueOf(0), metrics.getLosses().get(SecretRole.LIBERAL.name()));
+		assertEquals(3, metrics.getWins().size());
+	}
+
+	@Test
+	public void testRegisterMXBean() throws Exception {
+		BotMetrics.registerMXBean();
+		BotMetrics.registerMXBean();
+
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		ObjectName name = new ObjectName(BotMetrics.OBJECT_NAME);
+		assertTrue(server.isRegistered(name));
+		assertTrue(server.getAttribute(name, "MessagesReceived") instanceof Long);
+	}
+}
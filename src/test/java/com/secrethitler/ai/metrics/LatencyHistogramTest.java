@@ -0,0 +1,48 @@
+package com.secrethitler.ai.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+	@Test
+	public void testGetBucket() {
+		for (long value = 0; value < 100000; value += 7) {
+			final int bucket = LatencyHistogram.getBucket(value);
+			assertTrue(value <= LatencyHistogram.getBucketLimit(bucket));
+			assertTrue(bucket == 0 || value > LatencyHistogram.getBucketLimit(bucket - 1));
+		}
+		assertTrue(LatencyHistogram.getBucket(Long.MAX_VALUE) >= 0);
+	}
+
+	@Test
+	public void testGetValueAtPercentile() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (long value = 1; value <= 1000; value++) {
+			histogram.record(value * 1000);
+		}
+
+		assertEquals(1000, histogram.getCount());
+		assertEquals(500500000, histogram.getSum());
+		assertEquals(1000000, histogram.getMax());
+		assertEquals(500000, histogram.getValueAtPercentile(50), 500000 / LatencyHistogram.SUB_BUCKETS);
+		assertEquals(990000, histogram.getValueAtPercentile(99), 990000 / LatencyHistogram.SUB_BUCKETS);
+		assertEquals(1000000, histogram.getValueAtPercentile(100));
+	}
+
+	@Test
+	public void testGetValueAtPercentile_Empty() {
+		assertEquals(0, new LatencyHistogram().getValueAtPercentile(99));
+	}
+
+	@Test
+	public void testRecord_Negative() {
+		LatencyHistogram histogram = new LatencyHistogram();
+
+		histogram.record(-5);
+
+		assertEquals(1, histogram.getCount());
+		assertEquals(0, histogram.getValueAtPercentile(50));
+	}
+}
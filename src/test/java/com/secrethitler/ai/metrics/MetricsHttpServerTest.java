@@ -0,0 +1,65 @@
+package com.secrethitler.ai.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.google.common.io.ByteStreams;
+import com.secrethitler.ai.enums.GamePhase;
+import com.secrethitler.ai.enums.PartyMembership;
+import com.secrethitler.ai.enums.SecretRole;
+import com.sun.net.httpserver.HttpServer;
+
+public class MetricsHttpServerTest {
+	private HttpServer server;
+
+	@After
+	public void tearDown() {
+		if (server != null) {
+			server.stop(0);
+		}
+		MetricsHttpServer.stop();
+	}
+
+	@Test
+	public void testFormat() {
+		BotMetrics metrics = new BotMetrics();
+		metrics.messageReceived();
+		metrics.recordDecision(3, GamePhase.ELECTION, 2000000);
+		metrics.recordSend(1000);
+		metrics.recordOutcome(SecretRole.HITLER, PartyMembership.FASCIST);
+		metrics.messageQueued();
+		metrics.sendRetried();
+
+		final String text = MetricsHttpServer.format(metrics);
+
+		assertTrue(text.contains("# TYPE secrethitler_messages_received_total counter\nsecrethitler_messages_received_total 1\n"));
+		assertTrue(text.contains("secrethitler_decision_seconds{level=\"3\",phase=\"ELECTION\",quantile=\"0.99\"} 0.002"));
+		assertTrue(text.contains("secrethitler_decision_seconds_count{level=\"3\",phase=\"ELECTION\"} 1\n"));
+		assertTrue(text.contains("secrethitler_send_seconds_count 1\n"));
+		assertTrue(text.contains("secrethitler_outbound_queue_depth 1\n"));
+		assertTrue(text.contains("secrethitler_send_retries_total 1\n"));
+		assertTrue(text.contains("secrethitler_games_total{role=\"HITLER\",outcome=\"win\"} 1\n"));
+	}
+
+	@Test
+	public void testStart() throws IOException {
+		server = MetricsHttpServer.start(0);
+		HttpURLConnection connection = (HttpURLConnection) new URL(String.format("http://localhost:%d%s",
+				server.getAddress().getPort(), MetricsHttpServer.PATH)).openConnection();
+
+		assertEquals(200, connection.getResponseCode());
+		assertEquals(MetricsHttpServer.CONTENT_TYPE, connection.getContentType());
+		try (InputStream in = connection.getInputStream()) {
+			assertTrue(new String(ByteStreams.toByteArray(in), StandardCharsets.UTF_8).contains("secrethitler_open_sessions "));
+		}
+	}
+}
@@ -0,0 +1,235 @@
+package com.secrethitler.ai.mockserver;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+import org.glassfish.grizzly.websockets.WebSocket;
+import org.glassfish.grizzly.websockets.WebSocketException;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.secrethitler.ai.SecretHitlerAi;
+import com.secrethitler.ai.dtos.GameParticipant;
+import com.secrethitler.ai.dtos.GameRequest;
+import com.secrethitler.ai.dtos.GameplayAction;
+import com.secrethitler.ai.dtos.ParticipantGameNotification;
+import com.secrethitler.ai.enums.ParticipantRole;
+import com.secrethitler.ai.simulation.LocalGame;
+
+/**
+ * One game of a {@link MockGameServer}: the participants gathering on the game setup websocket
+ * and, once the host starts it, a {@link LocalGame} played over the play game websockets. Every
+ * change is pushed to every connected participant, as the real server does. All methods are
+ * synchronized, so the websocket threads of the participants take turns.
+ */
+public class MockGame {
+	private static final Logger LOGGER = Logger.getLogger(MockGame.class.getName());
+	protected static final String JOIN = "JOIN";
+	protected static final String START = "START";
+
+	private final String id;
+	private final Random random;
+	private final List<GameParticipant> participants = new ArrayList<>();
+	private final Map<String, WebSocket> setupConnections = new LinkedHashMap<>();
+	private final Map<String, WebSocket> playConnections = new LinkedHashMap<>();
+	private LocalGame game = null;
+	private String nextGameId = null;
+
+	/**
+	 * Creates a game waiting for players, hosted by its creator.
+	 */
+	public MockGame(final String id, final String host, final Random random) {
+		this.id = id;
+		this.random = random;
+		participants.add(participant(host, ParticipantRole.HOST));
+	}
+
+	/**
+	 * Creates a game already started with the players of a previous one, host first.
+	 */
+	public MockGame(final String id, final List<String> usernames, final Random random) {
+		this(id, usernames.get(0), random);
+		usernames.stream()
+				.skip(1)
+				.forEach(username -> participants.add(participant(username, ParticipantRole.PLAYING)));
+		game = new LocalGame(usernames, random);
+	}
+
+	private static GameParticipant participant(final String username, final ParticipantRole role) {
+		GameParticipant participant = new GameParticipant();
+		participant.setUsername(username);
+		participant.setRole(role);
+		return participant;
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	public synchronized boolean isStarted() {
+		return game != null;
+	}
+
+	public synchronized boolean isOver() {
+		return game != null && game.isOver();
+	}
+
+	public synchronized List<String> getUsernames() {
+		return participants.stream()
+				.map(GameParticipant::getUsername)
+				.collect(Collectors.toList());
+	}
+
+	public synchronized GameRequest getGameRequest() {
+		GameRequest gameRequest = new GameRequest();
+		gameRequest.setId(id);
+		gameRequest.setParticipants(new ArrayList<>(participants));
+		gameRequest.setReadyToStart(game == null && participants.size() >= LocalGame.MIN_PLAYERS);
+		gameRequest.setAvailableForMorePlayers(game == null && participants.size() < LocalGame.MAX_PLAYERS);
+		gameRequest.setStarted(game != null);
+		return gameRequest;
+	}
+
+	public synchronized void connectSetup(final String username, final WebSocket connection) {
+		setupConnections.put(username, connection);
+		setConnected(username, true);
+		broadcastSetup();
+	}
+
+	public synchronized void disconnectSetup(final String username, final WebSocket connection) {
+		if (setupConnections.remove(username, connection)) {
+			setConnected(username, false);
+			broadcastSetup();
+		}
+	}
+
+	private void setConnected(final String username, final boolean connected) {
+		participants.stream()
+				.filter(participant -> participant.getUsername().equals(username))
+				.forEach(participant -> participant.setConnected(connected));
+	}
+
+	/**
+	 * Seats a robot that asks to join, or starts the game when its host asks to and enough
+	 * players have joined. Anything else is ignored.
+	 */
+	public synchronized void handleSetupMessage(final String username, final String message) {
+		if (JOIN.equals(message) && game == null && !getUsernames().contains(username) && participants.size() < LocalGame.MAX_PLAYERS) {
+			GameParticipant participant = participant(username, ParticipantRole.PLAYING);
+			participant.setConnected(setupConnections.containsKey(username));
+			participants.add(participant);
+		} else if (START.equals(message) && getUsernames().indexOf(username) == 0 && getGameRequest().isReadyToStart()) {
+			game = new LocalGame(getUsernames(), random);
+			LOGGER.info(() -> String.format("Game %s started with %s", id, getUsernames()));
+		} else {
+			LOGGER.fine(() -> String.format("Ignored %s from %s in game %s", message, username, id));
+			return;
+		}
+		broadcastSetup();
+	}
+
+	private void broadcastSetup() {
+		final String message;
+		try {
+			message = SecretHitlerAi.getObjectWriter().writeValueAsString(getGameRequest());
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException(e);
+		}
+		broadcast(setupConnections, username -> message);
+	}
+
+	/**
+	 * Registers a player's play game websocket and sends them where the game is at.
+	 *
+	 * @throws IllegalStateException if the game has not started or the user is not one of its players
+	 */
+	public synchronized void connectPlay(final String username, final WebSocket connection) {
+		if (game == null || !game.getUsernames().contains(username)) {
+			throw new IllegalStateException(String.format("%s is not playing game %s", username, id));
+		}
+		if (send(username, connection, getNotification(username))) {
+			playConnections.put(username, connection);
+		}
+	}
+
+	public synchronized void disconnectPlay(final String username, final WebSocket connection) {
+		playConnections.remove(username, connection);
+	}
+
+	/**
+	 * Applies a player's move and tells every player about the new state of the game. An illegal
+	 * move is logged and ignored, leaving the player to try again.
+	 *
+	 * @return whether the move ended the game
+	 */
+	public synchronized boolean play(final String username, final GameplayAction action) {
+		try {
+			game.apply(game.getUsernames().indexOf(username), action);
+		} catch (IllegalStateException | IllegalArgumentException e) {
+			LOGGER.log(Level.FINE, String.format("Ignored an illegal move of %s in game %s", username, id), e);
+			return false;
+		}
+		broadcastPlay();
+		return game.isOver();
+	}
+
+	/**
+	 * Moves every player on to a new game, when the host asks for one after this one is over.
+	 *
+	 * @param nextGame creates the next game, with the players of this one
+	 * @return whether the next game was created
+	 */
+	public synchronized boolean chainNextGame(final String username, final Supplier<MockGame> nextGame) {
+		if (!game.isOver() || nextGameId != null || game.getUsernames().indexOf(username) != 0) {
+			LOGGER.fine(() -> String.format("Ignored a new game request of %s in game %s", username, id));
+			return false;
+		}
+		nextGameId = nextGame.get().getId();
+		LOGGER.info(() -> String.format("Game %s is followed by game %s", id, nextGameId));
+		broadcastPlay();
+		return true;
+	}
+
+	private void broadcastPlay() {
+		broadcast(playConnections, this::getNotification);
+	}
+
+	private String getNotification(final String username) {
+		ParticipantGameNotification notification = game.getNotification(game.getUsernames().indexOf(username));
+		notification.getGameData().setNextGameId(nextGameId);
+		try {
+			return SecretHitlerAi.getObjectWriter().writeValueAsString(notification);
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private void broadcast(final Map<String, WebSocket> connections, final Function<String, String> message) {
+		Iterator<Map.Entry<String, WebSocket>> entries = connections.entrySet().iterator();
+		while (entries.hasNext()) {
+			Map.Entry<String, WebSocket> entry = entries.next();
+			if (!send(entry.getKey(), entry.getValue(), message.apply(entry.getKey()))) {
+				entries.remove();
+			}
+		}
+	}
+
+	private boolean send(final String username, final WebSocket connection, final String message) {
+		try {
+			connection.send(message);
+			return true;
+		} catch (WebSocketException e) {
+			LOGGER.log(Level.FINE, String.format("Dropped the connection of %s to game %s", username, id), e);
+			connection.close();
+			return false;
+		}
+	}
+}
@@ -0,0 +1,353 @@
+package com.secrethitler.ai.mockserver;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.glassfish.grizzly.http.HttpRequestPacket;
+import org.glassfish.grizzly.http.Method;
+import org.glassfish.grizzly.http.server.HttpHandler;
+import org.glassfish.grizzly.http.server.HttpServer;
+import org.glassfish.grizzly.http.server.NetworkListener;
+import org.glassfish.grizzly.http.server.Request;
+import org.glassfish.grizzly.http.server.Response;
+import org.glassfish.grizzly.websockets.DataFrame;
+import org.glassfish.grizzly.websockets.ProtocolHandler;
+import org.glassfish.grizzly.websockets.SimpleWebSocket;
+import org.glassfish.grizzly.websockets.WebSocket;
+import org.glassfish.grizzly.websockets.WebSocketAddOn;
+import org.glassfish.grizzly.websockets.WebSocketApplication;
+import org.glassfish.grizzly.websockets.WebSocketEngine;
+import org.glassfish.grizzly.websockets.WebSocketListener;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.google.common.io.ByteStreams;
+import com.secrethitler.ai.SecretHitlerAi;
+import com.secrethitler.ai.dtos.GameplayAction;
+import com.secrethitler.ai.dtos.LoginResponse;
+import com.secrethitler.ai.enums.Action;
+
+/**
+ * A stand-in for the Secret Hitler server, so robots can be tested and measured offline. It
+ * logs in anyone, creates games, and serves the game setup and play game websockets on one
+ * local port, with the games played by {@link LocalGame} rules. The paths are read from the
+ * same properties the robots use, so pointing {@code secrethitler.url} at
+ * {@link #getBaseUrlString()} with {@code secrethitler.secureurl=false} is all it takes.
+ * HTTP and websockets are served by Grizzly, the server the robots' websocket client is
+ * built on.
+ */
+public class MockGameServer implements Closeable {
+	private static final Logger LOGGER = Logger.getLogger(MockGameServer.class.getName());
+	private static final String BEARER_PREFIX = "Bearer ";
+	private static final String LISTENER_NAME = "mock-server";
+	protected static final String DEFAULT_LOGIN_PATH = "/api/login";
+	protected static final String DEFAULT_CREATE_GAME_PATH = "/game-setup/create";
+	protected static final String DEFAULT_GAME_SETUP_PATH = "/ws/game-setup";
+	protected static final String DEFAULT_GAMEPLAY_PATH = "/ws/play-game";
+
+	public static class Builder {
+		private int port = 0;
+		private Properties prop = new Properties();
+		private Random random = new Random();
+
+		protected Builder() {
+			super();
+		}
+
+		/**
+		 * @param port the local port to listen on, or 0 for any free one
+		 */
+		public Builder withPort(final int port) {
+			this.port = port;
+			return this;
+		}
+
+		public Builder withProperties(final Properties prop) {
+			this.prop = prop;
+			return this;
+		}
+
+		public Builder withSeed(final long seed) {
+			this.random = new Random(seed);
+			return this;
+		}
+
+		public MockGameServer build() {
+			return new MockGameServer(this);
+		}
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * A websocket tied to the user and game named by the query of its upgrade request, either
+	 * of which is null if they are unknown.
+	 */
+	private static class ParticipantWebSocket extends SimpleWebSocket {
+		private final String username;
+		private final MockGame game;
+		private final boolean setup;
+
+		private ParticipantWebSocket(final ProtocolHandler protocolHandler, final String username, final MockGame game, final boolean setup,
+				final WebSocketListener... listeners) {
+			super(protocolHandler, listeners);
+			this.username = username;
+			this.game = game;
+			this.setup = setup;
+		}
+	}
+
+	/**
+	 * Serves the game setup and play game websockets of this server. The engine is shared by
+	 * every server in the JVM, so requests are told apart by the port they came in on.
+	 */
+	private class GameWebSocketApplication extends WebSocketApplication {
+		@Override
+		@SuppressWarnings("deprecation")
+		public boolean isApplicationRequest(final HttpRequestPacket request) {
+			return request.getLocalPort() == getPort()
+					&& (gameSetupPath.equals(request.getRequestURI()) || gameplayPath.equals(request.getRequestURI()));
+		}
+
+		@Override
+		public WebSocket createSocket(final ProtocolHandler handler, final HttpRequestPacket request, final WebSocketListener... listeners) {
+			final Map<String, String> query = getQuery(request.getQueryString());
+			return new ParticipantWebSocket(handler, getUsername(getToken(query.get("auth"))), games.get(String.valueOf(query.get("gameId"))),
+					gameSetupPath.equals(request.getRequestURI()), listeners);
+		}
+
+		@Override
+		public void onConnect(final WebSocket socket) {
+			super.onConnect(socket);
+			final ParticipantWebSocket participant = (ParticipantWebSocket) socket;
+			if (participant.username == null || participant.game == null) {
+				LOGGER.fine("Refused a websocket for an unknown access token or game");
+				socket.close();
+			} else if (participant.setup) {
+				participant.game.connectSetup(participant.username, socket);
+			} else {
+				try {
+					participant.game.connectPlay(participant.username, socket);
+				} catch (IllegalStateException e) {
+					LOGGER.log(Level.FINE, "Refused a play game websocket", e);
+					socket.close();
+				}
+			}
+		}
+
+		@Override
+		public void onMessage(final WebSocket socket, final String message) {
+			final ParticipantWebSocket participant = (ParticipantWebSocket) socket;
+			if (participant.setup) {
+				participant.game.handleSetupMessage(participant.username, message);
+				return;
+			}
+			try {
+				play(participant.game, participant.username, SecretHitlerAi.getObjectMapper().readValue(message, GameplayAction.class));
+			} catch (IOException e) {
+				LOGGER.log(Level.WARNING, String.format("Unable to read a move of %s", participant.username), e);
+			}
+		}
+
+		@Override
+		public void onClose(final WebSocket socket, final DataFrame frame) {
+			super.onClose(socket, frame);
+			final ParticipantWebSocket participant = (ParticipantWebSocket) socket;
+			if (participant.username == null || participant.game == null) {
+				return;
+			}
+			if (participant.setup) {
+				participant.game.disconnectSetup(participant.username, socket);
+			} else {
+				participant.game.disconnectPlay(participant.username, socket);
+			}
+		}
+	}
+
+	/**
+	 * Serves logging in and creating games.
+	 */
+	private class LoginHttpHandler extends HttpHandler {
+		@Override
+		public void service(final Request request, final Response response) throws IOException {
+			final String path = request.getRequestURI();
+			if (Method.POST.equals(request.getMethod()) && loginPath.equals(path)) {
+				respond(response, 200, login(new String(ByteStreams.toByteArray(request.getInputStream()), StandardCharsets.UTF_8)));
+			} else if (Method.POST.equals(request.getMethod()) && createGamePath.equals(path)) {
+				final String username = getUsername(getToken(request.getHeader("Authorization")));
+				respond(response, username == null ? 401 : 200, username == null ? "Unknown access token" : createGame(username).getId());
+			} else {
+				respond(response, 404, String.format("Nothing at %s %s", request.getMethod(), path));
+			}
+		}
+	}
+
+	private final int port;
+	private final Random random;
+	private final String loginPath;
+	private final String createGamePath;
+	private final String gameSetupPath;
+	private final String gameplayPath;
+	private final Map<String, String> tokenToUsernameMap = new ConcurrentHashMap<>();
+	private final Map<String, MockGame> games = new ConcurrentHashMap<>();
+	private final AtomicInteger gameIds = new AtomicInteger();
+	private final LongAdder movesPlayed = new LongAdder();
+	private final LongAdder gamesFinished = new LongAdder();
+	private final HttpServer httpServer = new HttpServer();
+	private final GameWebSocketApplication webSocketApplication = new GameWebSocketApplication();
+	private NetworkListener listener;
+
+	private MockGameServer(final Builder builder) {
+		this.port = builder.port;
+		this.random = builder.random;
+		this.loginPath = builder.prop.getProperty("secrethitler.login.url", DEFAULT_LOGIN_PATH);
+		this.createGamePath = builder.prop.getProperty("secrethitler.creategame.url", DEFAULT_CREATE_GAME_PATH);
+		this.gameSetupPath = builder.prop.getProperty("secrethitler.gamesetup.url", DEFAULT_GAME_SETUP_PATH);
+		this.gameplayPath = builder.prop.getProperty("secrethitler.gameplay.url", DEFAULT_GAMEPLAY_PATH);
+	}
+
+	/**
+	 * Starts listening on the loopback address and returns at once.
+	 */
+	@SuppressWarnings("deprecation")
+	public MockGameServer start() throws IOException {
+		listener = new NetworkListener(LISTENER_NAME, InetAddress.getLoopbackAddress().getHostAddress(), port);
+		listener.registerAddOn(new WebSocketAddOn());
+		httpServer.addListener(listener);
+		httpServer.getServerConfiguration().addHttpHandler(new LoginHttpHandler(), "/");
+		// Registered without a path, so the application is asked about every upgrade and can
+		// leave those of other servers in the JVM on the same paths to them.
+		WebSocketEngine.getEngine().register(webSocketApplication);
+		httpServer.start();
+		LOGGER.info(() -> String.format("Mock game server listening at %s", getBaseUrlString()));
+		return this;
+	}
+
+	public int getPort() {
+		return listener.getPort();
+	}
+
+	/**
+	 * @return the host and port to use as {@code secrethitler.url}
+	 */
+	public String getBaseUrlString() {
+		return String.format("localhost:%d", getPort());
+	}
+
+	public long getMovesPlayed() {
+		return movesPlayed.sum();
+	}
+
+	public long getGamesFinished() {
+		return gamesFinished.sum();
+	}
+
+	public Optional<MockGame> getGame(final String gameId) {
+		return Optional.ofNullable(games.get(gameId));
+	}
+
+	private static String getToken(final String authorization) {
+		return authorization != null && authorization.startsWith(BEARER_PREFIX) ? authorization.substring(BEARER_PREFIX.length()) : authorization;
+	}
+
+	private String getUsername(final String token) {
+		return token == null ? null : tokenToUsernameMap.get(token);
+	}
+
+	private String login(final String body) throws JsonProcessingException {
+		final String username = SecretHitlerAi.getObjectMapper().readTree(body).path("username").asText();
+		final String token = UUID.randomUUID().toString();
+		tokenToUsernameMap.put(token, username);
+		LoginResponse response = new LoginResponse();
+		response.setAccessToken(token);
+		return SecretHitlerAi.getObjectWriter().writeValueAsString(response);
+	}
+
+	private MockGame createGame(final String host) {
+		MockGame game = new MockGame(nextGameId(), host, nextRandom());
+		games.put(game.getId(), game);
+		LOGGER.fine(() -> String.format("%s created game %s", host, game.getId()));
+		return game;
+	}
+
+	private MockGame createStartedGame(final MockGame previousGame) {
+		MockGame game = new MockGame(nextGameId(), previousGame.getUsernames(), nextRandom());
+		games.put(game.getId(), game);
+		return game;
+	}
+
+	private String nextGameId() {
+		return String.format("mock-%d", gameIds.incrementAndGet());
+	}
+
+	private Random nextRandom() {
+		synchronized (random) {
+			return new Random(random.nextLong());
+		}
+	}
+
+	private void play(final MockGame game, final String username, final GameplayAction action) {
+		if (Action.NEW_GAME == action.getAction()) {
+			game.chainNextGame(username, () -> createStartedGame(game));
+			return;
+		}
+		if (game.play(username, action)) {
+			gamesFinished.increment();
+		}
+		movesPlayed.increment();
+	}
+
+	private static Map<String, String> getQuery(final String queryString) {
+		Map<String, String> query = new HashMap<>();
+		if (queryString == null) {
+			return query;
+		}
+		for (String parameter : queryString.split("&")) {
+			final int equals = parameter.indexOf('=');
+			if (equals > 0) {
+				try {
+					query.put(decode(parameter.substring(0, equals)), decode(parameter.substring(equals + 1)));
+				} catch (UnsupportedEncodingException e) {
+					throw new IllegalStateException("Every JVM supports UTF-8", e);
+				}
+			}
+		}
+		return query;
+	}
+
+	private static String decode(final String value) throws UnsupportedEncodingException {
+		return URLDecoder.decode(value, StandardCharsets.UTF_8.name());
+	}
+
+	private static void respond(final Response response, final int status, final String body) throws IOException {
+		response.setStatus(status);
+		response.setContentType("application/json");
+		response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+		response.getWriter().write(body);
+	}
+
+	/**
+	 * Stops listening and drops every connection.
+	 */
+	@Override
+	public void close() throws IOException {
+		WebSocketEngine.getEngine().unregister(webSocketApplication);
+		httpServer.shutdownNow();
+	}
+}
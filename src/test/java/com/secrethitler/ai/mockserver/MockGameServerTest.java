@@ -0,0 +1,114 @@
+package com.secrethitler.ai.mockserver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.function.Function;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.io.ByteStreams;
+import com.secrethitler.ai.HostPolicy;
+import com.secrethitler.ai.SecretHitlerAi;
+import com.secrethitler.ai.dtos.LoginResponse;
+import com.secrethitler.ai.utils.UrlWrapper;
+import com.secrethitler.ai.websockets.GameSetupWebsocketClientEndpoint;
+
+public class MockGameServerTest {
+	private static final String TEST_PROPERTIES_FILE_NAME = "test-mockserver.properties";
+	private static final String URL_PROPERTY = "secrethitler.url";
+
+	private MockGameServer server;
+
+	@Before
+	public void setUp() throws IOException {
+		Properties prop = new Properties();
+		prop.load(Thread.currentThread().getContextClassLoader().getResourceAsStream(TEST_PROPERTIES_FILE_NAME));
+		server = MockGameServer.builder()
+				.withProperties(prop)
+				.withSeed(1)
+				.build()
+				.start();
+		System.setProperty(URL_PROPERTY, server.getBaseUrlString());
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		System.clearProperty(URL_PROPERTY);
+		server.close();
+	}
+
+	private HttpURLConnection post(final String path, final String authorization, final String body) throws IOException {
+		HttpURLConnection connection = (HttpURLConnection) new URL(String.format("http://%s%s", server.getBaseUrlString(), path)).openConnection();
+		connection.setRequestMethod("POST");
+		connection.setDoOutput(true);
+		if (authorization != null) {
+			connection.setRequestProperty("authorization", authorization);
+		}
+		try (OutputStream out = connection.getOutputStream()) {
+			out.write(body.getBytes(StandardCharsets.UTF_8));
+		}
+		return connection;
+	}
+
+	private static String read(final HttpURLConnection connection) throws IOException {
+		return new String(ByteStreams.toByteArray(connection.getInputStream()), StandardCharsets.UTF_8);
+	}
+
+	@Test
+	public void testLoginAndCreateGame() throws IOException {
+		LoginResponse login = SecretHitlerAi.getObjectMapper().readValue(
+				read(post("/login", null, "{\"username\":\"Robot 1\",\"password\":\"password\"}")), LoginResponse.class);
+
+		final String gameId = read(post("/create-game", login.getAccessToken(), "{}"));
+
+		assertEquals("mock-1", gameId);
+		assertEquals(Arrays.asList("Robot 1"), server.getGame(gameId).get().getUsernames());
+	}
+
+	@Test
+	public void testCreateGame_UnknownToken() throws IOException {
+		assertEquals(401, post("/create-game", "Bearer nobody", "{}").getResponseCode());
+		assertEquals(404, post("/nowhere", null, "{}").getResponseCode());
+	}
+
+	@Test(timeout = 60000)
+	public void testPlayGames() throws Exception {
+		final Function<String, UrlWrapper> getUrlFunction = urlString -> {
+			try {
+				return new UrlWrapper(urlString);
+			} catch (IOException e) {
+				throw new IllegalArgumentException(e);
+			}
+		};
+		final Function<GameSetupWebsocketClientEndpoint.Builder, GameSetupWebsocketClientEndpoint> buildFunction = builder -> {
+			try {
+				return builder.build();
+			} catch (Exception e) {
+				throw new IllegalArgumentException(e);
+			}
+		};
+
+		SecretHitlerAi ai = SecretHitlerAi.builder()
+				.withPropertiesFileName(TEST_PROPERTIES_FILE_NAME)
+				.withGetUrlFunction(getUrlFunction)
+				.withGameSetupClientBuildFunction(buildFunction)
+				.withAiDifficulties(Arrays.asList(1, 1, 1, 1, 1))
+				.withHostPolicy(HostPolicy.builder().withMode(HostPolicy.Mode.AUTO).withRounds(2).build())
+				.build();
+		ai.awaitStopped();
+
+		assertEquals(2, server.getGamesFinished());
+		assertTrue(server.getMovesPlayed() > 0);
+		assertTrue(server.getGame("mock-2").get().isOver());
+	}
+}
@@ -0,0 +1,166 @@
+package com.secrethitler.ai.mockserver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.glassfish.grizzly.websockets.WebSocket;
+import org.glassfish.grizzly.websockets.WebSocketException;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import com.secrethitler.ai.SecretHitlerAi;
+import com.secrethitler.ai.dtos.GameRequest;
+import com.secrethitler.ai.dtos.GameplayAction;
+import com.secrethitler.ai.dtos.ParticipantGameNotification;
+import com.secrethitler.ai.dtos.PlayerData;
+import com.secrethitler.ai.enums.Action;
+import com.secrethitler.ai.enums.GamePhase;
+import com.secrethitler.ai.enums.ParticipantRole;
+
+@RunWith(MockitoJUnitRunner.class)
+public class MockGameTest {
+	private static final List<String> USERNAMES = Arrays.asList("Robot 1", "Robot 2", "Robot 3", "Robot 4", "Robot 5");
+
+	@Mock
+	private WebSocket hostConnection;
+
+	@Mock
+	private WebSocket playerConnection;
+
+	private static GameRequest lastGameRequest(final WebSocket connection, final int messages) throws IOException {
+		ArgumentCaptor<String> message = ArgumentCaptor.forClass(String.class);
+		verify(connection, times(messages)).send(message.capture());
+		return SecretHitlerAi.getGameRequestReader().readValue(message.getValue());
+	}
+
+	private static ParticipantGameNotification lastNotification(final WebSocket connection, final int messages) throws IOException {
+		ArgumentCaptor<String> message = ArgumentCaptor.forClass(String.class);
+		verify(connection, times(messages)).send(message.capture());
+		return SecretHitlerAi.getNotificationReader().readValue(message.getValue());
+	}
+
+	@Test
+	public void testSetup() throws IOException {
+		MockGame game = new MockGame("mock-1", "Robot 1", new Random(1));
+		game.connectSetup("Robot 1", hostConnection);
+		USERNAMES.stream()
+				.skip(1)
+				.forEach(username -> game.handleSetupMessage(username, MockGame.JOIN));
+		game.handleSetupMessage("Robot 2", MockGame.JOIN);
+
+		GameRequest gameRequest = lastGameRequest(hostConnection, 5);
+		assertEquals("mock-1", gameRequest.getId());
+		assertEquals(USERNAMES, game.getUsernames());
+		assertEquals(ParticipantRole.HOST, gameRequest.getParticipants().get(0).getRole());
+		assertEquals(ParticipantRole.PLAYING, gameRequest.getParticipants().get(4).getRole());
+		assertTrue(gameRequest.getParticipants().get(0).isConnected());
+		assertFalse(gameRequest.getParticipants().get(1).isConnected());
+		assertTrue(gameRequest.isReadyToStart());
+		assertTrue(gameRequest.isAvailableForMorePlayers());
+		assertFalse(game.isStarted());
+
+		game.handleSetupMessage("Robot 2", MockGame.START);
+		assertFalse(game.isStarted());
+		game.handleSetupMessage("Robot 1", MockGame.START);
+
+		gameRequest = lastGameRequest(hostConnection, 6);
+		assertTrue(game.isStarted());
+		assertTrue(gameRequest.isStarted());
+		assertFalse(gameRequest.isReadyToStart());
+		game.handleSetupMessage("Robot 6", MockGame.JOIN);
+		assertEquals(USERNAMES, game.getUsernames());
+	}
+
+	@Test
+	public void testSetup_NotEnoughPlayers() throws IOException {
+		MockGame game = new MockGame("mock-1", "Robot 1", new Random(1));
+		game.connectSetup("Robot 1", hostConnection);
+		game.handleSetupMessage("Robot 2", MockGame.JOIN);
+		game.handleSetupMessage("Robot 1", MockGame.START);
+
+		assertFalse(game.isStarted());
+		assertFalse(lastGameRequest(hostConnection, 2).isReadyToStart());
+	}
+
+	@Test
+	public void testDisconnectSetup() throws IOException {
+		MockGame game = new MockGame("mock-1", "Robot 1", new Random(1));
+		game.connectSetup("Robot 1", hostConnection);
+		game.connectSetup("Robot 2", playerConnection);
+		game.handleSetupMessage("Robot 2", MockGame.JOIN);
+
+		game.disconnectSetup("Robot 2", playerConnection);
+
+		assertFalse(lastGameRequest(hostConnection, 4).getParticipants().get(1).isConnected());
+	}
+
+	@Test
+	public void testPlay() throws IOException {
+		MockGame game = new MockGame("mock-2", USERNAMES, new Random(1));
+		game.connectPlay("Robot 1", hostConnection);
+		game.connectPlay("Robot 2", playerConnection);
+
+		ParticipantGameNotification notification = lastNotification(hostConnection, 1);
+		assertEquals(GamePhase.PICKING_RUNNING_MATE, notification.getGameData().getPhase());
+		final String president = notification.getGameData().getPlayers().stream()
+				.filter(PlayerData::isPresident)
+				.findFirst()
+				.get()
+				.getUsername();
+		final String chancellor = USERNAMES.get((USERNAMES.indexOf(president) + 1) % USERNAMES.size());
+
+		assertFalse(game.play(chancellor, new GameplayAction(Action.CHOOSE_RUNNING_MATE, new String[] {chancellor})));
+		verify(hostConnection, times(1)).send(anyString());
+		assertFalse(game.play(president, new GameplayAction(Action.CHOOSE_RUNNING_MATE, new String[] {String.valueOf(USERNAMES.indexOf(chancellor))})));
+
+		assertEquals(GamePhase.ELECTION, lastNotification(hostConnection, 2).getGameData().getPhase());
+		assertEquals(GamePhase.ELECTION, lastNotification(playerConnection, 2).getGameData().getPhase());
+		assertFalse(game.isOver());
+		assertFalse(game.chainNextGame("Robot 1", () -> new MockGame("mock-3", USERNAMES, new Random(1))));
+	}
+
+	@Test
+	public void testConnectPlay_NotPlaying() {
+		MockGame game = new MockGame("mock-1", "Robot 1", new Random(1));
+		try {
+			game.connectPlay("Robot 1", hostConnection);
+			fail("Expected an IllegalStateException to be thrown if the game has not started");
+		} catch (IllegalStateException e) {
+			assertEquals("Robot 1 is not playing game mock-1", e.getMessage());
+		}
+		try {
+			new MockGame("mock-2", USERNAMES, new Random(1)).connectPlay("Robot 6", hostConnection);
+			fail("Expected an IllegalStateException to be thrown if the user is not a player");
+		} catch (IllegalStateException e) {
+			assertEquals("Robot 6 is not playing game mock-2", e.getMessage());
+		}
+	}
+
+	@Test
+	public void testConnectPlay_Dropped() {
+		doThrow(new WebSocketException("Broken pipe")).when(playerConnection).send(anyString());
+		MockGame game = new MockGame("mock-2", USERNAMES, new Random(1));
+		game.connectPlay("Robot 2", playerConnection);
+		game.connectPlay("Robot 1", hostConnection);
+		game.connectPlay("Robot 1", hostConnection);
+
+		verify(playerConnection).close();
+		verify(playerConnection, times(1)).send(anyString());
+		verify(hostConnection, never()).close();
+	}
+}
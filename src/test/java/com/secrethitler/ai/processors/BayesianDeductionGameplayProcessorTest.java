@@ -0,0 +1,185 @@
+package com.secrethitler.ai.processors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.secrethitler.ai.dtos.GameplayAction;
+import com.secrethitler.ai.dtos.ParticipantGameNotification;
+import com.secrethitler.ai.dtos.PlayerData;
+import com.secrethitler.ai.enums.Action;
+import com.secrethitler.ai.enums.PartyMembership;
+import com.secrethitler.ai.enums.Policy;
+import com.secrethitler.ai.enums.SecretRole;
+import com.secrethitler.ai.simulation.GameResult;
+import com.secrethitler.ai.simulation.LocalGame;
+import com.secrethitler.ai.simulation.LocalGameEngine;
+import com.secrethitler.ai.utils.RandomUtilImpl;
+
+public class BayesianDeductionGameplayProcessorTest {
+	private static final double DELTA = 1e-9;
+	private static final int PLAYERS = 7;
+	
+	private LocalGame game;
+	private int liberal;
+	private int president;
+	private int chancellor;
+	private BayesianDeductionGameplayProcessor processor;
+	
+	private static List<String> getUsernames(final int players) {
+		return IntStream.rangeClosed(1, players)
+				.mapToObj(index -> String.format("Robot %d", index))
+				.collect(Collectors.toList());
+	}
+	
+	@Before
+	public void setUp() {
+		game = new LocalGame(getUsernames(PLAYERS), new Random(1));
+		president = game.getPresident();
+		chancellor = (president + 1) % PLAYERS;
+		liberal = IntStream.range(0, PLAYERS)
+				.filter(seat -> seat != president && seat != chancellor)
+				.filter(seat -> SecretRole.LIBERAL == game.getRoles().get(seat))
+				.findFirst()
+				.getAsInt();
+		processor = new BayesianDeductionGameplayProcessor(getUsername(liberal), new RandomUtilImpl());
+	}
+	
+	private String getUsername(final int seat) {
+		return game.getUsernames().get(seat);
+	}
+	
+	private ParticipantGameNotification getNotification(final Action action, final String... args) {
+		ParticipantGameNotification notification = game.getNotification(liberal);
+		notification.setAction(new GameplayAction(action, args));
+		return notification;
+	}
+	
+	private void startElection() {
+		game.apply(president, new GameplayAction(Action.CHOOSE_RUNNING_MATE, new String[] {String.valueOf(chancellor)}));
+		processor.getActionToTake(game.getNotification(liberal));
+	}
+	
+	@Test
+	public void testPrior() {
+		processor.getActionToTake(game.getNotification(liberal));
+		
+		assertEquals(0, processor.getFascistProbability(getUsername(liberal)), DELTA);
+		assertEquals(0, processor.getHitlerProbability(getUsername(liberal)), DELTA);
+		IntStream.range(0, PLAYERS)
+				.filter(seat -> seat != liberal)
+				.forEach(seat -> {
+					assertEquals(0.5, processor.getFascistProbability(getUsername(seat)), DELTA);
+					assertEquals(1d / 6, processor.getHitlerProbability(getUsername(seat)), DELTA);
+				});
+	}
+	
+	@Test
+	public void testFascistKnowsEveryRole() {
+		final int fascist = game.getRoles().indexOf(SecretRole.FASCIST);
+		BayesianDeductionGameplayProcessor fascistProcessor = new BayesianDeductionGameplayProcessor(getUsername(fascist), new RandomUtilImpl());
+		
+		fascistProcessor.getActionToTake(game.getNotification(fascist));
+		
+		for (int seat = 0; seat < PLAYERS; seat++) {
+			final SecretRole role = game.getRoles().get(seat);
+			assertEquals(SecretRole.LIBERAL == role ? 0 : 1, fascistProcessor.getFascistProbability(getUsername(seat)), DELTA);
+			assertEquals(SecretRole.HITLER == role ? 1 : 0, fascistProcessor.getHitlerProbability(getUsername(seat)), DELTA);
+		}
+	}
+	
+	@Test
+	public void testFascistPolicyPlayed() {
+		startElection();
+		
+		processor.policyPlayedDeducer(getNotification(Action.FASCIST_POLICY), Policy.FASCIST);
+		
+		assertTrue(processor.getFascistProbability(getUsername(president)) > 0.5);
+		assertTrue(processor.getFascistProbability(getUsername(chancellor)) > 0.5);
+		assertTrue(processor.getMembershipSuspicion(getUsername(chancellor)) < 0);
+	}
+	
+	@Test
+	public void testLiberalPolicyPlayed() {
+		startElection();
+		
+		processor.policyPlayedDeducer(getNotification(Action.LIBERAL_POLICY), Policy.LIBERAL);
+		
+		assertTrue(processor.getFascistProbability(getUsername(president)) < 0.5);
+		assertTrue(processor.getFascistProbability(getUsername(chancellor)) < 0.5);
+		assertTrue(processor.getMembershipSuspicion(getUsername(chancellor)) > 0);
+	}
+	
+	@Test
+	public void testGetPolicyLikelihoods() {
+		startElection();
+		
+		double[][] likelihoods = processor.getPolicyLikelihoods(game.getNotification(liberal).getGameData(), Policy.FASCIST);
+		
+		assertTrue(likelihoods[0][0] < likelihoods[0][1]);
+		assertTrue(likelihoods[0][0] < likelihoods[1][0]);
+		assertTrue(likelihoods[1][0] < likelihoods[1][1]);
+	}
+	
+	@Test
+	public void testPlayerKilled() {
+		processor.getActionToTake(game.getNotification(liberal));
+		final int victim = (liberal + 1) % PLAYERS;
+		
+		processor.playerKilledDeducer(getNotification(Action.KILL_PLAYER, getUsername(president), getUsername(victim)));
+		
+		assertEquals(0, processor.getHitlerProbability(getUsername(victim)), DELTA);
+		assertTrue(processor.getFascistProbability(getUsername(president)) > 0.5);
+	}
+	
+	@Test
+	public void testUpdateSuspectedMembership_StaleSeat() {
+		final ParticipantGameNotification notification = game.getNotification(liberal);
+		processor.getActionToTake(notification);
+		final int suspect = (liberal + 1) % PLAYERS;
+		final int staleSeat = (liberal + 2) % PLAYERS;
+		PlayerData stale = new PlayerData();
+		stale.setUsername(getUsername(suspect));
+		stale.setSeat(staleSeat);
+		
+		processor.updateSuspectedMembership(stale, PartyMembership.FASCIST, null, notification.getGameData());
+		
+		assertTrue(processor.getFascistProbability(getUsername(suspect)) > 0.5);
+		assertTrue(processor.getFascistProbability(getUsername(staleSeat)) < 0.5);
+	}
+	
+	@Test
+	public void testGetMostExpectedFascists() {
+		startElection();
+		processor.policyPlayedDeducer(getNotification(Action.FASCIST_POLICY), Policy.FASCIST);
+		
+		assertEquals(3, processor.getMostExpectedFascists(game.getNotification(liberal).getGameData()).size());
+		assertTrue(processor.getMostExpectedFascists(game.getNotification(liberal).getGameData()).stream()
+				.map(player -> player.getUsername())
+				.collect(Collectors.toSet())
+				.containsAll(Arrays.asList(getUsername(president), getUsername(chancellor))));
+	}
+	
+	@Test
+	public void testPlayGames() {
+		for (int players = 5; players <= 10; players++) {
+			LocalGameEngine.Builder builder = LocalGameEngine.builder()
+					.withRandom(new Random(players));
+			for (String username : getUsernames(players)) {
+				builder.withPlayer(username, new BayesianDeductionGameplayProcessor(username, new RandomUtilImpl()));
+			}
+			
+			GameResult result = builder.build().play();
+			
+			assertTrue(PartyMembership.UNKNOWN != result.getWinners());
+		}
+	}
+}
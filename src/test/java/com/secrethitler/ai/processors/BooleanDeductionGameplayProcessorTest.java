@@ -1,17 +1,28 @@
 package com.secrethitler.ai.processors;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import org.apache.commons.lang3.tuple.Pair;
 import org.junit.Before;
 import org.junit.Test;
 
 import com.google.common.collect.ImmutableMap;
+import com.secrethitler.ai.dtos.GameData;
+import com.secrethitler.ai.dtos.GameplayAction;
+import com.secrethitler.ai.dtos.ParticipantGameNotification;
 import com.secrethitler.ai.dtos.PlayerData;
+import com.secrethitler.ai.enums.Action;
 import com.secrethitler.ai.enums.PartyMembership;
+import com.secrethitler.ai.enums.SecretRole;
+import com.secrethitler.ai.enums.SuspicionAction;
 
 public class BooleanDeductionGameplayProcessorTest extends AbstractDeductionGameplayProcessorTest {
 	private static final Map<Scenario, Pair<Integer, Integer>> SCENARIO_TO_EXPECTED_SUSPICIONS = ImmutableMap.<Scenario, Pair<Integer, Integer>>builder()
@@ -22,8 +33,8 @@ public class BooleanDeductionGameplayProcessorTest extends AbstractDeductionGame
 			.put(Scenario.VOTE_LIBERAL_BOT_ALL_UNKNOWN, Pair.of(0, 0))
 			.put(Scenario.GOVERNMENT_DENIED_LIBERAL_JA, Pair.of(1, -1))
 			.put(Scenario.GOVERNMENT_DENIED_LIBERAL_NEIN, Pair.of(1, -1))
-			.put(Scenario.GOVERNMENT_DENIED_HITLER_JA, Pair.of(1, -1))
-			.put(Scenario.GOVERNMENT_DENIED_HITLER_NEIN, Pair.of(1, -1))
+			.put(Scenario.GOVERNMENT_DENIED_HITLER_JA, Pair.of(1, 1))
+			.put(Scenario.GOVERNMENT_DENIED_HITLER_NEIN, Pair.of(1, 1))
 			.put(Scenario.ANARCHY, Pair.of(1, -1))
 			.put(Scenario.POLICY_PLAYED_NO_POLICY_OPTION, Pair.of(0, 0))
 			.put(Scenario.POLICY_PLAYED_WITH_NEIN_VOTER, Pair.of(1, -1))
@@ -76,14 +87,40 @@ public class BooleanDeductionGameplayProcessorTest extends AbstractDeductionGame
 	@Test
 	public void testupdateSuspectedMembership_BadSuspect() {
 		PlayerData player = new PlayerData();
+		player.setUsername("Robot 2");
 		player.setPartyMembership(PartyMembership.LIBERAL);
 		
-		try {
-			boolProcessor.updateSuspectedMembership(player, PartyMembership.FASCIST, null, null);
-			fail("Expected an IllegalArgumentException to be thrown if we suspect a player to be membership that we know to be false");
-		} catch (IllegalArgumentException e) {
-			assertEquals("Tried to set a suspected membership of a player that is known to be incorrect!", e.getMessage());
-		}
+		boolProcessor.updateSuspectedMembership(player, PartyMembership.FASCIST, null, null);
+		
+		assertEquals(AbstractDeductionGameplayProcessor.PARTY_MEMBERSHIP_TO_SUSPICION_MAP.get(PartyMembership.LIBERAL).intValue(), boolProcessor.getMembershipSuspicion("Robot 2"));
+	}
+	
+	@Test
+	public void testGetMembershipSuspicion_DeducedFromKnownRoles() {
+		BooleanDeductionGameplayProcessor processor = new BooleanDeductionGameplayProcessor("Robot 1", randomUtil);
+		List<PlayerData> players = IntStream.rangeClosed(1, 5)
+				.mapToObj(index -> {
+					PlayerData player = new PlayerData();
+					player.setUsername(String.format("Robot %d", index));
+					player.setAlive(true);
+					player.setPartyMembership(index <= 3 ? PartyMembership.LIBERAL : PartyMembership.UNKNOWN);
+					player.setSecretRole(index <= 3 ? SecretRole.LIBERAL : SecretRole.UNKNOWN);
+					return player;
+				})
+				.collect(Collectors.toList());
+		GameData gameData = new GameData();
+		gameData.setPlayers(players);
+		gameData.setMyPlayer(players.get(0));
+		ParticipantGameNotification notification = new ParticipantGameNotification();
+		notification.setGameData(gameData);
+		notification.setAction(new GameplayAction(Action.INVESTIGATE_PLAYER, new String[] {}));
+		
+		processor.getActionToTake(notification);
+		processor.updateSuspectedMembership(players.get(3), PartyMembership.LIBERAL, SuspicionAction.VOTE_CHOICE_RESULT, gameData);
+		
+		assertEquals(-1, processor.getMembershipSuspicion("Robot 4"));
+		assertEquals(-1, processor.getMembershipSuspicion("Robot 5"));
+		assertEquals(1, processor.getMembershipSuspicion("Robot 2"));
+		assertTrue(processor.provenNonHitlers.containsAll(Arrays.asList("Robot 1", "Robot 2", "Robot 3")));
 	}
-
 }
@@ -8,6 +8,8 @@ import java.lang.reflect.InvocationTargetException;
 
 import org.junit.Test;
 
+import com.secrethitler.ai.utils.RandomUtilImpl;
+
 public class GameplayProcessorFactoryImplTest {
 	private static final String USERNAME = "testUser";
 
@@ -31,6 +33,24 @@ public class GameplayProcessorFactoryImplTest {
 		assertTrue(processor instanceof WeightedDeductionGameplayProcessor);
 	}
 	
+	@Test
+	public void testGetGameplayProcessor_5() throws InstantiationException, IllegalAccessException, InvocationTargetException, NoSuchMethodException {
+		GameplayProcessor processor = factory.getGameplayProcessor(5, USERNAME);
+		assertTrue(processor instanceof BayesianDeductionGameplayProcessor);
+	}
+	
+	@Test
+	public void testGetGameplayProcessor_6() throws InstantiationException, IllegalAccessException, InvocationTargetException, NoSuchMethodException {
+		GameplayProcessor processor = factory.getGameplayProcessor(6, USERNAME);
+		assertTrue(processor instanceof MonteCarloTreeSearchGameplayProcessor);
+	}
+	
+	@Test
+	public void testGetGameplayProcessor_RandomUtil() throws InstantiationException, IllegalAccessException, InvocationTargetException, NoSuchMethodException {
+		GameplayProcessor processor = factory.getGameplayProcessor(3, USERNAME, new RandomUtilImpl(1));
+		assertTrue(processor instanceof WeightedDeductionGameplayProcessor);
+	}
+	
 	@Test
 	public void testGetGameplayProcessor_InvalidLevel() throws InstantiationException, IllegalAccessException, InvocationTargetException, NoSuchMethodException {
 		try {
@@ -0,0 +1,149 @@
+package com.secrethitler.ai.processors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.secrethitler.ai.dtos.GameplayAction;
+import com.secrethitler.ai.dtos.ParticipantGameNotification;
+import com.secrethitler.ai.enums.Action;
+import com.secrethitler.ai.enums.GamePhase;
+import com.secrethitler.ai.enums.Policy;
+import com.secrethitler.ai.enums.SecretRole;
+import com.secrethitler.ai.enums.Vote;
+import com.secrethitler.ai.simulation.GameResult;
+import com.secrethitler.ai.simulation.LocalGame;
+import com.secrethitler.ai.simulation.LocalGameEngine;
+import com.secrethitler.ai.utils.RandomUtilImpl;
+
+public class MonteCarloTreeSearchGameplayProcessorTest {
+	private static final long MOVE_BUDGET_MILLIS = 50;
+	private static final int PARALLELISM = 2;
+	private static final int ROLLOUT_LEVEL = 1;
+
+	private static List<String> getUsernames(final int players) {
+		return IntStream.rangeClosed(1, players)
+				.mapToObj(index -> String.format("Robot %d", index))
+				.collect(Collectors.toList());
+	}
+
+	private static MonteCarloTreeSearchGameplayProcessor getProcessor(final String username, final long moveBudgetMillis) {
+		return new MonteCarloTreeSearchGameplayProcessor(username, new RandomUtilImpl(), moveBudgetMillis, PARALLELISM, ROLLOUT_LEVEL);
+	}
+
+	@Test
+	public void testConstructor_SearchRollouts() {
+		try {
+			new MonteCarloTreeSearchGameplayProcessor("Robot 1", new RandomUtilImpl(), MOVE_BUDGET_MILLIS, PARALLELISM, 6);
+			fail("Expected an IllegalArgumentException to be thrown if the rollouts would search too");
+		} catch (IllegalArgumentException e) {
+			assertEquals("Can not search for 50 ms with 2 simulations at once and level 6 rollouts", e.getMessage());
+		}
+	}
+
+	@Test
+	public void testPlay() {
+		for (int players = 5; players <= 10; players += 5) {
+			LocalGameEngine.Builder builder = LocalGameEngine.builder()
+					.withRandom(new Random(players));
+			List<String> usernames = getUsernames(players);
+			builder.withPlayer(usernames.get(0), getProcessor(usernames.get(0), 5));
+			usernames.stream()
+					.skip(1)
+					.forEach(username -> builder.withPlayer(username, new SimpleGameplayProcessor(username, new RandomUtilImpl())));
+
+			GameResult result = builder.build().play();
+
+			assertNotNull(result.getWinners());
+		}
+	}
+
+	@Test
+	public void testGetActionToTake_ReusesTree() {
+		LocalGame game = new LocalGame(getUsernames(7), new Random(1));
+		final int president = game.getPresident();
+		MonteCarloTreeSearchGameplayProcessor processor = getProcessor(game.getUsernames().get(president), MOVE_BUDGET_MILLIS);
+
+		Optional<GameplayAction> runningMate = processor.getActionToTake(game.getNotification(president));
+		assertTrue(processor.getTreeSize() > 1);
+		game.apply(president, runningMate.get());
+		Optional<GameplayAction> vote = processor.getActionToTake(game.getNotification(president));
+
+		assertEquals(Action.VOTE, vote.get().getAction());
+		assertTrue(processor.getReusedVisits() > 0);
+	}
+
+	@Test
+	public void testGetActionToTake_NoChoice() {
+		LocalGame game = new LocalGame(getUsernames(7), new Random(1));
+		final int notPresident = (game.getPresident() + 1) % 7;
+		MonteCarloTreeSearchGameplayProcessor processor = getProcessor(game.getUsernames().get(notPresident), MOVE_BUDGET_MILLIS);
+
+		assertEquals(Optional.empty(), processor.getActionToTake(game.getNotification(notPresident)));
+		assertEquals(0, processor.getTreeSize());
+	}
+
+	@Test
+	public void testGetLegalActions_PresidentChoice() {
+		ParticipantGameNotification notification = getPresidentChoiceNotification(ImmutableList.of(Policy.FASCIST, Policy.FASCIST, Policy.LIBERAL));
+
+		List<GameplayAction> actions = MonteCarloTreeSearchGameplayProcessor.getLegalActions(notification);
+
+		assertEquals(ImmutableList.of(new GameplayAction(Action.PRESIDENT_CHOICE, new String[] {"2"}),
+				new GameplayAction(Action.PRESIDENT_CHOICE, new String[] {"0"})), actions);
+	}
+
+	@Test
+	public void testGetLegalActions_Election() {
+		LocalGame game = new LocalGame(getUsernames(5), new Random(1));
+		final int president = game.getPresident();
+		game.apply(president, new GameplayAction(Action.CHOOSE_RUNNING_MATE, new String[] {String.valueOf((president + 1) % 5)}));
+
+		assertEquals(ImmutableList.of(new GameplayAction(Action.VOTE, new String[] {Vote.JA.name()}),
+				new GameplayAction(Action.VOTE, new String[] {Vote.NEIN.name()})),
+				MonteCarloTreeSearchGameplayProcessor.getLegalActions(game.getNotification(president)));
+		game.apply(president, new GameplayAction(Action.VOTE, new String[] {Vote.JA.name()}));
+		assertEquals(ImmutableList.of(), MonteCarloTreeSearchGameplayProcessor.getLegalActions(game.getNotification(president)));
+	}
+
+	@Test
+	public void testGetInformationSetKey_HiddenRoles() {
+		LocalGame game = new LocalGame(getUsernames(7), new Random(1));
+		List<SecretRole> roles = new ArrayList<>(game.getRoles());
+		final int liberal = roles.indexOf(SecretRole.LIBERAL);
+		final int otherLiberal = roles.lastIndexOf(SecretRole.LIBERAL);
+		Collections.swap(roles, otherLiberal, roles.indexOf(SecretRole.HITLER));
+		ParticipantGameNotification notification = game.getNotification(liberal);
+
+		LocalGame otherWorld = LocalGame.fromNotification(notification, null, roles, new Random(2));
+
+		assertEquals(MonteCarloTreeSearchGameplayProcessor.getInformationSetKey(notification),
+				MonteCarloTreeSearchGameplayProcessor.getInformationSetKey(otherWorld.getNotification(liberal)));
+	}
+
+	private static ParticipantGameNotification getPresidentChoiceNotification(final List<Policy> policies) {
+		LocalGame game = new LocalGame(getUsernames(5), new Random(1));
+		final int president = game.getPresident();
+		game.apply(president, new GameplayAction(Action.CHOOSE_RUNNING_MATE, new String[] {String.valueOf((president + 1) % 5)}));
+		for (int seat = 0; seat < 5; seat++) {
+			game.apply(seat, new GameplayAction(Action.VOTE, new String[] {Vote.JA.name()}));
+		}
+		assertEquals(GamePhase.PRESIDENT_CHOICE, game.getPhase());
+		ParticipantGameNotification notification = game.getNotification(president);
+		notification.getGameData().getPoliciesToView().clear();
+		notification.getGameData().getPoliciesToView().addAll(policies);
+		return notification;
+	}
+}
@@ -0,0 +1,112 @@
+package com.secrethitler.ai.processors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+public class RoleDistributionTest {
+	private static final double DELTA = 1e-9;
+	
+	@Test
+	public void testWorlds() {
+		assertEquals(20, new RoleDistribution(5, 2).getWorlds());
+		assertEquals(105, new RoleDistribution(7, 3).getWorlds());
+		assertEquals(840, new RoleDistribution(10, 4).getWorlds());
+	}
+	
+	@Test
+	public void testTooManyFascists() {
+		try {
+			new RoleDistribution(5, 6);
+			fail("Expected an IllegalArgumentException to be thrown if there are more fascists than players");
+		} catch (IllegalArgumentException e) {
+			assertEquals("Cannot seat 6 fascists at a table of 5", e.getMessage());
+		}
+	}
+	
+	@Test
+	public void testPrior() {
+		RoleDistribution distribution = new RoleDistribution(7, 3);
+		
+		for (int seat = 0; seat < 7; seat++) {
+			assertEquals(3d / 7, distribution.getFascistProbability(seat), DELTA);
+			assertEquals(1d / 7, distribution.getHitlerProbability(seat), DELTA);
+		}
+	}
+	
+	@Test
+	public void testSetKnownFascist() {
+		RoleDistribution distribution = new RoleDistribution(5, 2);
+		
+		distribution.setKnownFascist(0, false);
+		
+		assertEquals(0, distribution.getFascistProbability(0), DELTA);
+		assertEquals(0.5, distribution.getFascistProbability(1), DELTA);
+		assertEquals(0.25, distribution.getHitlerProbability(1), DELTA);
+	}
+	
+	@Test
+	public void testSetKnownHitler() {
+		RoleDistribution distribution = new RoleDistribution(5, 2);
+		
+		distribution.setKnownHitler(2, true);
+		
+		assertEquals(1, distribution.getHitlerProbability(2), DELTA);
+		assertEquals(1, distribution.getFascistProbability(2), DELTA);
+		assertEquals(0.25, distribution.getFascistProbability(0), DELTA);
+	}
+	
+	@Test
+	public void testWeigh() {
+		RoleDistribution distribution = new RoleDistribution(5, 2);
+		
+		distribution.weigh(0, true, 2);
+		
+		assertEquals(0.8 / 1.4, distribution.getFascistProbability(0), DELTA);
+		assertEquals(2, IntStream.range(0, 5)
+				.mapToDouble(distribution::getFascistProbability)
+				.sum(), DELTA);
+	}
+	
+	@Test
+	public void testWeigh_Pair() {
+		RoleDistribution distribution = new RoleDistribution(5, 2);
+		
+		distribution.weigh(0, 1, new double[][] {{1, 0}, {0, 0}});
+		
+		assertEquals(0, distribution.getFascistProbability(0), DELTA);
+		assertEquals(0, distribution.getFascistProbability(1), DELTA);
+		assertEquals(2d / 3, distribution.getFascistProbability(2), DELTA);
+	}
+	
+	@Test
+	public void testContradiction() {
+		RoleDistribution distribution = new RoleDistribution(5, 2);
+		distribution.setKnownFascist(0, true);
+		
+		distribution.weigh((fascistSeats, hitlerSeat) -> 0);
+		
+		assertEquals(1, distribution.getFascistProbability(0), DELTA);
+		assertEquals(0.25, distribution.getFascistProbability(1), DELTA);
+	}
+	
+	@Test
+	public void testSample() {
+		RoleDistribution distribution = new RoleDistribution(5, 2);
+		distribution.setKnownFascist(0, true);
+		distribution.setKnownHitler(0, false);
+		
+		IntStream.range(0, 100).forEach(draw -> {
+			final int world = distribution.sample(draw / 100d);
+			assertTrue(RoleDistribution.isFascist(distribution.getFascistSeats(world), 0));
+			assertNotEquals(0, distribution.getHitlerSeat(world));
+		});
+		assertEquals(1, distribution.getHitlerSeat(distribution.sample(0)));
+		assertEquals(4, distribution.getHitlerSeat(distribution.sample(0.999)));
+	}
+}
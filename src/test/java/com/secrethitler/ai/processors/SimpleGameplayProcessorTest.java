@@ -4,12 +4,16 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -34,6 +38,9 @@ public class SimpleGameplayProcessorTest {
 	@Mock
 	protected RandomUtil randomUtil;
 	
+	@Mock
+	private Logger logger;
+	
 	protected SimpleGameplayProcessor processor;
 	protected ParticipantGameNotification notification;
 	protected GameData gameData;
@@ -107,6 +114,24 @@ public class SimpleGameplayProcessorTest {
 		assertEquals(Optional.empty(), result);
 	}
 	
+	@Test
+	public void testLog() {
+		Supplier<String> message = () -> "message";
+		
+		processor.log(logger, Level.INFO, message);
+		
+		verify(logger).log(Level.INFO, message);
+	}
+	
+	@Test
+	public void testLog_Quiet() {
+		processor.setQuiet(true);
+		
+		processor.log(logger, Level.INFO, () -> "message");
+		
+		verifyNoInteractions(logger);
+	}
+	
 	@Test
 	public void testChooseRunningMate_NotPresident() {
 		testChooseRunningMate(Optional.empty());
@@ -0,0 +1,121 @@
+package com.secrethitler.ai.processors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.secrethitler.ai.dtos.PlayerData;
+
+public class SuspicionRankingTest {
+	private static PlayerData getPlayer(final String username) {
+		PlayerData player = new PlayerData();
+		player.setUsername(username);
+		return player;
+	}
+
+	@Test
+	public void testGetLevels() {
+		SuspicionRanking ranking = new SuspicionRanking();
+		PlayerData aj = getPlayer("AJ");
+		PlayerData sean = getPlayer("Sean");
+		PlayerData tim = getPlayer("Tim");
+		PlayerData dave = getPlayer("Dave");
+		ranking.addSuspicion("Sean", 100);
+		ranking.addSuspicion("AJ", -50);
+		ranking.addSuspicion("Tim", 100);
+		ranking.addSuspicion("AJ", -50);
+
+		List<Set<PlayerData>> levels = ranking.getLevels(Arrays.asList(aj, sean, tim, dave));
+
+		assertEquals(ImmutableList.of(ImmutableSet.of(aj), ImmutableSet.of(dave), ImmutableSet.of(sean, tim)), levels);
+		assertEquals(-100, ranking.getSuspicion("AJ"));
+		assertEquals(0, ranking.getSuspicion("Dave"));
+		assertEquals("{AJ=-100, Sean=100, Tim=100}", ranking.toString());
+	}
+
+	@Test
+	public void testGetLevels_Cached() {
+		SuspicionRanking ranking = new SuspicionRanking();
+		PlayerData aj = getPlayer("AJ");
+		PlayerData sean = getPlayer("Sean");
+		List<PlayerData> players = Arrays.asList(aj, sean);
+		ranking.addSuspicion("AJ", 10);
+
+		List<Set<PlayerData>> levels = ranking.getLevels(players);
+
+		assertSame(levels, ranking.getLevels(players));
+		assertEquals(1, ranking.getLevel(players, aj));
+		ranking.addSuspicion("AJ", 0);
+		assertSame(levels, ranking.getLevels(players));
+		ranking.addSuspicion("AJ", -20);
+		assertEquals(ImmutableList.of(ImmutableSet.of(aj), ImmutableSet.of(sean)), ranking.getLevels(players));
+		assertEquals(0, ranking.getLevel(players, aj));
+		assertEquals("{AJ=-10}", ranking.toString());
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testGetLevels_Unmodifiable() {
+		SuspicionRanking ranking = new SuspicionRanking();
+
+		ranking.getLevels(Arrays.asList(getPlayer("AJ"))).clear();
+	}
+
+	@Test
+	public void testGetLevels_Subset() {
+		SuspicionRanking ranking = new SuspicionRanking();
+		PlayerData aj = getPlayer("AJ");
+		PlayerData sean = getPlayer("Sean");
+		ranking.addSuspicion("AJ", 10);
+		ranking.addSuspicion("Tim", -10);
+
+		assertEquals(ImmutableList.of(ImmutableSet.of(sean), ImmutableSet.of(aj)), ranking.getLevels(Arrays.asList(aj, sean)));
+		assertEquals(Collections.emptyList(), ranking.getLevels(Collections.emptyList()));
+	}
+
+	@Test
+	public void testGetLevel() {
+		SuspicionRanking ranking = new SuspicionRanking();
+		List<PlayerData> players = Arrays.asList(getPlayer("AJ"), getPlayer("Sean"), getPlayer("Tim"), getPlayer("Dave"));
+		ranking.addSuspicion("AJ", -5);
+		ranking.addSuspicion("Sean", -5);
+		ranking.addSuspicion("Dave", 7);
+
+		assertEquals(0, ranking.getLevel(players, players.get(1)));
+		assertEquals(1, ranking.getLevel(players, players.get(2)));
+		assertEquals(2, ranking.getLevel(players, players.get(3)));
+		assertEquals(-1, ranking.getLevel(players, getPlayer("Eve")));
+	}
+
+	@Test
+	public void testAddSuspicion_MatchesSort() {
+		Random random = new Random(1);
+		SuspicionRanking ranking = new SuspicionRanking();
+		List<PlayerData> players = IntStream.range(0, 20)
+				.mapToObj(index -> getPlayer(String.format("Robot %d", index)))
+				.collect(Collectors.toList());
+		int[] suspicions = new int[players.size()];
+		for (int update = 0; update < 1000; update++) {
+			final int index = random.nextInt(players.size());
+			final int change = random.nextInt(21) - 10;
+			suspicions[index] += change;
+			ranking.addSuspicion(players.get(index).getUsername(), change);
+
+			List<Integer> expected = IntStream.of(suspicions).distinct().sorted().boxed().collect(Collectors.toList());
+			List<Integer> actual = ranking.getLevels(players).stream()
+					.map(level -> ranking.getSuspicion(level.iterator().next().getUsername()))
+					.collect(Collectors.toList());
+			assertEquals(expected, actual);
+		}
+	}
+}
@@ -0,0 +1,85 @@
+package com.secrethitler.ai.processors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+public class WorldSetTest {
+	@Test
+	public void testWorlds() {
+		WorldSet worldSet = new WorldSet(10, 4);
+		
+		assertEquals(840, worldSet.getWorlds());
+		assertEquals(840, worldSet.countPossible());
+		for (int world = 0; world < worldSet.getWorlds(); world++) {
+			assertEquals(4, Integer.bitCount(worldSet.getFascistSeats(world)));
+			assertTrue(WorldSet.isFascist(worldSet.getFascistSeats(world), worldSet.getHitlerSeat(world)));
+		}
+	}
+	
+	@Test
+	public void testTooManyFascists() {
+		try {
+			new WorldSet(5, 6);
+			fail("Expected an IllegalArgumentException to be thrown if there are more fascists than players");
+		} catch (IllegalArgumentException e) {
+			assertEquals("Cannot seat 6 fascists at a table of 5", e.getMessage());
+		}
+	}
+	
+	@Test
+	public void testSetKnownFascist() {
+		WorldSet worldSet = new WorldSet(7, 3);
+		
+		assertTrue(worldSet.setKnownFascist(0, true));
+		assertTrue(worldSet.setKnownFascist(1, true));
+		assertTrue(worldSet.setKnownFascist(2, false));
+		
+		assertEquals(4 * 3, worldSet.countPossible());
+		assertTrue(worldSet.isCertainlyFascist(0));
+		assertTrue(worldSet.isCertainlyLiberal(2));
+		assertFalse(worldSet.isCertainlyFascist(3));
+		assertFalse(worldSet.isCertainlyLiberal(3));
+	}
+	
+	@Test
+	public void testDeducedMemberships() {
+		WorldSet worldSet = new WorldSet(5, 2);
+		
+		worldSet.setKnownFascist(0, false);
+		worldSet.setKnownFascist(1, false);
+		worldSet.setKnownFascist(2, false);
+		
+		assertTrue(worldSet.isCertainlyFascist(3));
+		assertTrue(worldSet.isCertainlyFascist(4));
+		assertFalse(worldSet.isCertainlyHitler(3));
+	}
+	
+	@Test
+	public void testSetKnownHitler() {
+		WorldSet worldSet = new WorldSet(5, 2);
+		
+		worldSet.setKnownFascist(3, true);
+		worldSet.setKnownFascist(4, true);
+		assertTrue(worldSet.setKnownHitler(3, false));
+		
+		assertEquals(1, worldSet.countPossible());
+		assertTrue(worldSet.isCertainlyHitler(4));
+		assertTrue(worldSet.isCertainlyNotHitler(0));
+	}
+	
+	@Test
+	public void testContradiction() {
+		WorldSet worldSet = new WorldSet(5, 2);
+		worldSet.setKnownFascist(0, true);
+		worldSet.setKnownFascist(1, true);
+		
+		assertFalse(worldSet.setKnownFascist(2, true));
+		
+		assertEquals(2, worldSet.countPossible());
+		assertTrue(worldSet.isCertainlyLiberal(2));
+	}
+}
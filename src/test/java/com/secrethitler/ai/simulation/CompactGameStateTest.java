@@ -0,0 +1,229 @@
+package com.secrethitler.ai.simulation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+import com.secrethitler.ai.dtos.GameData;
+import com.secrethitler.ai.dtos.GameplayAction;
+import com.secrethitler.ai.dtos.PlayerData;
+import com.secrethitler.ai.enums.Action;
+import com.secrethitler.ai.enums.GamePhase;
+import com.secrethitler.ai.enums.PartyMembership;
+import com.secrethitler.ai.enums.SecretRole;
+import com.secrethitler.ai.enums.Vote;
+
+public class CompactGameStateTest {
+	private static final int FIVE_PLAYER_FASCISTS = 0b00011;
+	private static final int MAX_MOVES = 1000;
+
+	private static List<String> getUsernames(final int totalPlayers) {
+		return IntStream.rangeClosed(1, totalPlayers)
+				.mapToObj(index -> String.format("Robot %d", index))
+				.collect(Collectors.toList());
+	}
+
+	private static int getFascistSeats(final List<SecretRole> roles) {
+		int fascistSeats = 0;
+		for (int seat = 0; seat < roles.size(); seat++) {
+			fascistSeats |= SecretRole.LIBERAL == roles.get(seat) ? 0 : 1 << seat;
+		}
+		return fascistSeats;
+	}
+
+	/**
+	 * Makes a random legal move for the first player with something to do.
+	 */
+	private static void playRandomMove(final CompactGameState game, final Random random, final int[] moves) {
+		for (int seat = 0; seat < game.getPlayers(); seat++) {
+			final int count = game.getLegalMoves(seat, moves);
+			if (count > 0) {
+				game.apply(seat, moves[random.nextInt(count)]);
+				return;
+			}
+		}
+		fail(String.format("No player can move in %s", game));
+	}
+
+	@Test
+	public void testPlayRandomGames() {
+		Random random = new Random(1);
+		int[] moves = new int[CompactGameState.MAX_MOVES];
+		for (int players = LocalGame.MIN_PLAYERS; players <= LocalGame.MAX_PLAYERS; players++) {
+			final int fascists = LocalGame.getNumberOfFascistsFromNumberOfPlayers(players);
+			for (int game = 0; game < 100; game++) {
+				CompactGameState state = new CompactGameState(players, (1 << fascists) - 1, 0, random);
+				int movesPlayed = 0;
+				while (!state.isOver() && movesPlayed++ < MAX_MOVES) {
+					playRandomMove(state, random, moves);
+				}
+
+				assertTrue(state.isOver());
+				assertNotNull(state.getWinners());
+				assertEquals(movesPlayed, state.getDepth());
+			}
+		}
+	}
+
+	@Test
+	public void testUndo() {
+		Random random = new Random(1);
+		int[] moves = new int[CompactGameState.MAX_MOVES];
+		CompactGameState state = new CompactGameState(7, 0b0000111, 2, random);
+		List<CompactGameState> previousStates = new ArrayList<>();
+		while (!state.isOver()) {
+			previousStates.add(state.copy());
+			playRandomMove(state, random, moves);
+		}
+
+		Collections.reverse(previousStates);
+		for (CompactGameState previousState : previousStates) {
+			state.undo();
+			assertEquals(previousState, state);
+		}
+		assertEquals(0, state.getDepth());
+		try {
+			state.undo();
+			fail("Expected an IllegalStateException to be thrown if there is no move to undo");
+		} catch (IllegalStateException e) {
+			assertEquals("There is no move to undo", e.getMessage());
+		}
+	}
+
+	@Test
+	public void testCopy() {
+		CompactGameState state = new CompactGameState(5, FIVE_PLAYER_FASCISTS, 0, new Random(1));
+		CompactGameState copy = state.copy();
+		final int chancellor = (state.getPresident() + 1) % 5;
+
+		copy.apply(copy.getPresident(), CompactGameState.move(Action.CHOOSE_RUNNING_MATE, chancellor));
+
+		assertEquals(GamePhase.PICKING_RUNNING_MATE, state.getPhase());
+		assertEquals(GamePhase.ELECTION, copy.getPhase());
+		assertNotEquals(state, copy);
+		copy.copyFrom(state);
+		assertEquals(state, copy);
+		assertEquals(0, copy.getDepth());
+	}
+
+	@Test
+	public void testApply_IllegalMove() {
+		CompactGameState state = new CompactGameState(5, FIVE_PLAYER_FASCISTS, 0, new Random(1));
+		CompactGameState before = state.copy();
+		final int president = state.getPresident();
+
+		try {
+			state.apply(president, CompactGameState.move(Action.CHOOSE_RUNNING_MATE, president));
+			fail("Expected an IllegalStateException to be thrown if the president picks themselves");
+		} catch (IllegalStateException e) {
+			assertEquals(String.format("Seat %d can not CHOOSE_RUNNING_MATE %d during the PICKING_RUNNING_MATE phase", president, president), e.getMessage());
+		}
+		assertEquals(before, state);
+		assertEquals(0, state.getDepth());
+	}
+
+	@Test
+	public void testElection() {
+		CompactGameState state = new CompactGameState(5, FIVE_PLAYER_FASCISTS, 0, new Random(1));
+		final int chancellor = (state.getPresident() + 1) % 5;
+		state.apply(state.getPresident(), CompactGameState.move(Action.CHOOSE_RUNNING_MATE, chancellor));
+
+		for (int seat = 0; seat < 5; seat++) {
+			state.apply(seat, CompactGameState.move(Action.VOTE, seat < 3 ? 1 : 0));
+		}
+
+		assertEquals(GamePhase.PRESIDENT_CHOICE, state.getPhase());
+		GameData gameData = state.toGameData(state.getPresident(), getUsernames(5));
+		assertEquals(3, gameData.getPoliciesToView().size());
+		assertEquals(14, gameData.getPolicyDocketSize());
+		assertEquals(Vote.NEIN, gameData.getPlayers().get(4).getVote());
+		assertTrue(gameData.getPlayers().get(chancellor).isChancellor());
+	}
+
+	@Test
+	public void testToGameData_Knowledge() {
+		CompactGameState state = new CompactGameState(7, 0b0000111, 2, new Random(1));
+
+		GameData liberalView = state.toGameData(3, getUsernames(7));
+		GameData fascistView = state.toGameData(0, getUsernames(7));
+		GameData hitlerView = state.toGameData(2, getUsernames(7));
+
+		assertEquals(6, liberalView.getPlayers().stream()
+				.filter(player -> PartyMembership.UNKNOWN == player.getPartyMembership())
+				.count());
+		assertEquals(SecretRole.HITLER, fascistView.getPlayers().get(2).getSecretRole());
+		assertEquals(SecretRole.FASCIST, fascistView.getPlayers().get(1).getSecretRole());
+		assertEquals(SecretRole.UNKNOWN, hitlerView.getPlayers().get(0).getSecretRole());
+		assertEquals("Robot 4", liberalView.getMyPlayer().getUsername());
+	}
+
+	@Test
+	public void testFromGameData() {
+		LocalGame game = new LocalGame(getUsernames(7), new Random(1));
+		final int president = game.getPresident();
+		game.apply(president, new GameplayAction(Action.CHOOSE_RUNNING_MATE, new String[] {String.valueOf((president + 1) % 7)}));
+		for (int seat = 0; seat < 7; seat++) {
+			game.apply(seat, new GameplayAction(Action.VOTE, new String[] {Vote.JA.name()}));
+		}
+		GameData expected = game.getNotification(president).getGameData();
+		final int hitler = game.getRoles().indexOf(SecretRole.HITLER);
+
+		CompactGameState state = CompactGameState.fromGameData(expected, game.getUsernames().get(president),
+				getFascistSeats(game.getRoles()), hitler, new Random(2));
+
+		GameData gameData = state.toGameData(president, game.getUsernames());
+		assertEquals(expected.getPhase(), gameData.getPhase());
+		assertEquals(expected.getPolicyDocketSize(), gameData.getPolicyDocketSize());
+		assertEquals(expected.getDeniedPolicies(), gameData.getDeniedPolicies());
+		assertEquals(expected.getNextPresident(), gameData.getNextPresident());
+		assertEquals(expected.getPoliciesToView().stream().sorted().collect(Collectors.toList()), gameData.getPoliciesToView());
+		assertEquals(getFlags(expected, PlayerData::isPresident), getFlags(gameData, PlayerData::isPresident));
+		assertEquals(getFlags(expected, PlayerData::isChancellor), getFlags(gameData, PlayerData::isChancellor));
+		assertEquals(getFlags(expected, PlayerData::isPreviousGovernmentMember), getFlags(gameData, PlayerData::isPreviousGovernmentMember));
+		assertEquals(expected.getPlayers().stream().map(PlayerData::getVote).collect(Collectors.toList()),
+				gameData.getPlayers().stream().map(PlayerData::getVote).collect(Collectors.toList()));
+		assertFalse(state.isOver());
+	}
+
+	@Test
+	public void testFromGameData_GameOver() {
+		GameData gameData = new GameData();
+		gameData.setPhase(GamePhase.GAME_OVER);
+
+		try {
+			CompactGameState.fromGameData(gameData, null, FIVE_PLAYER_FASCISTS, 0, new Random(1));
+			fail("Expected an IllegalArgumentException to be thrown if the game is over");
+		} catch (IllegalArgumentException e) {
+			assertEquals("Only a game in progress can be recreated", e.getMessage());
+		}
+	}
+
+	@Test
+	public void testWrongNumberOfFascists() {
+		try {
+			new CompactGameState(5, 0b00111, 0, new Random(1));
+			fail("Expected an IllegalArgumentException to be thrown if the fascist team is the wrong size");
+		} catch (IllegalArgumentException e) {
+			assertEquals("5 players need 2 fascists including Hitler", e.getMessage());
+		}
+	}
+
+	private static List<Boolean> getFlags(final GameData gameData, final Predicate<PlayerData> flag) {
+		return gameData.getPlayers().stream()
+				.map(flag::test)
+				.collect(Collectors.toList());
+	}
+}
@@ -0,0 +1,121 @@
+package com.secrethitler.ai.simulation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.Optional;
+import java.util.Random;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import com.secrethitler.ai.dtos.ParticipantGameNotification;
+import com.secrethitler.ai.enums.GamePhase;
+import com.secrethitler.ai.enums.PartyMembership;
+import com.secrethitler.ai.processors.GameplayProcessor;
+import com.secrethitler.ai.processors.GameplayProcessorFactory;
+import com.secrethitler.ai.processors.GameplayProcessorFactoryImpl;
+
+@RunWith(MockitoJUnitRunner.class)
+public class LocalGameEngineTest {
+	private static final String PROCESSORS_PACKAGE = "com.secrethitler.ai.processors";
+	
+	@Mock
+	private GameplayProcessor idleProcessor;
+	
+	private final GameplayProcessorFactory factory = new GameplayProcessorFactoryImpl();
+	
+	@Before
+	public void setUp() {
+		Logger.getLogger(PROCESSORS_PACKAGE).setLevel(Level.WARNING);
+	}
+	
+	@Test
+	public void testPlay_SimpleProcessors() throws Exception {
+		testPlay(1);
+	}
+	
+	@Test
+	public void testPlay_BooleanDeductionProcessors() throws Exception {
+		testPlay(2);
+	}
+	
+	@Test
+	public void testPlay_WeightedDeductionProcessors() throws Exception {
+		testPlay(3);
+	}
+	
+	@Test
+	public void testPlay_DeceptionProcessors() throws Exception {
+		testPlay(4);
+	}
+	
+	private void testPlay(final int level) throws InstantiationException, IllegalAccessException, InvocationTargetException, NoSuchMethodException {
+		for (int totalPlayers = LocalGame.MIN_PLAYERS; totalPlayers <= LocalGame.MAX_PLAYERS; totalPlayers++) {
+			LocalGameEngine.Builder builder = LocalGameEngine.builder()
+					.withRandom(new Random(totalPlayers));
+			for (int i = 1; i <= totalPlayers; i++) {
+				final String username = String.format("Robot %d", i);
+				builder.withPlayer(username, factory.getGameplayProcessor(level, username));
+			}
+			
+			GameResult result = builder.build().play();
+			
+			assertNotNull(result.getWinners());
+			assertEquals(totalPlayers, result.getRoles().size());
+			assertTrue(result.getMoves() > 0);
+			assertTrue(result.getLiberalPolicies() <= LocalGame.LIBERAL_POLICIES_TO_WIN);
+			assertTrue(result.getFascistPolicies() <= LocalGame.FASCIST_POLICIES_TO_WIN);
+		}
+	}
+	
+	@Test
+	public void testPlay_MixedProcessors() throws Exception {
+		LocalGameEngine.Builder builder = LocalGameEngine.builder()
+				.withRandom(new Random(42));
+		for (int i = 1; i <= 8; i++) {
+			final String username = String.format("Robot %d", i);
+			builder.withPlayer(username, factory.getGameplayProcessor((i % 4) + 1, username));
+		}
+		
+		GameResult result = builder.build().play();
+		
+		long winningPlayers = result.getRoles().stream()
+				.map(LocalGame::getMembershipFromRole)
+				.filter(result.getWinners()::equals)
+				.count();
+		assertEquals(PartyMembership.LIBERAL == result.getWinners() ? 5 : 3, winningPlayers);
+	}
+	
+	@Test
+	public void testPlay_NoPlayerActs() {
+		when(idleProcessor.getActionToTake(any(ParticipantGameNotification.class))).thenReturn(Optional.empty());
+		LocalGameEngine.Builder builder = LocalGameEngine.builder();
+		for (int i = 1; i <= 5; i++) {
+			builder.withPlayer(String.format("Robot %d", i), idleProcessor);
+		}
+		
+		try {
+			builder.build().play();
+			fail("Expected an IllegalStateException to be thrown if no player acts");
+		} catch (IllegalStateException e) {
+			assertEquals(String.format("No player completed the %s phase", GamePhase.PICKING_RUNNING_MATE), e.getMessage());
+		}
+	}
+	
+	@After
+	public void tearDown() {
+		Logger.getLogger(PROCESSORS_PACKAGE).setLevel(Level.INFO);
+	}
+}
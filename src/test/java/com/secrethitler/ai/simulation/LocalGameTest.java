@@ -0,0 +1,297 @@
+package com.secrethitler.ai.simulation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+import com.secrethitler.ai.dtos.GameData;
+import com.secrethitler.ai.dtos.GameplayAction;
+import com.secrethitler.ai.dtos.ParticipantGameNotification;
+import com.secrethitler.ai.dtos.PlayerData;
+import com.secrethitler.ai.enums.Action;
+import com.secrethitler.ai.enums.GamePhase;
+import com.secrethitler.ai.enums.PartyMembership;
+import com.secrethitler.ai.enums.SecretRole;
+import com.secrethitler.ai.enums.Vote;
+
+public class LocalGameTest {
+	private static List<String> getUsernames(final int totalPlayers) {
+		return IntStream.rangeClosed(1, totalPlayers)
+				.mapToObj(index -> String.format("Robot %d", index))
+				.collect(Collectors.toList());
+	}
+
+	private static int getSeatWithRole(final LocalGame game, final SecretRole role) {
+		return game.getRoles().indexOf(role);
+	}
+
+	private static int getEligibleChancellor(final LocalGame game) {
+		final int president = game.getPresident();
+		return (president + 1) % game.getUsernames().size();
+	}
+
+	private static void electGovernment(final LocalGame game, final Vote vote) {
+		final int chancellor = getEligibleChancellor(game);
+		game.apply(game.getPresident(), new GameplayAction(Action.CHOOSE_RUNNING_MATE, new String[] {String.valueOf(chancellor)}));
+		for (int seat = 0; seat < game.getUsernames().size(); seat++) {
+			game.apply(seat, new GameplayAction(Action.VOTE, new String[] {vote.name()}));
+		}
+	}
+
+	@Test
+	public void testRoles() {
+		for (int totalPlayers = LocalGame.MIN_PLAYERS; totalPlayers <= LocalGame.MAX_PLAYERS; totalPlayers++) {
+			LocalGame game = new LocalGame(getUsernames(totalPlayers), new Random(totalPlayers));
+
+			List<SecretRole> roles = game.getRoles();
+
+			assertEquals(1, Collections.frequency(roles, SecretRole.HITLER));
+			assertEquals(LocalGame.getNumberOfFascistsFromNumberOfPlayers(totalPlayers) - 1, Collections.frequency(roles, SecretRole.FASCIST));
+			assertEquals(totalPlayers - LocalGame.getNumberOfFascistsFromNumberOfPlayers(totalPlayers), Collections.frequency(roles, SecretRole.LIBERAL));
+		}
+	}
+
+	@Test
+	public void testTooFewPlayers() {
+		try {
+			new LocalGame(getUsernames(4), new Random());
+			fail("Expected an IllegalArgumentException to be thrown if there are not enough players");
+		} catch (IllegalArgumentException e) {
+			assertEquals("A game needs between 5 and 10 players", e.getMessage());
+		}
+	}
+
+	@Test
+	public void testGetNotification_LiberalKnowledge() {
+		LocalGame game = new LocalGame(getUsernames(7), new Random(1));
+		final int liberal = getSeatWithRole(game, SecretRole.LIBERAL);
+
+		GameData gameData = game.getNotification(liberal).getGameData();
+
+		assertEquals(SecretRole.LIBERAL, gameData.getMyPlayer().getSecretRole());
+		assertEquals(PartyMembership.LIBERAL, gameData.getMyPlayer().getPartyMembership());
+		assertEquals(gameData.getPlayers().get(liberal), gameData.getMyPlayer());
+		assertEquals(6, gameData.getPlayers().stream()
+				.filter(player -> SecretRole.UNKNOWN == player.getSecretRole())
+				.count());
+	}
+
+	@Test
+	public void testGetNotification_FascistKnowledge() {
+		LocalGame game = new LocalGame(getUsernames(7), new Random(1));
+		final int fascist = getSeatWithRole(game, SecretRole.FASCIST);
+
+		GameData gameData = game.getNotification(fascist).getGameData();
+
+		assertEquals(game.getRoles(), gameData.getPlayers().stream()
+				.map(PlayerData::getSecretRole)
+				.collect(Collectors.toList()));
+	}
+
+	@Test
+	public void testGetNotification_HitlerKnowledgeSmallGame() {
+		LocalGame game = new LocalGame(getUsernames(6), new Random(1));
+		final int hitler = getSeatWithRole(game, SecretRole.HITLER);
+
+		GameData gameData = game.getNotification(hitler).getGameData();
+
+		assertEquals(game.getRoles(), gameData.getPlayers().stream()
+				.map(PlayerData::getSecretRole)
+				.collect(Collectors.toList()));
+	}
+
+	@Test
+	public void testGetNotification_HitlerKnowledgeLargeGame() {
+		LocalGame game = new LocalGame(getUsernames(7), new Random(1));
+		final int hitler = getSeatWithRole(game, SecretRole.HITLER);
+
+		GameData gameData = game.getNotification(hitler).getGameData();
+
+		assertEquals(6, gameData.getPlayers().stream()
+				.filter(player -> PartyMembership.UNKNOWN == player.getPartyMembership())
+				.count());
+	}
+
+	@Test
+	public void testPickRunningMate() {
+		LocalGame game = new LocalGame(getUsernames(5), new Random(1));
+		final int chancellor = getEligibleChancellor(game);
+
+		game.apply(game.getPresident(), new GameplayAction(Action.CHOOSE_RUNNING_MATE, new String[] {String.valueOf(chancellor)}));
+
+		ParticipantGameNotification notification = game.getNotification(chancellor);
+		assertEquals(GamePhase.ELECTION, notification.getGameData().getPhase());
+		assertEquals(Action.CHOOSE_RUNNING_MATE, notification.getAction().getAction());
+		assertTrue(notification.getGameData().getMyPlayer().isChancellor());
+		assertFalse(notification.getGameData().getMyPlayer().isVoteReady());
+	}
+
+	@Test
+	public void testPickRunningMate_WrongPlayer() {
+		LocalGame game = new LocalGame(getUsernames(5), new Random(1));
+		final int notPresident = getEligibleChancellor(game);
+
+		try {
+			game.apply(notPresident, new GameplayAction(Action.CHOOSE_RUNNING_MATE, new String[] {"0"}));
+			fail("Expected an IllegalStateException to be thrown if a player acts out of turn");
+		} catch (IllegalStateException e) {
+			assertEquals(GamePhase.PICKING_RUNNING_MATE, game.getPhase());
+		}
+	}
+
+	@Test
+	public void testPickRunningMate_Self() {
+		LocalGame game = new LocalGame(getUsernames(5), new Random(1));
+		final int president = game.getPresident();
+
+		try {
+			game.apply(president, new GameplayAction(Action.CHOOSE_RUNNING_MATE, new String[] {String.valueOf(president)}));
+			fail("Expected an IllegalStateException to be thrown if the president picks themselves");
+		} catch (IllegalStateException e) {
+			assertEquals(GamePhase.PICKING_RUNNING_MATE, game.getPhase());
+		}
+	}
+
+	@Test
+	public void testElection_Elected() {
+		LocalGame game = new LocalGame(getUsernames(5), new Random(1));
+		final int president = game.getPresident();
+
+		electGovernment(game, Vote.JA);
+
+		ParticipantGameNotification notification = game.getNotification(president);
+		assertEquals(GamePhase.PRESIDENT_CHOICE, game.getPhase());
+		assertEquals(Action.SHUSH, notification.getAction().getAction());
+		assertEquals(3, notification.getGameData().getPoliciesToView().size());
+		assertEquals(Collections.emptyList(), game.getNotification(getEligibleChancellor(game)).getGameData().getPoliciesToView());
+		assertTrue(notification.getGameData().getPlayers().stream()
+				.allMatch(player -> Vote.JA == player.getVote()));
+	}
+
+	@Test
+	public void testElection_Anarchy() {
+		LocalGame game = new LocalGame(getUsernames(5), new Random(1));
+
+		electGovernment(game, Vote.NEIN);
+		assertEquals(Action.DENIED, game.getNotification(0).getAction().getAction());
+		assertEquals(1, game.getNotification(0).getGameData().getUnsuccessfulGovernments());
+		electGovernment(game, Vote.NEIN);
+		electGovernment(game, Vote.NEIN);
+
+		GameData gameData = game.getNotification(0).getGameData();
+		assertEquals(Action.ANARCHY, game.getNotification(0).getAction().getAction());
+		assertEquals(GamePhase.PICKING_RUNNING_MATE, gameData.getPhase());
+		assertEquals(0, gameData.getUnsuccessfulGovernments());
+		assertEquals(1, gameData.getLiberalPolicies() + gameData.getFascistPolicies());
+	}
+
+	@Test
+	public void testLegislativeSession() {
+		LocalGame game = new LocalGame(getUsernames(5), new Random(1));
+		final int president = game.getPresident();
+		electGovernment(game, Vote.JA);
+		final int chancellor = game.getChancellor();
+
+		game.apply(president, new GameplayAction(Action.PRESIDENT_CHOICE, new String[] {"0"}));
+		assertEquals(2, game.getNotification(chancellor).getGameData().getPoliciesToView().size());
+		game.apply(chancellor, new GameplayAction(Action.CHANCELLOR_CHOICE, new String[] {"0"}));
+
+		GameData gameData = game.getNotification(president).getGameData();
+		assertEquals(1, gameData.getLiberalPolicies() + gameData.getFascistPolicies());
+		assertEquals(2, gameData.getDeniedPolicies());
+		assertEquals(14, gameData.getPolicyDocketSize());
+		assertTrue(gameData.getPlayers().get(chancellor).isPreviousGovernmentMember());
+		assertFalse(gameData.getPlayers().get(president).isPreviousGovernmentMember());
+	}
+
+	@Test
+	public void testApply_GameOver() {
+		LocalGame game = new LocalGame(getUsernames(5), new Random(1));
+		while (!game.isOver()) {
+			electGovernment(game, Vote.NEIN);
+		}
+
+		try {
+			game.apply(0, new GameplayAction(Action.VOTE, new String[] {Vote.JA.name()}));
+			fail("Expected an IllegalStateException to be thrown if a player acts after the game is over");
+		} catch (IllegalStateException e) {
+			assertEquals("No actions can be taken during the GAME_OVER phase", e.getMessage());
+		}
+		GameData gameData = game.getNotification(0).getGameData();
+		assertEquals(game.getWinners(), gameData.getWinners());
+		assertNull(gameData.getNextPresident());
+		assertEquals(game.getRoles(), Arrays.asList(gameData.getPlayers().stream()
+				.map(PlayerData::getSecretRole)
+				.toArray(SecretRole[]::new)));
+	}
+
+	@Test
+	public void testFromNotification_PresidentChoice() {
+		LocalGame game = new LocalGame(getUsernames(7), new Random(1));
+		final int president = game.getPresident();
+		electGovernment(game, Vote.JA);
+		ParticipantGameNotification notification = game.getNotification(president);
+
+		LocalGame copy = LocalGame.fromNotification(notification, game.getUsernames().get(president), game.getRoles(), new Random(2));
+
+		GameData expected = notification.getGameData();
+		GameData gameData = copy.getNotification(president).getGameData();
+		assertEquals(GamePhase.PRESIDENT_CHOICE, copy.getPhase());
+		assertEquals(expected.getPoliciesToView(), gameData.getPoliciesToView());
+		assertEquals(expected.getPolicyDocketSize(), gameData.getPolicyDocketSize());
+		assertEquals(expected.getNextPresident(), gameData.getNextPresident());
+		assertEquals(game.getChancellor(), copy.getChancellor());
+		assertEquals(game.getRoles(), copy.getRoles());
+	}
+
+	@Test
+	public void testFromNotification_AfterLegislativeSession() {
+		LocalGame game = new LocalGame(getUsernames(7), new Random(1));
+		final int president = game.getPresident();
+		electGovernment(game, Vote.JA);
+		game.apply(president, new GameplayAction(Action.PRESIDENT_CHOICE, new String[] {"0"}));
+		game.apply(game.getChancellor(), new GameplayAction(Action.CHANCELLOR_CHOICE, new String[] {"0"}));
+		final int liberal = getSeatWithRole(game, SecretRole.LIBERAL);
+		ParticipantGameNotification notification = game.getNotification(liberal);
+
+		LocalGame copy = LocalGame.fromNotification(notification, game.getUsernames().get(president), game.getRoles(), new Random(2));
+
+		GameData expected = notification.getGameData();
+		GameData gameData = copy.getNotification(liberal).getGameData();
+		assertEquals(game.getPresident(), copy.getPresident());
+		assertEquals(expected.getPolicyDocketSize(), gameData.getPolicyDocketSize());
+		assertEquals(expected.getDeniedPolicies(), gameData.getDeniedPolicies());
+		assertEquals(expected.getNextPresident(), gameData.getNextPresident());
+		assertEquals(expected.getPlayers().stream().map(PlayerData::isPreviousGovernmentMember).collect(Collectors.toList()),
+				gameData.getPlayers().stream().map(PlayerData::isPreviousGovernmentMember).collect(Collectors.toList()));
+		electGovernment(copy, Vote.JA);
+		assertEquals(GamePhase.PRESIDENT_CHOICE, copy.getPhase());
+		assertEquals(3, copy.getNotification(copy.getPresident()).getGameData().getPoliciesToView().size());
+	}
+
+	@Test
+	public void testFromNotification_GameOver() {
+		LocalGame game = new LocalGame(getUsernames(5), new Random(1));
+		while (!game.isOver()) {
+			electGovernment(game, Vote.NEIN);
+		}
+
+		try {
+			LocalGame.fromNotification(game.getNotification(0), null, game.getRoles(), new Random(2));
+			fail("Expected an IllegalArgumentException to be thrown if the game is over");
+		} catch (IllegalArgumentException e) {
+			assertEquals("Only a game in progress with a role for every player can be recreated", e.getMessage());
+		}
+	}
+}
@@ -0,0 +1,127 @@
+package com.secrethitler.ai.simulation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.commons.math3.stat.interval.ConfidenceInterval;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import com.secrethitler.ai.enums.PartyMembership;
+import com.secrethitler.ai.enums.SecretRole;
+import com.secrethitler.ai.processors.GameplayProcessorFactory;
+import com.secrethitler.ai.utils.RandomUtil;
+
+@RunWith(MockitoJUnitRunner.class)
+public class TournamentTest {
+	private static final String PROCESSORS_PACKAGE = "com.secrethitler.ai.processors";
+	
+	@Before
+	public void setUp() {
+		Logger.getLogger(PROCESSORS_PACKAGE).setLevel(Level.WARNING);
+		Logger.getLogger(Tournament.class.getName()).setLevel(Level.SEVERE);
+	}
+	
+	@Test
+	public void testRun() throws InterruptedException {
+		TournamentReport report = Tournament.builder()
+				.withGames(40)
+				.withSeatLevels(Arrays.asList(1, 2, 3, 4, 1, 2, 3))
+				.withParallelism(4)
+				.withSeed(7)
+				.build()
+				.run();
+		
+		assertEquals(0, report.getGamesFailed());
+		assertEquals(40, report.getGamesPlayed());
+		int totalSeats = 0;
+		for (int level = 1; level <= 4; level++) {
+			for (SecretRole role : Arrays.asList(SecretRole.LIBERAL, SecretRole.FASCIST, SecretRole.HITLER)) {
+				totalSeats += report.getGames(level, role);
+				assertTrue(report.getWins(level, role) <= report.getGames(level, role));
+			}
+		}
+		assertEquals(report.getGamesPlayed() * 7, totalSeats);
+		assertTrue(report.toString().contains("Level 1 as LIBERAL"));
+	}
+	
+	@Test
+	public void testRun_Reproducible() throws InterruptedException {
+		Tournament.Builder builder = Tournament.builder()
+				.withGames(8)
+				.withSeatLevels(Arrays.asList(1, 2, 3, 4, 1))
+				.withParallelism(4)
+				.withSeed(3);
+		
+		TournamentReport first = builder.build().run();
+		TournamentReport second = builder.build().run();
+		
+		assertEquals(first.getMoves(), second.getMoves());
+		assertEquals(first.toString(), second.toString());
+	}
+	
+	@Test
+	public void testRun_FailedGames() throws Exception {
+		GameplayProcessorFactory gameplayProcessorFactory = mock(GameplayProcessorFactory.class);
+		when(gameplayProcessorFactory.getGameplayProcessor(anyInt(), anyString(), any(RandomUtil.class))).thenThrow(new IllegalArgumentException("Test Exception"));
+		
+		TournamentReport report = Tournament.builder()
+				.withGames(3)
+				.withSeatLevels(Arrays.asList(1, 1, 1, 1, 1))
+				.withGameplayProcessorFactory(gameplayProcessorFactory)
+				.build()
+				.run();
+		
+		assertEquals(0, report.getGamesPlayed());
+		assertEquals(3, report.getGamesFailed());
+	}
+	
+	@Test
+	public void testBuild_TooFewSeats() {
+		try {
+			Tournament.builder()
+					.withSeatLevels(Arrays.asList(1, 2))
+					.build();
+			fail("Expected an IllegalArgumentException to be thrown if there are too few seats");
+		} catch (IllegalArgumentException e) {
+			assertEquals("A tournament table needs between 5 and 10 seats", e.getMessage());
+		}
+	}
+	
+	@Test
+	public void testWinRateInterval() {
+		TournamentReport report = new TournamentReport();
+		
+		report.recordGame(Arrays.asList(1, 1, 1, 2, 2), new GameResult(Arrays.asList("A", "B", "C", "D", "E"),
+				Arrays.asList(SecretRole.LIBERAL, SecretRole.LIBERAL, SecretRole.HITLER, SecretRole.LIBERAL, SecretRole.FASCIST),
+				PartyMembership.LIBERAL, 5, 2, 30));
+		
+		assertEquals(1, report.getWinRate(1, SecretRole.LIBERAL), 0);
+		assertEquals(0, report.getWinRate(1, SecretRole.HITLER), 0);
+		assertEquals(30, report.getMoves());
+		ConfidenceInterval interval = report.getWinRateInterval(1, SecretRole.LIBERAL);
+		assertTrue(interval.getLowerBound() < 1);
+		assertTrue(interval.getUpperBound() <= 1);
+		assertNull(report.getWinRateInterval(2, SecretRole.HITLER));
+	}
+	
+	@After
+	public void tearDown() {
+		Logger.getLogger(PROCESSORS_PACKAGE).setLevel(Level.INFO);
+		Logger.getLogger(Tournament.class.getName()).setLevel(Level.INFO);
+	}
+}
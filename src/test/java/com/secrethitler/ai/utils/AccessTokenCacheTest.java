@@ -0,0 +1,235 @@
+package com.secrethitler.ai.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class AccessTokenCacheTest {
+	private static final String USERNAME = "Robot 1";
+	private static final long NOW = 1600000000000L;
+	private static final long TTL = 60000;
+	private static final long MARGIN = 10000;
+	
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+	
+	@Mock
+	private Supplier<CompletableFuture<String>> login;
+	
+	@Mock
+	private ScheduledExecutorService refreshScheduler;
+	
+	@Mock
+	private ScheduledFuture<?> refresh;
+	
+	@Mock
+	private Clock clock;
+	
+	private AccessTokenCache cache;
+	
+	@Before
+	public void setUp() {
+		when(clock.millis()).thenReturn(NOW);
+		cache = getCache(Optional.empty());
+	}
+	
+	private AccessTokenCache getCache(final Optional<Path> cacheFile) {
+		return AccessTokenCache.builder()
+				.withTokenTtl(TTL)
+				.withRefreshMargin(MARGIN)
+				.withCacheFile(cacheFile)
+				.withRefreshScheduler(refreshScheduler)
+				.withClock(clock)
+				.build();
+	}
+	
+	private static String jwt(final long expSeconds) {
+		final Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+		return String.format("%s.%s.signature", encoder.encodeToString("{\"alg\":\"HS256\"}".getBytes(StandardCharsets.UTF_8)),
+				encoder.encodeToString(String.format("{\"sub\":\"Robot 1\",\"exp\":%d}", expSeconds).getBytes(StandardCharsets.UTF_8)));
+	}
+	
+	@SuppressWarnings("unchecked")
+	private Runnable captureRefresh(final long delay) {
+		ArgumentCaptor<Runnable> captor = ArgumentCaptor.forClass(Runnable.class);
+		verify(refreshScheduler).schedule(captor.capture(), eq(delay), eq(TimeUnit.MILLISECONDS));
+		return captor.getValue();
+	}
+	
+	@Test
+	public void testGetAccessToken_Cached() {
+		when(login.get()).thenReturn(CompletableFuture.completedFuture("token"));
+		
+		assertEquals("token", cache.getAccessToken(USERNAME, login).join());
+		assertEquals("token", cache.getAccessToken(USERNAME, login).join());
+		
+		verify(login).get();
+		captureRefresh(TTL - MARGIN);
+	}
+	
+	@Test
+	public void testGetAccessToken_Expired() {
+		when(login.get()).thenReturn(CompletableFuture.completedFuture("token")).thenReturn(CompletableFuture.completedFuture("newToken"));
+		cache.getAccessToken(USERNAME, login).join();
+		when(clock.millis()).thenReturn(NOW + TTL);
+		
+		assertEquals("newToken", cache.getAccessToken(USERNAME, login).join());
+		
+		verify(login, times(2)).get();
+	}
+	
+	@Test
+	public void testGetAccessToken_LoginFailed() {
+		CompletableFuture<String> failedLogin = new CompletableFuture<>();
+		failedLogin.completeExceptionally(new IOException("Test Exception"));
+		when(login.get()).thenReturn(failedLogin).thenReturn(CompletableFuture.completedFuture("token"));
+		
+		assertTrue(cache.getAccessToken(USERNAME, login).isCompletedExceptionally());
+		assertEquals("token", cache.getAccessToken(USERNAME, login).join());
+	}
+	
+	@Test
+	public void testGetAccessToken_JwtExpiry() {
+		final long exp = TimeUnit.MILLISECONDS.toSeconds(NOW) + 3600;
+		when(login.get()).thenReturn(CompletableFuture.completedFuture(jwt(exp)));
+		
+		cache.getAccessToken(USERNAME, login).join();
+		
+		captureRefresh(TimeUnit.SECONDS.toMillis(exp) - NOW - MARGIN);
+	}
+	
+	@Test
+	public void testGetAccessToken_ShortLivedJwt() {
+		final long exp = TimeUnit.MILLISECONDS.toSeconds(NOW + MARGIN);
+		when(login.get()).thenReturn(CompletableFuture.completedFuture(jwt(exp)));
+		
+		cache.getAccessToken(USERNAME, login).join();
+		
+		captureRefresh(MARGIN / 2);
+	}
+	
+	@Test
+	public void testGetAccessToken_ExpiredJwt() {
+		final long exp = TimeUnit.MILLISECONDS.toSeconds(NOW) - 60;
+		when(login.get()).thenReturn(CompletableFuture.completedFuture(jwt(exp)));
+		
+		cache.getAccessToken(USERNAME, login).join();
+		
+		captureRefresh(AccessTokenCache.MIN_REFRESH_DELAY);
+	}
+	
+	@Test
+	public void testGetJwtExpiry() {
+		assertEquals(Optional.of(1700000000000L), AccessTokenCache.getJwtExpiry(jwt(1700000000L)));
+		assertEquals(Optional.of(1700000000000L), AccessTokenCache.getJwtExpiry("Bearer " + jwt(1700000000L)));
+		assertFalse(AccessTokenCache.getJwtExpiry("token").isPresent());
+		assertFalse(AccessTokenCache.getJwtExpiry("not.a!.jwt").isPresent());
+	}
+	
+	@Test
+	public void testRefresh() {
+		when(login.get()).thenReturn(CompletableFuture.completedFuture("token")).thenReturn(CompletableFuture.completedFuture("newToken"));
+		cache.getAccessToken(USERNAME, login).join();
+		
+		captureRefresh(TTL - MARGIN).run();
+		
+		assertEquals("newToken", cache.getAccessToken(USERNAME, login).join());
+		verify(login, times(2)).get();
+	}
+	
+	@Test
+	public void testRefresh_Failed() {
+		CompletableFuture<String> failedLogin = new CompletableFuture<>();
+		failedLogin.completeExceptionally(new IOException("Test Exception"));
+		when(login.get()).thenReturn(CompletableFuture.completedFuture("token")).thenReturn(failedLogin);
+		cache.getAccessToken(USERNAME, login).join();
+		
+		captureRefresh(TTL - MARGIN).run();
+		
+		assertEquals("token", cache.getAccessToken(USERNAME, login).join());
+	}
+	
+	@Test
+	public void testRefresh_Invalidated() {
+		when(login.get()).thenReturn(CompletableFuture.completedFuture("token")).thenReturn(CompletableFuture.completedFuture("newToken"));
+		cache.getAccessToken(USERNAME, login).join();
+		Runnable scheduledRefresh = captureRefresh(TTL - MARGIN);
+		cache.invalidate(USERNAME);
+		
+		scheduledRefresh.run();
+		
+		verify(refreshScheduler).schedule(any(Runnable.class), anyLong(), eq(TimeUnit.MILLISECONDS));
+	}
+	
+	@Test
+	public void testInvalidate() {
+		when(login.get()).thenReturn(CompletableFuture.completedFuture("token")).thenReturn(CompletableFuture.completedFuture("newToken"));
+		when(refreshScheduler.schedule(any(Runnable.class), anyLong(), eq(TimeUnit.MILLISECONDS))).thenAnswer(invocation -> refresh);
+		cache.getAccessToken(USERNAME, login).join();
+		
+		cache.invalidate(USERNAME);
+		
+		verify(refresh).cancel(false);
+		assertEquals("newToken", cache.getAccessToken(USERNAME, login).join());
+	}
+	
+	@Test
+	public void testPersistence() throws IOException {
+		final Path cacheFile = folder.getRoot().toPath().resolve("tokens.json");
+		when(login.get()).thenReturn(CompletableFuture.completedFuture("token"));
+		getCache(Optional.of(cacheFile)).getAccessToken(USERNAME, login).join();
+		
+		assertEquals("token", getCache(Optional.of(cacheFile)).getAccessToken(USERNAME, login).join());
+		
+		verify(login).get();
+	}
+	
+	@Test
+	public void testPersistence_Expired() throws IOException {
+		final Path cacheFile = folder.getRoot().toPath().resolve("tokens.json");
+		when(login.get()).thenReturn(CompletableFuture.completedFuture("token")).thenReturn(CompletableFuture.completedFuture("newToken"));
+		getCache(Optional.of(cacheFile)).getAccessToken(USERNAME, login).join();
+		when(clock.millis()).thenReturn(NOW + TTL);
+		
+		assertEquals("newToken", getCache(Optional.of(cacheFile)).getAccessToken(USERNAME, login).join());
+	}
+	
+	@Test
+	public void testClose() {
+		when(login.get()).thenReturn(CompletableFuture.completedFuture("token"));
+		when(refreshScheduler.schedule(any(Runnable.class), anyLong(), eq(TimeUnit.MILLISECONDS))).thenAnswer(invocation -> refresh);
+		cache.getAccessToken(USERNAME, login).join();
+		
+		cache.close();
+		
+		verify(refresh).cancel(false);
+	}
+}
@@ -0,0 +1,176 @@
+package com.secrethitler.ai.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.HttpURLConnection;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class HttpPostClientTest {
+	private static final String URL = "http://test.com/login";
+	
+	@Mock
+	private Function<String, UrlWrapper> getUrlFunction;
+	
+	@Mock
+	private UrlWrapper url;
+	
+	@Mock
+	private HttpURLConnection con;
+	
+	private ByteArrayOutputStream os;
+	
+	private HttpPostClient client;
+	
+	@Before
+	public void setUp() throws IOException {
+		when(getUrlFunction.apply(URL)).thenReturn(url);
+		when(url.openConnection()).thenReturn(con);
+		os = new ByteArrayOutputStream();
+		when(con.getOutputStream()).thenReturn(os);
+		client = HttpPostClient.builder()
+				.withGetUrlFunction(getUrlFunction)
+				.withExecutor(Runnable::run)
+				.withConnectTimeout(100)
+				.withReadTimeout(200)
+				.withMaxAttempts(3)
+				.withInitialBackoff(1)
+				.build();
+	}
+	
+	private static ByteArrayInputStream body(final String body) {
+		return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+	}
+	
+	@Test
+	public void testPostAsync() throws IOException {
+		when(con.getResponseCode()).thenReturn(200);
+		when(con.getInputStream()).thenReturn(body("{\n  \"accessToken\" : \"token\"\n}"));
+		
+		final String response = client.postAsync(URL, "{}", Optional.of("auth")).join();
+		
+		assertEquals("{\"accessToken\" : \"token\"}", response);
+		assertEquals("{}", new String(os.toByteArray(), StandardCharsets.UTF_8));
+		verify(con).setConnectTimeout(100);
+		verify(con).setReadTimeout(200);
+		verify(con).setRequestMethod("POST");
+		verify(con).setRequestProperty("Content-Type", "application/json; utf-8");
+		verify(con).setRequestProperty("Accept", "application/json");
+		verify(con).setRequestProperty("authorization", "auth");
+		verify(con).setDoOutput(true);
+	}
+	
+	@Test
+	public void testPostAsync_RetryServerError() throws IOException {
+		when(con.getResponseCode()).thenReturn(503, 429, 200);
+		when(con.getErrorStream()).then(invocation -> body("Unavailable"));
+		when(con.getInputStream()).thenReturn(body("response"));
+		
+		final String response = client.postAsync(URL, "{}", Optional.empty()).join();
+		
+		assertEquals("response", response);
+		verify(con, times(3)).setRequestMethod("POST");
+	}
+	
+	@Test
+	public void testPostAsync_RetryTimeout() throws IOException {
+		when(con.getResponseCode()).thenThrow(new SocketTimeoutException("Read timed out")).thenReturn(200);
+		when(con.getInputStream()).thenReturn(body("response"));
+		
+		final String response = client.postAsync(URL, "{}", Optional.empty()).join();
+		
+		assertEquals("response", response);
+	}
+	
+	@Test
+	public void testPostAsync_NotIdempotent_NoRetryAfterSending() throws IOException {
+		when(con.getResponseCode()).thenThrow(new SocketTimeoutException("Read timed out"));
+		
+		try {
+			client.postAsync(URL, "{}", Optional.empty(), false).join();
+			fail("Expected a CompletionException to be thrown if a post that may have been processed fails");
+		} catch (CompletionException e) {
+			assertEquals("Read timed out", e.getCause().getMessage());
+		}
+		verify(con).setRequestMethod("POST");
+	}
+	
+	@Test
+	public void testPostAsync_NotIdempotent_NoRetryServerError() throws IOException {
+		when(con.getResponseCode()).thenReturn(503);
+		when(con.getErrorStream()).thenReturn(body("Unavailable"));
+		
+		try {
+			client.postAsync(URL, "{}", Optional.empty(), false).join();
+			fail("Expected a CompletionException to be thrown if a post that may have been processed fails");
+		} catch (CompletionException e) {
+			assertEquals("Post to http://test.com/login failed with status 503: Unavailable", e.getCause().getMessage());
+		}
+		verify(con).setRequestMethod("POST");
+	}
+	
+	@Test
+	public void testPostAsync_NotIdempotent_RetryUnprocessed() throws IOException {
+		doThrow(new ConnectException("Connection refused")).doNothing().doNothing().when(con).connect();
+		when(con.getResponseCode()).thenReturn(429, 200);
+		when(con.getErrorStream()).thenReturn(body("Slow down"));
+		when(con.getInputStream()).thenReturn(body("response"));
+		
+		final String response = client.postAsync(URL, "{}", Optional.empty(), false).join();
+		
+		assertEquals("response", response);
+		verify(con, times(3)).connect();
+	}
+	
+	@Test
+	public void testPostAsync_RetriesExhausted() throws IOException {
+		when(con.getResponseCode()).thenReturn(500);
+		when(con.getErrorStream()).thenReturn(null);
+		
+		try {
+			client.postAsync(URL, "{}", Optional.empty()).join();
+			fail("Expected a CompletionException to be thrown if every attempt fails");
+		} catch (CompletionException e) {
+			assertTrue(e.getCause() instanceof IOException);
+			assertEquals("Post to http://test.com/login failed with status 500: ", e.getCause().getMessage());
+		}
+		verify(con, times(3)).setRequestMethod("POST");
+	}
+	
+	@Test
+	public void testPostAsync_Rejected() throws IOException {
+		when(con.getResponseCode()).thenReturn(401);
+		when(con.getErrorStream()).thenReturn(body("Unauthorized"));
+		
+		try {
+			client.postAsync(URL, "{}", Optional.empty()).join();
+			fail("Expected a CompletionException to be thrown if the request is rejected");
+		} catch (CompletionException e) {
+			assertTrue(e.getCause() instanceof HttpPostClient.RejectedRequestException);
+			assertEquals("Post to http://test.com/login failed with status 401: Unauthorized", e.getCause().getMessage());
+		}
+		verify(con).setRequestMethod("POST");
+		verify(con, never()).getInputStream();
+	}
+}
@@ -1,11 +1,14 @@
 package com.secrethitler.ai.utils;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import org.junit.Test;
 
@@ -21,4 +24,36 @@ public class RandomUtilImplTest {
 		assertNotNull(result);
 		assertTrue(new HashSet<>(list).contains(result));
 	}
+	
+	@Test
+	public void testSeed() {
+		List<Integer> list = IntStream.range(0, 1000).boxed().collect(Collectors.toList());
+		RandomUtil first = new RandomUtilImpl(7);
+		RandomUtil second = new RandomUtilImpl(7);
+		
+		assertEquals(IntStream.range(0, 10).mapToObj(index -> first.getRandomItemFromList(list)).collect(Collectors.toList()),
+				IntStream.range(0, 10).mapToObj(index -> second.getRandomItemFromList(list)).collect(Collectors.toList()));
+	}
+	
+	@Test
+	public void testSplit() {
+		List<Integer> list = IntStream.range(0, 1000).boxed().collect(Collectors.toList());
+		RandomUtilImpl first = new RandomUtilImpl(7).split();
+		RandomUtilImpl second = new RandomUtilImpl(7).split();
+		
+		assertEquals(IntStream.range(0, 10).mapToObj(index -> first.getRandomItemFromList(list)).collect(Collectors.toList()),
+				IntStream.range(0, 10).mapToObj(index -> second.getRandomItemFromList(list)).collect(Collectors.toList()));
+	}
+	
+	@Test
+	public void testGetRandomNumber() {
+		double sum = 0;
+		for (int draw = 0; draw < 1000; draw++) {
+			final double number = rand.getRandomNumber();
+			assertTrue(number >= 0 && number < 1);
+			sum += number;
+		}
+		
+		assertEquals(0.5, sum / 1000, 0.1);
+	}
 }
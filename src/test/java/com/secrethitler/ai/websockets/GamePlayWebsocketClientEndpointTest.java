@@ -1,34 +1,57 @@
 package com.secrethitler.ai.websockets;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
 import java.lang.reflect.InvocationTargetException;
 import java.net.URISyntaxException;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import javax.websocket.CloseReason;
 import javax.websocket.DeploymentException;
+import javax.websocket.SendHandler;
+import javax.websocket.SendResult;
 
+import org.glassfish.tyrus.core.HandshakeException;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectWriter;
+import com.secrethitler.ai.HostPolicy;
 import com.secrethitler.ai.SecretHitlerAi;
 import com.secrethitler.ai.dtos.GameData;
 import com.secrethitler.ai.dtos.GameplayAction;
@@ -36,6 +59,8 @@ import com.secrethitler.ai.dtos.ParticipantGameNotification;
 import com.secrethitler.ai.dtos.PlayerData;
 import com.secrethitler.ai.enums.Action;
 import com.secrethitler.ai.enums.GamePhase;
+import com.secrethitler.ai.enums.GameState;
+import com.secrethitler.ai.metrics.BotMetrics;
 import com.secrethitler.ai.processors.GameplayProcessor;
 import com.secrethitler.ai.processors.GameplayProcessorFactory;
 import com.secrethitler.ai.utils.UriWrapper;
@@ -55,6 +80,9 @@ public class GamePlayWebsocketClientEndpointTest extends WebsocketClientEndpoint
 	@Mock
 	private UriWrapper uri;
 	
+	@Mock
+	private UriWrapper staleUri;
+	
 	@Mock
 	private BiConsumer<WebsocketClientEndpoint, UriWrapper> uriConnectionConsumer;
 	
@@ -70,6 +98,16 @@ public class GamePlayWebsocketClientEndpointTest extends WebsocketClientEndpoint
 	@Mock
 	private ObjectWriter writer;
 	
+	@Mock
+	private ScheduledExecutorService moveScheduler;
+	
+	@Mock
+	private ScheduledFuture<?> pendingMove;
+	
+	private final Executor decisionExecutor = Runnable::run;
+	
+	private final Executor connectExecutor = Runnable::run;
+	
 	private GamePlayWebsocketClientEndpoint endpoint;
 	
 	@Override
@@ -88,6 +126,7 @@ public class GamePlayWebsocketClientEndpointTest extends WebsocketClientEndpoint
 		
 		verify(uriBuilderFunction).apply("ws://test.com/gamePlay?gameId=testGameId&auth=testAccessToken");
 		verify(uriConnectionConsumer).accept(endpoint, uri);
+		verify(ai).registerEndpoint(endpoint);
 	}
 	
 	@Override
@@ -109,6 +148,9 @@ public class GamePlayWebsocketClientEndpointTest extends WebsocketClientEndpoint
 				.withUsername("testUsername")
 				.withGameplayProcessorFactory(gameplayProcessorFactory)
 				.withGamePlayClientBuildFunction(gamePlayClientBuildFunction)
+				.withMoveScheduler(moveScheduler)
+				.withDecisionExecutor(decisionExecutor)
+				.withConnectExecutor(connectExecutor)
 				.withUriBuilderFunction(uriBuilderFunction)
 				.withUriConnectionConsumer(uriConnectionConsumer);
 	}
@@ -126,6 +168,43 @@ public class GamePlayWebsocketClientEndpointTest extends WebsocketClientEndpoint
 	
 	@Test
 	public void testOnMessage_WithNextGameId() throws IOException {
+		when(ai.getAccessToken("testUsername")).thenReturn(CompletableFuture.completedFuture("refreshedAccessToken"));
+		
+		testOnMessage_WithNextGameId("refreshedAccessToken");
+	}
+	
+	@Test
+	public void testOnMessage_WithNextGameIdLoginFailed() throws IOException {
+		CompletableFuture<String> failedLogin = new CompletableFuture<>();
+		failedLogin.completeExceptionally(new IOException("Test Exception"));
+		when(ai.getAccessToken("testUsername")).thenReturn(failedLogin);
+		
+		testOnMessage_WithNextGameId("testAccessToken");
+	}
+	
+	@Test
+	public void testOnMessage_WithNextGameIdPendingLogin() throws IOException {
+		CompletableFuture<String> login = new CompletableFuture<>();
+		when(ai.getAccessToken("testUsername")).thenReturn(login);
+		endpoint.userSession = userSession;
+		ParticipantGameNotification notification = new ParticipantGameNotification();
+		GameData gameData = new GameData();
+		gameData.setNextGameId("nextGameId");
+		notification.setGameData(gameData);
+		final String message = SecretHitlerAi.getObjectWriter().writeValueAsString(notification);
+		
+		endpoint.onMessage(message);
+		endpoint.onMessage(message);
+		
+		verify(gamePlayClientBuildFunction, never()).apply(any(GamePlayWebsocketClientEndpoint.Builder.class));
+		verify(userSession, never()).close();
+		login.complete("refreshedAccessToken");
+		verify(ai).getAccessToken("testUsername");
+		verify(gamePlayClientBuildFunction).apply(any(GamePlayWebsocketClientEndpoint.Builder.class));
+		verify(userSession).close();
+	}
+	
+	private void testOnMessage_WithNextGameId(final String expectedAccessToken) throws IOException {
 		endpoint.userSession = userSession;
 		ParticipantGameNotification notification = new ParticipantGameNotification();
 		GameData gameData = new GameData();
@@ -137,11 +216,14 @@ public class GamePlayWebsocketClientEndpointTest extends WebsocketClientEndpoint
 		verify(gamePlayClientBuildFunction).apply(GamePlayWebsocketClientEndpoint.builder()
 				.withAi(ai)
 				.withGameId("nextGameId")
-				.withAccessToken("testAccessToken")
+				.withAccessToken(expectedAccessToken)
 				.withLevel(2)
 				.withUsername("testUsername")
 				.withGameplayProcessorFactory(gameplayProcessorFactory)
-				.withGamePlayClientBuildFunction(gamePlayClientBuildFunction));
+				.withGamePlayClientBuildFunction(gamePlayClientBuildFunction)
+				.withMoveScheduler(moveScheduler)
+				.withDecisionExecutor(decisionExecutor)
+				.withConnectExecutor(connectExecutor));
 		verify(userSession).close();
 	}
 	
@@ -153,15 +235,21 @@ public class GamePlayWebsocketClientEndpointTest extends WebsocketClientEndpoint
 		gameData.setPhase(GamePhase.ELECTION);
 		notification.setGameData(gameData);
 		
+		endpoint.pendingMove = pendingMove;
+		final long ignored = BotMetrics.getInstance().getMessagesIgnored();
+		
 		endpoint.onMessage(SecretHitlerAi.getObjectWriter().writeValueAsString(notification));
 		
 		verify(processor, never()).getActionToTake(notification);
+		verify(pendingMove, never()).cancel(false);
+		assertEquals(ignored + 1, BotMetrics.getInstance().getMessagesIgnored());
 	}
 	
 	@Test
 	public void testOnMessage_GameOverHost() throws JsonProcessingException, InstantiationException, IllegalAccessException, InvocationTargetException, NoSuchMethodException, URISyntaxException, InterruptedException {
 		InputStream in = new ByteArrayInputStream("Blah Blah Blah Test\r\n".getBytes());
 		System.setIn(in);
+		when(ai.getHostPolicy()).thenReturn(HostPolicy.builder().build());
 		getBuilder().build();
 		endpoint.userSession = userSession;
 		endpoint.previousPhase = GamePhase.ELECTION;
@@ -178,8 +266,9 @@ public class GamePlayWebsocketClientEndpointTest extends WebsocketClientEndpoint
 		Thread.sleep(500);
 		String[] args = {};
 		final String expectedAction = SecretHitlerAi.getObjectWriter().writeValueAsString(new GameplayAction(Action.NEW_GAME, args));
-		verify(async).sendText(expectedAction);
+		verify(async).sendText(eq(expectedAction), any(SendHandler.class));
 		verify(processor, never()).getActionToTake(notification);
+		verify(ai).setState(GameState.GAME_OVER);
 	}
 	
 	@Test
@@ -213,40 +302,417 @@ public class GamePlayWebsocketClientEndpointTest extends WebsocketClientEndpoint
 		String[] args = {"1"};
 		GameplayAction action = new GameplayAction(Action.PRESIDENT_CHOICE, args);
 		when(processor.getActionToTake(notification)).thenReturn(Optional.of(action));
+		ArgumentCaptor<Runnable> moveCaptor = ArgumentCaptor.forClass(Runnable.class);
+		doReturn(pendingMove).when(moveScheduler).schedule(moveCaptor.capture(), eq(500L), eq(TimeUnit.MILLISECONDS));
+		final long acted = BotMetrics.getInstance().getMessagesActed();
 		
 		endpoint.onMessage(SecretHitlerAi.getObjectWriter().writeValueAsString(notification));
 		
 		verify(processor).getActionToTake(notification);
-		verify(async).sendText(SecretHitlerAi.getObjectWriter().writeValueAsString(action));
+		verify(ai).setState(GameState.PLAYING);
+		assertEquals(acted + 1, BotMetrics.getInstance().getMessagesActed());
+		verify(async, never()).sendText(any(String.class), any(SendHandler.class));
+		assertEquals(pendingMove, endpoint.pendingMove);
+		
+		moveCaptor.getValue().run();
+		
+		assertEquals(0, endpoint.moveSentAt);
+		completeSend(SecretHitlerAi.getObjectWriter().writeValueAsString(action), new SendResult());
+		assertNotEquals(0, endpoint.moveSentAt);
 	}
-
+	
+	/**
+	 * Completes the latest send of the message, the way the session does once it was written.
+	 */
+	private void completeSend(final String message, final SendResult result) {
+		ArgumentCaptor<SendHandler> handler = ArgumentCaptor.forClass(SendHandler.class);
+		verify(async, atLeastOnce()).sendText(eq(message), handler.capture());
+		handler.getValue().onResult(result);
+	}
+	
 	@Test
-	public void testOnMessage_InterruptedSleep() throws InterruptedException, JsonProcessingException {
+	public void testOnMessage_SendFailed() throws JsonProcessingException {
 		endpoint.userSession = userSession;
 		endpoint.previousPhase = GamePhase.ELECTION;
 		ParticipantGameNotification notification = new ParticipantGameNotification();
 		GameData gameData = new GameData();
 		gameData.setPhase(GamePhase.PRESIDENT_CHOICE);
+		gameData.setMyPlayer(new PlayerData());
+		notification.setGameData(gameData);
+		GameplayAction action = new GameplayAction(Action.PRESIDENT_CHOICE, new String[] {"1"});
+		when(processor.getActionToTake(notification)).thenReturn(Optional.of(action));
+		ArgumentCaptor<Runnable> moveCaptor = ArgumentCaptor.forClass(Runnable.class);
+		doReturn(pendingMove).when(moveScheduler).schedule(moveCaptor.capture(), eq(500L), eq(TimeUnit.MILLISECONDS));
+		final String move = SecretHitlerAi.getObjectWriter().writeValueAsString(action);
+		
+		endpoint.onMessage(SecretHitlerAi.getObjectWriter().writeValueAsString(notification));
+		moveCaptor.getValue().run();
+		endpoint.userSession = null;
+		completeSend(move, new SendResult(new IOException("Test Exception")));
+		
+		assertEquals(move, endpoint.unsentMessage);
+		assertEquals(0, endpoint.moveSentAt);
+	}
+	
+	@Test
+	public void testOnMessage_DecidesOffTheWebsocketThread() throws InstantiationException, IllegalAccessException, InvocationTargetException, NoSuchMethodException, URISyntaxException, JsonProcessingException {
+		List<Runnable> decisions = new ArrayList<>();
+		endpoint = builderHelper().withDecisionExecutor(decisions::add).build();
+		endpoint.userSession = userSession;
+		endpoint.previousPhase = GamePhase.PICKING_RUNNING_MATE;
+		ParticipantGameNotification election = new ParticipantGameNotification();
+		GameData electionData = new GameData();
+		electionData.setPhase(GamePhase.ELECTION);
+		electionData.setMyPlayer(new PlayerData());
+		election.setGameData(electionData);
+		ParticipantGameNotification presidentChoice = new ParticipantGameNotification();
+		GameData presidentChoiceData = new GameData();
+		presidentChoiceData.setPhase(GamePhase.PRESIDENT_CHOICE);
+		presidentChoiceData.setMyPlayer(new PlayerData());
+		presidentChoice.setGameData(presidentChoiceData);
+		GameplayAction vote = new GameplayAction(Action.VOTE, new String[] {"JA"});
+		GameplayAction discard = new GameplayAction(Action.PRESIDENT_CHOICE, new String[] {"1"});
+		when(processor.getActionToTake(election)).thenReturn(Optional.of(vote));
+		when(processor.getActionToTake(presidentChoice)).thenReturn(Optional.of(discard));
+		ArgumentCaptor<Runnable> moveCaptor = ArgumentCaptor.forClass(Runnable.class);
+		doReturn(pendingMove).when(moveScheduler).schedule(moveCaptor.capture(), eq(500L), eq(TimeUnit.MILLISECONDS));
+		
+		endpoint.onMessage(SecretHitlerAi.getObjectWriter().writeValueAsString(election));
+		
+		verify(processor, never()).getActionToTake(any(ParticipantGameNotification.class));
+		assertEquals(1, decisions.size());
+		
+		endpoint.onMessage(SecretHitlerAi.getObjectWriter().writeValueAsString(presidentChoice));
+		decisions.get(0).run();
+		
+		verify(processor).getActionToTake(election);
+		verify(moveScheduler, never()).schedule(any(Runnable.class), eq(500L), eq(TimeUnit.MILLISECONDS));
+		assertEquals(2, decisions.size());
+		
+		decisions.get(1).run();
+		moveCaptor.getValue().run();
+		
+		verify(processor).getActionToTake(presidentChoice);
+		verify(async).sendText(eq(SecretHitlerAi.getObjectWriter().writeValueAsString(discard)), any(SendHandler.class));
+		verify(async, never()).sendText(eq(SecretHitlerAi.getObjectWriter().writeValueAsString(vote)), any(SendHandler.class));
+	}
+	
+	@Test
+	public void testOnMessage_DecisionFailed() throws JsonProcessingException {
+		endpoint.previousPhase = GamePhase.PICKING_RUNNING_MATE;
+		ParticipantGameNotification election = new ParticipantGameNotification();
+		GameData electionData = new GameData();
+		electionData.setPhase(GamePhase.ELECTION);
+		electionData.setMyPlayer(new PlayerData());
+		election.setGameData(electionData);
+		ParticipantGameNotification presidentChoice = new ParticipantGameNotification();
+		GameData presidentChoiceData = new GameData();
+		presidentChoiceData.setPhase(GamePhase.PRESIDENT_CHOICE);
+		presidentChoiceData.setMyPlayer(new PlayerData());
+		presidentChoice.setGameData(presidentChoiceData);
+		when(processor.getActionToTake(election)).thenThrow(new IllegalStateException("Test Exception"));
+		when(processor.getActionToTake(presidentChoice)).thenReturn(Optional.empty());
+		
+		endpoint.onMessage(SecretHitlerAi.getObjectWriter().writeValueAsString(election));
+		endpoint.onMessage(SecretHitlerAi.getObjectWriter().writeValueAsString(presidentChoice));
+		
+		verify(processor).getActionToTake(presidentChoice);
+	}
+	
+	@Test
+	public void testOnMessage_RecordsRoundTrip() throws JsonProcessingException {
+		endpoint.userSession = userSession;
+		endpoint.previousPhase = GamePhase.ELECTION;
+		endpoint.moveSentAt = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(5);
+		ParticipantGameNotification notification = new ParticipantGameNotification();
+		GameData gameData = new GameData();
+		gameData.setPhase(GamePhase.PRESIDENT_CHOICE);
+		gameData.setMyPlayer(new PlayerData());
+		notification.setGameData(gameData);
+		when(processor.getActionToTake(notification)).thenReturn(Optional.empty());
+		final long roundTrips = BotMetrics.getInstance().getLatencyCounts().getOrDefault("round_trip level=2 phase=ELECTION", 0L);
+		
+		endpoint.onMessage(SecretHitlerAi.getObjectWriter().writeValueAsString(notification));
+		
+		assertEquals(roundTrips + 1, BotMetrics.getInstance().getLatencyCounts().get("round_trip level=2 phase=ELECTION").longValue());
+		assertTrue(BotMetrics.getInstance().getLatencyMaxMillis().get("round_trip level=2 phase=ELECTION") >= 5);
+		assertEquals(0, endpoint.moveSentAt);
+	}
+	
+	@Test
+	public void testOnMessage_GameOverAutoStartHost() throws JsonProcessingException {
+		endpoint.userSession = userSession;
+		endpoint.previousPhase = GamePhase.ELECTION;
+		when(ai.getHostPolicy()).thenReturn(HostPolicy.builder().withMode(HostPolicy.Mode.AUTO).withRounds(2).build());
+		ParticipantGameNotification notification = new ParticipantGameNotification();
+		GameData gameData = new GameData();
+		gameData.setPhase(GamePhase.GAME_OVER);
 		PlayerData myPlayer = new PlayerData();
 		myPlayer.setHost(true);
 		gameData.setMyPlayer(myPlayer);
 		notification.setGameData(gameData);
-		String[] args = {"1"};
-		GameplayAction action = new GameplayAction(Action.PRESIDENT_CHOICE, args);
+		ArgumentCaptor<Runnable> newGameCaptor = ArgumentCaptor.forClass(Runnable.class);
+		doReturn(pendingMove).when(moveScheduler).schedule(newGameCaptor.capture(), eq(500L), eq(TimeUnit.MILLISECONDS));
+		
+		endpoint.onMessage(SecretHitlerAi.getObjectWriter().writeValueAsString(notification));
+		
+		verify(async, never()).sendText(any(String.class), any(SendHandler.class));
+		assertEquals(pendingMove, endpoint.pendingMove);
+		
+		newGameCaptor.getValue().run();
+		
+		String[] args = {};
+		verify(async).sendText(eq(SecretHitlerAi.getObjectWriter().writeValueAsString(new GameplayAction(Action.NEW_GAME, args))), any(SendHandler.class));
+		verify(processor, never()).getActionToTake(notification);
+	}
+	
+	@Test
+	public void testOnMessage_GameOverLastRound() throws JsonProcessingException {
+		endpoint.userSession = userSession;
+		endpoint.previousPhase = GamePhase.ELECTION;
+		HostPolicy hostPolicy = HostPolicy.builder().withMode(HostPolicy.Mode.AUTO).withRounds(1).build();
+		when(ai.getHostPolicy()).thenReturn(hostPolicy);
+		ParticipantGameNotification notification = new ParticipantGameNotification();
+		GameData gameData = new GameData();
+		gameData.setPhase(GamePhase.GAME_OVER);
+		PlayerData myPlayer = new PlayerData();
+		myPlayer.setHost(true);
+		gameData.setMyPlayer(myPlayer);
+		notification.setGameData(gameData);
+		ArgumentCaptor<Runnable> stopCaptor = ArgumentCaptor.forClass(Runnable.class);
+		doReturn(pendingMove).when(moveScheduler).schedule(stopCaptor.capture(), eq(500L), eq(TimeUnit.MILLISECONDS));
+		
+		endpoint.onMessage(SecretHitlerAi.getObjectWriter().writeValueAsString(notification));
+		stopCaptor.getValue().run();
+		
+		verify(ai).stopGame();
+		verify(async, never()).sendText(any(String.class), any(SendHandler.class));
+		assertEquals(1, hostPolicy.getRoundsPlayed());
+	}
+
+	@Test
+	public void testOnMessage_SupersededMove() throws JsonProcessingException {
+		endpoint.userSession = userSession;
+		endpoint.previousPhase = GamePhase.CHANCELLOR_CHOICE;
+		endpoint.pendingMove = pendingMove;
+		when(pendingMove.cancel(false)).thenReturn(true);
+		ParticipantGameNotification notification = new ParticipantGameNotification();
+		GameData gameData = new GameData();
+		gameData.setPhase(GamePhase.VETO);
+		PlayerData myPlayer = new PlayerData();
+		gameData.setMyPlayer(myPlayer);
+		notification.setGameData(gameData);
+		when(processor.getActionToTake(notification)).thenReturn(Optional.empty());
+		
+		endpoint.onMessage(SecretHitlerAi.getObjectWriter().writeValueAsString(notification));
+		
+		verify(pendingMove).cancel(false);
+		assertNull(endpoint.pendingMove);
+		verify(moveScheduler, never()).schedule(any(Runnable.class), eq(500L), eq(TimeUnit.MILLISECONDS));
+	}
+	
+	@Test
+	public void testOnClose_PendingMove() {
+		endpoint.userSession = userSession;
+		endpoint.pendingMove = pendingMove;
+		
+		endpoint.onClose(userSession, null);
+		
+		verify(pendingMove).cancel(false);
+		verify(ai).unregisterEndpoint(endpoint);
+		assertNull(endpoint.userSession);
+	}
+	
+	@Test
+	public void testOnClose_Dropped() {
+		endpoint.userSession = userSession;
+		when(ai.getAccessToken("testUsername")).thenReturn(CompletableFuture.completedFuture("refreshedAccessToken"));
+		when(uriBuilderFunction.apply("ws://test.com/gamePlay?gameId=testGameId&auth=refreshedAccessToken")).thenReturn(uri);
+		ArgumentCaptor<Runnable> reconnectCaptor = ArgumentCaptor.forClass(Runnable.class);
+		
+		endpoint.onClose(userSession, new CloseReason(CloseReason.CloseCodes.CLOSED_ABNORMALLY, "Dropped"));
+		
+		verify(moveScheduler).schedule(reconnectCaptor.capture(), eq(GamePlayWebsocketClientEndpoint.DEFAULT_RECONNECT_INITIAL_BACKOFF), eq(TimeUnit.MILLISECONDS));
+		verify(ai, never()).unregisterEndpoint(endpoint);
+		assertNull(endpoint.userSession);
+		
+		reconnectCaptor.getValue().run();
+		endpoint.onOpen(userSession);
+		
+		verify(uriConnectionConsumer, times(2)).accept(endpoint, uri);
+		assertEquals(0, endpoint.reconnectAttempts);
+	}
+	
+	@Test
+	public void testOnClose_AccessTokenRejected() {
+		endpoint.userSession = userSession;
+		when(ai.getAccessToken("testUsername")).thenReturn(CompletableFuture.completedFuture("refreshedAccessToken"));
+		when(uriBuilderFunction.apply("ws://test.com/gamePlay?gameId=testGameId&auth=refreshedAccessToken")).thenReturn(uri);
+		ArgumentCaptor<Runnable> reconnectCaptor = ArgumentCaptor.forClass(Runnable.class);
+		
+		endpoint.onClose(userSession, new CloseReason(CloseReason.CloseCodes.VIOLATED_POLICY, "Unauthorized"));
+		
+		verify(ai).invalidateAccessToken("testUsername");
+		verify(moveScheduler).schedule(reconnectCaptor.capture(), eq(GamePlayWebsocketClientEndpoint.DEFAULT_RECONNECT_INITIAL_BACKOFF), eq(TimeUnit.MILLISECONDS));
+		reconnectCaptor.getValue().run();
+		verify(uriConnectionConsumer, times(2)).accept(endpoint, uri);
+	}
+	
+	@Test
+	public void testReconnect_AccessTokenRejectedInHandshake() {
+		when(ai.getAccessToken("testUsername")).thenReturn(CompletableFuture.completedFuture("staleAccessToken"))
+				.thenReturn(CompletableFuture.completedFuture("refreshedAccessToken"));
+		when(uriBuilderFunction.apply("ws://test.com/gamePlay?gameId=testGameId&auth=staleAccessToken")).thenReturn(staleUri);
+		when(uriBuilderFunction.apply("ws://test.com/gamePlay?gameId=testGameId&auth=refreshedAccessToken")).thenReturn(uri);
+		doThrow(new IllegalStateException(new DeploymentException("Handshake error.", new HandshakeException(401, "Unauthorized"))))
+				.when(uriConnectionConsumer).accept(endpoint, staleUri);
+		
+		endpoint.reconnect();
+		
+		verify(ai).invalidateAccessToken("testUsername");
+		verify(uriConnectionConsumer, times(2)).accept(endpoint, uri);
+		verify(moveScheduler, never()).schedule(any(Runnable.class), anyLong(), eq(TimeUnit.MILLISECONDS));
+	}
+	
+	@Test
+	public void testReconnect_GivesUp() {
+		when(ai.getAccessToken("testUsername")).thenReturn(CompletableFuture.completedFuture("refreshedAccessToken"));
+		when(uriBuilderFunction.apply("ws://test.com/gamePlay?gameId=testGameId&auth=refreshedAccessToken")).thenReturn(uri);
+		doThrow(new IllegalStateException("Test Exception")).when(uriConnectionConsumer).accept(endpoint, uri);
+		ArgumentCaptor<Runnable> reconnectCaptor = ArgumentCaptor.forClass(Runnable.class);
+		
+		endpoint.onClose(userSession, new CloseReason(CloseReason.CloseCodes.GOING_AWAY, "Restarting"));
+		for (int attempt = 1; attempt <= GamePlayWebsocketClientEndpoint.DEFAULT_RECONNECT_MAX_ATTEMPTS; attempt++) {
+			verify(moveScheduler).schedule(reconnectCaptor.capture(), eq(GamePlayWebsocketClientEndpoint.DEFAULT_RECONNECT_INITIAL_BACKOFF << (attempt - 1)), eq(TimeUnit.MILLISECONDS));
+			reconnectCaptor.getValue().run();
+		}
+		
+		verify(ai).unregisterEndpoint(endpoint);
+	}
+	
+	@Test
+	public void testOnClose_Closing() {
+		endpoint.userSession = userSession;
+		
+		endpoint.close();
+		endpoint.onClose(userSession, new CloseReason(CloseReason.CloseCodes.CLOSED_ABNORMALLY, "Dropped"));
+		
+		verify(ai).unregisterEndpoint(endpoint);
+		verify(moveScheduler, never()).schedule(any(Runnable.class), any(Long.class), eq(TimeUnit.MILLISECONDS));
+	}
+	
+	@Test
+	public void testOnMessage_ResendsUnsentMove() throws JsonProcessingException {
+		endpoint.previousPhase = GamePhase.ELECTION;
+		ParticipantGameNotification notification = new ParticipantGameNotification();
+		GameData gameData = new GameData();
+		gameData.setPhase(GamePhase.PRESIDENT_CHOICE);
+		gameData.setMyPlayer(new PlayerData());
+		notification.setGameData(gameData);
+		GameplayAction action = new GameplayAction(Action.PRESIDENT_CHOICE, new String[] {"1"});
 		when(processor.getActionToTake(notification)).thenReturn(Optional.of(action));
+		ArgumentCaptor<Runnable> moveCaptor = ArgumentCaptor.forClass(Runnable.class);
+		doReturn(pendingMove).when(moveScheduler).schedule(moveCaptor.capture(), eq(500L), eq(TimeUnit.MILLISECONDS));
+		final String message = SecretHitlerAi.getObjectWriter().writeValueAsString(notification);
+		
+		endpoint.onMessage(message);
+		moveCaptor.getValue().run();
+		endpoint.userSession = userSession;
+		endpoint.onMessage(message);
+		endpoint.onMessage(message);
 		
-		Thread t = new Thread(() -> {
-			try {
-				endpoint.onMessage(SecretHitlerAi.getObjectWriter().writeValueAsString(notification));
-			} catch (JsonProcessingException e) {
-				throw new IllegalStateException(e);
-			}
-		});
-		t.start();
-		t.interrupt();
-		t.join();
 		verify(processor).getActionToTake(notification);
-		verify(async).sendText(SecretHitlerAi.getObjectWriter().writeValueAsString(action));
+		verify(async).sendText(eq(SecretHitlerAi.getObjectWriter().writeValueAsString(action)), any(SendHandler.class));
+		assertNotNull(endpoint.unsentMessage);
+		completeSend(SecretHitlerAi.getObjectWriter().writeValueAsString(action), new SendResult());
+		assertNull(endpoint.unsentMessage);
+	}
+	
+	private static ParticipantGameNotification getElection(final String president, final String chancellor) {
+		ParticipantGameNotification notification = new ParticipantGameNotification();
+		GameData gameData = new GameData();
+		gameData.setPhase(GamePhase.ELECTION);
+		List<PlayerData> players = new ArrayList<>();
+		for (String username : new String[] {"testUsername", "Robot 2", "Robot 3"}) {
+			PlayerData player = new PlayerData();
+			player.setUsername(username);
+			player.setPresident(username.equals(president));
+			player.setChancellor(username.equals(chancellor));
+			players.add(player);
+		}
+		gameData.setPlayers(players);
+		gameData.setMyPlayer(players.get(0));
+		notification.setGameData(gameData);
+		return notification;
+	}
+	
+	/**
+	 * Drops the connection and runs the reconnect, which is scheduled after the same 500 ms as
+	 * a move, so it is the latest task the move captor caught.
+	 */
+	private void dropAndReconnect(final ArgumentCaptor<Runnable> scheduledCaptor) {
+		when(ai.getAccessToken("testUsername")).thenReturn(CompletableFuture.completedFuture("testAccessToken"));
+		
+		endpoint.onClose(userSession, new CloseReason(CloseReason.CloseCodes.CLOSED_ABNORMALLY, "Dropped"));
+		scheduledCaptor.getValue().run();
+		endpoint.onOpen(userSession);
+	}
+	
+	@Test
+	public void testOnMessage_ResendsUnsentMoveAfterReconnect() throws JsonProcessingException {
+		endpoint.previousPhase = GamePhase.PICKING_RUNNING_MATE;
+		ParticipantGameNotification election = getElection("Robot 2", "Robot 3");
+		GameplayAction vote = new GameplayAction(Action.VOTE, new String[] {"JA"});
+		when(processor.getActionToTake(election)).thenReturn(Optional.of(vote));
+		ArgumentCaptor<Runnable> moveCaptor = ArgumentCaptor.forClass(Runnable.class);
+		doReturn(pendingMove).when(moveScheduler).schedule(moveCaptor.capture(), eq(500L), eq(TimeUnit.MILLISECONDS));
+		
+		endpoint.onMessage(SecretHitlerAi.getObjectWriter().writeValueAsString(election));
+		moveCaptor.getValue().run();
+		dropAndReconnect(moveCaptor);
+		endpoint.onMessage(SecretHitlerAi.getObjectWriter().writeValueAsString(election));
+		
+		verify(processor).getActionToTake(election);
+		completeSend(SecretHitlerAi.getObjectWriter().writeValueAsString(vote), new SendResult());
+		assertNull(endpoint.unsentMessage);
+	}
+	
+	@Test
+	public void testOnMessage_NewTurnAfterReconnect() throws JsonProcessingException {
+		endpoint.previousPhase = GamePhase.PICKING_RUNNING_MATE;
+		ParticipantGameNotification staleElection = getElection("Robot 2", "Robot 3");
+		ParticipantGameNotification newElection = getElection("Robot 3", "testUsername");
+		GameplayAction staleVote = new GameplayAction(Action.VOTE, new String[] {"JA"});
+		GameplayAction newVote = new GameplayAction(Action.VOTE, new String[] {"NEIN"});
+		when(processor.getActionToTake(staleElection)).thenReturn(Optional.of(staleVote));
+		when(processor.getActionToTake(newElection)).thenReturn(Optional.of(newVote));
+		ArgumentCaptor<Runnable> moveCaptor = ArgumentCaptor.forClass(Runnable.class);
+		doReturn(pendingMove).when(moveScheduler).schedule(moveCaptor.capture(), eq(500L), eq(TimeUnit.MILLISECONDS));
+		
+		endpoint.onMessage(SecretHitlerAi.getObjectWriter().writeValueAsString(staleElection));
+		moveCaptor.getValue().run();
+		dropAndReconnect(moveCaptor);
+		endpoint.onMessage(SecretHitlerAi.getObjectWriter().writeValueAsString(newElection));
+		moveCaptor.getValue().run();
+		
+		verify(processor).getActionToTake(newElection);
+		verify(async, never()).sendText(eq(SecretHitlerAi.getObjectWriter().writeValueAsString(staleVote)), any(SendHandler.class));
+		verify(async).sendText(eq(SecretHitlerAi.getObjectWriter().writeValueAsString(newVote)), any(SendHandler.class));
+		assertNull(endpoint.unsentMessage);
+	}
+	
+	@Test
+	public void testReconnect_OnConnectExecutor() throws InstantiationException, IllegalAccessException, InvocationTargetException, NoSuchMethodException, URISyntaxException {
+		List<Runnable> reconnections = new ArrayList<>();
+		endpoint = builderHelper().withConnectExecutor(reconnections::add).build();
+		when(ai.getAccessToken("testUsername")).thenReturn(CompletableFuture.completedFuture("testAccessToken"));
+		
+		endpoint.reconnect();
+		
+		verify(uriConnectionConsumer).accept(endpoint, uri);
+		assertEquals(1, reconnections.size());
+		reconnections.get(0).run();
+		verify(uriConnectionConsumer, times(2)).accept(endpoint, uri);
 	}
 	
 	@Test
@@ -3,6 +3,8 @@ package com.secrethitler.ai.websockets;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -12,14 +14,22 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.lang.reflect.InvocationTargetException;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.Properties;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import javax.websocket.CloseReason;
 import javax.websocket.DeploymentException;
+import javax.websocket.SendHandler;
 
+import org.glassfish.tyrus.core.HandshakeException;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -28,8 +38,11 @@ import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.secrethitler.ai.HostPolicy;
 import com.secrethitler.ai.SecretHitlerAi;
+import com.secrethitler.ai.dtos.GameParticipant;
 import com.secrethitler.ai.dtos.GameRequest;
+import com.secrethitler.ai.enums.GameState;
 import com.secrethitler.ai.utils.UriWrapper;
 import com.secrethitler.ai.websockets.WebsocketClientEndpoint.Builder;
 
@@ -44,6 +57,9 @@ public class GameSetupWebsocketClientEndpointTest extends WebsocketClientEndpoin
 	@Mock
 	private UriWrapper uri;
 	
+	@Mock
+	private UriWrapper refreshedUri;
+	
 	@Mock
 	private Properties prop;
 	
@@ -56,6 +72,8 @@ public class GameSetupWebsocketClientEndpointTest extends WebsocketClientEndpoin
 	@Mock
 	private GamePlayWebsocketClientEndpoint.Builder gamePlayClientBuilder;
 	
+	private final Executor connectExecutor = Runnable::run;
+	
 	private GameSetupWebsocketClientEndpoint endpoint;
 	
 	@Override
@@ -72,6 +90,7 @@ public class GameSetupWebsocketClientEndpointTest extends WebsocketClientEndpoin
 		
 		verify(uriBuilderFunction).apply("ws://test.com/gameSetup?gameId=testGameId&auth=testAccessToken");
 		verify(uriConnectionConsumer).accept(endpoint, uri);
+		verify(ai).registerEndpoint(endpoint);
 	}
 
 	private void buildEndpoint(final boolean host) throws URISyntaxException {
@@ -98,7 +117,8 @@ public class GameSetupWebsocketClientEndpointTest extends WebsocketClientEndpoin
 				.withHost(host)
 				.withUriBuilderFunction(uriBuilderFunction)
 				.withUriConnectionConsumer(uriConnectionConsumer)
-				.withGamePlayClientBuildFunction(gamePlayClientBuildFunction);
+				.withGamePlayClientBuildFunction(gamePlayClientBuildFunction)
+				.withConnectExecutor(connectExecutor);
 	}
 	
 	@Override
@@ -106,7 +126,7 @@ public class GameSetupWebsocketClientEndpointTest extends WebsocketClientEndpoin
 	public void testOnOpen() {
 		super.testOnOpen();
 		
-		verify(async).sendText("JOIN");
+		verify(async).sendText(eq("JOIN"), any(SendHandler.class));
 	}
 	
 	@Test
@@ -124,14 +144,94 @@ public class GameSetupWebsocketClientEndpointTest extends WebsocketClientEndpoin
 	public void testOnOpen_Host() throws URISyntaxException, InterruptedException {		
 		InputStream in = new ByteArrayInputStream("Blah Blah Blah Test\r\n".getBytes());
 		System.setIn(in);
+		when(ai.getHostPolicy()).thenReturn(HostPolicy.builder().build());
 		buildEndpoint(true);
 		
 		endpoint.onOpen(userSession);
 		
 		Thread.sleep(500);
-		verify(async).sendText("START");
+		verify(async).sendText(eq("START"), any(SendHandler.class));
+	}
+
+	@Test
+	public void testOnOpen_AutoStartHost() throws URISyntaxException {
+		when(ai.getHostPolicy()).thenReturn(HostPolicy.builder().withMode(HostPolicy.Mode.AUTO).build());
+		buildEndpoint(true);
+		
+		endpoint.onOpen(userSession);
+		
+		verify(async, never()).sendText(any(String.class), any(SendHandler.class));
+	}
+	
+	@Test
+	public void testOnMessage_AutoStart() throws URISyntaxException, IOException {
+		when(ai.getHostPolicy()).thenReturn(HostPolicy.builder().withMode(HostPolicy.Mode.AUTO).build());
+		when(ai.getUsernames()).thenReturn(Arrays.asList("testUser", "otherUser"));
+		buildEndpoint(true);
+		endpoint.userSession = userSession;
+		GameRequest gameRequest = new GameRequest();
+		gameRequest.setReadyToStart(true);
+		gameRequest.setParticipants(new ArrayList<>(Collections.singletonList(new GameParticipant())));
+		
+		endpoint.onMessage(SecretHitlerAi.getObjectWriter().writeValueAsString(gameRequest));
+		
+		verify(async, never()).sendText(any(String.class), any(SendHandler.class));
+		
+		gameRequest.getParticipants().add(new GameParticipant());
+		endpoint.onMessage(SecretHitlerAi.getObjectWriter().writeValueAsString(gameRequest));
+		endpoint.onMessage(SecretHitlerAi.getObjectWriter().writeValueAsString(gameRequest));
+		
+		verify(async).sendText(eq("START"), any(SendHandler.class));
+		verify(userSession, never()).close();
+	}
+	
+	@Test
+	public void testOnMessage_NotAutoStartHost() throws JsonProcessingException {
+		endpoint.userSession = userSession;
+		GameRequest gameRequest = new GameRequest();
+		gameRequest.setReadyToStart(true);
+		gameRequest.setParticipants(Collections.singletonList(new GameParticipant()));
+		
+		endpoint.onMessage(SecretHitlerAi.getObjectWriter().writeValueAsString(gameRequest));
+		
+		verify(async, never()).sendText(any(String.class), any(SendHandler.class));
+	}
+
+	@Test
+	public void testOnClose_Unregister() {
+		endpoint.userSession = userSession;
+		
+		endpoint.onClose(userSession, null);
+		
+		verify(ai).unregisterEndpoint(endpoint);
 	}
 
+	@Test
+	public void testOnClose_AccessTokenRejected() {
+		endpoint.userSession = userSession;
+		when(ai.getAccessToken("testUser")).thenReturn(CompletableFuture.completedFuture("refreshedAccessToken"));
+		when(uriBuilderFunction.apply("ws://test.com/gameSetup?gameId=testGameId&auth=refreshedAccessToken")).thenReturn(refreshedUri);
+		
+		endpoint.onClose(userSession, new CloseReason(CloseReason.CloseCodes.VIOLATED_POLICY, "Unauthorized"));
+		
+		verify(ai).invalidateAccessToken("testUser");
+		verify(uriConnectionConsumer).accept(endpoint, refreshedUri);
+		verify(ai, never()).unregisterEndpoint(endpoint);
+	}
+	
+	@Test
+	public void testAccessTokenRejectedInHandshake() throws URISyntaxException {
+		when(ai.getAccessToken("testUser")).thenReturn(CompletableFuture.completedFuture("refreshedAccessToken"));
+		when(uriBuilderFunction.apply("ws://test.com/gameSetup?gameId=testGameId&auth=refreshedAccessToken")).thenReturn(refreshedUri);
+		doThrow(new IllegalStateException(new DeploymentException("Handshake error.", new HandshakeException(403, "Forbidden"))))
+				.when(uriConnectionConsumer).accept(any(WebsocketClientEndpoint.class), eq(uri));
+		
+		buildEndpoint(false);
+		
+		verify(ai).invalidateAccessToken("testUser");
+		verify(uriConnectionConsumer).accept(endpoint, refreshedUri);
+	}
+	
 	@Test
 	public void testOnMessage_NotStarted() throws IOException {
 		endpoint.userSession = userSession;
@@ -140,12 +240,14 @@ public class GameSetupWebsocketClientEndpointTest extends WebsocketClientEndpoin
 		endpoint.onMessage(SecretHitlerAi.getObjectWriter().writeValueAsString(gameRequest));
 		
 		verify(userSession, never()).close();
+		verify(ai, never()).setState(GameState.PLAYING);
 	}
 	
 	@Test
 	public void testOnMessage_StartedNoException() throws IOException {
 		testOnMessage_Started();
 		
+		verify(ai).setState(GameState.PLAYING);
 		verify(userSession).close();
 	}
 	
@@ -156,8 +258,30 @@ public class GameSetupWebsocketClientEndpointTest extends WebsocketClientEndpoin
 		testOnMessage_Started();
 	}
 	
+	@Test
+	public void testOnMessage_StartedPendingLogin() throws IOException {
+		endpoint.userSession = userSession;
+		CompletableFuture<String> login = new CompletableFuture<>();
+		when(ai.getAccessToken("testUser")).thenReturn(login);
+		GameRequest gameRequest = new GameRequest();
+		gameRequest.setStarted(true);
+		final String message = SecretHitlerAi.getObjectWriter().writeValueAsString(gameRequest);
+		
+		endpoint.onMessage(message);
+		endpoint.onMessage(message);
+		
+		verify(gamePlayClientBuildFunction, never()).apply(any(GamePlayWebsocketClientEndpoint.Builder.class));
+		verify(userSession, never()).close();
+		login.complete("refreshedAccessToken");
+		verify(ai).getAccessToken("testUser");
+		verify(ai).setState(GameState.PLAYING);
+		verify(gamePlayClientBuildFunction).apply(any(GamePlayWebsocketClientEndpoint.Builder.class));
+		verify(userSession).close();
+	}
+	
 	private void testOnMessage_Started() throws JsonProcessingException {
 		endpoint.userSession = userSession;
+		when(ai.getAccessToken("testUser")).thenReturn(CompletableFuture.completedFuture("refreshedAccessToken"));
 		GameRequest gameRequest = new GameRequest();
 		gameRequest.setStarted(true);
 		
@@ -166,11 +290,12 @@ public class GameSetupWebsocketClientEndpointTest extends WebsocketClientEndpoin
 		verify(gamePlayClientBuildFunction).apply(GamePlayWebsocketClientEndpoint.builder()
 						.withAi(ai)
 						.withGameId("testGameId")
-						.withAccessToken("testAccessToken")
+						.withAccessToken("refreshedAccessToken")
 						.withLevel(2)
 						.withUsername("testUser")
 						.withGameplayProcessorFactory(SecretHitlerAi.getGameplayProcessorFactory())
-						.withGamePlayClientBuildFunction(gamePlayClientBuildFunction));
+						.withGamePlayClientBuildFunction(gamePlayClientBuildFunction)
+						.withConnectExecutor(connectExecutor));
 	}
 	
 	@Test
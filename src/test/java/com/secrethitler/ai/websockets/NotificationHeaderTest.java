@@ -0,0 +1,68 @@
+package com.secrethitler.ai.websockets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.secrethitler.ai.SecretHitlerAi;
+import com.secrethitler.ai.dtos.GameData;
+import com.secrethitler.ai.dtos.GameplayAction;
+import com.secrethitler.ai.dtos.ParticipantGameNotification;
+import com.secrethitler.ai.dtos.PlayerData;
+import com.secrethitler.ai.enums.Action;
+import com.secrethitler.ai.enums.GamePhase;
+
+public class NotificationHeaderTest {
+	private static final JsonFactory FACTORY = SecretHitlerAi.getObjectMapper().getFactory();
+
+	@Test
+	public void testRead() throws IOException {
+		ParticipantGameNotification notification = new ParticipantGameNotification();
+		GameData gameData = new GameData();
+		PlayerData player = new PlayerData();
+		player.setUsername("AJ");
+		gameData.setPlayers(Arrays.asList(player));
+		gameData.setMyPlayer(player);
+		gameData.setHistory(Arrays.asList("AJ was elected"));
+		gameData.setPhase(GamePhase.PRESIDENT_CHOICE);
+		notification.setGameData(gameData);
+		notification.setAction(new GameplayAction(Action.SHUSH, new String[] {"AJ", "Sean"}));
+
+		NotificationHeader header = NotificationHeader.read(FACTORY, SecretHitlerAi.getObjectWriter().writeValueAsString(notification));
+
+		assertEquals(GamePhase.PRESIDENT_CHOICE, header.getPhase());
+		assertEquals(Action.SHUSH, header.getAction());
+		assertNull(header.getNextGameId());
+	}
+
+	@Test
+	public void testRead_NextGameIdFirst() throws IOException {
+		NotificationHeader header = NotificationHeader.read(FACTORY, "{\"action\":null,\"gameData\":{\"nextGameId\":\"nextGameId\",\"players\":[{\"username\":\"AJ\"}],\"phase\":null}}");
+
+		assertEquals("nextGameId", header.getNextGameId());
+		assertNull(header.getPhase());
+		assertNull(header.getAction());
+	}
+
+	@Test
+	public void testRead_UnknownPhase() throws IOException {
+		try {
+			NotificationHeader.read(FACTORY, "{\"gameData\":{\"phase\":\"LOBBY\"}}");
+			fail("Expected a JsonParseException to be thrown for a phase the bot does not know");
+		} catch (JsonParseException e) {
+			assertEquals("LOBBY is not a GamePhase", e.getOriginalMessage());
+		}
+	}
+
+	@Test(expected = JsonParseException.class)
+	public void testRead_BadMessage() throws IOException {
+		NotificationHeader.read(FACTORY, "This message is bad");
+	}
+}
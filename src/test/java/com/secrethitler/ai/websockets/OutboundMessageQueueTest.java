@@ -0,0 +1,149 @@
+package com.secrethitler.ai.websockets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.websocket.RemoteEndpoint.Async;
+import javax.websocket.SendHandler;
+import javax.websocket.SendResult;
+import javax.websocket.Session;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import com.secrethitler.ai.metrics.BotMetrics;
+
+@RunWith(MockitoJUnitRunner.class)
+public class OutboundMessageQueueTest {
+	@Mock
+	private Session session;
+
+	@Mock
+	private Async async;
+
+	@Mock
+	private ScheduledExecutorService retryScheduler;
+
+	private Session currentSession;
+
+	private OutboundMessageQueue queue;
+
+	@Before
+	public void setUp() {
+		Logger.getLogger(OutboundMessageQueue.class.getName()).setLevel(Level.SEVERE);
+		when(session.getAsyncRemote()).thenReturn(async);
+		currentSession = session;
+		queue = new OutboundMessageQueue(() -> currentSession, 2, 3, retryScheduler, 100);
+	}
+
+	private SendHandler captureHandler(final String message, final int times) {
+		ArgumentCaptor<SendHandler> handler = ArgumentCaptor.forClass(SendHandler.class);
+		verify(async, times(times)).sendText(eq(message), handler.capture());
+		return handler.getValue();
+	}
+
+	private void retry(final long backoff, final int times) {
+		ArgumentCaptor<Runnable> retry = ArgumentCaptor.forClass(Runnable.class);
+		verify(retryScheduler, times(times)).schedule(retry.capture(), eq(backoff), eq(TimeUnit.MILLISECONDS));
+		retry.getValue().run();
+	}
+
+	@Test
+	public void testOffer_SendsInOrder() {
+		final long sendCount = getSendCount();
+
+		CompletableFuture<Void> first = queue.offer("first");
+		CompletableFuture<Void> second = queue.offer("second");
+
+		verify(async, never()).sendText(eq("second"), any(SendHandler.class));
+		assertEquals(2, queue.size());
+		captureHandler("first", 1).onResult(new SendResult());
+		assertTrue(first.isDone());
+		assertFalse(second.isDone());
+		captureHandler("second", 1).onResult(new SendResult());
+		assertEquals(0, queue.size());
+		assertFalse(first.isCompletedExceptionally());
+		assertFalse(second.isCompletedExceptionally());
+		assertEquals(sendCount + 2, getSendCount());
+	}
+
+	@Test
+	public void testOffer_Full() {
+		final long dropped = BotMetrics.getInstance().getMessagesDropped();
+
+		queue.offer("first");
+		queue.offer("second");
+
+		assertTrue(queue.offer("third").isCompletedExceptionally());
+		assertEquals(dropped + 1, BotMetrics.getInstance().getMessagesDropped());
+	}
+
+	@Test
+	public void testOffer_Retry() {
+		final long retries = BotMetrics.getInstance().getSendRetries();
+		CompletableFuture<Void> first = queue.offer("first");
+
+		captureHandler("first", 1).onResult(new SendResult(new IOException("Test Exception")));
+		verify(async, times(1)).sendText(eq("first"), any(SendHandler.class));
+		retry(100, 1);
+		captureHandler("first", 2).onResult(new SendResult(new IOException("Test Exception")));
+		retry(200, 1);
+		captureHandler("first", 3).onResult(new SendResult());
+
+		assertEquals(0, queue.size());
+		assertTrue(first.isDone());
+		assertFalse(first.isCompletedExceptionally());
+		assertEquals(retries + 2, BotMetrics.getInstance().getSendRetries());
+	}
+
+	@Test
+	public void testOffer_Failed() {
+		final long failures = BotMetrics.getInstance().getSendFailures();
+		CompletableFuture<Void> first = queue.offer("first");
+		queue.offer("second");
+
+		captureHandler("first", 1).onResult(new SendResult(new IOException("Test Exception")));
+		retry(100, 1);
+		captureHandler("first", 2).onResult(new SendResult(new IOException("Test Exception")));
+		retry(200, 1);
+		captureHandler("first", 3).onResult(new SendResult(new IOException("Test Exception")));
+
+		assertTrue(first.isCompletedExceptionally());
+		assertEquals(failures + 1, BotMetrics.getInstance().getSendFailures());
+		captureHandler("second", 1);
+		assertEquals(1, queue.size());
+	}
+
+	@Test
+	public void testOffer_SessionClosed() {
+		final long failures = BotMetrics.getInstance().getSendFailures();
+		currentSession = null;
+
+		assertTrue(queue.offer("first").isCompletedExceptionally());
+
+		assertEquals(0, queue.size());
+		assertEquals(failures + 1, BotMetrics.getInstance().getSendFailures());
+	}
+
+	private static long getSendCount() {
+		return BotMetrics.getInstance().getLatencyCounts().getOrDefault("send", 0L);
+	}
+}
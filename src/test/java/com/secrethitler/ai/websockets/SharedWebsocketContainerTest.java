@@ -0,0 +1,63 @@
+package com.secrethitler.ai.websockets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+import java.util.Properties;
+
+import org.glassfish.tyrus.client.ClientManager;
+import org.glassfish.tyrus.client.ClientProperties;
+import org.glassfish.tyrus.client.ThreadPoolConfig;
+import org.glassfish.tyrus.container.grizzly.client.GrizzlyClientProperties;
+import org.junit.Test;
+
+public class SharedWebsocketContainerTest {
+	@Test
+	public void testCreateContainer() {
+		Properties prop = new Properties();
+		prop.setProperty(SharedWebsocketContainer.SELECTOR_THREADS, "3");
+		prop.setProperty(SharedWebsocketContainer.WORKER_THREADS, "12");
+		
+		ClientManager container = SharedWebsocketContainer.createContainer(prop);
+		
+		Map<String, Object> properties = container.getProperties();
+		assertEquals(true, properties.get(ClientProperties.SHARED_CONTAINER));
+		assertEquals(3, ((org.glassfish.grizzly.threadpool.ThreadPoolConfig) properties.get(GrizzlyClientProperties.SELECTOR_THREAD_POOL_CONFIG)).getMaxPoolSize());
+		ThreadPoolConfig workerConfig = (ThreadPoolConfig) properties.get(ClientProperties.WORKER_THREAD_POOL_CONFIG);
+		assertEquals(12, workerConfig.getCorePoolSize());
+		assertEquals(12, workerConfig.getMaxPoolSize());
+		assertTrue(workerConfig.isDaemon());
+	}
+	
+	@Test
+	public void testCreateContainer_Defaults() {
+		ClientManager container = SharedWebsocketContainer.createContainer(new Properties());
+		
+		Map<String, Object> properties = container.getProperties();
+		assertEquals(SharedWebsocketContainer.DEFAULT_SELECTOR_THREADS, ((org.glassfish.grizzly.threadpool.ThreadPoolConfig) properties.get(GrizzlyClientProperties.SELECTOR_THREAD_POOL_CONFIG)).getMaxPoolSize());
+		assertEquals(SharedWebsocketContainer.DEFAULT_WORKER_THREADS, ((ThreadPoolConfig) properties.get(ClientProperties.WORKER_THREAD_POOL_CONFIG)).getMaxPoolSize());
+	}
+	
+	@Test
+	public void testGetContainer() {
+		SharedWebsocketContainer.configure(new Properties());
+		
+		assertSame(SharedWebsocketContainer.getContainer(), SharedWebsocketContainer.getContainer());
+	}
+	
+	@Test
+	public void testSessionCounts() {
+		final int openSessions = SharedWebsocketContainer.getOpenSessions();
+		final long sessionsOpened = SharedWebsocketContainer.getSessionsOpened();
+		
+		SharedWebsocketContainer.sessionOpened();
+		SharedWebsocketContainer.sessionOpened();
+		SharedWebsocketContainer.sessionClosed();
+		
+		assertEquals(openSessions + 1, SharedWebsocketContainer.getOpenSessions());
+		assertEquals(sessionsOpened + 2, SharedWebsocketContainer.getSessionsOpened());
+		SharedWebsocketContainer.sessionClosed();
+	}
+}
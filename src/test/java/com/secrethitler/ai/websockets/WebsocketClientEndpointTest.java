@@ -1,11 +1,15 @@
 package com.secrethitler.ai.websockets;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -15,10 +19,14 @@ import java.net.URISyntaxException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import javax.websocket.CloseReason;
 import javax.websocket.DeploymentException;
 import javax.websocket.RemoteEndpoint.Async;
+import javax.websocket.SendHandler;
 import javax.websocket.Session;
 
+import org.glassfish.tyrus.client.auth.AuthenticationException;
+import org.glassfish.tyrus.core.HandshakeException;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -57,14 +65,59 @@ public abstract class WebsocketClientEndpointTest {
 		assertNull(endpoint.userSession);
 	}
 	
+	@Test
+	public void testOnOpenAndClose_OpenSessions() {
+		final int openSessions = SharedWebsocketContainer.getOpenSessions();
+		
+		endpoint.onOpen(userSession);
+		assertEquals(openSessions + 1, SharedWebsocketContainer.getOpenSessions());
+		endpoint.onClose(userSession, null);
+		endpoint.onClose(userSession, null);
+		
+		assertEquals(openSessions, SharedWebsocketContainer.getOpenSessions());
+	}
+	
 	@Test
 	public void testSendMessage() {
 		endpoint.userSession = userSession;
 		
-		endpoint.sendMessage("Test message");
+		assertFalse(endpoint.sendMessage("Test message").isDone());
 		
 		verify(userSession).getAsyncRemote();
-		verify(async).sendText("Test message");
+		verify(async).sendText(eq("Test message"), any(SendHandler.class));
+	}
+	
+	@Test
+	public void testSendMessage_NoSession() {
+		endpoint.userSession = null;
+		
+		assertTrue(endpoint.sendMessage("Test message").isCompletedExceptionally());
+	}
+	
+	@Test
+	public void testClose() throws IOException {
+		endpoint.userSession = userSession;
+		
+		endpoint.close();
+		
+		verify(userSession).close();
+	}
+	
+	@Test
+	public void testClose_NoSession() {
+		endpoint.userSession = null;
+		
+		endpoint.close();
+	}
+	
+	@Test
+	public void testClose_Exception() throws IOException {
+		endpoint.userSession = userSession;
+		doThrow(new IOException("Test Exception")).when(userSession).close();
+		
+		endpoint.close();
+		
+		verify(userSession).close();
 	}
 	
 	@Test
@@ -99,6 +152,17 @@ public abstract class WebsocketClientEndpointTest {
 		}
 	}
 
+	@Test
+	public void testIsAccessTokenRejected() {
+		assertTrue(WebsocketClientEndpoint.isAccessTokenRejected(new IllegalStateException(new DeploymentException("Handshake error.", new HandshakeException(401, "Unauthorized")))));
+		assertTrue(WebsocketClientEndpoint.isAccessTokenRejected(new AuthenticationException("Credentials are missing")));
+		assertFalse(WebsocketClientEndpoint.isAccessTokenRejected(new IllegalStateException(new DeploymentException("Handshake error.", new HandshakeException(500, "Server Error")))));
+		assertFalse(WebsocketClientEndpoint.isAccessTokenRejected(new IllegalStateException("Test Exception")));
+		assertTrue(WebsocketClientEndpoint.isAccessTokenRejected(new CloseReason(CloseReason.CloseCodes.VIOLATED_POLICY, "Unauthorized")));
+		assertFalse(WebsocketClientEndpoint.isAccessTokenRejected(new CloseReason(CloseReason.CloseCodes.CLOSED_ABNORMALLY, "Dropped")));
+		assertFalse(WebsocketClientEndpoint.isAccessTokenRejected((CloseReason) null));
+	}
+
 	protected abstract WebsocketClientEndpoint getEndpoint();
 	protected abstract Builder getBuilder();
 	